@@ -0,0 +1,259 @@
+package com.asakaa.synthesis.analytics;
+
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.FactGroupResponse;
+import com.asakaa.synthesis.domain.dto.response.FactQueryResponse;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.exception.ValidationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Answers ad-hoc fact queries from an in-memory {@link FactSnapshot} instead of the
+ * database. The snapshot is reloaded every {@code refresh-interval-ms}, so results lag
+ * writes by up to that interval; the new snapshot is built beside the old one and
+ * swapped in whole, so heap briefly holds both.
+ * <p>
+ * Scans run on a dedicated fork-join pool of {@code parallelism} workers (0 for one per
+ * core), keeping long queries off the common pool used by the rest of the application.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ColumnarFactEngine {
+
+    public static final String SOURCE = "COLUMNAR";
+
+    /**
+     * Each scan task counts into an int array of this many groups at most.
+     */
+    static final int MAX_GROUPS = 1 << 18;
+
+    private static final String LOAD_SQL = """
+            SELECT d.condition_name, p.region, p.clinic_id, c.opened_at::date AS day, c.status
+            FROM diagnoses d
+            JOIN consultations c ON c.id = d.consultation_id
+            JOIN patients p ON p.id = c.patient_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.analytics.columnar.enabled}")
+    private boolean enabled;
+
+    @Value("${synthesis.analytics.columnar.parallelism}")
+    private int parallelism;
+
+    @Value("${synthesis.analytics.columnar.fetch-size}")
+    private int fetchSize;
+
+    private ForkJoinPool pool;
+    private TransactionTemplate transactionTemplate;
+    private Timer queryLatency;
+    private volatile FactSnapshot snapshot;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        queryLatency = Timer.builder("synthesis.analytics.columnar.query")
+                .description("Latency of fact queries answered from the in-memory snapshot")
+                .register(meterRegistry);
+        Gauge.builder("synthesis.analytics.columnar.facts", this,
+                        engine -> engine.snapshot != null ? engine.snapshot.size() : 0)
+                .description("Facts held in the in-memory analytics snapshot")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Whether queries can be answered here; false until the first snapshot has loaded or
+     * when the engine is disabled.
+     */
+    public boolean isReady() {
+        return enabled && snapshot != null;
+    }
+
+    @Scheduled(fixedDelayString = "${synthesis.analytics.columnar.refresh-interval-ms}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            install(load());
+            log.info("Loaded analytics snapshot of {} facts ({} MiB) in {} ms", snapshot.size(),
+                    snapshot.columnBytes() >> 20, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            // Keep answering from the previous snapshot, if any
+            log.warn("Could not refresh the analytics snapshot", e);
+        }
+    }
+
+    void install(FactSnapshot facts) {
+        snapshot = facts;
+    }
+
+    private FactSnapshot load() {
+        FactSnapshot previous = snapshot;
+        FactSnapshot.Builder builder = new FactSnapshot.Builder(previous != null ? previous.size() + 1024 : 1024);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            builder.add(rs.getString("condition_name"), rs.getString("region"),
+                    rs.getObject("clinic_id", Long.class), rs.getDate("day").toLocalDate(),
+                    ConsultationStatus.valueOf(rs.getString("status")));
+        }));
+        return builder.build();
+    }
+
+    /**
+     * Runs the query against the current snapshot. Throws {@link IllegalStateException}
+     * if none has loaded; check {@link #isReady()} first.
+     */
+    public FactQueryResponse query(FactQuery query) {
+        FactSnapshot facts = snapshot;
+        if (facts == null) {
+            throw new IllegalStateException("Analytics snapshot not loaded");
+        }
+        return FactQueryResponse.builder()
+                .source(SOURCE)
+                .asOf(facts.getLoadedAt())
+                .groups(queryLatency.record(() -> run(facts, query)))
+                .build();
+    }
+
+    List<FactGroupResponse> run(FactSnapshot facts, FactQuery query) {
+        FactScan.Plan plan = plan(facts, query);
+        if (plan == null) {
+            return List.of();
+        }
+        int leafRows = Math.max(FactScan.BATCH * 8, facts.size() / (pool.getParallelism() * 4));
+        int[] counts = pool.invoke(new FactScan(facts, plan, 0, facts.size(), leafRows));
+        return groups(facts, plan, counts);
+    }
+
+    /**
+     * Turns the query into predicates over dictionary ids and a group-key layout, or
+     * returns null when no fact can match.
+     */
+    private static FactScan.Plan plan(FactSnapshot facts, FactQuery query) {
+        if (facts.size() == 0) {
+            return null;
+        }
+        int dayLo = query.getFrom() != null ? (int) Math.max(query.getFrom().toEpochDay(), facts.minDay) : facts.minDay;
+        int dayHi = query.getTo() != null ? (int) Math.min(query.getTo().toEpochDay(), facts.maxDay) : facts.maxDay;
+        if (dayLo > dayHi) {
+            return null;
+        }
+
+        boolean[] conditionMask = query.getCondition() != null ? facts.conditionMask(query.getCondition()) : null;
+        boolean[] regionMask = query.getRegion() != null && !query.getRegion().isBlank()
+                ? facts.regionMask(query.getRegion()) : null;
+        boolean[] clinicMask = query.getClinicId() != null ? facts.clinicMask(query.getClinicId()) : null;
+        boolean[] statusMask = null;
+        if (query.getStatus() != null) {
+            statusMask = new boolean[FactSnapshot.statusCount()];
+            statusMask[query.getStatus().ordinal()] = true;
+        }
+        if (isEmpty(conditionMask) || isEmpty(regionMask) || isEmpty(clinicMask)) {
+            return null;
+        }
+
+        FactDimension[] dimensions = query.getGroupBy() != null
+                ? new LinkedHashSet<>(query.getGroupBy()).toArray(FactDimension[]::new)
+                : new FactDimension[0];
+        int[] strides = new int[dimensions.length];
+        int[] bases = new int[dimensions.length];
+        long groups = 1;
+        for (int d = 0; d < dimensions.length; d++) {
+            int cardinality = switch (dimensions[d]) {
+                case CONDITION -> facts.conditionNames.length;
+                case REGION -> facts.regionNames.length;
+                case CLINIC -> facts.clinicIds.length;
+                case DAY -> dayHi - dayLo + 1;
+                case STATUS -> FactSnapshot.statusCount();
+            };
+            bases[d] = dimensions[d] == FactDimension.DAY ? dayLo : 0;
+            strides[d] = (int) groups;
+            groups *= cardinality;
+            if (groups > MAX_GROUPS) {
+                throw new ValidationException("Grouping by " + List.of(dimensions)
+                        + " yields too many groups; narrow the date range or group by fewer dimensions");
+            }
+        }
+
+        boolean filterDays = dayLo > facts.minDay || dayHi < facts.maxDay;
+        return new FactScan.Plan(filterDays, dayLo, dayHi, conditionMask, regionMask, clinicMask, statusMask,
+                dimensions, strides, bases, (int) groups);
+    }
+
+    private static boolean isEmpty(boolean[] mask) {
+        if (mask == null) {
+            return false;
+        }
+        for (boolean selected : mask) {
+            if (selected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<FactGroupResponse> groups(FactSnapshot facts, FactScan.Plan plan, int[] counts) {
+        List<FactGroupResponse> groups = new ArrayList<>();
+        FactDimension[] dimensions = plan.dimensions();
+        for (int key = 0; key < counts.length; key++) {
+            if (counts[key] == 0) {
+                continue;
+            }
+            FactGroupResponse group = FactGroupResponse.builder().count((long) counts[key]).build();
+            int rest = key;
+            for (int d = dimensions.length - 1; d >= 0; d--) {
+                int id = rest / plan.strides()[d] + plan.bases()[d];
+                rest %= plan.strides()[d];
+                switch (dimensions[d]) {
+                    case CONDITION -> group.setCondition(facts.conditionNames[id]);
+                    case REGION -> group.setRegion(facts.regionNames[id].isEmpty() ? "Unknown" : facts.regionNames[id]);
+                    case CLINIC -> group.setClinicId(facts.clinicIds[id] == FactSnapshot.NO_CLINIC ? null : facts.clinicIds[id]);
+                    case DAY -> group.setDay(LocalDate.ofEpochDay(id));
+                    case STATUS -> group.setStatus(FactSnapshot.statusOf(id));
+                }
+            }
+            groups.add(group);
+        }
+        groups.sort(Comparator.comparing(FactGroupResponse::getCount).reversed());
+        return groups;
+    }
+}
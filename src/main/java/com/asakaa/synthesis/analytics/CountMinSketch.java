@@ -0,0 +1,123 @@
+package com.asakaa.synthesis.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Count-Min sketch over 64-bit item hashes: {@code depth} rows of {@code width} counters,
+ * each row indexed by a different hash derived from the item's (double hashing).
+ * <p>
+ * An estimate never undercounts, and with probability at least {@code 1 - }{@link #delta()}
+ * overcounts by at most {@link #epsilon()}{@code  * }{@link #total()}. Sketches of the same
+ * shape merge by adding counters, so the merge of per-bucket sketches is the sketch of
+ * all their items.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Count-Min width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    public void add(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + Math.floorMod(h1 + row * h2, width)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge a " + other.width + "x" + other.depth
+                    + " Count-Min sketch into a " + width + "x" + depth + " one");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Sum of every count added.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Overcount bound as a fraction of {@link #total()}.
+     */
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    /**
+     * Probability that an estimate exceeds the {@link #epsilon()} bound.
+     */
+    public double delta() {
+        return Math.exp(-depth);
+    }
+
+    /**
+     * Writes the shape and counters; counters are varints, so sparse sketches stay small.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(width);
+        out.writeInt(depth);
+        writeVarLong(out, total);
+        for (long counter : counters) {
+            writeVarLong(out, counter);
+        }
+    }
+
+    static CountMinSketch read(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = readVarLong(in);
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = readVarLong(in);
+        }
+        return sketch;
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in Count-Min sketch");
+    }
+}
@@ -0,0 +1,11 @@
+package com.asakaa.synthesis.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a diagnosis is saved, with the rollup key it counts towards: its
+ * condition, the patient's region (may be null) and the day the consultation opened,
+ * plus the patient for distinct-patient counts.
+ */
+public record DiagnosisRecordedEvent(String conditionName, String region, LocalDate day, Long patientId) {
+}
@@ -0,0 +1,219 @@
+package com.asakaa.synthesis.analytics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains {@code diagnosis_daily_rollup}: one count per condition, patient region and
+ * consultation day.
+ * <p>
+ * Each recorded diagnosis adds one to its cell in the transaction that saved it, so the
+ * rollup commits or rolls back with the diagnosis. History is loaded by
+ * {@link #backfill(LocalDate, LocalDate)}, which rebuilds whole days from the raw tables,
+ * and a nightly reconciliation compares recent days against the raw tables and rebuilds
+ * any that drifted, whether through a backfill racing a write or a patient whose region
+ * changed after the fact. The nightly pass covers only {@code reconcile-days}; a weekly
+ * pass compares the whole history, so drift in older days, such as a late region change
+ * for a patient seen months ago, is repaired within a week.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiagnosisRollupMaintainer {
+
+    // Readiness listeners that read the rollup, such as OutbreakDetector, order themselves after the backfill
+    static final int BACKFILL_ORDER = 0;
+
+    // Serialises rebuilds across application instances sharing the database
+    private static final long ADVISORY_LOCK_KEY = 0x5359_4E52_4F4C_4C55L;
+
+    private static final String INCREMENT_SQL = """
+            INSERT INTO diagnosis_daily_rollup (day, region, condition_name, case_count)
+            VALUES (?, ?, ?, 1)
+            ON CONFLICT (day, region, condition_name)
+            DO UPDATE SET case_count = diagnosis_daily_rollup.case_count + 1
+            """;
+
+    /**
+     * Counts from the raw tables for consultations opened in {@code [?, ?)}.
+     */
+    private static final String ACTUAL_COUNTS_SQL = """
+            SELECT c.opened_at::date AS day, COALESCE(p.region, '') AS region, d.condition_name,
+                   COUNT(*) AS case_count
+            FROM diagnoses d
+            JOIN consultations c ON c.id = d.consultation_id
+            JOIN patients p ON p.id = c.patient_id
+            WHERE c.opened_at >= ? AND c.opened_at < ?
+            GROUP BY 1, 2, 3
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.analytics.rollup.backfill-chunk-days}")
+    private int backfillChunkDays;
+
+    @Value("${synthesis.analytics.rollup.reconcile-days}")
+    private int reconcileDays;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs just before the saving transaction commits; the row lock it takes on the
+     * cell is held only for the rest of that commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onDiagnosisRecorded(DiagnosisRecordedEvent event) {
+        jdbcTemplate.update(INCREMENT_SQL, Date.valueOf(event.day()), regionKey(event.region()), event.conditionName());
+    }
+
+    /**
+     * Loads history the first time the application starts against a database whose
+     * rollup is still empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(BACKFILL_ORDER)
+    public void backfillIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM diagnosis_daily_rollup)", Boolean.class);
+        if (!Boolean.TRUE.equals(empty)) {
+            return;
+        }
+        LocalDate first = firstDiagnosisDay();
+        if (first != null) {
+            backfill(first, LocalDate.now());
+        }
+    }
+
+    /**
+     * Rebuilds every day from {@code from} to {@code to} inclusive from the raw tables,
+     * {@code backfill-chunk-days} days per transaction so no single transaction holds
+     * locks over the whole history. Returns the number of cells written.
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        log.info("Backfilling diagnosis rollup from {} to {}", from, to);
+        long cells = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(backfillChunkDays)) {
+            LocalDate end = start.plusDays(backfillChunkDays - 1L);
+            cells += rebuild(start, end.isAfter(to) ? to : end);
+        }
+        log.info("Backfilled diagnosis rollup from {} to {}: {} cells", from, to, cells);
+        return cells;
+    }
+
+    /**
+     * Compares the last {@code reconcile-days} days of the rollup with the raw tables and
+     * rebuilds the days that disagree. Returns the number of cells that had drifted.
+     */
+    @Scheduled(cron = "${synthesis.analytics.rollup.reconcile-cron}")
+    public long reconcile() {
+        LocalDate to = LocalDate.now();
+        return reconcile(to.minusDays(reconcileDays - 1L), to);
+    }
+
+    /**
+     * Compares the whole history with the raw tables, {@code backfill-chunk-days} days per
+     * query, and rebuilds the days that disagree. Returns the number of cells that had drifted.
+     */
+    @Scheduled(cron = "${synthesis.analytics.rollup.full-reconcile-cron}")
+    public long reconcileAll() {
+        LocalDate first = firstDiagnosisDay();
+        if (first == null) {
+            return 0;
+        }
+        LocalDate to = LocalDate.now();
+        long drifted = 0;
+        for (LocalDate start = first; !start.isAfter(to); start = start.plusDays(backfillChunkDays)) {
+            LocalDate end = start.plusDays(backfillChunkDays - 1L);
+            drifted += reconcile(start, end.isAfter(to) ? to : end);
+        }
+        log.info("Reconciled diagnosis rollup from {} to {}: {} cells had drifted", first, to, drifted);
+        return drifted;
+    }
+
+    private long reconcile(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> drift = new LinkedHashMap<>();
+        jdbcTemplate.query("WITH actual AS (" + ACTUAL_COUNTS_SQL + """
+                        ), rollup AS (
+                            SELECT day, region, condition_name, case_count FROM diagnosis_daily_rollup
+                            WHERE day BETWEEN ? AND ?
+                        )
+                        SELECT COALESCE(a.day, r.day) AS day, COUNT(*) AS cells
+                        FROM actual a
+                        FULL JOIN rollup r
+                            ON r.day = a.day AND r.region = a.region AND r.condition_name = a.condition_name
+                        WHERE a.case_count IS DISTINCT FROM r.case_count
+                        GROUP BY 1
+                        ORDER BY 1
+                        """,
+                rs -> {
+                    drift.put(rs.getDate("day").toLocalDate(), rs.getLong("cells"));
+                },
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()),
+                Date.valueOf(from), Date.valueOf(to));
+
+        long drifted = drift.values().stream().mapToLong(Long::longValue).sum();
+        if (drifted > 0) {
+            log.warn("Diagnosis rollup drifted from the raw tables in {} cells on {}; rebuilding those days",
+                    drifted, drift.keySet());
+            meterRegistry.counter("synthesis.analytics.rollup.drift").increment(drifted);
+            drift.keySet().forEach(day -> rebuild(day, day));
+        } else {
+            log.debug("Diagnosis rollup matches the raw tables from {} to {}", from, to);
+        }
+        return drifted;
+    }
+
+    /**
+     * Replaces the rollup rows for {@code [from, to]} with counts from the raw tables, in
+     * one transaction. Returns the number of cells written.
+     */
+    private long rebuild(LocalDate from, LocalDate to) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+            jdbcTemplate.update("DELETE FROM diagnosis_daily_rollup WHERE day BETWEEN ? AND ?",
+                    Date.valueOf(from), Date.valueOf(to));
+            // A diagnosis committed after this statement's snapshot has added its own count
+            return (long) jdbcTemplate.update(
+                    "INSERT INTO diagnosis_daily_rollup (day, region, condition_name, case_count) " + ACTUAL_COUNTS_SQL
+                            + "ON CONFLICT (day, region, condition_name) DO UPDATE SET case_count = EXCLUDED.case_count",
+                    Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        });
+    }
+
+    private LocalDate firstDiagnosisDay() {
+        Timestamp first = jdbcTemplate.queryForObject("""
+                SELECT MIN(c.opened_at) FROM diagnoses d JOIN consultations c ON c.id = d.consultation_id""",
+                Timestamp.class);
+        return first != null ? first.toLocalDateTime().toLocalDate() : null;
+    }
+
+    static String regionKey(String region) {
+        return region != null ? region : "";
+    }
+}
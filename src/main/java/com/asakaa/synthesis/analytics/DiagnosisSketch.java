@@ -0,0 +1,37 @@
+package com.asakaa.synthesis.analytics;
+
+/**
+ * The sketches kept for one bucket of diagnoses: top conditions by count and distinct
+ * patients. Buckets of the same shape merge into the sketch of their union.
+ */
+final class DiagnosisSketch {
+
+    private final TopConditionsSketch conditions;
+    private final HyperLogLog patients;
+
+    DiagnosisSketch(TopConditionsSketch conditions, HyperLogLog patients) {
+        this.conditions = conditions;
+        this.patients = patients;
+    }
+
+    void add(String condition, Long patientId) {
+        conditions.add(condition, 1);
+        if (patientId != null) {
+            patients.add(SketchHashing.hash(patientId));
+        }
+    }
+
+    DiagnosisSketch merge(DiagnosisSketch other) {
+        conditions.merge(other.conditions);
+        patients.merge(other.patients);
+        return this;
+    }
+
+    TopConditionsSketch conditions() {
+        return conditions;
+    }
+
+    HyperLogLog patients() {
+        return patients;
+    }
+}
@@ -0,0 +1,339 @@
+package com.asakaa.synthesis.analytics;
+
+import com.asakaa.synthesis.domain.dto.response.ConditionCountResponse;
+import com.asakaa.synthesis.domain.dto.response.DistinctPatientsResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Maintains {@code diagnosis_sketches}: per consultation day and patient region, a
+ * {@link TopConditionsSketch} of condition names and a {@link HyperLogLog} of patients.
+ * <p>
+ * Committed diagnoses are added to in-memory sketches per bucket, which are merged into
+ * the stored ones every {@code flush-interval-ms} under a row lock, so instances sharing
+ * the database each contribute their own writes and results lag writes by up to that
+ * interval. Queries merge the stored sketches of every day and region in range.
+ * <p>
+ * Error bounds, for a range holding {@code N} diagnoses: a condition's count is never
+ * under the true count and exceeds it by at most {@code e / count-min-width * N} with
+ * probability {@code 1 - exp(-count-min-depth)} (0.27% of N with 99.3% confidence at the
+ * defaults); the distinct patient count has a relative standard error of
+ * {@code 1.04 / sqrt(2^hll-precision)} (1.6% at the defaults). A condition that was never
+ * among a bucket's {@code top-k-capacity} candidates cannot be reported for that bucket.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiagnosisSketchStore {
+
+    private static final long ADVISORY_LOCK_KEY = 0x5359_4E53_4B45_5443L;
+
+    private static final byte BLOB_VERSION = 1;
+
+    private static final String BACKFILL_SQL = """
+            SELECT c.opened_at::date AS day, COALESCE(p.region, '') AS region, d.condition_name, c.patient_id
+            FROM diagnoses d
+            JOIN consultations c ON c.id = d.consultation_id
+            JOIN patients p ON p.id = c.patient_id
+            WHERE c.opened_at >= ? AND c.opened_at < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.analytics.sketches.count-min-width}")
+    private int countMinWidth;
+
+    @Value("${synthesis.analytics.sketches.count-min-depth}")
+    private int countMinDepth;
+
+    @Value("${synthesis.analytics.sketches.top-k-capacity}")
+    private int topKCapacity;
+
+    @Value("${synthesis.analytics.sketches.hll-precision}")
+    private int hllPrecision;
+
+    @Value("${synthesis.analytics.sketches.backfill-chunk-days}")
+    private int backfillChunkDays;
+
+    private final Map<Bucket, DiagnosisSketch> pending = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Counter flushFailures;
+
+    record Bucket(LocalDate day, String region) {
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushFailures = Counter.builder("synthesis.analytics.sketches.flush.failures")
+                .description("Sketch buckets that could not be merged into the database and were retried")
+                .register(meterRegistry);
+        Gauge.builder("synthesis.analytics.sketches.pending", pending, Map::size)
+                .description("Sketch buckets waiting to be merged into the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sketches cannot remove an item, so only committed diagnoses are added.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDiagnosisRecorded(DiagnosisRecordedEvent event) {
+        Bucket bucket = new Bucket(event.day(), DiagnosisRollupMaintainer.regionKey(event.region()));
+        // compute runs atomically per key, so a bucket is never added to while it is flushed
+        pending.compute(bucket, (key, sketch) -> {
+            DiagnosisSketch updated = sketch != null ? sketch : emptySketch();
+            updated.add(event.conditionName(), event.patientId());
+            return updated;
+        });
+    }
+
+    /**
+     * Merges every pending bucket into its stored sketches, one transaction per bucket. A
+     * bucket that fails is put back and merged with whatever arrived meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${synthesis.analytics.sketches.flush-interval-ms}")
+    public void flush() {
+        for (Bucket bucket : List.copyOf(pending.keySet())) {
+            DiagnosisSketch delta = pending.remove(bucket);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeStored(bucket, delta));
+            } catch (DataAccessException e) {
+                log.warn("Could not flush diagnosis sketches for {} in region '{}'; will retry",
+                        bucket.day(), bucket.region(), e);
+                flushFailures.increment();
+                pending.merge(bucket, delta, DiagnosisSketch::merge);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Loads history the first time the application starts against a database whose
+     * sketch table is still empty. A diagnosis committed while this runs may be counted
+     * twice, which stays within the Count-Min bound and does not affect distinct patients.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM diagnosis_sketches)", Boolean.class);
+        if (!Boolean.TRUE.equals(empty)) {
+            return;
+        }
+        Timestamp first = jdbcTemplate.queryForObject("""
+                SELECT MIN(c.opened_at) FROM diagnoses d JOIN consultations c ON c.id = d.consultation_id""",
+                Timestamp.class);
+        if (first != null) {
+            backfill(first.toLocalDateTime().toLocalDate(), LocalDate.now());
+        }
+    }
+
+    /**
+     * Replaces the sketches of every day from {@code from} to {@code to} inclusive with
+     * ones built from the raw tables, {@code backfill-chunk-days} days per transaction.
+     * Returns the number of buckets written.
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        log.info("Backfilling diagnosis sketches from {} to {}", from, to);
+        long buckets = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(backfillChunkDays)) {
+            LocalDate end = start.plusDays(backfillChunkDays - 1L);
+            buckets += rebuild(start, end.isAfter(to) ? to : end);
+        }
+        log.info("Backfilled diagnosis sketches from {} to {}: {} buckets", from, to, buckets);
+        return buckets;
+    }
+
+    /**
+     * Approximate top conditions from the stored sketches of {@code [from, to]}; a null or
+     * blank region means every region.
+     */
+    public TopConditionsResponse topConditions(String region, LocalDate from, LocalDate to, int limit) {
+        TopConditionsSketch merged = new TopConditionsSketch(countMinWidth, countMinDepth, topKCapacity);
+        readStored("conditions", region, from, to,
+                blob -> merged.merge(decode(blob, TopConditionsSketch::read)));
+
+        List<ConditionCountResponse> conditions = merged.top(limit).stream()
+                .map(entry -> ConditionCountResponse.builder()
+                        .condition(entry.getKey())
+                        .count(entry.getValue())
+                        .build())
+                .toList();
+        CountMinSketch counts = merged.counts();
+        return TopConditionsResponse.builder()
+                .approximate(true)
+                .totalCases(counts.total())
+                .conditions(conditions)
+                .maxOvercount((long) Math.ceil(counts.epsilon() * counts.total()))
+                .confidence(1 - counts.delta())
+                .build();
+    }
+
+    /**
+     * Approximate distinct patients from the stored sketches of {@code [from, to]}; a null
+     * or blank region means every region.
+     */
+    public DistinctPatientsResponse distinctPatients(String region, LocalDate from, LocalDate to) {
+        HyperLogLog merged = new HyperLogLog(hllPrecision);
+        readStored("patients", region, from, to, blob -> merged.merge(decode(blob, HyperLogLog::read)));
+        return DistinctPatientsResponse.builder()
+                .approximate(true)
+                .distinctPatients(merged.estimate())
+                .relativeStandardError(merged.relativeStandardError())
+                .build();
+    }
+
+    private void readStored(String column, String region, LocalDate from, LocalDate to, BlobConsumer consumer) {
+        List<Object> params = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String regionPredicate = "";
+        if (region != null && !region.isBlank()) {
+            regionPredicate = " AND lower(region) = lower(?)";
+            params.add(region);
+        }
+        jdbcTemplate.query("SELECT " + column + " FROM diagnosis_sketches WHERE day BETWEEN ? AND ?"
+                        + regionPredicate + " AND " + column + " IS NOT NULL",
+                rs -> {
+                    consumer.accept(rs.getBytes(column));
+                },
+                params.toArray());
+    }
+
+    /**
+     * Rebuilds the buckets of {@code [from, to]} in one transaction. Pending writes for
+     * those days are left in memory and merged on the next flush.
+     */
+    private long rebuild(LocalDate from, LocalDate to) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+            Map<Bucket, DiagnosisSketch> buckets = new HashMap<>();
+            jdbcTemplate.query(BACKFILL_SQL, rs -> {
+                buckets.computeIfAbsent(
+                                new Bucket(rs.getDate("day").toLocalDate(), rs.getString("region")),
+                                key -> emptySketch())
+                        .add(rs.getString("condition_name"), rs.getObject("patient_id", Long.class));
+            }, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+
+            jdbcTemplate.update("DELETE FROM diagnosis_sketches WHERE day BETWEEN ? AND ?",
+                    Date.valueOf(from), Date.valueOf(to));
+            buckets.forEach(this::mergeStored);
+            return (long) buckets.size();
+        });
+    }
+
+    /**
+     * Merges {@code delta} into the stored bucket within the caller's transaction. The
+     * row lock serialises concurrent flushes of the same bucket from other instances.
+     */
+    private void mergeStored(Bucket bucket, DiagnosisSketch delta) {
+        Date day = Date.valueOf(bucket.day());
+        jdbcTemplate.update("""
+                INSERT INTO diagnosis_sketches (day, region) VALUES (?, ?)
+                ON CONFLICT (day, region) DO NOTHING""", day, bucket.region());
+        DiagnosisSketch merged = jdbcTemplate.queryForObject("""
+                        SELECT conditions, patients FROM diagnosis_sketches
+                        WHERE day = ? AND region = ? FOR UPDATE""",
+                (rs, rowNum) -> {
+                    byte[] conditions = rs.getBytes("conditions");
+                    byte[] patients = rs.getBytes("patients");
+                    if (conditions == null || patients == null) {
+                        return delta;
+                    }
+                    return new DiagnosisSketch(decode(conditions, TopConditionsSketch::read),
+                            decode(patients, HyperLogLog::read)).merge(delta);
+                },
+                day, bucket.region());
+        jdbcTemplate.update("""
+                        UPDATE diagnosis_sketches SET conditions = ?, patients = ?, updated_at = now()
+                        WHERE day = ? AND region = ?""",
+                encode(merged.conditions()::write), encode(merged.patients()::write), day, bucket.region());
+    }
+
+    private DiagnosisSketch emptySketch() {
+        return new DiagnosisSketch(new TopConditionsSketch(countMinWidth, countMinDepth, topKCapacity),
+                new HyperLogLog(hllPrecision));
+    }
+
+    /**
+     * A version byte followed by the deflated sketch; mostly-zero counters compress well.
+     */
+    static byte[] encode(SketchWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(BLOB_VERSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static <T> T decode(byte[] blob, SketchReader<T> reader) {
+        if (blob.length == 0 || blob[0] != BLOB_VERSION) {
+            throw new IllegalStateException("Unsupported diagnosis sketch blob version");
+        }
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(blob, 1, blob.length - 1)))) {
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface SketchWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface SketchReader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface BlobConsumer {
+        void accept(byte[] blob);
+    }
+}
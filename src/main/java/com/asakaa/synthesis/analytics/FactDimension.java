@@ -0,0 +1,12 @@
+package com.asakaa.synthesis.analytics;
+
+/**
+ * Attributes of a diagnosis fact that ad-hoc analytics queries can group by.
+ */
+public enum FactDimension {
+    CONDITION,
+    REGION,
+    CLINIC,
+    DAY,
+    STATUS
+}
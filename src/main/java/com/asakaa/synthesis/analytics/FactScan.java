@@ -0,0 +1,151 @@
+package com.asakaa.synthesis.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Filter and group-by over a row range of a {@link FactSnapshot}, split in halves across
+ * the fork-join pool until ranges are small enough to scan directly.
+ * <p>
+ * A leaf works a batch of rows at a time: a selection vector starts as the rows of the
+ * batch within the date range, each other predicate compacts it in one tight loop over a
+ * single column, and the survivors' group keys are then built one column at a time and
+ * counted. Leaves count into their own arrays, which are summed as the tasks join.
+ */
+final class FactScan extends RecursiveTask<int[]> {
+
+    static final int BATCH = 1024;
+
+    /**
+     * Predicates and group-by layout of one query. Null masks and {@code filterDays == false}
+     * mean no predicate on that column; {@code strides[i]} multiplies the id of
+     * {@code dimensions[i]}, offset by {@code bases[i]}, into the group key.
+     */
+    record Plan(boolean filterDays, int dayLo, int dayHi,
+                boolean[] conditionMask, boolean[] regionMask, boolean[] clinicMask, boolean[] statusMask,
+                FactDimension[] dimensions, int[] strides, int[] bases, int groups) {
+    }
+
+    private final FactSnapshot facts;
+    private final Plan plan;
+    private final int from;
+    private final int to;
+    private final int leafRows;
+
+    FactScan(FactSnapshot facts, Plan plan, int from, int to, int leafRows) {
+        this.facts = facts;
+        this.plan = plan;
+        this.from = from;
+        this.to = to;
+        this.leafRows = leafRows;
+    }
+
+    @Override
+    protected int[] compute() {
+        if (to - from <= leafRows) {
+            return scan();
+        }
+        int mid = (from + to) >>> 1;
+        FactScan left = new FactScan(facts, plan, from, mid, leafRows);
+        left.fork();
+        int[] counts = new FactScan(facts, plan, mid, to, leafRows).compute();
+        int[] other = left.join();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other[i];
+        }
+        return counts;
+    }
+
+    private int[] scan() {
+        int[] counts = new int[plan.groups()];
+        int[] selection = new int[BATCH];
+        int[] keys = new int[BATCH];
+
+        for (int start = from; start < to; start += BATCH) {
+            int end = Math.min(start + BATCH, to);
+            int n;
+            if (plan.filterDays()) {
+                // The first predicate reads rows directly instead of an all-rows selection
+                n = 0;
+                for (int row = start; row < end; row++) {
+                    int value = facts.day[row];
+                    if (value >= plan.dayLo() && value <= plan.dayHi()) {
+                        selection[n++] = row;
+                    }
+                }
+            } else {
+                n = end - start;
+                for (int k = 0; k < n; k++) {
+                    selection[k] = start + k;
+                }
+            }
+            if (plan.conditionMask() != null) {
+                n = selectMasked(facts.condition, plan.conditionMask(), selection, n);
+            }
+            if (plan.regionMask() != null) {
+                n = selectMasked(facts.region, plan.regionMask(), selection, n);
+            }
+            if (plan.clinicMask() != null) {
+                n = selectMasked(facts.clinic, plan.clinicMask(), selection, n);
+            }
+            if (plan.statusMask() != null) {
+                n = selectMasked(facts.status, plan.statusMask(), selection, n);
+            }
+            if (n == 0) {
+                continue;
+            }
+
+            Arrays.fill(keys, 0, n, 0);
+            FactDimension[] dimensions = plan.dimensions();
+            for (int d = 0; d < dimensions.length; d++) {
+                int stride = plan.strides()[d];
+                int base = plan.bases()[d];
+                switch (dimensions[d]) {
+                    case CONDITION -> addKeys(facts.condition, base, stride, selection, keys, n);
+                    case REGION -> addKeys(facts.region, base, stride, selection, keys, n);
+                    case CLINIC -> addKeys(facts.clinic, base, stride, selection, keys, n);
+                    case DAY -> addKeys(facts.day, base, stride, selection, keys, n);
+                    case STATUS -> addKeys(facts.status, base, stride, selection, keys, n);
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                counts[keys[k]]++;
+            }
+        }
+        return counts;
+    }
+
+    private static int selectMasked(int[] column, boolean[] mask, int[] selection, int n) {
+        int kept = 0;
+        for (int k = 0; k < n; k++) {
+            int row = selection[k];
+            if (mask[column[row]]) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    private static int selectMasked(byte[] column, boolean[] mask, int[] selection, int n) {
+        int kept = 0;
+        for (int k = 0; k < n; k++) {
+            int row = selection[k];
+            if (mask[column[row]]) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    private static void addKeys(int[] column, int base, int stride, int[] selection, int[] keys, int n) {
+        for (int k = 0; k < n; k++) {
+            keys[k] += (column[selection[k]] - base) * stride;
+        }
+    }
+
+    private static void addKeys(byte[] column, int base, int stride, int[] selection, int[] keys, int n) {
+        for (int k = 0; k < n; k++) {
+            keys[k] += (column[selection[k]] - base) * stride;
+        }
+    }
+}
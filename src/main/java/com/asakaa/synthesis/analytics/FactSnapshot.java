@@ -0,0 +1,186 @@
+package com.asakaa.synthesis.analytics;
+
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, column-oriented copy of the diagnosis facts: one row per diagnosis, with
+ * its condition, the patient's region and clinic, the day its consultation opened and
+ * the consultation's status.
+ * <p>
+ * Each column is a primitive array indexed by row. Strings and clinic ids are dictionary
+ * encoded to dense ints, so a predicate on them becomes a lookup in a boolean mask and a
+ * group-by key is plain arithmetic. A missing region is encoded as {@code ""} and a
+ * missing clinic as {@link #NO_CLINIC}.
+ */
+public final class FactSnapshot {
+
+    public static final long NO_CLINIC = -1;
+
+    private static final ConsultationStatus[] STATUSES = ConsultationStatus.values();
+
+    final int size;
+    final int[] condition;
+    final int[] region;
+    final int[] clinic;
+    final int[] day;
+    final byte[] status;
+
+    final String[] conditionNames;
+    final String[] regionNames;
+    final long[] clinicIds;
+    final int minDay;
+    final int maxDay;
+
+    private final LocalDateTime loadedAt;
+
+    private FactSnapshot(Builder builder, LocalDateTime loadedAt) {
+        this.size = builder.size;
+        this.condition = Arrays.copyOf(builder.condition, size);
+        this.region = Arrays.copyOf(builder.region, size);
+        this.clinic = Arrays.copyOf(builder.clinic, size);
+        this.day = Arrays.copyOf(builder.day, size);
+        this.status = Arrays.copyOf(builder.status, size);
+        this.conditionNames = builder.conditionNames.toArray(String[]::new);
+        this.regionNames = builder.regionNames.toArray(String[]::new);
+        this.clinicIds = builder.clinicIds.stream().mapToLong(Long::longValue).toArray();
+        this.minDay = builder.minDay;
+        this.maxDay = builder.maxDay;
+        this.loadedAt = loadedAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Approximate heap held by the columns, for the size gauge.
+     */
+    public long columnBytes() {
+        return (long) size * (4 * Integer.BYTES + Byte.BYTES);
+    }
+
+    static ConsultationStatus statusOf(int ordinal) {
+        return STATUSES[ordinal];
+    }
+
+    static int statusCount() {
+        return STATUSES.length;
+    }
+
+    /**
+     * Mask over the condition dictionary selecting names equal to {@code name} ignoring case.
+     */
+    boolean[] conditionMask(String name) {
+        return nameMask(conditionNames, name);
+    }
+
+    /**
+     * Mask over the region dictionary selecting names equal to {@code name} ignoring case.
+     */
+    boolean[] regionMask(String name) {
+        return nameMask(regionNames, name);
+    }
+
+    boolean[] clinicMask(long clinicId) {
+        boolean[] mask = new boolean[clinicIds.length];
+        for (int i = 0; i < clinicIds.length; i++) {
+            mask[i] = clinicIds[i] == clinicId;
+        }
+        return mask;
+    }
+
+    private static boolean[] nameMask(String[] names, String name) {
+        boolean[] mask = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            mask[i] = names[i].equalsIgnoreCase(name);
+        }
+        return mask;
+    }
+
+    /**
+     * Accumulates facts into growable columns, assigning dictionary ids as new values appear.
+     * Not thread-safe.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] condition;
+        private int[] region;
+        private int[] clinic;
+        private int[] day;
+        private byte[] status;
+
+        private final Map<String, Integer> conditionIds = new HashMap<>();
+        private final List<String> conditionNames = new ArrayList<>();
+        private final Map<String, Integer> regionIds = new HashMap<>();
+        private final List<String> regionNames = new ArrayList<>();
+        private final Map<Long, Integer> clinicIndex = new HashMap<>();
+        private final List<Long> clinicIds = new ArrayList<>();
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+
+        public Builder(int expectedFacts) {
+            int capacity = Math.max(16, expectedFacts);
+            condition = new int[capacity];
+            region = new int[capacity];
+            clinic = new int[capacity];
+            day = new int[capacity];
+            status = new byte[capacity];
+        }
+
+        public Builder add(String conditionName, String regionName, Long clinicId, LocalDate openedOn,
+                           ConsultationStatus consultationStatus) {
+            if (size == condition.length) {
+                grow();
+            }
+            int epochDay = (int) openedOn.toEpochDay();
+            condition[size] = encode(conditionIds, conditionNames, conditionName);
+            region[size] = encode(regionIds, regionNames, regionName != null ? regionName : "");
+            clinic[size] = clinicIndex.computeIfAbsent(clinicId != null ? clinicId : NO_CLINIC, id -> {
+                clinicIds.add(id);
+                return clinicIds.size() - 1;
+            });
+            day[size] = epochDay;
+            status[size] = (byte) consultationStatus.ordinal();
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+            size++;
+            return this;
+        }
+
+        public FactSnapshot build() {
+            return new FactSnapshot(this, LocalDateTime.now());
+        }
+
+        private static int encode(Map<String, Integer> ids, List<String> names, String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = names.size();
+                ids.put(value, id);
+                names.add(value);
+            }
+            return id;
+        }
+
+        private void grow() {
+            int capacity = condition.length + (condition.length >> 1);
+            condition = Arrays.copyOf(condition, capacity);
+            region = Arrays.copyOf(region, capacity);
+            clinic = Arrays.copyOf(clinic, capacity);
+            day = Arrays.copyOf(day, capacity);
+            status = Arrays.copyOf(status, capacity);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.asakaa.synthesis.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link OutbreakDetector} when a condition's daily case count in a region
+ * rises above its baseline.
+ *
+ * @param observed  cases counted so far on {@code day}
+ * @param expected  the EWMA baseline for a day
+ * @param statistic the z-score for {@link Type#EWMA_SPIKE}, the CUSUM for {@link Type#CUSUM_SHIFT}
+ * @param threshold the configured limit {@code statistic} crossed, in standard deviations
+ */
+public record OutbreakAlert(
+        String condition,
+        String region,
+        LocalDate day,
+        Type type,
+        long observed,
+        double expected,
+        double statistic,
+        double threshold,
+        LocalDateTime detectedAt
+) {
+
+    public enum Type {
+        /** A single day far above the baseline. */
+        EWMA_SPIKE,
+        /** A smaller excess sustained over several days. */
+        CUSUM_SHIFT
+    }
+}
@@ -0,0 +1,27 @@
+package com.asakaa.synthesis.analytics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for {@link OutbreakDetector}. Thresholds and the CUSUM slack are in standard
+ * deviations of the daily count; a series alerts only once it has {@code min-baseline-days}
+ * of history and the day has at least {@code min-cases} cases.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "synthesis.analytics.surveillance")
+public class OutbreakDetectionProperties {
+
+    private boolean enabled = true;
+    private double alpha = 0.1;
+    private double ewmaThreshold = 3.0;
+    private double cusumSlack = 0.5;
+    private double cusumThreshold = 4.0;
+    private int minBaselineDays = 14;
+    private int minCases = 5;
+    private double minStdDev = 1.0;
+    private int warmupDays = 56;
+    private int maxTrackedSeries = 50_000;
+}
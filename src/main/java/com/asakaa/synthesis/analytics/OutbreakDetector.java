@@ -0,0 +1,241 @@
+package com.asakaa.synthesis.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online outbreak surveillance: keeps an {@link OutbreakSeries} per condition and patient
+ * region, counts each committed diagnosis into it in constant time, and raises an
+ * {@link OutbreakAlert} when a day's count spikes above the EWMA baseline or the CUSUM
+ * shows a sustained rise.
+ * <p>
+ * Series are checkpointed to {@code outbreak_series_state} every
+ * {@code checkpoint-interval-ms} and on shutdown. Once the application is ready, and after
+ * the rollup's first-start backfill, they are restored from the checkpoint and brought up to
+ * date from {@code diagnosis_daily_rollup} for the days since, which also seeds baselines
+ * from the last {@code warmup-days} when there is no checkpoint; the raw tables are never scanned.
+ * <p>
+ * A diagnosis on a consultation opened before the series' current day is counted on the
+ * current day. Each instance counts only the diagnoses it records, so when the
+ * application is scaled out, enable detection on one instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutbreakDetector {
+
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO outbreak_series_state (condition_name, region, day, day_count, baseline_mean,
+                baseline_variance, cusum, observed_days, ewma_alerted_day, cusum_alerted_day, checkpointed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (condition_name, region) DO UPDATE SET
+                day = EXCLUDED.day, day_count = EXCLUDED.day_count, baseline_mean = EXCLUDED.baseline_mean,
+                baseline_variance = EXCLUDED.baseline_variance, cusum = EXCLUDED.cusum,
+                observed_days = EXCLUDED.observed_days, ewma_alerted_day = EXCLUDED.ewma_alerted_day,
+                cusum_alerted_day = EXCLUDED.cusum_alerted_day, checkpointed_at = EXCLUDED.checkpointed_at
+            """;
+
+    private static final int[] CHECKPOINT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.BIGINT,
+            Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.INTEGER, Types.DATE, Types.DATE};
+
+    private final OutbreakDetectionProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<SeriesKey, OutbreakSeries> series = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    // Until restored, the series hold only cases seen since startup and must not overwrite the checkpoint
+    private volatile boolean restored;
+
+    /**
+     * A condition and region; a missing region is {@code ''}, as in the daily rollup.
+     */
+    record SeriesKey(String condition, String region) {
+    }
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("synthesis.analytics.surveillance.series", series, Map::size)
+                .description("Condition and region series tracked for outbreak detection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs after {@link DiagnosisRollupMaintainer#backfillIfEmpty()}, so on a first deployment
+     * the warmup reads the backfilled rollup rather than an empty one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(DiagnosisRollupMaintainer.BACKFILL_ORDER + 1)
+    public void restoreWhenReady() {
+        if (properties.isEnabled()) {
+            restore();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        checkpoint();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDiagnosisRecorded(DiagnosisRecordedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        SeriesKey key = new SeriesKey(event.conditionName(), DiagnosisRollupMaintainer.regionKey(event.region()));
+        OutbreakSeries tracked = track(key, event.day().toEpochDay());
+        if (tracked == null) {
+            return;
+        }
+        List<OutbreakAlert> alerts;
+        synchronized (tracked) {
+            tracked.advanceTo(event.day().toEpochDay(), properties);
+            alerts = tracked.add(key.condition(), displayRegion(key.region()), properties, LocalDateTime.now());
+        }
+        for (OutbreakAlert alert : alerts) {
+            meterRegistry.counter("synthesis.analytics.surveillance.alerts", "type", alert.type().name()).increment();
+            log.warn("Possible outbreak of {} in {}: {} cases on {} against a baseline of {}; {} {} exceeds {}",
+                    alert.condition(), alert.region(), alert.observed(), alert.day(),
+                    String.format("%.1f", alert.expected()), alert.type(),
+                    String.format("%.2f", alert.statistic()), alert.threshold());
+            eventPublisher.publishEvent(alert);
+        }
+    }
+
+    /**
+     * Writes every series, first folding in the days that have passed without a case.
+     */
+    @Scheduled(fixedDelayString = "${synthesis.analytics.surveillance.checkpoint-interval-ms}")
+    public void checkpoint() {
+        if (!properties.isEnabled() || !restored || series.isEmpty()) {
+            return;
+        }
+        long today = LocalDate.now().toEpochDay();
+        List<Object[]> rows = new ArrayList<>(series.size());
+        series.forEach((key, tracked) -> {
+            synchronized (tracked) {
+                tracked.advanceTo(today, properties);
+                rows.add(new Object[]{key.condition(), key.region(), date(tracked.day), tracked.count,
+                        tracked.mean, tracked.variance, tracked.cusum, tracked.observedDays,
+                        date(tracked.ewmaAlertedDay), date(tracked.cusumAlertedDay)});
+            }
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(CHECKPOINT_SQL, rows, CHECKPOINT_TYPES));
+            log.debug("Checkpointed {} outbreak series", rows.size());
+        } catch (DataAccessException e) {
+            // The next checkpoint writes the same series again
+            log.warn("Could not checkpoint outbreak series", e);
+        }
+    }
+
+    /**
+     * Replaces the in-memory series with the checkpoint, then replays the daily rollup from
+     * the oldest checkpointed day, or from {@code warmup-days} ago if that is later.
+     */
+    public void restore() {
+        series.clear();
+        jdbcTemplate.query("""
+                SELECT condition_name, region, day, day_count, baseline_mean, baseline_variance, cusum,
+                       observed_days, ewma_alerted_day, cusum_alerted_day
+                FROM outbreak_series_state""", rs -> {
+            OutbreakSeries restored = new OutbreakSeries(rs.getDate("day").toLocalDate().toEpochDay());
+            restored.count = rs.getLong("day_count");
+            restored.mean = rs.getDouble("baseline_mean");
+            restored.variance = rs.getDouble("baseline_variance");
+            restored.cusum = rs.getDouble("cusum");
+            restored.observedDays = rs.getInt("observed_days");
+            restored.ewmaAlertedDay = epochDay(rs.getDate("ewma_alerted_day"));
+            restored.cusumAlertedDay = epochDay(rs.getDate("cusum_alerted_day"));
+            series.put(new SeriesKey(rs.getString("condition_name"), rs.getString("region")), restored);
+        });
+        int checkpointed = series.size();
+
+        long from = LocalDate.now().minusDays(properties.getWarmupDays()).toEpochDay();
+        if (!series.isEmpty()) {
+            long oldest = series.values().stream().mapToLong(tracked -> tracked.day).min().getAsLong();
+            from = Math.max(from, oldest);
+        }
+        long[] replayed = {0};
+        jdbcTemplate.query("""
+                SELECT day, region, condition_name, case_count FROM diagnosis_daily_rollup
+                WHERE day >= ? ORDER BY day""", rs -> {
+            long day = rs.getDate("day").toLocalDate().toEpochDay();
+            OutbreakSeries tracked = track(new SeriesKey(rs.getString("condition_name"), rs.getString("region")), day);
+            if (tracked == null || day < tracked.day) {
+                return;
+            }
+            tracked.advanceTo(day, properties);
+            // The rollup's count is exact; the checkpoint's may also hold late-arriving cases
+            tracked.count = Math.max(tracked.count, rs.getLong("case_count"));
+            replayed[0]++;
+        }, Date.valueOf(LocalDate.ofEpochDay(from)));
+
+        restored = true;
+        log.info("Restored {} outbreak series from the checkpoint and replayed {} rollup cells since {}; tracking {}",
+                checkpointed, replayed[0], LocalDate.ofEpochDay(from), series.size());
+    }
+
+    /**
+     * The series for {@code key}, created at {@code day} if new; null once
+     * {@code max-tracked-series} are tracked.
+     */
+    private OutbreakSeries track(SeriesKey key, long day) {
+        OutbreakSeries tracked = series.get(key);
+        if (tracked != null) {
+            return tracked;
+        }
+        if (series.size() >= properties.getMaxTrackedSeries()) {
+            meterRegistry.counter("synthesis.analytics.surveillance.untracked").increment();
+            return null;
+        }
+        return series.computeIfAbsent(key, k -> new OutbreakSeries(day));
+    }
+
+    OutbreakSeries series(String condition, String region) {
+        return series.get(new SeriesKey(condition, DiagnosisRollupMaintainer.regionKey(region)));
+    }
+
+    private static String displayRegion(String region) {
+        return region.isEmpty() ? "Unknown" : region;
+    }
+
+    private static Date date(long epochDay) {
+        return epochDay == OutbreakSeries.NEVER ? null : Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static long epochDay(Date date) {
+        return date != null ? date.toLocalDate().toEpochDay() : OutbreakSeries.NEVER;
+    }
+}
@@ -0,0 +1,107 @@
+package com.asakaa.synthesis.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily case counts of one condition in one region, reduced to an exponentially weighted
+ * mean and variance of past days and a one-sided CUSUM of their standardised excess.
+ * <p>
+ * Cases are counted on the current day; a day is folded into the statistics when the
+ * series moves past it, empty days included. Each case checks the running count against
+ * the baseline, and since the count only grows within a day, a crossing is final and is
+ * reported at most once per day and type. Not thread-safe; callers lock the series.
+ */
+final class OutbreakSeries {
+
+    // Longer gaps fold as this many empty days; the baseline has long decayed by then
+    static final int MAX_FOLDED_DAYS = 366;
+
+    static final long NEVER = Long.MIN_VALUE;
+
+    long day;
+    long count;
+    double mean;
+    double variance;
+    double cusum;
+    int observedDays;
+    long ewmaAlertedDay = NEVER;
+    long cusumAlertedDay = NEVER;
+
+    OutbreakSeries(long day) {
+        this.day = day;
+    }
+
+    /**
+     * Closes the current day and any empty days before {@code toDay}; a no-op unless
+     * {@code toDay} is later than the current day.
+     */
+    void advanceTo(long toDay, OutbreakDetectionProperties settings) {
+        if (toDay <= day) {
+            return;
+        }
+        close(count, settings);
+        long emptyDays = Math.min(toDay - day - 1, MAX_FOLDED_DAYS);
+        for (long i = 0; i < emptyDays; i++) {
+            close(0, settings);
+        }
+        day = toDay;
+        count = 0;
+    }
+
+    /**
+     * Counts one case on the current day and returns the alerts it raises, if any.
+     */
+    List<OutbreakAlert> add(String condition, String region, OutbreakDetectionProperties settings,
+                            LocalDateTime now) {
+        count++;
+        if (observedDays < settings.getMinBaselineDays() || count < settings.getMinCases()) {
+            return List.of();
+        }
+
+        List<OutbreakAlert> alerts = new ArrayList<>(0);
+        double stdDev = stdDev(settings);
+        double z = (count - mean) / stdDev;
+        if (z > settings.getEwmaThreshold() && ewmaAlertedDay != day) {
+            ewmaAlertedDay = day;
+            alerts.add(new OutbreakAlert(condition, region, LocalDate.ofEpochDay(day), OutbreakAlert.Type.EWMA_SPIKE,
+                    count, mean, z, settings.getEwmaThreshold(), now));
+        }
+        // What the CUSUM would be if the day closed now
+        double provisional = Math.max(0, cusum + z - settings.getCusumSlack());
+        if (provisional > settings.getCusumThreshold() && cusumAlertedDay != day) {
+            cusumAlertedDay = day;
+            alerts.add(new OutbreakAlert(condition, region, LocalDate.ofEpochDay(day), OutbreakAlert.Type.CUSUM_SHIFT,
+                    count, mean, provisional, settings.getCusumThreshold(), now));
+        }
+        return alerts;
+    }
+
+    /**
+     * Standard deviation of a day's count, at least that of a Poisson count with the
+     * baseline mean, so a quiet series does not alert on a couple of extra cases.
+     */
+    double stdDev(OutbreakDetectionProperties settings) {
+        return Math.max(Math.sqrt(Math.max(variance, mean)), settings.getMinStdDev());
+    }
+
+    private void close(long cases, OutbreakDetectionProperties settings) {
+        if (observedDays == 0) {
+            mean = cases;
+            observedDays = 1;
+            return;
+        }
+        cusum = Math.max(0, cusum + (cases - mean) / stdDev(settings) - settings.getCusumSlack());
+        if (cusum > settings.getCusumThreshold()) {
+            // Restart after a signal, as a standard CUSUM does, so a lasting shift signals again
+            cusum = 0;
+        }
+        double diff = cases - mean;
+        double increment = settings.getAlpha() * diff;
+        mean += increment;
+        variance = (1 - settings.getAlpha()) * (variance + diff * increment);
+        observedDays++;
+    }
+}
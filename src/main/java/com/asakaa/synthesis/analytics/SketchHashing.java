@@ -0,0 +1,37 @@
+package com.asakaa.synthesis.analytics;
+
+/**
+ * 64-bit hashes for the sketches. They must not depend on the JVM or node, since sketches
+ * built on different nodes are merged: strings are hashed with FNV-1a over their chars and
+ * every hash is finished with the MurmurHash3 mixer so all 64 bits are well spread.
+ */
+final class SketchHashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SketchHashing() {
+    }
+
+    static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    static long hash(long value) {
+        return mix(value + 0x9e3779b97f4a7c15L);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,115 @@
+package com.asakaa.synthesis.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Approximate top-K conditions: a {@link CountMinSketch} of every condition's count plus
+ * a min-heap of at most {@code capacity} candidates with the highest estimates. A new
+ * condition displaces the smallest candidate once its estimate is larger.
+ * <p>
+ * Merging adds the Count-Min counters and re-ranks the union of both candidate sets
+ * against them. A condition that never made the candidate list of any merged sketch
+ * cannot appear in the result, so {@code capacity} should comfortably exceed the K asked for.
+ */
+public final class TopConditionsSketch {
+
+    private final CountMinSketch counts;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private final PriorityQueue<String> smallestFirst =
+            new PriorityQueue<>(Comparator.comparing((String name) -> candidates.get(name)));
+
+    public TopConditionsSketch(int width, int depth, int capacity) {
+        this(new CountMinSketch(width, depth), capacity);
+    }
+
+    private TopConditionsSketch(CountMinSketch counts, int capacity) {
+        this.counts = counts;
+        this.capacity = capacity;
+    }
+
+    public void add(String condition, long count) {
+        long hash = SketchHashing.hash(condition);
+        counts.add(hash, count);
+        offer(condition, counts.estimate(hash));
+    }
+
+    public void merge(TopConditionsSketch other) {
+        counts.merge(other.counts);
+        Set<String> names = new LinkedHashSet<>(candidates.keySet());
+        names.addAll(other.candidates.keySet());
+        candidates.clear();
+        smallestFirst.clear();
+        for (String name : names) {
+            offer(name, counts.estimate(SketchHashing.hash(name)));
+        }
+    }
+
+    /**
+     * The {@code limit} candidates with the highest current estimates, largest first.
+     */
+    public List<Map.Entry<String, Long>> top(int limit) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(candidates.size());
+        for (String name : candidates.keySet()) {
+            top.add(Map.entry(name, counts.estimate(SketchHashing.hash(name))));
+        }
+        top.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public CountMinSketch counts() {
+        return counts;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void offer(String name, long estimate) {
+        if (candidates.containsKey(name)) {
+            // Re-key the heap entry; capacity is small, so the linear remove is cheap
+            smallestFirst.remove(name);
+            candidates.put(name, estimate);
+            smallestFirst.add(name);
+        } else if (candidates.size() < capacity) {
+            candidates.put(name, estimate);
+            smallestFirst.add(name);
+        } else if (estimate > candidates.get(smallestFirst.peek())) {
+            candidates.remove(smallestFirst.poll());
+            candidates.put(name, estimate);
+            smallestFirst.add(name);
+        }
+    }
+
+    /**
+     * Writes the Count-Min counters and candidate names; estimates are recomputed on read.
+     */
+    void write(DataOutput out) throws IOException {
+        counts.write(out);
+        out.writeInt(capacity);
+        out.writeInt(candidates.size());
+        for (String name : candidates.keySet()) {
+            out.writeUTF(name);
+        }
+    }
+
+    static TopConditionsSketch read(DataInput in) throws IOException {
+        TopConditionsSketch sketch = new TopConditionsSketch(CountMinSketch.read(in), in.readInt());
+        int names = in.readInt();
+        for (int i = 0; i < names; i++) {
+            String name = in.readUTF();
+            sketch.offer(name, sketch.counts.estimate(SketchHashing.hash(name)));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,270 @@
+package com.asakaa.synthesis.audio;
+
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shrinks WAV dictations before upload: mixes down to mono, resamples to the rate
+ * Transcribe is tuned for and compresses long silences. Samples are streamed through
+ * in fixed-size blocks, so memory use does not depend on the recording's length. Other
+ * formats, and WAV files that cannot be decoded, are passed through unchanged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AudioPreprocessor {
+
+    private static final Set<String> WAV_CONTENT_TYPES = Set.of("audio/wav", "audio/x-wav", "audio/wave");
+    private static final int BLOCK_FRAMES = 4096;
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final int OUTPUT_BYTES_PER_SAMPLE = 2;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.audio.preprocessing.enabled}")
+    private boolean enabled;
+
+    @Value("${synthesis.audio.preprocessing.target-sample-rate}")
+    private int targetSampleRate;
+
+    @Value("${synthesis.audio.preprocessing.frame-ms}")
+    private int frameMillis;
+
+    @Value("${synthesis.audio.preprocessing.silence-threshold-dbfs}")
+    private double silenceThresholdDbfs;
+
+    @Value("${synthesis.audio.preprocessing.keep-silence-ms}")
+    private int keepSilenceMillis;
+
+    @Value("${synthesis.audio.preprocessing.spool-dir}")
+    private String spoolDir;
+
+    private DistributionSummary bytesSaved;
+    private DistributionSummary silenceRemoved;
+    private Timer latency;
+
+    @PostConstruct
+    void init() {
+        bytesSaved = DistributionSummary.builder("synthesis.audio.preprocess.bytes.saved")
+                .description("Bytes removed from each recording before upload")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        silenceRemoved = DistributionSummary.builder("synthesis.audio.preprocess.silence.removed")
+                .description("Audio duration removed by silence compression")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        latency = Timer.builder("synthesis.audio.preprocess.latency")
+                .description("Latency added by audio preprocessing")
+                .register(meterRegistry);
+    }
+
+    public boolean appliesTo(AudioPayload audio) {
+        return enabled && audio.getContentType() != null
+                && WAV_CONTENT_TYPES.contains(audio.getContentType().toLowerCase());
+    }
+
+    /**
+     * Preprocess a recording. Never fails: any problem falls back to the original.
+     */
+    public PreprocessedAudio preprocess(AudioPayload original) {
+        if (!appliesTo(original)) {
+            return PreprocessedAudio.unchanged(original);
+        }
+
+        long start = System.nanoTime();
+        PreprocessedAudio result;
+        try {
+            result = transform(original);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Audio preprocessing failed, uploading original recording: {}", e.getMessage());
+            countFallback("error");
+            return PreprocessedAudio.unchanged(original);
+        }
+        if (result == null) {
+            return PreprocessedAudio.unchanged(original);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        latency.record(elapsedMillis, TimeUnit.MILLISECONDS);
+        bytesSaved.record(result.getBytesSaved());
+        silenceRemoved.record(Math.max(0, result.getOriginalSeconds() - result.getProcessedSeconds()));
+        log.info("Audio preprocessing: {} -> {} bytes, {}s -> {}s in {} ms",
+                result.getOriginalBytes(), result.getAudio().getSize(),
+                String.format("%.1f", result.getOriginalSeconds()), String.format("%.1f", result.getProcessedSeconds()),
+                elapsedMillis);
+        return result;
+    }
+
+    /**
+     * @return the processed recording, or null when the original should be uploaded as-is
+     */
+    private PreprocessedAudio transform(AudioPayload original) throws IOException {
+        try (InputStream in = new BufferedInputStream(original.getInputStream(), 64 * 1024)) {
+            Optional<WavFormat> parsed = WavFormat.read(in);
+            if (parsed.isEmpty()) {
+                countFallback("unsupported");
+                return null;
+            }
+            WavFormat format = parsed.get();
+
+            int outputRate = Math.min(format.sampleRate, targetSampleRate);
+            int frameSamples = Math.max(1, outputRate * frameMillis / 1000);
+            SilenceCompressor compressor = new SilenceCompressor(
+                    frameSamples, silenceThresholdDbfs, keepSilenceMillis / frameMillis);
+
+            Path target = Files.createTempFile(Path.of(spoolDir), "audio-", ".wav");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+                    out.write(new byte[WAV_HEADER_BYTES]);
+                    PcmWriter writer = new PcmWriter(out);
+                    decode(in, format, outputRate, sample -> compressor.push(sample, writer));
+                    compressor.finish(writer);
+                }
+
+                long dataBytes = compressor.getSamplesOut() * OUTPUT_BYTES_PER_SAMPLE;
+                writeHeader(target, outputRate, dataBytes);
+
+                long outputBytes = WAV_HEADER_BYTES + dataBytes;
+                if (outputBytes >= original.getSize()) {
+                    Files.deleteIfExists(target);
+                    return null;
+                }
+                return new PreprocessedAudio(
+                        AudioPayload.of(target, "audio/wav", original.getOriginalFilename()),
+                        original.getSize(),
+                        compressor.getSamplesIn() / (double) outputRate,
+                        compressor.getSamplesOut() / (double) outputRate,
+                        target);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads sample frames block by block, mixes each frame down to mono and feeds it to the
+     * resampler.
+     */
+    private void decode(InputStream in, WavFormat format, int outputRate, Resampler.SampleSink sink)
+            throws IOException {
+        Resampler resampler = new Resampler(format.sampleRate, outputRate);
+        int bytesPerFrame = format.bytesPerFrame();
+        int bytesPerSample = format.bitsPerSample / 8;
+        byte[] block = new byte[BLOCK_FRAMES * bytesPerFrame];
+        long remaining = format.dataLength < 0 ? Long.MAX_VALUE : format.dataLength;
+        Resampler.SampleSink resampled = sample -> resampler.push(sample, sink);
+
+        while (remaining >= bytesPerFrame) {
+            int wanted = (int) Math.min(block.length, remaining - remaining % bytesPerFrame);
+            int read = in.readNBytes(block, 0, wanted);
+            int frames = read / bytesPerFrame;
+
+            for (int f = 0; f < frames; f++) {
+                int offset = f * bytesPerFrame;
+                float mixed = 0;
+                for (int c = 0; c < format.channels; c++) {
+                    mixed += sampleAt(block, offset + c * bytesPerSample, format);
+                }
+                resampled.accept(mixed / format.channels);
+            }
+
+            remaining -= read;
+            if (read < wanted) {
+                break;
+            }
+        }
+    }
+
+    private static float sampleAt(byte[] data, int offset, WavFormat format) {
+        return switch (format.bitsPerSample) {
+            case 8 -> ((data[offset] & 0xFF) - 128) / 128f;
+            case 16 -> (short) ((data[offset] & 0xFF) | (data[offset + 1] << 8)) / 32768f;
+            case 24 -> ((data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8) | (data[offset + 2] << 16)) / 8388608f;
+            default -> {
+                int bits = (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8)
+                        | ((data[offset + 2] & 0xFF) << 16) | (data[offset + 3] << 24);
+                yield format.encoding == WavFormat.IEEE_FLOAT ? Float.intBitsToFloat(bits) : bits / 2147483648f;
+            }
+        };
+    }
+
+    private static void writeHeader(Path target, int sampleRate, long dataBytes) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put("RIFF".getBytes(StandardCharsets.US_ASCII))
+                .putInt((int) (WAV_HEADER_BYTES - 8 + dataBytes))
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+                .put("fmt ".getBytes(StandardCharsets.US_ASCII))
+                .putInt(16)
+                .putShort((short) WavFormat.PCM)
+                .putShort((short) 1)
+                .putInt(sampleRate)
+                .putInt(sampleRate * OUTPUT_BYTES_PER_SAMPLE)
+                .putShort((short) OUTPUT_BYTES_PER_SAMPLE)
+                .putShort((short) (OUTPUT_BYTES_PER_SAMPLE * 8))
+                .put("data".getBytes(StandardCharsets.US_ASCII))
+                .putInt((int) dataBytes)
+                .flip();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+        }
+    }
+
+    private void countFallback(String reason) {
+        Counter.builder("synthesis.audio.preprocess.fallbacks")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Writes mono frames as 16-bit little-endian PCM.
+     */
+    private static final class PcmWriter implements SilenceCompressor.FrameSink {
+
+        private final OutputStream out;
+        private byte[] buffer = new byte[0];
+
+        private PcmWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(float[] samples, int length) throws IOException {
+            if (buffer.length < length * OUTPUT_BYTES_PER_SAMPLE) {
+                buffer = new byte[length * OUTPUT_BYTES_PER_SAMPLE];
+            }
+            for (int i = 0; i < length; i++) {
+                int value = Math.round(Math.max(-1f, Math.min(1f, samples[i])) * 32767f);
+                buffer[2 * i] = (byte) value;
+                buffer[2 * i + 1] = (byte) (value >> 8);
+            }
+            out.write(buffer, 0, length * OUTPUT_BYTES_PER_SAMPLE);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.asakaa.synthesis.audio;
+
+import com.asakaa.synthesis.service.AudioPayload;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Outcome of {@link AudioPreprocessor#preprocess}. Closing it deletes the derived
+ * recording, if one was produced; the original audio stays owned by the caller.
+ */
+@Slf4j
+@Getter
+public class PreprocessedAudio implements AutoCloseable {
+
+    private final AudioPayload audio;
+    private final long originalBytes;
+    private final double originalSeconds;
+    private final double processedSeconds;
+    private final Path derivedPath;
+
+    PreprocessedAudio(AudioPayload audio, long originalBytes, double originalSeconds, double processedSeconds,
+                      Path derivedPath) {
+        this.audio = audio;
+        this.originalBytes = originalBytes;
+        this.originalSeconds = originalSeconds;
+        this.processedSeconds = processedSeconds;
+        this.derivedPath = derivedPath;
+    }
+
+    public static PreprocessedAudio unchanged(AudioPayload original) {
+        return new PreprocessedAudio(original, original.getSize(), 0, 0, null);
+    }
+
+    public boolean isDerived() {
+        return derivedPath != null;
+    }
+
+    public long getBytesSaved() {
+        return originalBytes - audio.getSize();
+    }
+
+    @Override
+    public void close() {
+        if (derivedPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(derivedPath);
+        } catch (IOException e) {
+            log.warn("Failed to delete preprocessed audio {}: {}", derivedPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.asakaa.synthesis.audio;
+
+import java.io.IOException;
+
+/**
+ * Streaming sample-rate converter. Downsampling first runs the signal through a
+ * fourth-order Butterworth low-pass just below the new Nyquist frequency, then
+ * interpolates linearly between input samples. Output positions are computed from
+ * integer sample counts, so long recordings do not drift.
+ */
+final class Resampler {
+
+    interface SampleSink {
+        void accept(float sample) throws IOException;
+    }
+
+    private static final double CUTOFF_RATIO = 0.45;
+
+    private final long sourceRate;
+    private final long targetRate;
+    private final Biquad[] lowPass;
+
+    private long inputIndex;
+    private long outputIndex;
+    private float previous;
+
+    Resampler(int sourceRate, int targetRate) {
+        this.sourceRate = sourceRate;
+        this.targetRate = targetRate;
+        if (sourceRate > targetRate) {
+            double cutoff = targetRate * CUTOFF_RATIO;
+            // Two cascaded sections with these Q values form a 4th-order Butterworth response
+            this.lowPass = new Biquad[]{
+                    Biquad.lowPass(sourceRate, cutoff, 0.5412),
+                    Biquad.lowPass(sourceRate, cutoff, 1.3066)
+            };
+        } else {
+            this.lowPass = new Biquad[0];
+        }
+    }
+
+    void push(float sample, SampleSink sink) throws IOException {
+        for (Biquad filter : lowPass) {
+            sample = filter.process(sample);
+        }
+        if (sourceRate == targetRate) {
+            sink.accept(sample);
+            return;
+        }
+
+        // Emit every output sample whose position falls between the previous input sample and this one
+        while (outputIndex * sourceRate <= inputIndex * targetRate) {
+            double fraction = (outputIndex * sourceRate - (inputIndex - 1) * targetRate) / (double) targetRate;
+            sink.accept((float) (previous + (sample - previous) * fraction));
+            outputIndex++;
+        }
+        previous = sample;
+        inputIndex++;
+    }
+
+    /**
+     * RBJ audio-EQ-cookbook biquad in direct form I.
+     */
+    private static final class Biquad {
+
+        private final double b0;
+        private final double b1;
+        private final double b2;
+        private final double a1;
+        private final double a2;
+        private double x1;
+        private double x2;
+        private double y1;
+        private double y2;
+
+        private Biquad(double b0, double b1, double b2, double a0, double a1, double a2) {
+            this.b0 = b0 / a0;
+            this.b1 = b1 / a0;
+            this.b2 = b2 / a0;
+            this.a1 = a1 / a0;
+            this.a2 = a2 / a0;
+        }
+
+        static Biquad lowPass(double sampleRate, double cutoff, double q) {
+            double w0 = 2 * Math.PI * cutoff / sampleRate;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / (2 * q);
+            return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+
+        float process(float x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = x;
+            y2 = y1;
+            y1 = y;
+            return (float) y;
+        }
+    }
+}
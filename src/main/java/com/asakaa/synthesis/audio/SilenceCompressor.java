@@ -0,0 +1,92 @@
+package com.asakaa.synthesis.audio;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * Energy-based voice activity detection over fixed-length frames. Silent stretches are
+ * shortened to at most the configured keep length: the first half is kept as a hangover
+ * after speech, and the last half as a pre-roll before speech resumes so soft onsets are
+ * not clipped. Leading and trailing silence is trimmed the same way.
+ */
+final class SilenceCompressor {
+
+    interface FrameSink {
+        void write(float[] samples, int length) throws IOException;
+    }
+
+    private final float[] frame;
+    private final double thresholdRms;
+    private final int hangoverFrames;
+    private final int prerollFrames;
+    private final ArrayDeque<float[]> preroll;
+
+    private int filled;
+    private int silentRun;
+    private long samplesIn;
+    private long samplesOut;
+
+    SilenceCompressor(int frameSamples, double thresholdDbfs, int keepSilenceFrames) {
+        this.frame = new float[frameSamples];
+        this.thresholdRms = Math.pow(10, thresholdDbfs / 20);
+        this.hangoverFrames = keepSilenceFrames / 2;
+        this.prerollFrames = keepSilenceFrames - hangoverFrames;
+        this.preroll = new ArrayDeque<>(prerollFrames + 1);
+        // Start as though already past the hangover, so leading silence is trimmed too
+        this.silentRun = hangoverFrames;
+    }
+
+    void push(float sample, FrameSink sink) throws IOException {
+        frame[filled++] = sample;
+        if (filled == frame.length) {
+            process(sink);
+        }
+    }
+
+    void finish(FrameSink sink) throws IOException {
+        if (filled > 0) {
+            process(sink);
+        }
+    }
+
+    long getSamplesIn() {
+        return samplesIn;
+    }
+
+    long getSamplesOut() {
+        return samplesOut;
+    }
+
+    private void process(FrameSink sink) throws IOException {
+        int length = filled;
+        filled = 0;
+        samplesIn += length;
+
+        double energy = 0;
+        for (int i = 0; i < length; i++) {
+            energy += frame[i] * frame[i];
+        }
+        boolean speech = Math.sqrt(energy / length) >= thresholdRms;
+
+        if (speech) {
+            while (!preroll.isEmpty()) {
+                float[] held = preroll.poll();
+                emit(sink, held, held.length);
+            }
+            silentRun = 0;
+            emit(sink, frame, length);
+        } else if (++silentRun <= hangoverFrames) {
+            emit(sink, frame, length);
+        } else if (prerollFrames > 0 && length == frame.length) {
+            preroll.add(frame.clone());
+            if (preroll.size() > prerollFrames) {
+                preroll.poll();
+            }
+        }
+    }
+
+    private void emit(FrameSink sink, float[] samples, int length) throws IOException {
+        sink.write(samples, length);
+        samplesOut += length;
+    }
+}
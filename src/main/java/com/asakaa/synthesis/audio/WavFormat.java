@@ -0,0 +1,113 @@
+package com.asakaa.synthesis.audio;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * The parts of a RIFF/WAVE header needed to decode its PCM samples. Reading the header
+ * leaves the stream positioned at the first sample.
+ */
+final class WavFormat {
+
+    static final int PCM = 1;
+    static final int IEEE_FLOAT = 3;
+    private static final int EXTENSIBLE = 0xFFFE;
+
+    final int encoding;
+    final int channels;
+    final int sampleRate;
+    final int bitsPerSample;
+    /**
+     * Declared size of the sample data, or -1 when the writer did not know it.
+     */
+    final long dataLength;
+
+    private WavFormat(int encoding, int channels, int sampleRate, int bitsPerSample, long dataLength) {
+        this.encoding = encoding;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.bitsPerSample = bitsPerSample;
+        this.dataLength = dataLength;
+    }
+
+    int bytesPerFrame() {
+        return channels * (bitsPerSample / 8);
+    }
+
+    /**
+     * @return the format, or empty if the stream is not a WAV file this class can decode
+     */
+    static Optional<WavFormat> read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        try {
+            if (readTag(in) != 0x46464952 /* RIFF */) {
+                return Optional.empty();
+            }
+            readIntLE(in);
+            if (readTag(in) != 0x45564157 /* WAVE */) {
+                return Optional.empty();
+            }
+
+            int encoding = -1;
+            int channels = 0;
+            int sampleRate = 0;
+            int bitsPerSample = 0;
+
+            while (true) {
+                int tag = readTag(in);
+                long size = Integer.toUnsignedLong(readIntLE(in));
+
+                if (tag == 0x20746d66 /* "fmt " */) {
+                    encoding = readShortLE(in);
+                    channels = readShortLE(in);
+                    sampleRate = readIntLE(in);
+                    readIntLE(in);
+                    readShortLE(in);
+                    bitsPerSample = readShortLE(in);
+                    long consumed = 16;
+                    if (encoding == EXTENSIBLE && size >= 40) {
+                        readShortLE(in);
+                        readShortLE(in);
+                        readIntLE(in);
+                        encoding = readShortLE(in);
+                        consumed = 26;
+                    }
+                    in.skipNBytes(size - consumed + (size & 1));
+                } else if (tag == 0x61746164 /* data */) {
+                    if (encoding == -1 || channels == 0 || sampleRate == 0) {
+                        return Optional.empty();
+                    }
+                    long dataLength = size == 0 || size == 0xFFFFFFFFL ? -1 : size;
+                    WavFormat format = new WavFormat(encoding, channels, sampleRate, bitsPerSample, dataLength);
+                    return format.isSupported() ? Optional.of(format) : Optional.empty();
+                } else {
+                    in.skipNBytes(size + (size & 1));
+                }
+            }
+        } catch (EOFException e) {
+            return Optional.empty();
+        }
+    }
+
+    private boolean isSupported() {
+        if (encoding == PCM) {
+            return bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32;
+        }
+        return encoding == IEEE_FLOAT && bitsPerSample == 32;
+    }
+
+    private static int readTag(DataInputStream in) throws IOException {
+        return readIntLE(in);
+    }
+
+    private static int readIntLE(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static int readShortLE(DataInputStream in) throws IOException {
+        return Short.toUnsignedInt(Short.reverseBytes(in.readShort()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An audit entry captured on the request thread. Provider identity comes from the
+ * authenticated principal and patient fields from {@link PatientDisplayCache}, so an
+ * event is usually complete when captured; fields left null are resolved by
+ * {@link AuditEventWriter} for the whole batch at once.
+ *
+ * @param eventId          assigned at capture; makes replaying an event after an outage idempotent
+ * @param providerClinicId clinic of the acting provider; not persisted, used by {@link SuspiciousAccessDetector}
+ * @param patientClinicId  clinic of the patient, when known from the cache; not persisted either
+ * @param enqueuedNanos {@link System#nanoTime()} at capture, used to measure write lag
+ */
+public record AuditEvent(
+        UUID eventId,
+        AuditAction action,
+        Long providerId,
+        String providerName,
+        String providerEmail,
+        String providerRole,
+        Long providerClinicId,
+        Long patientId,
+        String patientName,
+        String patientNationalId,
+        Long patientClinicId,
+        String resourceType,
+        Long resourceId,
+        String details,
+        boolean success,
+        String errorMessage,
+        String ipAddress,
+        String userAgent,
+        String sessionId,
+        LocalDateTime timestamp,
+        long enqueuedNanos
+) {
+
+    boolean hasProvider() {
+        return providerId != null;
+    }
+
+    boolean hasPatientDisplay() {
+        return patientId == null || patientName != null;
+    }
+}
@@ -0,0 +1,389 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.Patient;
+import com.asakaa.synthesis.domain.entity.Provider;
+import com.asakaa.synthesis.repository.PatientRepository;
+import com.asakaa.synthesis.repository.ProviderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind sink for audit events. Callers enqueue into a bounded buffer and return
+ * immediately; a single writer thread drains it and inserts in JDBC batches, flushing
+ * when a batch fills or {@code flush-interval-ms} after its first event, whichever comes first.
+ * <p>
+ * When the buffer is full the caller waits up to {@code enqueue-timeout-ms}, then spills its
+ * event to the local {@link AuditJournal} rather than dropping it; batches the database keeps
+ * rejecting are journaled too. Journaled events are replayed on a schedule, and the unique
+ * {@code event_id} makes a replay of an already written event a no-op. Shutdown stops intake
+ * and drains the buffer.
+ * <p>
+ * An event the database rejects on its own merits, rather than because it is unavailable,
+ * is moved to {@code audit_logs_dead_letter} instead of being retried forever.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditEventWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_logs (provider_id, provider_name, provider_email, provider_role, action,
+                                    patient_id, patient_name, patient_national_id, resource_type, resource_id,
+                                    details, ip_address, user_agent, session_id, timestamp, success, error_message,
+                                    event_id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (event_id, timestamp) DO NOTHING
+            """;
+
+    private static final String DEAD_LETTER_SQL = """
+            INSERT INTO audit_logs_dead_letter (event_id, provider_id, provider_name, provider_email, provider_role,
+                                                action, patient_id, patient_name, patient_national_id, resource_type,
+                                                resource_id, details, ip_address, user_agent, session_id, timestamp,
+                                                success, error_message, rejection)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (event_id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProviderRepository providerRepository;
+    private final PatientRepository patientRepository;
+    private final PatientDisplayCache patientDisplayCache;
+    private final SuspiciousAccessDetector suspiciousAccessDetector;
+    private final AuditJournal journal;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.audit.writer.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${synthesis.audit.writer.batch-size}")
+    private int batchSize;
+
+    @Value("${synthesis.audit.writer.flush-interval-ms}")
+    private long flushIntervalMillis;
+
+    @Value("${synthesis.audit.writer.enqueue-timeout-ms}")
+    private long enqueueTimeoutMillis;
+
+    @Value("${synthesis.audit.writer.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${synthesis.audit.writer.retry-backoff-ms}")
+    private long retryBackoffMillis;
+
+    @Value("${synthesis.audit.writer.shutdown-timeout-ms}")
+    private long shutdownTimeoutMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private BlockingQueue<AuditEvent> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer lag;
+    private Counter spilled;
+    private Counter failures;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        // Own transaction per batch, so a spilled write never joins (or rolls back with) the caller's
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("synthesis.audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("synthesis.audit.batch.size")
+                .description("Audit events written per JDBC batch")
+                .register(meterRegistry);
+        lag = Timer.builder("synthesis.audit.lag")
+                .description("Time from capturing an audit event to committing it")
+                .register(meterRegistry);
+        spilled = Counter.builder("synthesis.audit.spilled")
+                .description("Audit events journaled on the caller thread because the buffer was full")
+                .register(meterRegistry);
+        failures = Counter.builder("synthesis.audit.write.failures")
+                .description("Audit events that could be neither written nor journaled")
+                .register(meterRegistry);
+        rejected = Counter.builder("synthesis.audit.rejected")
+                .description("Audit events the database rejected, moved to audit_logs_dead_letter")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(shutdownTimeoutMillis);
+        if (writerThread.isAlive()) {
+            log.warn("Audit writer did not finish within {} ms, {} events unwritten",
+                    shutdownTimeoutMillis, queue.size());
+        }
+    }
+
+    public void submit(AuditEvent event) {
+        try {
+            if (running && queue.offer(event, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        spilled.increment();
+        journal(List.of(event));
+    }
+
+    /**
+     * Replays journaled events into the database, oldest segment first, deleting each
+     * segment once all of its events are in or dead-lettered. Stops at the first failure
+     * that is not a rejected event and tries again on the next run, so it is harmless while
+     * the database is still down.
+     */
+    @Scheduled(fixedDelayString = "${synthesis.audit.journal.replay-interval-ms}")
+    public void replayJournal() {
+        for (Path segment : journal.sealSegments()) {
+            try {
+                long replayed = journal.read(segment, batchSize, this::insertIsolatingRejects);
+                journal.delete(segment);
+                log.info("Replayed {} journaled audit events from {}", replayed, segment.getFileName());
+            } catch (Exception e) {
+                log.warn("Audit journal replay stopped at {}; will retry", segment.getFileName(), e);
+                return;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    AuditEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("Audit writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<AuditEvent> batch) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                insertIsolatingRejects(batch);
+
+                long now = System.nanoTime();
+                batch.forEach(event -> lag.record(now - event.enqueuedNanos(), TimeUnit.NANOSECONDS));
+                batchSizes.record(batch.size());
+                observeResolvedPatients(batch);
+                return;
+            } catch (Exception e) {
+                log.warn("Audit batch of {} events failed (attempt {}/{})", batch.size(), attempt, maxAttempts, e);
+                if (attempt < maxAttempts && !backOff(attempt)) {
+                    break;
+                }
+            }
+        }
+
+        journal(batch);
+    }
+
+    /**
+     * Waits before the next attempt, doubling each time, so a briefly unavailable database
+     * gets a chance to recover. Returns false if interrupted.
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMillis << (attempt - 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Events captured before their patient was cached reached {@link SuspiciousAccessDetector}
+     * without the patient's clinic. Writing the batch has resolved and cached those patients,
+     * so their cross-clinic check runs now.
+     */
+    private void observeResolvedPatients(List<AuditEvent> batch) {
+        for (AuditEvent event : batch) {
+            if (!event.hasPatientDisplay()) {
+                patientDisplayCache.get(event.patientId()).ifPresent(patient ->
+                        suspiciousAccessDetector.observePatientClinic(event, patient.clinicId()));
+            }
+        }
+    }
+
+    private void journal(List<AuditEvent> events) {
+        try {
+            journal.append(events);
+        } catch (Exception e) {
+            // Last resort: keep the trail in the application log so it can be replayed by hand
+            log.error("Audit journal append failed", e);
+            failures.increment(events.size());
+            events.forEach(event -> log.error("Unwritten audit event: {}", event));
+        }
+    }
+
+    /**
+     * Inserts the batch in its own transaction. When the database rejects the data itself,
+     * the batch is retried row by row and the rows still rejected are dead-lettered, so the
+     * others go in. Any other failure, such as a lost connection, propagates.
+     */
+    private void insertIsolatingRejects(List<AuditEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                deadLetter(batch.get(0), e);
+                return;
+            }
+            log.warn("Audit batch of {} events rejected; retrying row by row", batch.size(), e);
+            for (AuditEvent event : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(event)));
+                } catch (DataIntegrityViolationException rowRejected) {
+                    deadLetter(event, rowRejected);
+                }
+            }
+        }
+    }
+
+    private void deadLetter(AuditEvent event, DataIntegrityViolationException rejection) {
+        log.error("Audit event {} rejected by the database; moving it to the dead letter table",
+                event.eventId(), rejection);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(DEAD_LETTER_SQL,
+                    event.eventId(), event.providerId(), event.providerName(), event.providerEmail(),
+                    event.providerRole(), event.action().name(), event.patientId(), event.patientName(),
+                    event.patientNationalId(), event.resourceType(), event.resourceId(), event.details(),
+                    event.ipAddress(), event.userAgent(), event.sessionId(), Timestamp.valueOf(event.timestamp()),
+                    event.success(), event.errorMessage(), rejection.getMostSpecificCause().getMessage()));
+            rejected.increment();
+        } catch (DataIntegrityViolationException e) {
+            // Even the unconstrained copy was refused; keep the trail in the application log
+            log.error("Unwritten audit event: {}", event, e);
+            failures.increment();
+        }
+    }
+
+    /**
+     * Inserts the batch. Only events captured without a provider principal or with a patient
+     * not yet in {@link PatientDisplayCache} cost a read, and those are resolved in one
+     * query each for the whole batch.
+     */
+    private void insert(List<AuditEvent> batch) {
+        Map<String, Provider> providers = lookup(
+                batch.stream().filter(event -> !event.hasProvider())
+                        .map(AuditEvent::providerEmail).collect(Collectors.toSet()),
+                providerRepository::findByEmailIn, Provider::getEmail);
+        Map<Long, Patient> patients = lookup(
+                batch.stream().filter(event -> !event.hasPatientDisplay())
+                        .map(AuditEvent::patientId).collect(Collectors.toSet()),
+                patientRepository::findAllById, Patient::getId);
+        patients.values().forEach(patientDisplayCache::put);
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            Provider provider = event.hasProvider() ? null : providers.get(event.providerEmail());
+            Long providerId = event.hasProvider() ? event.providerId() : provider != null ? provider.getId() : null;
+            String providerName = event.hasProvider() ? event.providerName() : provider != null ? provider.getName() : null;
+            String providerRole = event.hasProvider() ? event.providerRole() : provider != null ? provider.getRole() : null;
+
+            Long patientId = event.patientId();
+            String patientName = event.patientName();
+            String patientNationalId = event.patientNationalId();
+            if (!event.hasPatientDisplay()) {
+                Patient patient = patients.get(patientId);
+                // A patient deleted since the event was captured would violate the foreign key
+                patientId = patient != null ? patient.getId() : null;
+                patientName = patient != null ? patient.getFirstName() + " " + patient.getLastName() : null;
+                patientNationalId = patient != null ? patient.getNationalId() : null;
+            }
+
+            ps.setObject(1, providerId, Types.BIGINT);
+            ps.setString(2, providerName != null ? providerName : "Unknown");
+            ps.setString(3, event.providerEmail());
+            ps.setString(4, providerRole != null ? providerRole : "Unknown");
+            ps.setString(5, event.action().name());
+            ps.setObject(6, patientId, Types.BIGINT);
+            ps.setString(7, patientName);
+            ps.setString(8, patientNationalId);
+            ps.setString(9, event.resourceType());
+            ps.setObject(10, event.resourceId(), Types.BIGINT);
+            ps.setString(11, event.details());
+            ps.setString(12, event.ipAddress());
+            ps.setString(13, event.userAgent());
+            ps.setString(14, event.sessionId());
+            ps.setTimestamp(15, Timestamp.valueOf(event.timestamp()));
+            ps.setBoolean(16, event.success());
+            ps.setString(17, event.errorMessage());
+            ps.setObject(18, event.eventId());
+        });
+    }
+
+    private static <K, V> Map<K, V> lookup(Set<K> keys, Function<Set<K>, List<V>> finder, Function<V, K> keyOf) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        return finder.apply(keys).stream().collect(Collectors.toMap(keyOf, Function.identity(), (a, b) -> a));
+    }
+}
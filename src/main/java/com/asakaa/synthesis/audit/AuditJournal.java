@@ -0,0 +1,320 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local journal for audit events the database could not take. Events are
+ * written to fixed-size memory-mapped segment files as length-prefixed, CRC-checked
+ * records; a segment is rolled when full and deleted once replayed.
+ * <p>
+ * A record is {@code [int length][int crc32c][payload]}. Segments are zero-filled when
+ * created, so a zero length marks the end of written data, and a record whose CRC does
+ * not match (a write torn by a crash) ends the segment. A record that is intact but cannot
+ * be decoded, such as one naming an audit action removed by an upgrade, is copied to the
+ * {@code quarantine} subdirectory for manual recovery and reading continues past it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditJournal {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String QUARANTINE_DIR = "quarantine";
+    private static final int HEADER_BYTES = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.audit.journal.dir}")
+    private Path directory;
+
+    @Value("${synthesis.audit.journal.segment-bytes}")
+    private int segmentBytes;
+
+    @Value("${synthesis.audit.journal.force-writes}")
+    private boolean forceWrites;
+
+    private long nextSequence;
+    private MappedByteBuffer active;
+    private Path activePath;
+    private ByteBuffer scratch = ByteBuffer.allocate(16 * 1024);
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = segments();
+        nextSequence = existing.isEmpty() ? 0 : sequenceOf(existing.get(existing.size() - 1)) + 1;
+        if (!existing.isEmpty()) {
+            log.warn("Audit journal holds {} segments from a previous run awaiting replay", existing.size());
+        }
+        Gauge.builder("synthesis.audit.journal.segments", this, journal -> journal.segments().size())
+                .description("Audit journal segments awaiting replay")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    /**
+     * Appends the events, rolling to a new segment when the current one is full. With
+     * {@code force-writes} the call returns only once the records are on disk.
+     */
+    public synchronized void append(List<AuditEvent> events) throws IOException {
+        for (AuditEvent event : events) {
+            ByteBuffer payload = encode(event);
+            int recordBytes = HEADER_BYTES + payload.remaining();
+            if (recordBytes + HEADER_BYTES > segmentBytes) {
+                throw new IOException("Audit event of " + recordBytes + " bytes exceeds the journal segment size");
+            }
+            // Keep room for the zero length that terminates the segment
+            if (active == null || active.remaining() < recordBytes + HEADER_BYTES) {
+                roll();
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            active.putInt(payload.remaining());
+            active.putInt((int) crc.getValue());
+            active.put(payload);
+        }
+        if (forceWrites && active != null) {
+            active.force();
+        }
+        meterRegistry.counter("synthesis.audit.journal.appended").increment(events.size());
+    }
+
+    /**
+     * Closes the active segment if it holds records and returns every closed segment,
+     * oldest first. Events appended afterwards go to a new segment.
+     */
+    public synchronized List<Path> sealSegments() {
+        if (active != null && active.position() > 0) {
+            active.force();
+            active = null;
+            activePath = null;
+        }
+        List<Path> sealed = new ArrayList<>(segments());
+        sealed.remove(activePath);
+        return sealed;
+    }
+
+    /**
+     * Reads a closed segment, handing its events to {@code consumer} in batches of at most
+     * {@code batchSize}. Undecodable records are quarantined rather than failing the segment.
+     * Returns the number of events read.
+     */
+    public long read(Path segment, int batchSize, Consumer<List<AuditEvent>> consumer) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        long count = 0;
+        int record = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                log.warn("Audit journal {} has a torn record after {} events; ignoring the rest", segment, count);
+                break;
+            }
+            record++;
+            AuditEvent event;
+            try {
+                event = decode(payload.duplicate());
+            } catch (IllegalStateException e) {
+                quarantine(segment, record, payload);
+                continue;
+            }
+            batch.add(event);
+            count++;
+            if (batch.size() == batchSize) {
+                consumer.accept(List.copyOf(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(List.copyOf(batch));
+        }
+        return count;
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    private void quarantine(Path segment, int record, ByteBuffer payload) throws IOException {
+        Path quarantine = Files.createDirectories(directory.resolve(QUARANTINE_DIR));
+        Path target = quarantine.resolve(segment.getFileName() + "." + record + ".record");
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = payload.duplicate();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        log.error("Audit journal {} record {} could not be decoded; moved to {}", segment.getFileName(), record, target);
+        meterRegistry.counter("synthesis.audit.journal.quarantined").increment();
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file, zero-filled; the mapping outlives the channel
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        activePath = path;
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Could not list audit journal {}", directory, e);
+            return List.of();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private ByteBuffer encode(AuditEvent event) throws IOException {
+        while (true) {
+            try {
+                return encode(event, scratch.clear());
+            } catch (BufferOverflowException e) {
+                if (scratch.capacity() >= segmentBytes) {
+                    throw new IOException("Audit event exceeds the journal segment size", e);
+                }
+                scratch = ByteBuffer.allocate(Math.min(scratch.capacity() * 2, segmentBytes));
+            }
+        }
+    }
+
+    private static ByteBuffer encode(AuditEvent event, ByteBuffer out) {
+        out.putLong(event.eventId().getMostSignificantBits());
+        out.putLong(event.eventId().getLeastSignificantBits());
+        putString(out, event.action().name());
+        putLong(out, event.providerId());
+        putString(out, event.providerName());
+        putString(out, event.providerEmail());
+        putString(out, event.providerRole());
+        putLong(out, event.providerClinicId());
+        putLong(out, event.patientId());
+        putString(out, event.patientName());
+        putString(out, event.patientNationalId());
+        putLong(out, event.patientClinicId());
+        putString(out, event.resourceType());
+        putLong(out, event.resourceId());
+        putString(out, event.details());
+        out.put((byte) (event.success() ? 1 : 0));
+        putString(out, event.errorMessage());
+        putString(out, event.ipAddress());
+        putString(out, event.userAgent());
+        putString(out, event.sessionId());
+        out.putLong(event.timestamp().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(event.timestamp().getNano());
+        return out.flip();
+    }
+
+    private static AuditEvent decode(ByteBuffer in) {
+        try {
+            return new AuditEvent(
+                    new UUID(in.getLong(), in.getLong()),
+                    AuditAction.valueOf(getString(in)),
+                    getLong(in), getString(in), getString(in), getString(in), getLong(in),
+                    getLong(in), getString(in), getString(in), getLong(in),
+                    getString(in), getLong(in), getString(in),
+                    in.get() == 1, getString(in),
+                    getString(in), getString(in), getString(in),
+                    LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC),
+                    System.nanoTime());
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            // IllegalArgumentException covers an audit action that no longer exists
+            throw new IllegalStateException("Corrupt audit journal record", e);
+        }
+    }
+
+    private static void putLong(ByteBuffer out, Long value) {
+        out.put((byte) (value != null ? 1 : 0));
+        if (value != null) {
+            out.putLong(value);
+        }
+    }
+
+    private static Long getLong(ByteBuffer in) {
+        return in.get() == 1 ? in.getLong() : null;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,240 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.repository.AuditLogQueryRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes audit log rows to a stream as NDJSON or CSV. Rows go from the JDBC cursor to the
+ * output one at a time without being mapped to entities or DTOs, so heap use does not grow
+ * with the size of the export.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogExporter {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final AuditLogQueryRepository auditLogQueryRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${synthesis.audit.export.fetch-size}")
+    private int fetchSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Streams every row matching the filter, oldest first, and returns the row count.
+     * The output stream is finished but not closed.
+     */
+    public long export(AuditLogFilter filter, AuditExportFormat format, boolean gzip, OutputStream out)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_BYTES) : null;
+        OutputStream target = gzip ? compressed : out;
+
+        RowWriter writer = format == AuditExportFormat.CSV
+                ? new CsvRowWriter(target)
+                : new NdjsonRowWriter(objectMapper.getFactory(), target);
+
+        long rows;
+        try {
+            rows = transactionTemplate.execute(status ->
+                    auditLogQueryRepository.streamAll(filter, fetchSize, rs -> writeAll(rs, writer)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+
+        log.info("Exported {} audit rows as {}{} in {} ms", rows, format, gzip ? " (gzip)" : "",
+                System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private static long writeAll(ResultSet rs, RowWriter writer) throws SQLException {
+        try {
+            writer.writeHeader(rs.getMetaData());
+            long count = 0;
+            while (rs.next()) {
+                writer.writeRow(rs);
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            // Usually the client went away; rolling back releases the cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Quotes a CSV field when it contains a delimiter, quote or line break (RFC 4180).
+     * A field a spreadsheet would read as a formula, such as a User-Agent header starting
+     * with {@code =}, is prefixed with {@code '} so it opens as text.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    static String fieldName(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private interface RowWriter {
+
+        void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException;
+
+        void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private String[] fields;
+
+        NdjsonRowWriter(JsonFactory factory, OutputStream out) throws IOException {
+            generator = factory.createGenerator(out);
+            // The caller owns the stream; finishing a gzip trailer still needs it open
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void writeHeader(ResultSetMetaData metaData) throws SQLException {
+            fields = fieldNames(metaData);
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < fields.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(fields[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else {
+                    generator.writeString(text(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private int columns;
+
+        CsvRowWriter(OutputStream out) {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        }
+
+        @Override
+        public void writeHeader(ResultSetMetaData metaData) throws SQLException, IOException {
+            String[] fields = fieldNames(metaData);
+            columns = fields.length;
+            writer.write(String.join(",", fields));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writer.write(csvField(text(rs.getObject(i))));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String[] fieldNames(ResultSetMetaData metaData) throws SQLException {
+        String[] fields = new String[metaData.getColumnCount()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fieldName(metaData.getColumnLabel(i + 1));
+        }
+        return fields;
+    }
+}
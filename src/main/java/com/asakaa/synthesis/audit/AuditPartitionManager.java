@@ -0,0 +1,140 @@
+package com.asakaa.synthesis.audit;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code audit_logs} ahead of time and retires months
+ * older than the retention period, either by detaching them (the table stays in the
+ * database, ready to be dumped to cold storage and dropped) or by dropping them outright.
+ * Rows that fell into {@code audit_logs_default} because their month had no partition are
+ * moved into a partition created for that month.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_logs_y(\\d{4})m(\\d{2})");
+
+    // Serialises maintenance across application instances sharing the database
+    private static final long ADVISORY_LOCK_KEY = 0x5359_4E41_5544_4954L;
+
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = 'audit_logs'
+            """;
+
+    public enum RetentionAction { DETACH, DROP }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${synthesis.audit.partitions.months-ahead}")
+    private int monthsAhead;
+
+    @Value("${synthesis.audit.partitions.retention-months}")
+    private int retentionMonths;
+
+    @Value("${synthesis.audit.partitions.retention-action}")
+    private RetentionAction retentionAction;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs at startup as well, so a deployment after a long outage never waits for the
+     * next scheduled run before it has a partition for the current month.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${synthesis.audit.partitions.cron}")
+    public void maintain() {
+        // The advisory lock is transaction-scoped, so the whole run shares one transaction
+        transactionTemplate.executeWithoutResult(status -> maintainPartitions());
+    }
+
+    private void maintainPartitions() {
+        Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Audit partition maintenance already running elsewhere");
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        SortedSet<LocalDate> months = new TreeSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT date_trunc('month', timestamp)::date FROM audit_logs_default", LocalDate.class));
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i).atDay(1));
+        }
+        // For a month with rows in the default partition, this also moves them into the new partition
+        for (LocalDate month : months) {
+            jdbcTemplate.queryForObject("SELECT audit_logs_create_partition(?)", String.class, month);
+        }
+
+        List<String> retired = new ArrayList<>();
+        for (String partition : expiredPartitions(
+                jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class), current.minusMonths(retentionMonths))) {
+            if (retentionAction == RetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE audit_logs DETACH PARTITION " + partition);
+            }
+            retired.add(partition);
+        }
+
+        if (!retired.isEmpty()) {
+            log.info("Audit partitions past {} months retention ({}): {}",
+                    retentionMonths, retentionAction, retired);
+        }
+
+        Long stray = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs_default", Long.class);
+        if (stray != null && stray > 0) {
+            log.warn("{} audit rows remain in audit_logs_default after creating partitions for their months", stray);
+        }
+    }
+
+    /**
+     * Monthly partitions that end before the first retained month. Anything not named by
+     * {@link #PARTITION_NAME}, including the default partition, is never retired.
+     */
+    static List<String> expiredPartitions(List<String> partitions, YearMonth firstRetained) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (matcher.matches()) {
+                YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                if (month.isBefore(firstRetained)) {
+                    expired.add(partition);
+                }
+            }
+        }
+        expired.sort(null);
+        return expired;
+    }
+}
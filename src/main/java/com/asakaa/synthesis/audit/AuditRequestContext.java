@@ -0,0 +1,97 @@
+package com.asakaa.synthesis.audit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * The HTTP request details recorded with an audit event, copied out of the request so they
+ * can outlive it. Work handed to another thread carries the caller's copy with
+ * {@link #wrap(Runnable)}, the way {@code DelegatingSecurityContextRunnable} carries the
+ * security context, so its audit entries name the same client.
+ * <p>
+ * Values come from client headers and are truncated to their {@code audit_logs} column widths.
+ */
+public record AuditRequestContext(String ipAddress, String userAgent, String sessionId) {
+
+    private static final int MAX_IP_ADDRESS = 45;
+    private static final int MAX_USER_AGENT = 500;
+    private static final int MAX_SESSION_ID = 100;
+
+    private static final AuditRequestContext NONE = new AuditRequestContext(null, null, null);
+    private static final ThreadLocal<AuditRequestContext> PROPAGATED = new ThreadLocal<>();
+
+    private static final String[] IP_HEADERS = {
+        "X-Forwarded-For",
+        "Proxy-Client-IP",
+        "WL-Proxy-Client-IP",
+        "HTTP_X_FORWARDED_FOR",
+        "HTTP_X_FORWARDED",
+        "HTTP_X_CLUSTER_CLIENT_IP",
+        "HTTP_CLIENT_IP",
+        "HTTP_FORWARDED_FOR",
+        "HTTP_FORWARDED",
+        "HTTP_VIA",
+        "REMOTE_ADDR"
+    };
+
+    /**
+     * The context propagated to this thread, or else the one of the request it is serving;
+     * empty when neither exists, as for scheduled jobs.
+     */
+    public static AuditRequestContext current() {
+        AuditRequestContext propagated = PROPAGATED.get();
+        if (propagated != null) {
+            return propagated;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NONE;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        HttpSession session = request.getSession(false);
+        return new AuditRequestContext(
+                truncate(clientIpAddress(request), MAX_IP_ADDRESS),
+                truncate(request.getHeader("User-Agent"), MAX_USER_AGENT),
+                session != null ? truncate(session.getId(), MAX_SESSION_ID) : null);
+    }
+
+    /**
+     * Runs the task with this context as the thread's current one.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            AuditRequestContext previous = PROPAGATED.get();
+            PROPAGATED.set(this);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    PROPAGATED.set(previous);
+                } else {
+                    PROPAGATED.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Client IP address (handles proxies)
+     */
+    private static String clientIpAddress(HttpServletRequest request) {
+        for (String header : IP_HEADERS) {
+            String ip = request.getHeader(header);
+            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
+                return ip.split(",")[0].trim();
+            }
+        }
+
+        return request.getRemoteAddr();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,69 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.Patient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded LRU of the patient fields copied into audit entries, so capturing an event
+ * for a recently seen patient needs no database read. Entries are filled by
+ * {@link AuditEventWriter} for misses and refreshed when a patient is edited.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientDisplayCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.audit.patient-cache.max-entries}")
+    private int maxEntries;
+
+    private Map<Long, PatientDisplay> entries;
+    private Counter hits;
+    private Counter misses;
+
+    public record PatientDisplay(String name, String nationalId, Long clinicId) {
+
+        static PatientDisplay of(Patient patient) {
+            return new PatientDisplay(patient.getFirstName() + " " + patient.getLastName(), patient.getNationalId(),
+                    patient.getClinic() != null ? patient.getClinic().getId() : null);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PatientDisplay> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        hits = Counter.builder("synthesis.audit.patient.cache")
+                .description("Patient display lookups for audit entries")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("synthesis.audit.patient.cache")
+                .description("Patient display lookups for audit entries")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    public Optional<PatientDisplay> get(Long patientId) {
+        PatientDisplay display = entries.get(patientId);
+        (display != null ? hits : misses).increment();
+        return Optional.ofNullable(display);
+    }
+
+    public void put(Patient patient) {
+        entries.put(patient.getId(), PatientDisplay.of(patient));
+    }
+}
@@ -0,0 +1,28 @@
+package com.asakaa.synthesis.audit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link SuspiciousAccessDetector} when a provider crosses a threshold.
+ *
+ * @param observed  count within the window when the alert fired
+ * @param threshold the limit for the provider's role
+ */
+public record SuspiciousAccessAlert(
+        Long providerId,
+        String providerEmail,
+        String providerRole,
+        Type type,
+        int observed,
+        int threshold,
+        Duration window,
+        LocalDateTime detectedAt
+) {
+
+    public enum Type {
+        DISTINCT_PATIENTS,
+        AFTER_HOURS,
+        CROSS_CLINIC
+    }
+}
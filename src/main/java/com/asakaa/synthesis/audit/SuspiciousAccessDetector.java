@@ -0,0 +1,200 @@
+package com.asakaa.synthesis.audit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Watches patient-record accesses as audit events are captured and raises a
+ * {@link SuspiciousAccessAlert} when a provider, within a sliding window, touches more
+ * distinct patients, more records after hours, or more records of other clinics than
+ * their role allows.
+ * <p>
+ * State is bounded: at most {@code max-tracked-providers} windows (least recently active
+ * evicted first), each holding at most {@code max-events-per-provider} accesses. Each
+ * alert type fires at most once per window per provider.
+ * <p>
+ * An access captured before its patient was in {@link PatientDisplayCache} arrives without
+ * the patient's clinic; {@link AuditEventWriter} reports the clinic once it has resolved it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SuspiciousAccessDetector {
+
+    private final SuspiciousAccessProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private Map<Long, ProviderWindow> windows;
+
+    @PostConstruct
+    void init() {
+        windows = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ProviderWindow> eldest) {
+                return size() > properties.getMaxTrackedProviders();
+            }
+        });
+        Gauge.builder("synthesis.audit.suspicious.tracked.providers", windows, Map::size)
+                .description("Providers with an open suspicious-access window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the event if it is a successful access to a patient record by a known provider.
+     * Cheap enough to call on the request thread.
+     */
+    public void observe(AuditEvent event) {
+        if (!properties.isEnabled() || event.providerId() == null || event.patientId() == null || !event.success()) {
+            return;
+        }
+
+        long atMillis = event.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean afterHours = isAfterHours(event.timestamp());
+        boolean crossClinic = isCrossClinic(event.providerClinicId(), event.patientClinicId());
+        record(event, new Access(atMillis, event.patientId(), afterHours, crossClinic));
+    }
+
+    /**
+     * Counts the cross-clinic part of an access that was observed before its patient's clinic
+     * was known. The access itself was already counted by {@link #observe(AuditEvent)}.
+     */
+    public void observePatientClinic(AuditEvent event, Long patientClinicId) {
+        if (!properties.isEnabled() || event.providerId() == null || event.patientId() == null || !event.success()
+                || !isCrossClinic(event.providerClinicId(), patientClinicId)) {
+            return;
+        }
+
+        long atMillis = event.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        record(event, new Access(atMillis, null, false, true));
+    }
+
+    private void record(AuditEvent event, Access access) {
+        ProviderWindow window = windows.computeIfAbsent(event.providerId(), id -> new ProviderWindow());
+        List<SuspiciousAccessAlert> alerts;
+        synchronized (window) {
+            window.add(access, properties.getWindow().toMillis(), properties.getMaxEventsPerProvider());
+            alerts = window.check(event, access.atMillis(), properties.thresholdsFor(event.providerRole()),
+                    properties.getWindow().toMillis());
+        }
+
+        for (SuspiciousAccessAlert alert : alerts) {
+            meterRegistry.counter("synthesis.audit.suspicious.alerts", "type", alert.type().name()).increment();
+            log.warn("Suspicious access by provider {} ({}, {}): {} {} within {} exceeds {}",
+                    alert.providerId(), alert.providerEmail(), alert.providerRole(), alert.observed(),
+                    alert.type(), alert.window(), alert.threshold());
+            eventPublisher.publishEvent(alert);
+        }
+    }
+
+    private static boolean isCrossClinic(Long providerClinicId, Long patientClinicId) {
+        return providerClinicId != null && patientClinicId != null && !providerClinicId.equals(patientClinicId);
+    }
+
+    boolean isAfterHours(LocalDateTime timestamp) {
+        int hour = timestamp.getHour();
+        int start = properties.getAfterHoursStartHour();
+        int end = properties.getAfterHoursEndHour();
+        // A range such as 20..7 wraps past midnight
+        return start > end ? hour >= start || hour < end : hour >= start && hour < end;
+    }
+
+    int trackedProviders() {
+        return windows.size();
+    }
+
+    /**
+     * One access; {@code patientId} is null for the late cross-clinic count of an access
+     * whose patient was already counted.
+     */
+    private record Access(long atMillis, Long patientId, boolean afterHours, boolean crossClinic) {
+    }
+
+    /**
+     * One provider's accesses within the window, with running counts kept in step as
+     * accesses enter and leave so each check is constant time.
+     */
+    private static final class ProviderWindow {
+
+        private final Deque<Access> accesses = new ArrayDeque<>();
+        private final Map<Long, Integer> patientCounts = new HashMap<>();
+        private final Map<SuspiciousAccessAlert.Type, Long> lastAlertMillis =
+                new EnumMap<>(SuspiciousAccessAlert.Type.class);
+        private int afterHours;
+        private int crossClinic;
+
+        void add(Access access, long windowMillis, int maxEvents) {
+            while (!accesses.isEmpty()
+                    && (accesses.peekFirst().atMillis() <= access.atMillis() - windowMillis
+                    || accesses.size() >= maxEvents)) {
+                remove(accesses.pollFirst());
+            }
+            accesses.addLast(access);
+            if (access.patientId() != null) {
+                patientCounts.merge(access.patientId(), 1, Integer::sum);
+            }
+            if (access.afterHours()) {
+                afterHours++;
+            }
+            if (access.crossClinic()) {
+                crossClinic++;
+            }
+        }
+
+        private void remove(Access access) {
+            if (access.patientId() != null) {
+                patientCounts.computeIfPresent(access.patientId(), (id, count) -> count > 1 ? count - 1 : null);
+            }
+            if (access.afterHours()) {
+                afterHours--;
+            }
+            if (access.crossClinic()) {
+                crossClinic--;
+            }
+        }
+
+        List<SuspiciousAccessAlert> check(AuditEvent event, long nowMillis,
+                                          SuspiciousAccessProperties.Thresholds thresholds, long windowMillis) {
+            List<SuspiciousAccessAlert> alerts = new ArrayList<>(0);
+            check(alerts, SuspiciousAccessAlert.Type.DISTINCT_PATIENTS, patientCounts.size(),
+                    thresholds.getDistinctPatients(), event, nowMillis, windowMillis);
+            check(alerts, SuspiciousAccessAlert.Type.AFTER_HOURS, afterHours,
+                    thresholds.getAfterHoursAccesses(), event, nowMillis, windowMillis);
+            check(alerts, SuspiciousAccessAlert.Type.CROSS_CLINIC, crossClinic,
+                    thresholds.getCrossClinicAccesses(), event, nowMillis, windowMillis);
+            return alerts;
+        }
+
+        private void check(List<SuspiciousAccessAlert> alerts, SuspiciousAccessAlert.Type type, int observed,
+                           int threshold, AuditEvent event, long nowMillis, long windowMillis) {
+            if (observed <= threshold) {
+                return;
+            }
+            Long last = lastAlertMillis.get(type);
+            if (last != null && nowMillis - last < windowMillis) {
+                return;
+            }
+            lastAlertMillis.put(type, nowMillis);
+            alerts.add(new SuspiciousAccessAlert(event.providerId(), event.providerEmail(), event.providerRole(),
+                    type, observed, threshold, Duration.ofMillis(windowMillis), event.timestamp()));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.asakaa.synthesis.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for {@link SuspiciousAccessDetector}. Thresholds are counts within one window;
+ * entries under {@code roles} override {@code defaults} field by field for providers whose
+ * role matches the key, ignoring case and punctuation ({@code super-admin} matches {@code SUPER_ADMIN}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "synthesis.audit.suspicious-access")
+public class SuspiciousAccessProperties {
+
+    private boolean enabled = true;
+    private Duration window = Duration.ofHours(1);
+    private int maxTrackedProviders = 5000;
+    private int maxEventsPerProvider = 1000;
+    private int afterHoursStartHour = 20;
+    private int afterHoursEndHour = 7;
+    private Thresholds defaults = new Thresholds(30, 20, 10);
+    private Map<String, Thresholds> roles = new HashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Thresholds {
+        private Integer distinctPatients;
+        private Integer afterHoursAccesses;
+        private Integer crossClinicAccesses;
+    }
+
+    /**
+     * The role's thresholds, with any the role leaves unset taken from {@code defaults}.
+     */
+    public Thresholds thresholdsFor(String role) {
+        if (role != null) {
+            String key = normalize(role);
+            for (Map.Entry<String, Thresholds> entry : roles.entrySet()) {
+                if (normalize(entry.getKey()).equals(key)) {
+                    Thresholds override = entry.getValue();
+                    return new Thresholds(
+                            orDefault(override.getDistinctPatients(), defaults.getDistinctPatients()),
+                            orDefault(override.getAfterHoursAccesses(), defaults.getAfterHoursAccesses()),
+                            orDefault(override.getCrossClinicAccesses(), defaults.getCrossClinicAccesses()));
+                }
+            }
+        }
+        return defaults;
+    }
+
+    private static Integer orDefault(Integer value, Integer fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static String normalize(String role) {
+        return role.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+}
@@ -7,18 +7,23 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class CorsConfig implements WebMvcConfigurer {
 
+    /**
+     * Browser origins allowed to call the API, shared with the WebSocket endpoints.
+     */
+    static final String[] ALLOWED_ORIGINS = {
+        "http://localhost:3000",
+        "http://127.0.0.1:3000",
+        "http://172.20.10.12:3000",
+        "http://172.20.10.12:8000",
+        "http://localhost:8000",
+        "http://172.20.10.12:8080",
+        "http://localhost:8080"
+    };
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
-                .allowedOrigins(
-                    "http://localhost:3000",
-                    "http://127.0.0.1:3000",
-                    "http://172.20.10.12:3000",
-                    "http://172.20.10.12:8000",
-                    "http://localhost:8000",
-                    "http://172.20.10.12:8080",
-                    "http://localhost:8080"
-                )
+                .allowedOrigins(ALLOWED_ORIGINS)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
                 .allowedHeaders("*")
                 .allowCredentials(true)
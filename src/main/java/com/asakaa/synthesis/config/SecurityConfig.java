@@ -1,6 +1,8 @@
 package com.asakaa.synthesis.config;
 
 import com.asakaa.synthesis.repository.ProviderRepository;
+import com.asakaa.synthesis.security.ProviderPrincipal;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +40,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // SSE and streaming responses complete on an async dispatch that carries no JWT
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/clinics/register").permitAll()
                         .requestMatchers("/api/v1/**").authenticated()
@@ -54,11 +58,7 @@ public class SecurityConfig {
                 .map(provider -> {
                     String role = provider.getRole() != null ? provider.getRole() : "PROVIDER";
                     var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-                    return org.springframework.security.core.userdetails.User.builder()
-                            .username(provider.getEmail())
-                            .password(provider.getPasswordHash())
-                            .authorities(authorities)
-                            .build();
+                    return new ProviderPrincipal(provider, role, authorities);
                 })
                 .orElseThrow(() -> new UsernameNotFoundException("Provider not found with email: " + email));
     }
@@ -85,8 +85,8 @@ public class SecurityConfig {
                 "http://172.20.10.12:8080"
         ));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "Accept", "Origin", "Access-Control-Request-Method", "Access-Control-Request-Headers"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "Accept", "Origin", "Access-Control-Request-Method", "Access-Control-Request-Headers", "Upload-Offset"));
+        configuration.setExposedHeaders(List.of("Authorization", "Location", "Upload-Offset", "Upload-Length"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -7,6 +7,7 @@ import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.transcribe.TranscribeClient;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
 
 @Configuration
 public class TranscribeConfig {
@@ -29,4 +30,12 @@ public class TranscribeConfig {
                 .credentialsProvider(DefaultCredentialsProvider.builder().build())
                 .build();
     }
+
+    @Bean
+    public TranscribeStreamingAsyncClient transcribeStreamingAsyncClient() {
+        return TranscribeStreamingAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.builder().build())
+                .build();
+    }
 }
@@ -0,0 +1,36 @@
+package com.asakaa.synthesis.config;
+
+import com.asakaa.synthesis.controller.TranscriptionWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final TranscriptionWebSocketHandler transcriptionWebSocketHandler;
+
+    @Value("${aws.transcribe.streaming.max-frame-bytes}")
+    private int maxFrameBytes;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(transcriptionWebSocketHandler, "/api/v1/transcribe/stream")
+                .setAllowedOrigins(CorsConfig.ALLOWED_ORIGINS);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(maxFrameBytes);
+        container.setMaxTextMessageBufferSize(8192);
+        return container;
+    }
+}
@@ -1,16 +1,25 @@
 package com.asakaa.synthesis.controller;
 
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.ClinicSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.DashboardSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.DistinctPatientsResponse;
+import com.asakaa.synthesis.domain.dto.response.FactQueryResponse;
 import com.asakaa.synthesis.domain.dto.response.OutcomeResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
 import com.asakaa.synthesis.domain.dto.response.TrendResponse;
 import com.asakaa.synthesis.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/analytics")
@@ -28,21 +37,70 @@ public class AnalyticsController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Most diagnosed conditions, e.g. {@code ?region=Northern&limit=5&approx=true}. With
+     * {@code approx=true} counts come from sketches: never under the true count, over it by
+     * at most {@code maxOvercount} with probability {@code confidence}, and up to the sketch
+     * flush interval behind writes.
+     */
+    @GetMapping("/top-conditions")
+    public ResponseEntity<TopConditionsResponse> getTopConditions(
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean approx) {
+        TopConditionsResponse response = analyticsService.getTopConditions(region, from, to, limit, approx);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Distinct diagnosed patients. With {@code approx=true} the count comes from HyperLogLog
+     * sketches and has the reported {@code relativeStandardError} (about 1.6%).
+     */
+    @GetMapping("/distinct-patients")
+    public ResponseEntity<DistinctPatientsResponse> getDistinctPatients(
+            @RequestParam(required = false) String region,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean approx) {
+        DistinctPatientsResponse response = analyticsService.getDistinctPatients(region, from, to, approx);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Outcomes per condition, e.g. {@code ?clinicId=3&from=2026-01-01&sort=escalatedCases,desc}.
+     * Sortable by condition, totalCases, resolvedCases, escalatedCases and averageConfidenceScore.
+     */
     @GetMapping("/outcomes")
-    public ResponseEntity<List<OutcomeResponse>> getTreatmentOutcomes() {
-        List<OutcomeResponse> response = analyticsService.getTreatmentOutcomes();
+    public ResponseEntity<Page<OutcomeResponse>> getTreatmentOutcomes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long clinicId,
+            @PageableDefault(size = 20, sort = "totalCases", direction = Sort.Direction.DESC) Pageable pageable) {
+        Page<OutcomeResponse> response = analyticsService.getTreatmentOutcomes(from, to, clinicId, pageable);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ad-hoc diagnosis counts, e.g. {@code ?groupBy=CONDITION,REGION&from=2026-01-01&status=ESCALATED}.
+     * Answered from an in-memory snapshot refreshed every few minutes; see {@code source} and {@code asOf}.
+     */
+    @GetMapping("/facts")
+    public ResponseEntity<FactQueryResponse> queryFacts(FactQuery query) {
+        FactQueryResponse response = analyticsService.queryFacts(query);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/clinic/{clinicId}")
-    public ResponseEntity<Map<String, Object>> getClinicSummary(@PathVariable Long clinicId) {
-        Map<String, Object> response = analyticsService.getClinicSummary(clinicId);
+    public ResponseEntity<ClinicSummaryResponse> getClinicSummary(@PathVariable Long clinicId) {
+        ClinicSummaryResponse response = analyticsService.getClinicSummary(clinicId);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/dashboard")
-    public ResponseEntity<Map<String, Object>> getDashboardSummary() {
-        Map<String, Object> response = analyticsService.getDashboardSummary();
+    public ResponseEntity<DashboardSummaryResponse> getDashboardSummary() {
+        DashboardSummaryResponse response = analyticsService.getDashboardSummary();
         return ResponseEntity.ok(response);
     }
 }
@@ -1,5 +1,9 @@
 package com.asakaa.synthesis.controller;
 
+import com.asakaa.synthesis.audit.AuditExportFormat;
+import com.asakaa.synthesis.audit.AuditLogExporter;
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.domain.dto.response.AuditLogPageResponse;
 import com.asakaa.synthesis.domain.dto.response.AuditLogResponse;
 import com.asakaa.synthesis.domain.entity.AuditAction;
 import com.asakaa.synthesis.service.AuditService;
@@ -7,10 +11,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,6 +29,7 @@ import java.util.List;
 public class AuditController {
 
     private final AuditService auditService;
+    private final AuditLogExporter auditLogExporter;
 
     /**
      * Get all audit logs with filters (SUPER_ADMIN only)
@@ -46,6 +56,53 @@ public class AuditController {
         return ResponseEntity.ok(logs);
     }
 
+    /**
+     * Search audit logs newest first with cursor pagination (SUPER_ADMIN only).
+     * Unlike {@link #getAuditLogs}, deep pages cost the same as the first and no total is
+     * counted unless {@code includeTotal} asks for an estimate.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<AuditLogPageResponse> searchAuditLogs(
+            AuditLogFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        auditService.logAudit(AuditAction.VIEW_AUDIT_LOGS, filter.getPatientId(),
+            String.format("Filters: providerId=%s, patientId=%s, action=%s",
+                filter.getProviderId(), filter.getPatientId(), filter.getAction()));
+
+        return ResponseEntity.ok(auditService.searchAuditLogs(filter, cursor, size, includeTotal));
+    }
+
+    /**
+     * Export every audit log matching the filters, oldest first, as NDJSON or CSV
+     * (SUPER_ADMIN only). Rows are streamed from a database cursor, so exports of any
+     * size run in constant memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            AuditLogFilter filter,
+            @RequestParam(defaultValue = "NDJSON") AuditExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        auditService.logAudit(AuditAction.EXPORT_AUDIT_LOGS, filter.getPatientId(),
+            String.format("Format: %s, filters: providerId=%s, patientId=%s, action=%s, startDate=%s, endDate=%s, success=%s",
+                format, filter.getProviderId(), filter.getPatientId(), filter.getAction(),
+                filter.getStartDate(), filter.getEndDate(), filter.getSuccess()));
+
+        String filename = "audit-logs-" + LocalDate.now() + "." + format.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> auditLogExporter.export(filter, format, gzip, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     /**
      * Get audit logs for specific patient (SUPER_ADMIN only)
      */
@@ -4,13 +4,17 @@ import com.asakaa.synthesis.domain.dto.request.ConsultationRequest;
 import com.asakaa.synthesis.domain.dto.request.ConsultationUpdateRequest;
 import com.asakaa.synthesis.domain.dto.response.ConsultationResponse;
 import com.asakaa.synthesis.repository.ProviderRepository;
+import com.asakaa.synthesis.service.ConsultationPipelineService;
 import com.asakaa.synthesis.service.ConsultationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,6 +25,7 @@ public class ConsultationController {
 
     private final ConsultationService consultationService;
     private final ProviderRepository providerRepository;
+    private final ConsultationPipelineService consultationPipelineService;
 
     @PostMapping
     public ResponseEntity<ConsultationResponse> openConsultation(
@@ -35,6 +40,19 @@ public class ConsultationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Transcribes a dictation, opens a consultation from it and optionally runs diagnosis,
+     * streaming each stage back as a server-sent event so the client makes a single request.
+     */
+    @PostMapping(value = "/pipeline", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter runPipeline(
+            @RequestParam("audio") MultipartFile audio,
+            @RequestParam("patientId") Long patientId,
+            @RequestParam(value = "diagnose", defaultValue = "true") boolean diagnose,
+            Authentication authentication) {
+        return consultationPipelineService.start(audio, patientId, diagnose, authentication);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ConsultationResponse> updateConsultation(
             @PathVariable Long id,
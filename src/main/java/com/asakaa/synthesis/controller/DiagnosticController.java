@@ -2,11 +2,15 @@ package com.asakaa.synthesis.controller;
 
 import com.asakaa.synthesis.domain.dto.request.DiagnosticRequest;
 import com.asakaa.synthesis.domain.dto.response.DiagnosticResponse;
+import com.asakaa.synthesis.domain.dto.response.ImageAnalysisResponse;
+import com.asakaa.synthesis.imaging.ImageUploadSpooler;
+import com.asakaa.synthesis.imaging.SpooledImage;
 import com.asakaa.synthesis.service.DiagnosticService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/api/v1/diagnostic")
@@ -14,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class DiagnosticController {
 
     private final DiagnosticService diagnosticService;
+    private final ImageUploadSpooler imageUploadSpooler;
 
     @PostMapping("/analyze")
     public ResponseEntity<DiagnosticResponse> analyze(@Valid @RequestBody DiagnosticRequest request) {
@@ -22,36 +27,16 @@ public class DiagnosticController {
     }
 
     @PostMapping("/analyze-image")
-    public ResponseEntity<com.asakaa.synthesis.domain.dto.response.ImageAnalysisResponse> analyzeImage(
-            @RequestParam("image") org.springframework.web.multipart.MultipartFile image,
+    public ResponseEntity<ImageAnalysisResponse> analyzeImage(
+            @RequestParam("image") MultipartFile image,
             @RequestParam(value = "consultationId", required = false) Long consultationId,
             @RequestParam(value = "clinicalContext", required = false) String clinicalContext) {
-        
-        try {
-            // Validate file is not empty
-            if (image.isEmpty()) {
-                throw new com.asakaa.synthesis.exception.ValidationException("Image file is required");
-            }
-
-            // Get file bytes and media type
-            byte[] imageBytes = image.getBytes();
-            String mediaType = image.getContentType();
-
-            // Validate media type
-            if (mediaType == null || (!mediaType.equals("image/jpeg") && !mediaType.equals("image/png"))) {
-                throw new com.asakaa.synthesis.exception.ValidationException(
-                        "Invalid file type. Only JPEG and PNG images are supported.");
-            }
-
-            // Call service
-            com.asakaa.synthesis.domain.dto.response.ImageAnalysisResponse response = 
-                    diagnosticService.analyzeImage(imageBytes, mediaType, clinicalContext, consultationId);
 
+        // Spool to disk and validate by file signature rather than the declared content type
+        try (SpooledImage spooledImage = imageUploadSpooler.spool(image)) {
+            ImageAnalysisResponse response =
+                    diagnosticService.analyzeImage(spooledImage, clinicalContext, consultationId);
             return ResponseEntity.ok(response);
-
-        } catch (java.io.IOException e) {
-            throw new com.asakaa.synthesis.exception.DiagnosticException(
-                    "Failed to read image file. The file may be corrupted.", e);
         }
     }
 }
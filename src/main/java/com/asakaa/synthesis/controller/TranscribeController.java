@@ -1,13 +1,26 @@
 package com.asakaa.synthesis.controller;
 
+import com.asakaa.synthesis.domain.dto.request.UploadSessionRequest;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
 import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.domain.dto.response.UploadSessionResponse;
 import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.service.ResumableUploadService;
+import com.asakaa.synthesis.service.TranscriptionEventPublisher;
 import com.asakaa.synthesis.service.TranscriptionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.Set;
 
 @RestController
@@ -16,6 +29,12 @@ import java.util.Set;
 public class TranscribeController {
 
     private final TranscriptionService transcriptionService;
+    private final TranscriptionEventPublisher transcriptionEventPublisher;
+    private final ResumableUploadService resumableUploadService;
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
 
     private static final Set<String> SUPPORTED_AUDIO_TYPES = Set.of(
             "audio/wav",
@@ -30,18 +49,114 @@ public class TranscribeController {
     public ResponseEntity<TranscriptionResponse> transcribe(
             @RequestParam("audio") MultipartFile audio) {
 
+        validateAudio(audio);
+
+        TranscriptionResponse response = transcriptionService.transcribe(audio);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Starts a transcription job and returns immediately with its id.
+     * Poll {@code /jobs/{id}} or subscribe to {@code /jobs/{id}/events} for the result.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<TranscriptionJobResponse> submit(
+            @RequestParam("audio") MultipartFile audio,
+            Authentication authentication) {
+
+        validateAudio(audio);
+
+        TranscriptionJobResponse response = transcriptionService.submit(audio, authentication.getName());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/transcribe/jobs/" + response.getId()))
+                .body(response);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<TranscriptionJobResponse> getJob(
+            @PathVariable Long id,
+            Authentication authentication) {
+        return ResponseEntity.ok(transcriptionService.getJob(id, authentication.getName()));
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(
+            @PathVariable Long id,
+            Authentication authentication) {
+        return transcriptionEventPublisher.subscribe(transcriptionService.getJob(id, authentication.getName()),
+                () -> transcriptionService.getJob(id, authentication.getName()));
+    }
+
+    /**
+     * Opens a resumable upload. Send the audio with PATCH requests to the returned location.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadSessionResponse> createUpload(
+            @Valid @RequestBody UploadSessionRequest request,
+            Authentication authentication) {
+
+        validateContentType(request.getContentType());
+
+        UploadSessionResponse response = resumableUploadService.create(request, authentication.getName());
+        return ResponseEntity.created(URI.create("/api/v1/transcribe/uploads/" + response.getUploadId()))
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(response.getLength()))
+                .body(response);
+    }
+
+    /**
+     * Reports how many bytes the server holds, so an interrupted client knows where to resume.
+     */
+    @RequestMapping(value = "/uploads/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> uploadOffset(
+            @PathVariable String uploadId,
+            Authentication authentication) {
+        UploadSessionResponse response = resumableUploadService.getSession(uploadId, authentication.getName());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(response.getLength()))
+                .build();
+    }
+
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getUpload(
+            @PathVariable String uploadId,
+            Authentication authentication) {
+        return ResponseEntity.ok(resumableUploadService.getSession(uploadId, authentication.getName()));
+    }
+
+    /**
+     * Appends the request body at {@code Upload-Offset}. Once the last chunk arrives the
+     * response carries the id of the transcription job that was started.
+     */
+    @PatchMapping(value = "/uploads/{uploadId}", consumes = OFFSET_OCTET_STREAM)
+    public ResponseEntity<UploadSessionResponse> appendUpload(
+            @PathVariable String uploadId,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+
+        UploadSessionResponse response = resumableUploadService.appendChunk(
+                uploadId, authentication.getName(), offset, request.getInputStream());
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(response.getOffset()))
+                .body(response);
+    }
+
+    private void validateAudio(MultipartFile audio) {
         if (audio.isEmpty()) {
             throw new ValidationException("Audio file is required.");
         }
 
-        String contentType = audio.getContentType();
+        validateContentType(audio.getContentType());
+    }
+
+    private void validateContentType(String contentType) {
         if (contentType == null || !SUPPORTED_AUDIO_TYPES.contains(contentType.toLowerCase())) {
             throw new ValidationException(
                     "Unsupported audio format: " + contentType +
                     ". Supported formats: WAV, MP3, MP4/M4A.");
         }
-
-        TranscriptionResponse response = transcriptionService.transcribe(audio);
-        return ResponseEntity.ok(response);
     }
 }
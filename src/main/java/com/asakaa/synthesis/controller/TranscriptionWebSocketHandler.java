@@ -0,0 +1,211 @@
+package com.asakaa.synthesis.controller;
+
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.integration.transcribe.StreamingAudioFormat;
+import com.asakaa.synthesis.integration.transcribe.StreamingTranscriptionPort;
+import com.asakaa.synthesis.integration.transcribe.StreamingTranscriptionSession;
+import com.asakaa.synthesis.integration.transcribe.TranscriptSegment;
+import com.asakaa.synthesis.integration.transcribe.TranscriptSegmentListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live dictation over WebSocket.
+ *
+ * <p>The client sends {@code {"type":"start","encoding":"PCM","sampleRate":16000}}, then binary
+ * audio frames, then {@code {"type":"stop"}}. The server replies with {@code partial} and
+ * {@code final} segment messages as speech is recognised, and a single {@code complete}
+ * message carrying the assembled transcript once the backend has flushed. A message the
+ * server cannot act on is answered with an {@code error} message and the connection stays open.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TranscriptionWebSocketHandler extends AbstractWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 256 * 1024;
+    private static final int DEFAULT_SAMPLE_RATE = 16000;
+    private static final String DEFAULT_LANGUAGE_CODE = "en-US";
+
+    private final StreamingTranscriptionPort streamingTranscriptionPort;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Dictation> dictations = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES);
+        dictations.put(session.getId(), new Dictation(outbound));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Dictation dictation = dictations.get(session.getId());
+        JsonNode control;
+        try {
+            control = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            dictation.sendError("Control message is not valid JSON.");
+            return;
+        }
+        String type = control.path("type").asText();
+
+        switch (type) {
+            case "start" -> {
+                if (dictation.stream != null) {
+                    dictation.sendError("Dictation already started.");
+                    return;
+                }
+                String encodingName = control.path("encoding").asText("PCM").toUpperCase();
+                StreamingAudioFormat.Encoding encoding;
+                try {
+                    encoding = StreamingAudioFormat.Encoding.valueOf(encodingName);
+                } catch (IllegalArgumentException e) {
+                    dictation.sendError("Unsupported encoding: " + encodingName);
+                    return;
+                }
+                StreamingAudioFormat format = StreamingAudioFormat.builder()
+                        .encoding(encoding)
+                        .sampleRateHertz(control.path("sampleRate").asInt(DEFAULT_SAMPLE_RATE))
+                        .languageCode(control.path("languageCode").asText(DEFAULT_LANGUAGE_CODE))
+                        .build();
+                dictation.stream = streamingTranscriptionPort.open(format, dictation);
+                log.info("Dictation started on WebSocket session {}", session.getId());
+            }
+            case "stop" -> {
+                if (dictation.stream != null) {
+                    dictation.stream.complete();
+                }
+            }
+            default -> dictation.sendError("Unknown message type: " + type);
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        Dictation dictation = dictations.get(session.getId());
+        if (dictation.stream == null) {
+            dictation.sendError("Send a start message before audio.");
+            return;
+        }
+
+        // The container reuses the frame buffer once this method returns
+        ByteBuffer payload = message.getPayload();
+        ByteBuffer chunk = ByteBuffer.allocate(payload.remaining());
+        chunk.put(payload).flip();
+        try {
+            dictation.stream.sendAudio(chunk);
+        } catch (TranscriptionException e) {
+            dictation.sendError(e.getMessage());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("WebSocket transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Dictation dictation = dictations.remove(session.getId());
+        if (dictation != null && dictation.stream != null && !dictation.finished) {
+            dictation.stream.abort();
+        }
+    }
+
+    /**
+     * Per-connection state. Receives segments from the transcription backend and relays
+     * them to the client; final segments are accumulated into the full transcript.
+     */
+    private class Dictation implements TranscriptSegmentListener {
+
+        private final WebSocketSession outbound;
+        private final StringBuilder transcript = new StringBuilder();
+        private volatile StreamingTranscriptionSession stream;
+        private volatile boolean finished;
+
+        private Dictation(WebSocketSession outbound) {
+            this.outbound = outbound;
+        }
+
+        @Override
+        public void onSegment(TranscriptSegment segment) {
+            if (!segment.isPartial()) {
+                synchronized (transcript) {
+                    if (!transcript.isEmpty()) {
+                        transcript.append(' ');
+                    }
+                    transcript.append(segment.getText());
+                }
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("type", segment.isPartial() ? "partial" : "final");
+            body.put("resultId", segment.getResultId());
+            body.put("text", segment.getText());
+            body.put("startTime", segment.getStartTime());
+            body.put("endTime", segment.getEndTime());
+            send(body);
+        }
+
+        @Override
+        public void onComplete() {
+            finished = true;
+            String text;
+            synchronized (transcript) {
+                text = transcript.toString();
+            }
+            send(Map.of("type", "complete", "transcript", text));
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            finished = true;
+            log.error("Streaming transcription failed on session {}", outbound.getId(), error);
+            sendError("Streaming transcription failed.");
+            close(CloseStatus.SERVER_ERROR);
+        }
+
+        private void sendError(String message) {
+            send(Map.of("type", "error", "message", message));
+        }
+
+        private void send(Map<String, Object> body) {
+            if (!outbound.isOpen()) {
+                return;
+            }
+            try {
+                outbound.sendMessage(new TextMessage(objectMapper.writeValueAsString(body)));
+            } catch (IOException e) {
+                log.warn("Failed to send transcript message on session {}: {}", outbound.getId(), e.getMessage());
+            }
+        }
+
+        private void close(CloseStatus status) {
+            try {
+                outbound.close(status);
+            } catch (IOException e) {
+                log.debug("Failed to close WebSocket session {}", outbound.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.asakaa.synthesis.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the read replica. When {@code enabled}, read-only transactions are served
+ * by the replica unless the user wrote within {@code read-your-writes-window-ms} or the
+ * replica is more than {@code max-lag-ms} behind; everything else uses
+ * {@code spring.datasource}. The read-your-writes window applies per application
+ * instance, see {@link ReplicaRoutingDataSource}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "synthesis.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private long connectionTimeoutMs = 2000;
+    private long readYourWritesWindowMs = 5000;
+    private long maxLagMs = 10000;
+    private long lagCheckIntervalMs = 5000;
+}
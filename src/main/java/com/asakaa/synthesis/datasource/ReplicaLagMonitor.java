@@ -0,0 +1,96 @@
+package com.asakaa.synthesis.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica's replay lag every {@code lag-check-interval-ms}. The replica is
+ * usable while the lag is at most {@code max-lag-ms}; it is not usable until the first
+ * check succeeds, nor after a check fails, nor while it is not receiving WAL from the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * Milliseconds since the last replayed transaction, or 0 when there is nothing left to
+     * replay (an idle primary is not lag) or the server is not a standby at all. -1 when the
+     * WAL receiver is not streaming: with nothing arriving, "replayed everything received"
+     * says nothing about how far behind the primary the replica is.
+     * <p>
+     * {@code pg_stat_wal_receiver} has a row only while the receiver runs. Its status is
+     * visible to members of {@code pg_read_all_stats}; for other roles it reads null and the
+     * row's presence is all that is checked.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                 WHERE COALESCE(status, 'streaming') = 'streaming') THEN -1
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END""";
+
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = -1;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("synthesis.datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replica replay lag in milliseconds; -1 when the replica cannot be reached "
+                        + "or is not receiving WAL")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${synthesis.datasource.replica.lag-check-interval-ms}")
+    public void check() {
+        try {
+            Double lag = replica.queryForObject(LAG_SQL, Double.class);
+            update(lag != null ? lag.longValue() : 0);
+        } catch (DataAccessException e) {
+            if (usable) {
+                log.warn("Read replica unreachable; routing read-only transactions to the primary", e);
+            }
+            lagMillis = -1;
+            usable = false;
+        }
+    }
+
+    /**
+     * Records a check's result; a negative lag means the replica is not receiving WAL.
+     */
+    void update(long lag) {
+        boolean withinLimit = lag >= 0 && lag <= maxLagMillis;
+        if (withinLimit != usable) {
+            if (withinLimit) {
+                log.info("Read replica {} ms behind; routing read-only transactions to it", lag);
+            } else if (lag < 0) {
+                log.warn("Read replica is not receiving WAL from the primary; routing read-only transactions "
+                        + "to the primary");
+            } else {
+                log.warn("Read replica {} ms behind, over the {} ms limit; routing read-only transactions "
+                        + "to the primary", lag, maxLagMillis);
+            }
+        }
+        lagMillis = lag;
+        usable = withinLimit;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
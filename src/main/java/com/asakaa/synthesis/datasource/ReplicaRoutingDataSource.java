@@ -0,0 +1,131 @@
+package com.asakaa.synthesis.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the primary or the replica each time a connection is taken. Connections taken
+ * inside a {@code readOnly} transaction go to the replica, except when the replica is
+ * lagging or the authenticated user committed a read-write transaction within the
+ * read-your-writes window, so a user reads back what they just saved. Connections
+ * outside a transaction and in read-write transactions always go to the primary.
+ * <p>
+ * Pins are held in memory by each instance. When the application is scaled out, a user
+ * whose next request reaches a different instance than the one that took the write is not
+ * pinned there and may read from the replica; use sticky sessions if that matters.
+ * <p>
+ * The decision reads the transaction's flags, so connections must be taken after the
+ * transaction has started; wrap this in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    // Pins are pruned of expired entries once this many users hold one
+    private static final int MAX_PINNED_USERS = 10_000;
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final long readYourWritesWindowNanos;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+    private final Counter laggingReads;
+    private final Counter writes;
+    private final Counter outsideTransaction;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    long readYourWritesWindowMillis, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesWindowNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesWindowMillis);
+        this.replicaReads = routed(meterRegistry, "replica", "read-only");
+        this.pinnedReads = routed(meterRegistry, "primary", "read-your-writes");
+        this.laggingReads = routed(meterRegistry, "primary", "replica-unavailable");
+        this.writes = routed(meterRegistry, "primary", "read-write");
+        this.outsideTransaction = routed(meterRegistry, "primary", "no-transaction");
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("synthesis.datasource.routing")
+                .description("Connections taken, by the pool chosen and why")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            outsideTransaction.increment();
+            return Target.PRIMARY;
+        }
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (user != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pin(user);
+                    }
+                });
+            }
+            writes.increment();
+            return Target.PRIMARY;
+        }
+        if (user != null && isPinned(user)) {
+            pinnedReads.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isUsable()) {
+            laggingReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    void pin(String user) {
+        long now = System.nanoTime();
+        if (pinnedUntil.size() >= MAX_PINNED_USERS) {
+            pinnedUntil.values().removeIf(until -> until - now <= 0);
+        }
+        pinnedUntil.put(user, now + readYourWritesWindowNanos);
+    }
+
+    boolean isPinned(String user) {
+        Long until = pinnedUntil.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() <= 0) {
+            pinnedUntil.remove(user, until);
+            return false;
+        }
+        return true;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,39 @@
+package com.asakaa.synthesis.domain.dto.request;
+
+import com.asakaa.synthesis.analytics.FactDimension;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ad-hoc count of diagnosis facts. Only the filters that are set become predicates;
+ * with no {@code groupBy} the result is a single total. Condition and region match
+ * ignoring case, and both dates are inclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactQuery {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private String condition;
+    private String region;
+    private Long clinicId;
+    private ConsultationStatus status;
+
+    @Builder.Default
+    private List<FactDimension> groupBy = new ArrayList<>();
+}
@@ -0,0 +1,23 @@
+package com.asakaa.synthesis.domain.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    private String fileName;
+
+    @Positive(message = "Upload length must be positive")
+    private long length;
+}
@@ -0,0 +1,27 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogPageResponse {
+
+    private List<AuditLogResponse> items;
+
+    /**
+     * Pass back as {@code cursor} to fetch the next page; null on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Planner estimate of matching rows, only when requested. Not exact.
+     */
+    private Long approximateTotal;
+}
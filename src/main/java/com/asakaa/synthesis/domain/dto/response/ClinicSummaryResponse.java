@@ -0,0 +1,24 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClinicSummaryResponse {
+
+    private Long clinicId;
+    private Long totalPatients;
+    private Long totalConsultations;
+    private Long activeConsultations;
+    private Long escalatedConsultations;
+    private String topCondition;
+    // Most frequent first
+    private Map<String, Long> conditionBreakdown;
+}
@@ -0,0 +1,16 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConditionCountResponse {
+
+    private String condition;
+    private Long count;
+}
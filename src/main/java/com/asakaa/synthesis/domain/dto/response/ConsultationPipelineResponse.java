@@ -0,0 +1,21 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultationPipelineResponse {
+
+    private Long consultationId;
+    private boolean diagnosed;
+    private long transcriptionMillis;
+    private long extractionMillis;
+    private long consultationMillis;
+    private Long diagnosisMillis;
+    private long totalMillis;
+}
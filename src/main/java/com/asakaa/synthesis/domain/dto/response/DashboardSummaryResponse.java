@@ -0,0 +1,24 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSummaryResponse {
+
+    private Long totalPatients;
+    private Long totalConsultations;
+    private Long totalEscalations;
+    private Map<String, Long> consultationsByStatus;
+    private List<ConditionCountResponse> topConditions;
+    private LocalDateTime generatedAt;
+}
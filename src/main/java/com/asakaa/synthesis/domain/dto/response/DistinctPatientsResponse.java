@@ -0,0 +1,26 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Number of distinct patients with a diagnosis. When {@code approximate}, the count has
+ * the given {@code relativeStandardError} (about two thirds of answers fall within one).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctPatientsResponse {
+
+    private String region;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean approximate;
+    private long distinctPatients;
+    private double relativeStandardError;
+}
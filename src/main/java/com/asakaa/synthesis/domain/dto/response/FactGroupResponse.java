@@ -0,0 +1,26 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One group of an ad-hoc fact query. Only the dimensions that were grouped by are set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactGroupResponse {
+
+    private String condition;
+    private String region;
+    private Long clinicId;
+    private LocalDate day;
+    private ConsultationStatus status;
+    private Long count;
+}
@@ -0,0 +1,24 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of an ad-hoc fact query, largest group first. {@code source} says whether it
+ * was answered from the in-memory snapshot, as of {@code asOf}, or by the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactQueryResponse {
+
+    private String source;
+    private LocalDateTime asOf;
+    private List<FactGroupResponse> groups;
+}
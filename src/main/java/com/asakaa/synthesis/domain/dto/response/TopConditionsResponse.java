@@ -0,0 +1,30 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Most diagnosed conditions, largest first. When {@code approximate}, each count may
+ * exceed the true count by up to {@code maxOvercount} with probability {@code confidence}
+ * and is never below it; exact results have a zero overcount and a confidence of 1.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopConditionsResponse {
+
+    private String region;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean approximate;
+    private long totalCases;
+    private List<ConditionCountResponse> conditions;
+    private long maxOvercount;
+    private double confidence;
+}
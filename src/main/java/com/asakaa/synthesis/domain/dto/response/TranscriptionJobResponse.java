@@ -0,0 +1,25 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptionJobResponse {
+
+    private Long id;
+    private TranscriptionStatus status;
+    private String transcript;
+    private Double confidence;
+    private String languageCode;
+    private String failureReason;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,23 @@
+package com.asakaa.synthesis.domain.dto.response;
+
+import com.asakaa.synthesis.domain.entity.UploadSessionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private UploadSessionStatus status;
+    private long offset;
+    private long length;
+    private Long transcriptionJobId;
+    private LocalDateTime expiresAt;
+}
@@ -7,14 +7,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
+// Range-partitioned by month on timestamp, see V16__partition_audit_logs_by_month.sql
 @Table(name = "audit_logs", indexes = {
-        @Index(name = "idx_audit_provider", columnList = "provider_id"),
-        @Index(name = "idx_audit_patient", columnList = "patient_id"),
-        @Index(name = "idx_audit_action", columnList = "action"),
-        @Index(name = "idx_audit_timestamp", columnList = "timestamp"),
-        @Index(name = "idx_audit_provider_patient", columnList = "provider_id, patient_id")
+        @Index(name = "idx_audit_keyset", columnList = "timestamp, id"),
+        @Index(name = "idx_audit_provider_keyset", columnList = "provider_id, timestamp, id"),
+        @Index(name = "idx_audit_patient_keyset", columnList = "patient_id, timestamp, id"),
+        @Index(name = "idx_audit_action_keyset", columnList = "action, timestamp, id")
 })
 @Data
 @Builder
@@ -78,6 +79,10 @@ public class AuditLog {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    // Assigned when the event is captured; unique with timestamp so replays insert once
+    @Column(name = "event_id")
+    private UUID eventId;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -0,0 +1,40 @@
+package com.asakaa.synthesis.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transcript_cache",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"content_hash", "language_code"}))
+public class TranscriptCacheEntry extends BaseEntity {
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "language_code", nullable = false, length = 10)
+    private String languageCode;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String transcript;
+
+    private Double confidence;
+
+    /**
+     * How long the original Transcribe job took; reported as time saved on each hit.
+     */
+    @Column(name = "transcription_millis", nullable = false)
+    private long transcriptionMillis;
+
+    @Column(name = "hit_count", nullable = false)
+    private int hitCount;
+
+    @Column(name = "last_hit_at")
+    private LocalDateTime lastHitAt;
+}
@@ -0,0 +1,55 @@
+package com.asakaa.synthesis.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "transcriptions")
+public class Transcription extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, unique = true)
+    private String jobName;
+
+    @Column(name = "s3_key", nullable = false)
+    private String s3Key;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "language_code", nullable = false, length = 10)
+    private String languageCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TranscriptionStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String transcript;
+
+    private Double confidence;
+
+    @Column(name = "failure_reason", length = 1000)
+    private String failureReason;
+
+    @Column(name = "requested_by", nullable = false)
+    private String requestedBy;
+
+    @Column(name = "poll_attempts", nullable = false)
+    private int pollAttempts;
+
+    @Column(name = "next_poll_at")
+    private LocalDateTime nextPollAt;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
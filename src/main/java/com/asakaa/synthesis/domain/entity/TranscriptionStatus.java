@@ -0,0 +1,7 @@
+package com.asakaa.synthesis.domain.entity;
+
+public enum TranscriptionStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
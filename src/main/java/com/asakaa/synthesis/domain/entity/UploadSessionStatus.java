@@ -0,0 +1,7 @@
+package com.asakaa.synthesis.domain.entity;
+
+public enum UploadSessionStatus {
+    OPEN,
+    COMPLETED,
+    EXPIRED
+}
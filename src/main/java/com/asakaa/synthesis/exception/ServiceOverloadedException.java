@@ -0,0 +1,18 @@
+package com.asakaa.synthesis.exception;
+
+import lombok.Getter;
+
+/**
+ * The server is temporarily out of capacity for the request, such as a full worker pool.
+ * Nothing failed; the client should retry after {@code retryAfterSeconds}.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,12 @@
+package com.asakaa.synthesis.exception;
+
+/**
+ * A resumable upload chunk does not line up with what the server has stored, or another
+ * request is already writing to the same upload. The client should re-read the offset.
+ */
+public class UploadConflictException extends RuntimeException {
+
+    public UploadConflictException(String message) {
+        super(message);
+    }
+}
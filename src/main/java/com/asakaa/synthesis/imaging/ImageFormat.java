@@ -0,0 +1,57 @@
+package com.asakaa.synthesis.imaging;
+
+import lombok.Getter;
+
+import java.util.Optional;
+
+/**
+ * Image formats accepted by the vision pipeline, identified by their magic bytes
+ * rather than the client-supplied Content-Type header.
+ */
+@Getter
+public enum ImageFormat {
+
+    JPEG("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    PNG("image/png", new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A});
+
+    /**
+     * Number of leading bytes needed to recognise any supported format.
+     */
+    public static final int SIGNATURE_LENGTH = 8;
+
+    private final String mediaType;
+    private final byte[] signature;
+
+    ImageFormat(String mediaType, byte[] signature) {
+        this.mediaType = mediaType;
+        this.signature = signature;
+    }
+
+    /**
+     * Detect the image format from the first bytes of a file.
+     *
+     * @param header leading bytes of the file
+     * @param length number of valid bytes in {@code header}
+     * @return the detected format, or empty if the bytes match no supported format
+     */
+    public static Optional<ImageFormat> detect(byte[] header, int length) {
+        for (ImageFormat format : values()) {
+            if (format.matches(header, length)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,342 @@
+package com.asakaa.synthesis.imaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shrinks uploaded images before vision inference: decodes, rotates to the EXIF
+ * orientation, downsizes to the model's preferred long edge and re-encodes as JPEG
+ * without metadata. Work runs on a small bounded pool; when the pool is saturated
+ * or an image cannot be processed, the original upload is used unchanged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagePreprocessor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.imaging.preprocessing.enabled}")
+    private boolean enabled;
+
+    @Value("${synthesis.imaging.preprocessing.max-long-edge}")
+    private int maxLongEdge;
+
+    @Value("${synthesis.imaging.preprocessing.jpeg-quality}")
+    private float jpegQuality;
+
+    @Value("${synthesis.imaging.preprocessing.convert-png-to-jpeg}")
+    private boolean convertPngToJpeg;
+
+    @Value("${synthesis.imaging.preprocessing.max-pixels}")
+    private long maxPixels;
+
+    @Value("${synthesis.imaging.preprocessing.worker-threads}")
+    private int workerThreads;
+
+    @Value("${synthesis.imaging.preprocessing.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${synthesis.imaging.preprocessing.timeout-ms}")
+    private long timeoutMillis;
+
+    @Value("${synthesis.imaging.spool-dir}")
+    private String spoolDir;
+
+    private ThreadPoolExecutor executor;
+    private DistributionSummary bytesSaved;
+    private Timer latency;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-preprocess-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        bytesSaved = DistributionSummary.builder("synthesis.imaging.preprocess.bytes.saved")
+                .description("Bytes removed from each image before vision inference")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        latency = Timer.builder("synthesis.imaging.preprocess.latency")
+                .description("Latency added by image preprocessing")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Preprocess an uploaded image. Never fails: any problem falls back to the original.
+     */
+    public PreprocessedImage preprocess(SpooledImage original) {
+        if (!enabled) {
+            return PreprocessedImage.unchanged(original, 0);
+        }
+
+        long start = System.nanoTime();
+        PreprocessedImage result;
+        Future<SpooledImage> future = null;
+        // Set by whichever side gives up the derived file first: the caller on timeout, or the
+        // task on handing it over. A task that loses closes its own result.
+        AtomicBoolean claimed = new AtomicBoolean();
+        try {
+            future = executor.submit(() -> {
+                SpooledImage processed = transform(original);
+                if (processed != null && !claimed.compareAndSet(false, true)) {
+                    processed.close();
+                    return null;
+                }
+                return processed;
+            });
+            SpooledImage processed = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (processed == null) {
+                result = PreprocessedImage.unchanged(original, elapsed);
+            } else {
+                result = new PreprocessedImage(processed, original.getSize(), elapsed, true);
+            }
+        } catch (RejectedExecutionException e) {
+            log.warn("Image preprocessing pool saturated, sending original image");
+            countFallback("saturated");
+            return PreprocessedImage.unchanged(original, 0);
+        } catch (TimeoutException e) {
+            abandon(future, claimed);
+            log.warn("Image preprocessing exceeded {} ms, sending original image", timeoutMillis);
+            countFallback("timeout");
+            result = PreprocessedImage.unchanged(original, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            abandon(future, claimed);
+            Thread.currentThread().interrupt();
+            return PreprocessedImage.unchanged(original, 0);
+        } catch (ExecutionException e) {
+            log.warn("Image preprocessing failed, sending original image: {}", e.getCause().getMessage());
+            countFallback("error");
+            result = PreprocessedImage.unchanged(original, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        latency.record(result.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        bytesSaved.record(Math.max(0, result.getBytesSaved()));
+        log.info("Image preprocessing: {} -> {} bytes ({} saved) in {} ms",
+                result.getOriginalBytes(), result.getImage().getSize(), result.getBytesSaved(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Gives up on a task the caller stopped waiting for. {@code cancel} does not stop a running
+     * transform, so the derived file is closed by the task when it finishes, or here when it
+     * finished just as the wait expired.
+     */
+    private static void abandon(Future<SpooledImage> future, AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            future.cancel(true);
+            return;
+        }
+        try {
+            SpooledImage late = future.get();
+            if (late != null) {
+                late.close();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            log.warn("Could not discard a preprocessed image that finished after the timeout", e);
+        }
+    }
+
+    /**
+     * @return the re-encoded image, or null when the original should be sent as-is
+     */
+    private SpooledImage transform(SpooledImage original) throws IOException {
+        int orientation = original.getFormat() == ImageFormat.JPEG
+                ? ExifOrientation.read(original.getPath())
+                : ExifOrientation.NORMAL;
+
+        BufferedImage decoded = decode(original.getPath());
+        if (decoded == null) {
+            return null;
+        }
+
+        BufferedImage upright = toUpright(resize(decoded), orientation);
+
+        ImageFormat outputFormat = original.getFormat() == ImageFormat.PNG && !convertPngToJpeg
+                ? ImageFormat.PNG
+                : ImageFormat.JPEG;
+
+        Path target = Files.createTempFile(Path.of(spoolDir), "image-", ".processed");
+        try {
+            encode(upright, outputFormat, target);
+            long size = Files.size(target);
+
+            if (Thread.currentThread().isInterrupted()) {
+                // The caller timed out and has already fallen back to the original
+                Files.deleteIfExists(target);
+                return null;
+            }
+
+            boolean geometryChanged = orientation != ExifOrientation.NORMAL
+                    || upright.getWidth() != decoded.getWidth() || upright.getHeight() != decoded.getHeight();
+            if (size >= original.getSize() && !geometryChanged) {
+                Files.deleteIfExists(target);
+                return null;
+            }
+            return new SpooledImage(target, outputFormat, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    private BufferedImage decode(Path path) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Skipping preprocessing of {}x{} image: exceeds {} pixels", width, height, maxPixels);
+                    return null;
+                }
+
+                // Subsample during decode while staying at least twice the target size
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (maxLongEdge * 2));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int longEdge = Math.max(width, height);
+
+        BufferedImage current = source;
+        if (longEdge > maxLongEdge) {
+            // Halve repeatedly with bilinear filtering, then make one final step to the target size
+            while (longEdge / 2 >= maxLongEdge) {
+                width = Math.max(1, width / 2);
+                height = Math.max(1, height / 2);
+                longEdge /= 2;
+                current = draw(current, width, height);
+            }
+            double scale = (double) maxLongEdge / Math.max(width, height);
+            width = Math.max(1, (int) Math.round(width * scale));
+            height = Math.max(1, (int) Math.round(height * scale));
+        }
+
+        // Always redraw onto an opaque RGB canvas so transparency is flattened onto white
+        return draw(current, width, height);
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private BufferedImage toUpright(BufferedImage image, int orientation) {
+        if (orientation == ExifOrientation.NORMAL) {
+            return image;
+        }
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = ExifOrientation.swapsDimensions(orientation);
+        BufferedImage target = new BufferedImage(swap ? height : width, swap ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.drawImage(image, ExifOrientation.toUpright(orientation, width, height), null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void encode(BufferedImage image, ImageFormat format, Path target) throws IOException {
+        if (format == ImageFormat.PNG) {
+            if (!ImageIO.write(image, "png", target.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            return;
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (FileImageOutputStream out = new FileImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            // No metadata is passed, so EXIF/GPS blocks from the original are not carried over
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private void countFallback(String reason) {
+        Counter.builder("synthesis.imaging.preprocess.fallbacks")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,121 @@
+package com.asakaa.synthesis.imaging;
+
+import com.asakaa.synthesis.exception.DiagnosticException;
+import com.asakaa.synthesis.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Copies uploaded images to temporary files in fixed-size chunks, enforcing the
+ * size limit and checking the file signature while the data streams through.
+ */
+@Slf4j
+@Component
+public class ImageUploadSpooler {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Value("${synthesis.imaging.max-upload-bytes}")
+    private long maxUploadBytes;
+
+    @Value("${synthesis.imaging.spool-dir}")
+    private String spoolDir;
+
+    public SpooledImage spool(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("Image file is required");
+        }
+
+        if (file.getSize() > maxUploadBytes) {
+            throw tooLarge();
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            return spool(in);
+        } catch (IOException e) {
+            throw new DiagnosticException("Failed to read image file. The file may be corrupted.", e);
+        }
+    }
+
+    /**
+     * Spool an image stream to a temporary file.
+     *
+     * @param in image data; the caller remains responsible for closing it
+     * @return the spooled image, which the caller must close
+     */
+    public SpooledImage spool(InputStream in) {
+        Path target;
+        try {
+            target = Files.createTempFile(Path.of(spoolDir), "image-", ".upload");
+        } catch (IOException e) {
+            throw new DiagnosticException("Failed to allocate temporary storage for image upload.", e);
+        }
+
+        try (OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] header = new byte[ImageFormat.SIGNATURE_LENGTH];
+            int headerLength = 0;
+            ImageFormat format = null;
+            long total = 0;
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                if (format == null) {
+                    int copied = Math.min(read, header.length - headerLength);
+                    System.arraycopy(buffer, 0, header, headerLength, copied);
+                    headerLength += copied;
+                    if (headerLength == header.length) {
+                        format = detectOrReject(header, headerLength);
+                    }
+                }
+
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw tooLarge();
+                }
+                out.write(buffer, 0, read);
+            }
+
+            if (format == null) {
+                format = detectOrReject(header, headerLength);
+            }
+
+            log.debug("Spooled {} byte {} upload to {}", total, format, target);
+            return new SpooledImage(target, format, total);
+
+        } catch (IOException e) {
+            deleteQuietly(target);
+            throw new DiagnosticException("Failed to read image file. The file may be corrupted.", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(target);
+            throw e;
+        }
+    }
+
+    private ImageFormat detectOrReject(byte[] header, int length) {
+        return ImageFormat.detect(header, length)
+                .orElseThrow(() -> new ValidationException(
+                        "Invalid file type. Only JPEG and PNG images are supported."));
+    }
+
+    private ValidationException tooLarge() {
+        return new ValidationException(String.format(
+                "Image file is too large. Maximum size is %dMB.", maxUploadBytes / (1024 * 1024)));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete partial image upload {}: {}", path, e.getMessage());
+        }
+    }
+}
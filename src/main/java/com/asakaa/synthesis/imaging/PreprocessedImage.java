@@ -0,0 +1,38 @@
+package com.asakaa.synthesis.imaging;
+
+import lombok.Getter;
+
+/**
+ * Outcome of {@link ImagePreprocessor#preprocess}. Closing it deletes the derived
+ * image, if one was produced; the original upload stays owned by the caller.
+ */
+@Getter
+public class PreprocessedImage implements AutoCloseable {
+
+    private final SpooledImage image;
+    private final long originalBytes;
+    private final long elapsedMillis;
+    private final boolean derived;
+
+    PreprocessedImage(SpooledImage image, long originalBytes, long elapsedMillis, boolean derived) {
+        this.image = image;
+        this.originalBytes = originalBytes;
+        this.elapsedMillis = elapsedMillis;
+        this.derived = derived;
+    }
+
+    static PreprocessedImage unchanged(SpooledImage original, long elapsedMillis) {
+        return new PreprocessedImage(original, original.getSize(), elapsedMillis, false);
+    }
+
+    public long getBytesSaved() {
+        return originalBytes - image.getSize();
+    }
+
+    @Override
+    public void close() {
+        if (derived) {
+            image.close();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.asakaa.synthesis.imaging;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An uploaded image held in a temporary file instead of on the heap.
+ * Closing the image deletes the backing file.
+ */
+@Slf4j
+@Getter
+public class SpooledImage implements AutoCloseable {
+
+    private final Path path;
+    private final ImageFormat format;
+    private final long size;
+
+    public SpooledImage(Path path, ImageFormat format, long size) {
+        this.path = path;
+        this.format = format;
+        this.size = size;
+    }
+
+    public String getMediaType() {
+        return format.getMediaType();
+    }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled image {}: {}", path, e.getMessage());
+        }
+    }
+}
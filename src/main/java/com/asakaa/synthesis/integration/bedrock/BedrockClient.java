@@ -10,10 +10,16 @@ import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -32,13 +38,21 @@ public class BedrockClient {
     private double temperature;
 
     public String invoke(String prompt) {
+        return invoke(prompt, maxTokens);
+    }
+
+    /**
+     * Invoke the model with a tighter output budget, for short structured extractions
+     * where generation time dominates.
+     */
+    public String invoke(String prompt, int maxOutputTokens) {
         try {
             log.info("Invoking Bedrock model: {}", modelId);
 
             // Build Claude messages API request body
             ObjectNode requestBody = objectMapper.createObjectNode();
             requestBody.put("anthropic_version", "bedrock-2023-05-31");
-            requestBody.put("max_tokens", maxTokens);
+            requestBody.put("max_tokens", maxOutputTokens);
             requestBody.put("temperature", temperature);
 
             ArrayNode messages = requestBody.putArray("messages");
@@ -78,6 +92,14 @@ public class BedrockClient {
     }
 
     public String invokeVision(byte[] imageBytes, String mediaType, String textPrompt) {
+        return invokeVision(new ByteArrayInputStream(imageBytes), imageBytes.length, mediaType, textPrompt);
+    }
+
+    /**
+     * Invoke the vision model, base64-encoding the image straight from the stream into
+     * the request body so the raw image and its encoded copy are never both on the heap.
+     */
+    public String invokeVision(InputStream imageStream, long imageLength, String mediaType, String textPrompt) {
         try {
             log.info("Invoking Bedrock model with vision: {}", modelId);
 
@@ -86,40 +108,12 @@ public class BedrockClient {
                 throw new DiagnosticException("Unsupported media type: " + mediaType + ". Only JPEG and PNG are supported.");
             }
 
-            // Encode image to base64
-            String base64Image = java.util.Base64.getEncoder().encodeToString(imageBytes);
-
-            // Build Claude messages API request body with image
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("anthropic_version", "bedrock-2023-05-31");
-            requestBody.put("max_tokens", maxTokens);
-            requestBody.put("temperature", temperature);
-
-            ArrayNode messages = requestBody.putArray("messages");
-            ObjectNode message = messages.addObject();
-            message.put("role", "user");
-            
-            ArrayNode content = message.putArray("content");
-            
-            // Add image content block
-            ObjectNode imageContent = content.addObject();
-            imageContent.put("type", "image");
-            ObjectNode imageSource = imageContent.putObject("source");
-            imageSource.put("type", "base64");
-            imageSource.put("media_type", mediaType);
-            imageSource.put("data", base64Image);
-            
-            // Add text content block
-            ObjectNode textContent = content.addObject();
-            textContent.put("type", "text");
-            textContent.put("text", textPrompt);
-
-            String requestBodyJson = objectMapper.writeValueAsString(requestBody);
-            log.debug("Vision request body size: {} bytes", requestBodyJson.length());
+            byte[] requestBody = buildVisionRequestBody(imageStream, imageLength, mediaType, textPrompt);
+            log.debug("Vision request body size: {} bytes", requestBody.length);
 
             InvokeModelRequest request = InvokeModelRequest.builder()
                     .modelId(modelId)
-                    .body(SdkBytes.fromUtf8String(requestBodyJson))
+                    .body(SdkBytes.fromByteArrayUnsafe(requestBody))
                     .build();
 
             InvokeModelResponse response = bedrockRuntimeClient.invokeModel(request);
@@ -143,4 +137,47 @@ public class BedrockClient {
             throw new DiagnosticException("Failed to invoke AI vision diagnostic model: " + e.getMessage(), e);
         }
     }
+
+    private byte[] buildVisionRequestBody(InputStream imageStream, long imageLength,
+                                          String mediaType, String textPrompt) throws IOException {
+        // Base64 expands the image by 4/3; leave headroom for the prompt and envelope
+        long estimatedSize = (imageLength + 2) / 3 * 4 + textPrompt.length() * 2L + 512;
+        ByteArrayOutputStream body = new ByteArrayOutputStream((int) Math.min(estimatedSize, Integer.MAX_VALUE - 8));
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeStringField("anthropic_version", "bedrock-2023-05-31");
+            generator.writeNumberField("max_tokens", maxTokens);
+            generator.writeNumberField("temperature", temperature);
+
+            generator.writeArrayFieldStart("messages");
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            generator.writeArrayFieldStart("content");
+
+            // Add image content block
+            generator.writeStartObject();
+            generator.writeStringField("type", "image");
+            generator.writeObjectFieldStart("source");
+            generator.writeStringField("type", "base64");
+            generator.writeStringField("media_type", mediaType);
+            generator.writeFieldName("data");
+            generator.writeBinary(imageStream, (int) imageLength);
+            generator.writeEndObject();
+            generator.writeEndObject();
+
+            // Add text content block
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeStringField("text", textPrompt);
+            generator.writeEndObject();
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        return body.toByteArray();
+    }
 }
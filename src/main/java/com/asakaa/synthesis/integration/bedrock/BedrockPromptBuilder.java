@@ -82,6 +82,24 @@ public class BedrockPromptBuilder {
     }
 
 
+    public String buildConsultationExtractionPrompt(String transcript) {
+        return String.format("""
+                Extract structured intake fields from this clinician's dictation.
+                
+                DICTATION:
+                %s
+                
+                Return ONLY a JSON object with this EXACT structure, no additional text:
+                {
+                  "chiefComplaint": "the patient's presenting complaint in one short phrase",
+                  "vitals": {"temperature": "38.5 C", "bloodPressure": "120/80", "heartRate": 88}
+                }
+                
+                Include only vitals that are stated in the dictation, using the units given. \
+                Use null for "vitals" if none are stated. Do not infer or invent values.
+                """, transcript);
+    }
+
     public String buildTreatmentPrompt(String condition, com.asakaa.synthesis.domain.dto.request.TreatmentRequest request) {
         String medications = request.getAvailableMedications() != null && !request.getAvailableMedications().isEmpty()
                 ? String.join(", ", request.getAvailableMedications())
@@ -0,0 +1,223 @@
+package com.asakaa.synthesis.integration.storage;
+
+import com.asakaa.synthesis.exception.StorageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams an upload into object storage, hashing it on the way through. Objects above
+ * the multipart threshold are cut into parts as they are read and the parts are sent
+ * in parallel, each retried on its own, so a dropped connection costs one part rather
+ * than the whole file. At most {@code parallelism} parts per upload are held in memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MultipartUploader {
+
+    private final ObjectStorage objectStorage;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.storage.upload.multipart-threshold-bytes}")
+    private long multipartThresholdBytes;
+
+    @Value("${synthesis.storage.upload.part-size-bytes}")
+    private int partSizeBytes;
+
+    @Value("${synthesis.storage.upload.parallelism}")
+    private int parallelism;
+
+    @Value("${synthesis.storage.upload.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${synthesis.storage.upload.retry-backoff-ms}")
+    private long retryBackoffMillis;
+
+    @Value("${synthesis.storage.upload.worker-threads}")
+    private int workerThreads;
+
+    @Value("${synthesis.storage.upload.queue-capacity}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private Counter partRetries;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // When every worker is busy the reading thread uploads the part itself, which
+        // throttles reading from the client instead of queueing unbounded buffers
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-part-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        partRetries = Counter.builder("synthesis.storage.upload.part.retries")
+                .description("Multipart upload parts retried after a failure")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Upload {@code length} bytes from the stream to {@code key}. The stream is read
+     * exactly once and is not closed.
+     */
+    public UploadResult upload(String key, String contentType, InputStream source, long length) {
+        MessageDigest digest = sha256();
+        InputStream in = new DigestInputStream(source, digest);
+        long start = System.nanoTime();
+
+        int parts;
+        String mode;
+        if (length < multipartThresholdBytes) {
+            objectStorage.putObject(key, contentType, in, length);
+            parts = 1;
+            mode = "single";
+        } else {
+            parts = uploadInParts(key, contentType, in);
+            mode = "multipart";
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        DistributionSummary.builder("synthesis.storage.upload.throughput")
+                .description("Upload throughput to object storage")
+                .baseUnit("bytes.per.second")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(length * 1_000_000_000.0 / elapsedNanos);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        log.info("Uploaded {} bytes to {} in {} part(s) in {} ms", length, key, parts, elapsedMillis);
+
+        return UploadResult.builder()
+                .key(key)
+                .size(length)
+                .parts(parts)
+                .sha256(HexFormat.of().formatHex(digest.digest()))
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    private int uploadInParts(String key, String contentType, InputStream in) {
+        String uploadId = objectStorage.createMultipartUpload(key, contentType);
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<UploadedPart>> pending = new ArrayList<>();
+
+        try {
+            int partNumber = 0;
+            boolean lastPart = false;
+            while (!lastPart && !failed.get()) {
+                byte[] buffer = new byte[partSizeBytes];
+                int read = in.readNBytes(buffer, 0, partSizeBytes);
+                lastPart = read < partSizeBytes;
+                if (read == 0 && partNumber > 0) {
+                    break;
+                }
+
+                int number = ++partNumber;
+                inFlight.acquire();
+                pending.add(executor.submit(() -> {
+                    try {
+                        return new UploadedPart(number, uploadPartWithRetry(key, uploadId, number, buffer, read));
+                    } catch (RuntimeException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            List<UploadedPart> parts = new ArrayList<>(pending.size());
+            for (Future<UploadedPart> part : pending) {
+                parts.add(part.get());
+            }
+            objectStorage.completeMultipartUpload(key, uploadId, parts);
+            return parts.size();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(key, uploadId, pending);
+            throw new StorageException("Upload of " + key + " was interrupted.", e);
+        } catch (ExecutionException e) {
+            abort(key, uploadId, pending);
+            throw new StorageException("Failed to upload part of " + key + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            abort(key, uploadId, pending);
+            throw new StorageException("Failed to read upload for " + key + ".", e);
+        } catch (RuntimeException e) {
+            abort(key, uploadId, pending);
+            throw e;
+        }
+    }
+
+    private String uploadPartWithRetry(String key, String uploadId, int partNumber, byte[] data, int length) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return objectStorage.uploadPart(key, uploadId, partNumber, data, length);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                partRetries.increment();
+                log.warn("Part {} of {} failed (attempt {}/{}): {}", partNumber, key, attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMillis * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void abort(String key, String uploadId, List<Future<UploadedPart>> pending) {
+        pending.forEach(part -> part.cancel(true));
+        try {
+            objectStorage.abortMultipartUpload(key, uploadId);
+        } catch (Exception e) {
+            log.warn("Failed to abort multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.asakaa.synthesis.integration.storage;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Object store holding audio while it is transcribed. Production uses S3; tests use a
+ * local filesystem stand-in with the same multipart semantics.
+ */
+public interface ObjectStorage {
+
+    void putObject(String key, String contentType, InputStream content, long length);
+
+    /**
+     * @return the upload id to pass to the part and completion calls
+     */
+    String createMultipartUpload(String key, String contentType);
+
+    /**
+     * Upload one part. May be called concurrently for different parts of the same upload.
+     *
+     * @return the part's entity tag
+     */
+    String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length);
+
+    void completeMultipartUpload(String key, String uploadId, List<UploadedPart> parts);
+
+    void abortMultipartUpload(String key, String uploadId);
+
+    void deleteObject(String key);
+
+    /**
+     * Location of the object as understood by downstream AWS services.
+     */
+    String uri(String key);
+}
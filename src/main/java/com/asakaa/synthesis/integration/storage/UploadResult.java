@@ -0,0 +1,19 @@
+package com.asakaa.synthesis.integration.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadResult {
+
+    private String key;
+    private long size;
+    private int parts;
+    private String sha256;
+    private long elapsedMillis;
+}
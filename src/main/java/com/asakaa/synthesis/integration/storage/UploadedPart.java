@@ -0,0 +1,14 @@
+package com.asakaa.synthesis.integration.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadedPart {
+
+    private int partNumber;
+    private String eTag;
+}
@@ -0,0 +1,111 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bridges audio pushed by the WebSocket handler to the pull-based reactive stream the
+ * Transcribe Streaming client consumes. Chunks are buffered in a bounded queue and
+ * emitted only against outstanding demand; emission is serialised with a
+ * work-in-progress counter so onNext is never called concurrently.
+ */
+class AudioStreamPublisher implements Publisher<AudioStream> {
+
+    private final BlockingQueue<ByteBuffer> chunks;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Subscriber<? super AudioStream> subscriber;
+    private volatile boolean completed;
+    private volatile boolean cancelled;
+    private boolean terminated;
+
+    AudioStreamPublisher(int capacity) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super AudioStream> s) {
+        if (subscriber != null) {
+            throw new IllegalStateException("Audio stream supports a single subscriber");
+        }
+        subscriber = s;
+        s.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancelled = true;
+                    s.onError(new IllegalArgumentException("Demand must be positive, got " + n));
+                    return;
+                }
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                chunks.clear();
+            }
+        });
+        drain();
+    }
+
+    /**
+     * @return false if the buffer is full or the stream has ended
+     */
+    boolean offer(ByteBuffer chunk) {
+        if (completed || cancelled) {
+            return false;
+        }
+        boolean accepted = chunks.offer(chunk);
+        drain();
+        return accepted;
+    }
+
+    void complete() {
+        completed = true;
+        drain();
+    }
+
+    void cancel() {
+        cancelled = true;
+        chunks.clear();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            Subscriber<? super AudioStream> s = subscriber;
+            if (s != null && !terminated) {
+                while (!cancelled && demand.get() > 0) {
+                    ByteBuffer chunk = chunks.poll();
+                    if (chunk == null) {
+                        break;
+                    }
+                    demand.decrementAndGet();
+                    s.onNext(AudioEvent.builder().audioChunk(SdkBytes.fromByteBuffer(chunk)).build());
+                }
+                if (!cancelled && completed && chunks.isEmpty()) {
+                    terminated = true;
+                    s.onComplete();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
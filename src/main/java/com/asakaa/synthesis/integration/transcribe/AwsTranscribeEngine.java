@@ -0,0 +1,315 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.audio.AudioPreprocessor;
+import com.asakaa.synthesis.audio.PreprocessedAudio;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.exception.TranscriptionTimeoutException;
+import com.asakaa.synthesis.integration.storage.MultipartUploader;
+import com.asakaa.synthesis.integration.storage.ObjectStorage;
+import com.asakaa.synthesis.service.AudioPayload;
+import com.asakaa.synthesis.service.TranscriptCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.transcribe.TranscribeClient;
+import software.amazon.awssdk.services.transcribe.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AWS Transcribe batch jobs as a {@link SpeechToTextEngine}. Also exposes the individual
+ * job steps used by the asynchronous flow in {@code TranscriptionService}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AwsTranscribeEngine implements SpeechToTextEngine {
+
+    public static final String NAME = "aws";
+    public static final String JOB_NAME_PREFIX = "synthesis-";
+    public static final String LANGUAGE_CODE = "en-US";
+
+    private final TranscribeClient transcribeClient;
+    private final ObjectStorage objectStorage;
+    private final MultipartUploader multipartUploader;
+    private final TranscriptCacheService transcriptCacheService;
+    private final AudioPreprocessor audioPreprocessor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${aws.transcribe.timeout-seconds}")
+    private int timeoutSeconds;
+
+    private static final Map<String, MediaFormat> CONTENT_TYPE_TO_FORMAT = Map.of(
+            "audio/wav", MediaFormat.WAV,
+            "audio/mpeg", MediaFormat.MP3,
+            "audio/mp3", MediaFormat.MP3,
+            "audio/mp4", MediaFormat.MP4,
+            "audio/x-m4a", MediaFormat.MP4,
+            "audio/m4a", MediaFormat.MP4
+    );
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(AudioPayload audio) {
+        return audio.getContentType() != null && CONTENT_TYPE_TO_FORMAT.containsKey(audio.getContentType().toLowerCase());
+    }
+
+    /**
+     * Transcribes audio with an AWS Transcribe batch job and waits for the result. Audio
+     * that has been transcribed before is answered from the transcript cache without
+     * starting a job.
+     */
+    @Override
+    public TranscriptionResponse transcribe(AudioPayload audioFile) {
+        String s3Key = newAudioKey(audioFile);
+        String jobName = newJobName();
+
+        try {
+            Upload upload = upload(audioFile, s3Key);
+            String contentHash = upload.sha256();
+            log.info("Uploaded audio file to {}", objectStorage.uri(s3Key));
+
+            Optional<TranscriptionResponse> cached = transcriptCacheService.lookup(contentHash, LANGUAGE_CODE);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+
+            long jobStart = System.currentTimeMillis();
+            startTranscriptionJob(jobName, s3Key, audioFile.getContentType());
+            log.info("Started transcription job: {}", jobName);
+
+            TranscriptionJob completedJob = pollForCompletion(jobName);
+            log.info("Transcription job completed: {}", jobName);
+
+            String transcriptUri = completedJob.transcript().transcriptFileUri();
+            TranscriptionResponse result = fetchTranscript(transcriptUri);
+            long jobMillis = System.currentTimeMillis() - jobStart;
+            Timer.builder("synthesis.transcription.job.latency")
+                    .description("Time from starting a Transcribe job to receiving its transcript")
+                    .tag("preprocessed", String.valueOf(upload.preprocessed()))
+                    .register(meterRegistry)
+                    .record(jobMillis, TimeUnit.MILLISECONDS);
+            transcriptCacheService.store(contentHash, LANGUAGE_CODE, result, jobMillis);
+            return result;
+
+        } catch (TranscriptionException | TranscriptionTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TranscriptionException("Transcription failed: " + e.getMessage(), e);
+        } finally {
+            cleanupS3(s3Key);
+        }
+    }
+
+    public String newAudioKey(AudioPayload audio) {
+        return "transcribe-" + UUID.randomUUID() + getFileExtension(audio);
+    }
+
+    public String newJobName() {
+        return JOB_NAME_PREFIX + UUID.randomUUID();
+    }
+
+    /**
+     * Preprocesses and uploads the audio, hashing it on the way through so the cache lookup
+     * needs no second read of the file. Large recordings go up as parallel multipart uploads.
+     *
+     * @return hex SHA-256 of the uploaded audio
+     */
+    public String uploadToS3(AudioPayload file, String s3Key) {
+        return upload(file, s3Key).sha256();
+    }
+
+    /**
+     * Uploads like {@link #uploadToS3}, also reporting whether the preprocessor actually
+     * produced derived audio; it falls back to the original on failure or timeout.
+     */
+    private Upload upload(AudioPayload file, String s3Key) {
+        try (PreprocessedAudio prepared = audioPreprocessor.preprocess(file);
+             InputStream in = prepared.getAudio().getInputStream()) {
+            AudioPayload audio = prepared.getAudio();
+            String sha256 = multipartUploader.upload(s3Key, audio.getContentType(), in, audio.getSize()).getSha256();
+            return new Upload(sha256, prepared.isDerived());
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to read audio file for upload.", e);
+        }
+    }
+
+    public void startTranscriptionJob(String jobName, String s3Key, String contentType) {
+        MediaFormat mediaFormat = resolveMediaFormat(Objects.requireNonNull(contentType));
+        String s3Uri = objectStorage.uri(s3Key);
+
+        StartTranscriptionJobRequest request = StartTranscriptionJobRequest.builder()
+                .transcriptionJobName(jobName)
+                .languageCode(LanguageCode.EN_US)
+                .mediaFormat(mediaFormat)
+                .media(Media.builder().mediaFileUri(s3Uri).build())
+                .build();
+
+        transcribeClient.startTranscriptionJob(request);
+    }
+
+    public TranscriptionResponse fetchTranscript(String transcriptUri) {
+        try {
+            HttpClient httpClient = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(transcriptUri))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            String body = response.body();
+
+            return parseTranscriptJson(body);
+        } catch (IOException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new TranscriptionException("Failed to fetch transcript from result URI.", e);
+        }
+    }
+
+    public void cleanupS3(String s3Key) {
+        try {
+            objectStorage.deleteObject(s3Key);
+            log.debug("Cleaned up S3 object: {}", s3Key);
+        } catch (Exception e) {
+            log.warn("Failed to clean up S3 object {}: {}", s3Key, e.getMessage());
+        }
+    }
+
+    private MediaFormat resolveMediaFormat(String contentType) {
+        MediaFormat format = CONTENT_TYPE_TO_FORMAT.get(contentType.toLowerCase());
+        if (format == null) {
+            throw new TranscriptionException("Cannot determine media format for content type: " + contentType);
+        }
+        return format;
+    }
+
+    private TranscriptionJob pollForCompletion(String jobName) {
+        long startTime = System.currentTimeMillis();
+        long timeoutMillis = timeoutSeconds * 1000L;
+
+        while (true) {
+            GetTranscriptionJobRequest request = GetTranscriptionJobRequest.builder()
+                    .transcriptionJobName(jobName)
+                    .build();
+
+            GetTranscriptionJobResponse response = transcribeClient.getTranscriptionJob(request);
+            TranscriptionJob job = response.transcriptionJob();
+            TranscriptionJobStatus status = job.transcriptionJobStatus();
+
+            if (status == TranscriptionJobStatus.COMPLETED) {
+                return job;
+            }
+
+            if (status == TranscriptionJobStatus.FAILED) {
+                throw new TranscriptionException(
+                        "Transcription job failed: " + job.failureReason());
+            }
+
+            if (System.currentTimeMillis() - startTime > timeoutMillis) {
+                throw new TranscriptionTimeoutException(
+                        "Transcription timed out after " + timeoutSeconds + " seconds. " +
+                                "Try a shorter audio clip (< 30 seconds recommended).");
+            }
+
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TranscriptionException("Transcription polling interrupted.", e);
+            }
+        }
+    }
+
+    /**
+     * Parses the AWS Transcribe JSON result.
+     * Expected structure:
+     * {
+     * "results": {
+     * "transcripts": [{ "transcript": "..." }],
+     * "items": [{ "alternatives": [{ "confidence": "0.98", "content": "..." }] }]
+     * }
+     * }
+     */
+    private TranscriptionResponse parseTranscriptJson(String json) {
+        try {
+            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
+            com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(json);
+
+            com.fasterxml.jackson.databind.JsonNode results = root.path("results");
+            com.fasterxml.jackson.databind.JsonNode transcripts = results.path("transcripts");
+
+            String transcript = "";
+            if (transcripts.isArray() && !transcripts.isEmpty()) {
+                transcript = transcripts.get(0).path("transcript").asText("");
+            }
+
+            double totalConfidence = 0.0;
+            int confidenceCount = 0;
+            com.fasterxml.jackson.databind.JsonNode items = results.path("items");
+            if (items.isArray()) {
+                for (com.fasterxml.jackson.databind.JsonNode item : items) {
+                    com.fasterxml.jackson.databind.JsonNode alternatives = item.path("alternatives");
+                    if (alternatives.isArray() && !alternatives.isEmpty()) {
+                        String confidenceStr = alternatives.get(0).path("confidence").asText("");
+                        if (!confidenceStr.isEmpty()) {
+                            totalConfidence += Double.parseDouble(confidenceStr);
+                            confidenceCount++;
+                        }
+                    }
+                }
+            }
+
+            double avgConfidence = confidenceCount > 0 ? totalConfidence / confidenceCount : 0.0;
+            avgConfidence = Math.round(avgConfidence * 100.0) / 100.0;
+
+            return TranscriptionResponse.builder()
+                    .transcript(transcript)
+                    .confidence(avgConfidence)
+                    .languageCode(LANGUAGE_CODE)
+                    .build();
+
+        } catch (Exception e) {
+            throw new TranscriptionException("Failed to parse transcription result.", e);
+        }
+    }
+
+    private String getFileExtension(AudioPayload file) {
+        String originalFilename = file.getOriginalFilename();
+        if (originalFilename != null && originalFilename.contains(".")) {
+            return originalFilename.substring(originalFilename.lastIndexOf('.'));
+        }
+        String contentType = file.getContentType();
+        if (contentType != null) {
+            return switch (contentType.toLowerCase()) {
+                case "audio/wav" -> ".wav";
+                case "audio/mpeg", "audio/mp3" -> ".mp3";
+                case "audio/mp4", "audio/x-m4a", "audio/m4a" -> ".m4a";
+                default -> ".audio";
+            };
+        }
+        return ".audio";
+    }
+
+    private record Upload(String sha256, boolean preprocessed) {
+    }
+}
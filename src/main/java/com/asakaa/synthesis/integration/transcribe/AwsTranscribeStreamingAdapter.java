@@ -0,0 +1,92 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.exception.TranscriptionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.transcribestreaming.TranscribeStreamingAsyncClient;
+import software.amazon.awssdk.services.transcribestreaming.model.Alternative;
+import software.amazon.awssdk.services.transcribestreaming.model.LanguageCode;
+import software.amazon.awssdk.services.transcribestreaming.model.MediaEncoding;
+import software.amazon.awssdk.services.transcribestreaming.model.Result;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionRequest;
+import software.amazon.awssdk.services.transcribestreaming.model.StartStreamTranscriptionResponseHandler;
+import software.amazon.awssdk.services.transcribestreaming.model.TranscriptEvent;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link StreamingTranscriptionPort} backed by AWS Transcribe Streaming.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AwsTranscribeStreamingAdapter implements StreamingTranscriptionPort {
+
+    private final TranscribeStreamingAsyncClient transcribeStreamingClient;
+
+    @Value("${aws.transcribe.streaming.buffered-chunks}")
+    private int bufferedChunks;
+
+    @Override
+    public StreamingTranscriptionSession open(StreamingAudioFormat format, TranscriptSegmentListener listener) {
+        StartStreamTranscriptionRequest request = StartStreamTranscriptionRequest.builder()
+                .languageCode(LanguageCode.fromValue(format.getLanguageCode()))
+                .mediaEncoding(format.getEncoding() == StreamingAudioFormat.Encoding.OGG_OPUS
+                        ? MediaEncoding.OGG_OPUS
+                        : MediaEncoding.PCM)
+                .mediaSampleRateHertz(format.getSampleRateHertz())
+                .build();
+
+        StartStreamTranscriptionResponseHandler handler = StartStreamTranscriptionResponseHandler.builder()
+                .subscriber(event -> {
+                    if (event instanceof TranscriptEvent transcriptEvent) {
+                        for (Result result : transcriptEvent.transcript().results()) {
+                            if (!result.alternatives().isEmpty()) {
+                                listener.onSegment(toSegment(result));
+                            }
+                        }
+                    }
+                })
+                .onError(listener::onError)
+                .onComplete(listener::onComplete)
+                .build();
+
+        AudioStreamPublisher audio = new AudioStreamPublisher(bufferedChunks);
+        CompletableFuture<Void> stream = transcribeStreamingClient.startStreamTranscription(request, audio, handler);
+        log.info("Opened streaming transcription session ({} @ {} Hz)", format.getEncoding(), format.getSampleRateHertz());
+
+        return new StreamingTranscriptionSession() {
+            @Override
+            public void sendAudio(ByteBuffer chunk) {
+                if (!audio.offer(chunk)) {
+                    throw new TranscriptionException("Streaming transcription buffer is full or the stream has ended.");
+                }
+            }
+
+            @Override
+            public void complete() {
+                audio.complete();
+            }
+
+            @Override
+            public void abort() {
+                audio.cancel();
+                stream.cancel(true);
+            }
+        };
+    }
+
+    private TranscriptSegment toSegment(Result result) {
+        Alternative best = result.alternatives().get(0);
+        return TranscriptSegment.builder()
+                .resultId(result.resultId())
+                .text(best.transcript())
+                .partial(Boolean.TRUE.equals(result.isPartial()))
+                .startTime(result.startTime())
+                .endTime(result.endTime())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.service.AudioPayload;
+
+/**
+ * A provider that turns a complete recording into text. {@link SpeechToTextRouter} tries
+ * the configured engines in order.
+ */
+public interface SpeechToTextEngine {
+
+    /**
+     * Name used in routing configuration and metrics.
+     */
+    String getName();
+
+    /**
+     * Whether the engine can handle this recording's format at all.
+     */
+    boolean supports(AudioPayload audio);
+
+    /**
+     * Whether the engine is installed and configured on this node.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * @throws com.asakaa.synthesis.exception.TranscriptionException if the engine could not
+     *         produce a transcript; the router then moves on to the next engine
+     */
+    TranscriptionResponse transcribe(AudioPayload audio);
+}
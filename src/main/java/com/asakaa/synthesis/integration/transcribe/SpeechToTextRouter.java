@@ -0,0 +1,86 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.exception.TranscriptionTimeoutException;
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the speech-to-text engine for each recording. Engines are tried in the configured
+ * order, e.g. {@code local,aws} to prefer the on-box engine and fall back to the cloud
+ * when it is missing, busy, cannot read the format or fails.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpeechToTextRouter {
+
+    private final List<SpeechToTextEngine> engines;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.stt.routing}")
+    private List<String> routing;
+
+    private List<SpeechToTextEngine> ordered;
+
+    @PostConstruct
+    void init() {
+        Map<String, SpeechToTextEngine> byName = engines.stream()
+                .collect(Collectors.toMap(SpeechToTextEngine::getName, Function.identity()));
+        ordered = new ArrayList<>();
+        for (String name : routing) {
+            SpeechToTextEngine engine = byName.get(name.trim());
+            if (engine == null) {
+                throw new IllegalStateException("Unknown speech-to-text engine in synthesis.stt.routing: " + name);
+            }
+            ordered.add(engine);
+        }
+        log.info("Speech-to-text routing: {}", routing);
+    }
+
+    public TranscriptionResponse transcribe(AudioPayload audio) {
+        RuntimeException lastFailure = null;
+        for (SpeechToTextEngine engine : ordered) {
+            if (!engine.isAvailable() || !engine.supports(audio)) {
+                continue;
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                TranscriptionResponse response = engine.transcribe(audio);
+                sample.stop(timer(engine, "success"));
+                return response;
+            } catch (TranscriptionException | TranscriptionTimeoutException e) {
+                sample.stop(timer(engine, "failure"));
+                log.warn("Speech-to-text engine '{}' failed, trying next: {}", engine.getName(), e.getMessage());
+                lastFailure = e;
+            }
+        }
+
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        throw new TranscriptionException("No speech-to-text engine is available for " + audio.getContentType() + ".");
+    }
+
+    private Timer timer(SpeechToTextEngine engine, String outcome) {
+        return Timer.builder("synthesis.stt.requests")
+                .description("Speech-to-text requests by engine and outcome")
+                .tag("engine", engine.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
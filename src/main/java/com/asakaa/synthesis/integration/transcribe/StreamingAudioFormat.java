@@ -0,0 +1,22 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamingAudioFormat {
+
+    public enum Encoding {
+        PCM,
+        OGG_OPUS
+    }
+
+    private Encoding encoding;
+    private int sampleRateHertz;
+    private String languageCode;
+}
@@ -0,0 +1,14 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+/**
+ * Real-time speech-to-text backend. Production uses AWS Transcribe Streaming;
+ * tests plug in a stand-in that replays canned results.
+ */
+public interface StreamingTranscriptionPort {
+
+    /**
+     * Start a streaming session. Segments are delivered to the listener as they are
+     * recognised, on a thread owned by the implementation.
+     */
+    StreamingTranscriptionSession open(StreamingAudioFormat format, TranscriptSegmentListener listener);
+}
@@ -0,0 +1,28 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One open dictation stream.
+ */
+public interface StreamingTranscriptionSession {
+
+    /**
+     * Queue an audio chunk for recognition.
+     *
+     * @throws com.asakaa.synthesis.exception.TranscriptionException if the session has ended or the
+     *         client outpaces the backend
+     */
+    void sendAudio(ByteBuffer chunk);
+
+    /**
+     * Signal the end of audio. Remaining final segments are delivered before
+     * {@link TranscriptSegmentListener#onComplete()}.
+     */
+    void complete();
+
+    /**
+     * Stop recognition immediately, discarding pending audio.
+     */
+    void abort();
+}
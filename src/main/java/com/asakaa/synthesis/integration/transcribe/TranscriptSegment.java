@@ -0,0 +1,23 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recognised span of speech. Partial segments are revised by later segments with the
+ * same {@code resultId} until a final segment for that id arrives.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptSegment {
+
+    private String resultId;
+    private String text;
+    private boolean partial;
+    private Double startTime;
+    private Double endTime;
+}
@@ -0,0 +1,10 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+public interface TranscriptSegmentListener {
+
+    void onSegment(TranscriptSegment segment);
+
+    void onComplete();
+
+    void onError(Throwable error);
+}
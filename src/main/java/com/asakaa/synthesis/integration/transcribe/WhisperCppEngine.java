@@ -0,0 +1,278 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.audio.AudioPreprocessor;
+import com.asakaa.synthesis.audio.PreprocessedAudio;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.service.AudioPayload;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * On-box CPU transcription with the whisper.cpp command-line tool, for clinics that cannot
+ * rely on reaching AWS. Each recording runs as a separate process with a fixed number of
+ * threads; the number of concurrent processes is sized so they fit on the available cores.
+ * When every slot and queue entry is taken the request is refused, and the router sends it
+ * to the next engine.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WhisperCppEngine implements SpeechToTextEngine {
+
+    public static final String NAME = "local";
+
+    private static final Set<String> SUPPORTED_CONTENT_TYPES = Set.of("audio/wav", "audio/mpeg", "audio/mp3");
+
+    // How long to wait for a killed process to exit before its workspace is deleted anyway
+    private static final long DESTROY_WAIT_SECONDS = 5;
+
+    private final AudioPreprocessor audioPreprocessor;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${synthesis.stt.local.enabled}")
+    private boolean enabled;
+
+    @Value("${synthesis.stt.local.binary-path}")
+    private String binaryPath;
+
+    @Value("${synthesis.stt.local.model-path}")
+    private String modelPath;
+
+    @Value("${synthesis.stt.local.language}")
+    private String language;
+
+    @Value("${synthesis.stt.local.threads-per-job}")
+    private int threadsPerJob;
+
+    @Value("${synthesis.stt.local.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${synthesis.stt.local.timeout-seconds}")
+    private long timeoutSeconds;
+
+    @Value("${synthesis.stt.local.work-dir}")
+    private String workDir;
+
+    private boolean available;
+    private ThreadPoolExecutor executor;
+    private DistributionSummary realTimeFactor;
+
+    @PostConstruct
+    void init() {
+        available = enabled
+                && Files.isExecutable(Path.of(binaryPath))
+                && Files.isRegularFile(Path.of(modelPath));
+        if (enabled && !available) {
+            log.warn("Local speech-to-text is enabled but {} or {} is missing; using other engines",
+                    binaryPath, modelPath);
+        }
+
+        int concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / threadsPerJob);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "whisper-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        realTimeFactor = DistributionSummary.builder("synthesis.stt.real.time.factor")
+                .description("Processing time divided by audio duration")
+                .tag("engine", NAME)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public boolean supports(AudioPayload audio) {
+        return audio.getContentType() != null && SUPPORTED_CONTENT_TYPES.contains(audio.getContentType().toLowerCase());
+    }
+
+    @Override
+    public TranscriptionResponse transcribe(AudioPayload audio) {
+        Path job;
+        try {
+            job = Files.createTempDirectory(Path.of(workDir), "whisper-");
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to create local transcription workspace.", e);
+        }
+
+        Future<TranscriptionResponse> future = null;
+        AtomicReference<Process> process = new AtomicReference<>();
+        try (PreprocessedAudio prepared = audioPreprocessor.preprocess(audio)) {
+            Path input = job.resolve(prepared.getAudio().getContentType().contains("wav") ? "input.wav" : "input.mp3");
+            try (InputStream in = prepared.getAudio().getInputStream()) {
+                Files.copy(in, input, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            long start = System.nanoTime();
+            future = executor.submit(() -> run(input, job.resolve("output"), process));
+            TranscriptionResponse response = future.get(timeoutSeconds, TimeUnit.SECONDS);
+
+            if (prepared.getProcessedSeconds() > 0) {
+                double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+                realTimeFactor.record(elapsedSeconds / prepared.getProcessedSeconds());
+            }
+            return response;
+
+        } catch (RejectedExecutionException e) {
+            throw new TranscriptionException("Local speech-to-text engine is at capacity.");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // Cancelling only interrupts the worker; the process must be gone before its workspace is deleted
+            stop(process.get());
+            throw new TranscriptionException("Local transcription exceeded " + timeoutSeconds + " seconds.");
+        } catch (InterruptedException e) {
+            if (future != null) {
+                future.cancel(true);
+            }
+            stop(process.get());
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Local transcription was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new TranscriptionException("Local transcription failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to stage audio for local transcription.", e);
+        } finally {
+            deleteRecursively(job);
+        }
+    }
+
+    TranscriptionResponse run(Path input, Path outputBase, AtomicReference<Process> started)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(List.of(
+                binaryPath,
+                "-m", modelPath,
+                "-f", input.toString(),
+                "-l", language,
+                "-t", String.valueOf(threadsPerJob),
+                "-np",
+                "-ojf",
+                "-of", outputBase.toString()))
+                .redirectErrorStream(true)
+                .redirectOutput(outputBase.resolveSibling("whisper.log").toFile())
+                .start();
+        started.set(process);
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                String output = Files.readString(outputBase.resolveSibling("whisper.log"));
+                throw new IOException("whisper.cpp exited with " + exitCode + ": " + tail(output));
+            }
+        } finally {
+            // Reached on cancellation too, so a timed-out transcription does not keep its cores
+            stop(process);
+        }
+        return parse(Files.readString(Path.of(outputBase + ".json")));
+    }
+
+    /**
+     * Kills the process, if running, and waits a bounded time for it to exit so it is no
+     * longer writing into the workspace. Works on an interrupted thread too.
+     */
+    private static void stop(Process process) {
+        if (process == null) {
+            return;
+        }
+        process.destroyForcibly();
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (!process.waitFor(DESTROY_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("whisper.cpp process {} did not exit within {} s of being killed",
+                        process.pid(), DESTROY_WAIT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads the full JSON output. Confidence is the mean probability of the text tokens,
+     * ignoring whisper's special tokens such as {@code [_BEG_]}. The language is the one
+     * whisper reports, which differs from the configured one only when that is {@code auto}.
+     */
+    TranscriptionResponse parse(String json) throws IOException {
+        JsonNode root = objectMapper.readTree(json);
+        StringBuilder transcript = new StringBuilder();
+        double probabilitySum = 0;
+        int tokenCount = 0;
+
+        for (JsonNode segment : root.path("transcription")) {
+            transcript.append(segment.path("text").asText(""));
+            for (JsonNode token : segment.path("tokens")) {
+                if (token.path("text").asText("").startsWith("[_")) {
+                    continue;
+                }
+                probabilitySum += token.path("p").asDouble(0);
+                tokenCount++;
+            }
+        }
+
+        double confidence = tokenCount > 0 ? probabilitySum / tokenCount : 0.0;
+        return TranscriptionResponse.builder()
+                .transcript(transcript.toString().trim())
+                .confidence(Math.round(confidence * 100.0) / 100.0)
+                .languageCode(root.path("result").path("language").asText(language))
+                .build();
+    }
+
+    private static String tail(String output) {
+        return output.length() <= 500 ? output : output.substring(output.length() - 500);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Failed to clean up {}: {}", directory, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.asakaa.synthesis.repository;
+
+import com.asakaa.synthesis.analytics.FactDimension;
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.ConditionCountResponse;
+import com.asakaa.synthesis.domain.dto.response.FactGroupResponse;
+import com.asakaa.synthesis.domain.dto.response.OutcomeResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
+import com.asakaa.synthesis.domain.dto.response.TrendResponse;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Aggregate analytics reads that group, filter, sort and page in SQL, so only the rows of
+ * the requested page leave the database. Filters that are not set are left out of the
+ * statement rather than bound as nulls.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsQueryRepository {
+
+    /**
+     * Sortable properties of {@link OutcomeResponse} and the output columns they map to.
+     */
+    private static final Map<String, String> OUTCOME_SORT_COLUMNS = Map.of(
+            "condition", "condition_name",
+            "totalCases", "total_cases",
+            "resolvedCases", "resolved_cases",
+            "escalatedCases", "escalated_cases",
+            "averageConfidenceScore", "average_confidence");
+
+    private static final Map<FactDimension, String> FACT_COLUMNS = Map.of(
+            FactDimension.CONDITION, "d.condition_name",
+            FactDimension.REGION, "COALESCE(p.region, '') AS region",
+            FactDimension.CLINIC, "p.clinic_id",
+            FactDimension.DAY, "c.opened_at::date AS day",
+            FactDimension.STATUS, "c.status");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A statement and its bind values.
+     */
+    public record Query(String sql, List<Object> params) {
+    }
+
+    /**
+     * One page of per-condition outcomes: total diagnoses, those whose consultation was
+     * closed or escalated, and the mean confidence score. The number of conditions comes
+     * from a window over the same aggregate, so a page costs a single statement.
+     */
+    public Page<OutcomeResponse> findTreatmentOutcomes(LocalDateTime from, LocalDateTime to, Long clinicId,
+                                                       Pageable pageable) {
+        Query query = outcomeQuery(from, to, clinicId, pageable);
+        long[] total = {-1};
+        List<OutcomeResponse> content = jdbcTemplate.query(query.sql(), (rs, rowNum) -> {
+            total[0] = rs.getLong("total_conditions");
+            return OutcomeResponse.builder()
+                    .condition(rs.getString("condition_name"))
+                    .totalCases(rs.getLong("total_cases"))
+                    .resolvedCases(rs.getLong("resolved_cases"))
+                    .escalatedCases(rs.getLong("escalated_cases"))
+                    .averageConfidenceScore(rs.getDouble("average_confidence"))
+                    .build();
+        }, query.params().toArray());
+
+        if (total[0] < 0) {
+            // An empty page carries no window count; only past the first page is there anything to count
+            Query count = outcomeCountQuery(from, to, clinicId);
+            total[0] = pageable.getOffset() == 0 ? 0
+                    : jdbcTemplate.queryForObject(count.sql(), Long.class, count.params().toArray());
+        }
+        return new PageImpl<>(content, pageable, total[0]);
+    }
+
+    /**
+     * Diagnosis counts per condition and region for consultations opened between
+     * {@code from} and {@code to} inclusive, read from {@code diagnosis_daily_rollup}, so
+     * the cost depends on the number of days and conditions rather than on case volume.
+     * The region matches ignoring case; a null or blank region means every region.
+     */
+    public List<TrendResponse> findDiseaseTrends(LocalDate from, LocalDate to, String region) {
+        List<Object> params = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String regionPredicate = "";
+        if (region != null && !region.isBlank()) {
+            regionPredicate = " AND lower(region) = lower(?)";
+            params.add(region);
+        }
+
+        String sql = "SELECT condition_name, region, SUM(case_count) AS cases FROM diagnosis_daily_rollup"
+                + " WHERE day BETWEEN ? AND ?" + regionPredicate
+                + " GROUP BY condition_name, region ORDER BY cases DESC, condition_name, region";
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> TrendResponse.builder()
+                        .condition(rs.getString("condition_name"))
+                        .caseCount(rs.getLong("cases"))
+                        // A missing region is stored as ''
+                        .region(rs.getString("region").isEmpty() ? "Unknown" : rs.getString("region"))
+                        .build(),
+                params.toArray());
+    }
+
+    /**
+     * The {@code limit} most diagnosed conditions between {@code from} and {@code to}
+     * inclusive, from {@code diagnosis_daily_rollup}, with the total number of cases in
+     * range. The region matches ignoring case; a null or blank region means every region.
+     */
+    public TopConditionsResponse findTopConditions(LocalDate from, LocalDate to, String region, int limit) {
+        List<Object> params = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String regionPredicate = "";
+        if (region != null && !region.isBlank()) {
+            regionPredicate = " AND lower(region) = lower(?)";
+            params.add(region);
+        }
+        params.add(limit);
+
+        long[] total = {0};
+        String sql = "SELECT condition_name, SUM(case_count) AS cases, SUM(SUM(case_count)) OVER () AS total_cases"
+                + " FROM diagnosis_daily_rollup WHERE day BETWEEN ? AND ?" + regionPredicate
+                + " GROUP BY condition_name ORDER BY cases DESC, condition_name LIMIT ?";
+        List<ConditionCountResponse> conditions = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            total[0] = rs.getLong("total_cases");
+            return ConditionCountResponse.builder()
+                    .condition(rs.getString("condition_name"))
+                    .count(rs.getLong("cases"))
+                    .build();
+        }, params.toArray());
+
+        return TopConditionsResponse.builder()
+                .totalCases(total[0])
+                .conditions(conditions)
+                .confidence(1.0)
+                .build();
+    }
+
+    /**
+     * Distinct patients with a diagnosis in a consultation opened between {@code from}
+     * and {@code to} inclusive. The region matches ignoring case; a null or blank region
+     * means every region.
+     */
+    public long countDistinctPatients(LocalDate from, LocalDate to, String region) {
+        List<Object> params = new ArrayList<>(List.of(
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+        String regionJoin = "";
+        String regionPredicate = "";
+        if (region != null && !region.isBlank()) {
+            regionJoin = " JOIN patients p ON p.id = c.patient_id";
+            regionPredicate = " AND lower(p.region) = lower(?)";
+            params.add(region);
+        }
+
+        String sql = "SELECT COUNT(DISTINCT c.patient_id) FROM diagnoses d"
+                + " JOIN consultations c ON c.id = d.consultation_id" + regionJoin
+                + " WHERE c.opened_at >= ? AND c.opened_at < ?" + regionPredicate;
+        Long patients = jdbcTemplate.queryForObject(sql, Long.class, params.toArray());
+        return patients != null ? patients : 0;
+    }
+
+    /**
+     * Counts diagnosis facts matching the query, grouped by its dimensions, largest group
+     * first. The database path for queries the in-memory engine cannot answer.
+     */
+    public List<FactGroupResponse> groupFacts(FactQuery query) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "");
+        where.setEmptyValue("");
+        if (query.getFrom() != null) {
+            where.add("c.opened_at >= ?");
+            params.add(Timestamp.valueOf(query.getFrom().atStartOfDay()));
+        }
+        if (query.getTo() != null) {
+            where.add("c.opened_at < ?");
+            params.add(Timestamp.valueOf(query.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (query.getCondition() != null) {
+            where.add("lower(d.condition_name) = lower(?)");
+            params.add(query.getCondition());
+        }
+        if (query.getRegion() != null && !query.getRegion().isBlank()) {
+            where.add("lower(p.region) = lower(?)");
+            params.add(query.getRegion());
+        }
+        if (query.getClinicId() != null) {
+            where.add("p.clinic_id = ?");
+            params.add(query.getClinicId());
+        }
+        if (query.getStatus() != null) {
+            where.add("c.status = ?");
+            params.add(query.getStatus().name());
+        }
+
+        Set<FactDimension> dimensions = query.getGroupBy() != null
+                ? new LinkedHashSet<>(query.getGroupBy()) : Set.of();
+        StringJoiner select = new StringJoiner(", ", "SELECT ", "");
+        dimensions.forEach(dimension -> select.add(FACT_COLUMNS.get(dimension)));
+        select.add("COUNT(*) AS facts");
+        StringJoiner groupBy = new StringJoiner(", ", " GROUP BY ", "");
+        groupBy.setEmptyValue("");
+        for (int i = 1; i <= dimensions.size(); i++) {
+            groupBy.add(Integer.toString(i));
+        }
+
+        String sql = select + " FROM diagnoses d JOIN consultations c ON c.id = d.consultation_id"
+                + " JOIN patients p ON p.id = c.patient_id" + where + groupBy
+                + " HAVING COUNT(*) > 0 ORDER BY facts DESC";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            FactGroupResponse group = FactGroupResponse.builder().count(rs.getLong("facts")).build();
+            for (FactDimension dimension : dimensions) {
+                switch (dimension) {
+                    case CONDITION -> group.setCondition(rs.getString("condition_name"));
+                    case REGION -> group.setRegion(rs.getString("region").isEmpty() ? "Unknown" : rs.getString("region"));
+                    case CLINIC -> group.setClinicId(rs.getObject("clinic_id", Long.class));
+                    case DAY -> group.setDay(rs.getDate("day").toLocalDate());
+                    case STATUS -> group.setStatus(ConsultationStatus.valueOf(rs.getString("status")));
+                }
+            }
+            return group;
+        }, params.toArray());
+    }
+
+    Query outcomeQuery(LocalDateTime from, LocalDateTime to, Long clinicId, Pageable pageable) {
+        List<Object> params = new ArrayList<>();
+        String source = outcomeSource(from, to, clinicId, params);
+        params.add(pageable.getPageSize());
+        params.add(pageable.getOffset());
+
+        String sql = """
+                SELECT d.condition_name,
+                       COUNT(*) AS total_cases,
+                       COUNT(*) FILTER (WHERE c.status = 'CLOSED') AS resolved_cases,
+                       COUNT(*) FILTER (WHERE c.status = 'ESCALATED') AS escalated_cases,
+                       COALESCE(AVG(d.confidence_score), 0) AS average_confidence,
+                       COUNT(*) OVER () AS total_conditions
+                """ + source + " GROUP BY d.condition_name ORDER BY " + orderBy(pageable.getSort())
+                + " LIMIT ? OFFSET ?";
+        return new Query(sql, params);
+    }
+
+    Query outcomeCountQuery(LocalDateTime from, LocalDateTime to, Long clinicId) {
+        List<Object> params = new ArrayList<>();
+        return new Query("SELECT COUNT(DISTINCT d.condition_name) " + outcomeSource(from, to, clinicId, params),
+                params);
+    }
+
+    private static String outcomeSource(LocalDateTime from, LocalDateTime to, Long clinicId, List<Object> params) {
+        StringBuilder sql = new StringBuilder("FROM diagnoses d JOIN consultations c ON c.id = d.consultation_id");
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "");
+        where.setEmptyValue("");
+
+        if (clinicId != null) {
+            sql.append(" JOIN patients p ON p.id = c.patient_id");
+            where.add("p.clinic_id = ?");
+            params.add(clinicId);
+        }
+        if (from != null) {
+            where.add("c.opened_at >= ?");
+            params.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            where.add("c.opened_at <= ?");
+            params.add(Timestamp.valueOf(to));
+        }
+        return sql.append(where).toString();
+    }
+
+    /**
+     * Sort columns come only from {@link #OUTCOME_SORT_COLUMNS}, never from the request,
+     * and the condition name breaks ties so pages do not overlap.
+     */
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        boolean byCondition = false;
+        for (Sort.Order order : sort) {
+            String column = OUTCOME_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new ValidationException("Cannot sort outcomes by '" + order.getProperty()
+                        + "'; expected one of " + OUTCOME_SORT_COLUMNS.keySet());
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+            byCondition |= column.equals("condition_name");
+        }
+        if (orderBy.length() == 0) {
+            orderBy.add("total_cases DESC");
+        }
+        if (!byCondition) {
+            orderBy.add("condition_name");
+        }
+        return orderBy.toString();
+    }
+}
@@ -0,0 +1,171 @@
+package com.asakaa.synthesis.repository;
+
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.domain.dto.response.AuditLogResponse;
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Keyset-paginated audit log reads. The SQL is assembled from only the filters that are
+ * set, so every query matches one of the {@code idx_audit_*_keyset} indexes exactly, and
+ * pages are addressed by the (timestamp, id) of the last row seen rather than an offset.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AuditLogQueryRepository {
+
+    private static final String COLUMNS = """
+            id, provider_id, provider_name, provider_email, provider_role, action, patient_id, patient_name,
+            patient_national_id, resource_type, resource_id, details, ip_address, user_agent, session_id,
+            timestamp, success, error_message""";
+
+    private static final RowMapper<AuditLogResponse> ROW_MAPPER = (rs, rowNum) -> AuditLogResponse.builder()
+            .id(rs.getLong("id"))
+            .providerId(rs.getObject("provider_id", Long.class))
+            .providerName(rs.getString("provider_name"))
+            .providerEmail(rs.getString("provider_email"))
+            .providerRole(rs.getString("provider_role"))
+            .action(AuditAction.valueOf(rs.getString("action")))
+            .patientId(rs.getObject("patient_id", Long.class))
+            .patientName(rs.getString("patient_name"))
+            .patientNationalId(rs.getString("patient_national_id"))
+            .resourceType(rs.getString("resource_type"))
+            .resourceId(rs.getObject("resource_id", Long.class))
+            .details(rs.getString("details"))
+            .ipAddress(rs.getString("ip_address"))
+            .userAgent(rs.getString("user_agent"))
+            .sessionId(rs.getString("session_id"))
+            .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+            .success(rs.getBoolean("success"))
+            .errorMessage(rs.getString("error_message"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Position of the last row of a page; the next page starts strictly after it.
+     */
+    public record Cursor(LocalDateTime timestamp, long id) {
+    }
+
+    /**
+     * A statement and its bind values.
+     */
+    public record Query(String sql, List<Object> params) {
+    }
+
+    /**
+     * Newest-first page of at most {@code limit} rows after {@code after} (null for the first page).
+     */
+    public List<AuditLogResponse> findPage(AuditLogFilter filter, Cursor after, int limit) {
+        Query query = pageQuery(filter, after, limit);
+        return jdbcTemplate.query(query.sql(), ROW_MAPPER, query.params().toArray());
+    }
+
+    /**
+     * The planner's row estimate for the filter. Costs one EXPLAIN instead of a COUNT(*)
+     * over every matching row.
+     */
+    public long estimateCount(AuditLogFilter filter) {
+        Query query = countQuery(filter);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query.sql(), String.class,
+                query.params().toArray());
+        try {
+            JsonNode root = objectMapper.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable query plan", e);
+        }
+    }
+
+    /**
+     * Hands the result set of every row matching the filter, oldest first, to {@code extractor}.
+     * Must run inside a transaction: only then does the driver hold a server-side cursor and
+     * fetch {@code fetchSize} rows at a time instead of the whole result.
+     */
+    public <T> T streamAll(AuditLogFilter filter, int fetchSize, ResultSetExtractor<T> extractor) {
+        Query query = exportQuery(filter);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(query.sql(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            new ArgumentPreparedStatementSetter(query.params().toArray()).setValues(ps);
+            return ps;
+        }, extractor);
+    }
+
+    public Query pageQuery(AuditLogFilter filter, Cursor after, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = predicates(filter, params);
+        if (after != null) {
+            where.add("(timestamp, id) < (?, ?)");
+            params.add(Timestamp.valueOf(after.timestamp()));
+            params.add(after.id());
+        }
+        params.add(limit);
+
+        String sql = "SELECT " + COLUMNS + " FROM audit_logs" + where
+                + " ORDER BY timestamp DESC, id DESC LIMIT ?";
+        return new Query(sql, params);
+    }
+
+    Query exportQuery(AuditLogFilter filter) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = predicates(filter, params);
+        return new Query("SELECT " + COLUMNS + " FROM audit_logs" + where + " ORDER BY timestamp, id", params);
+    }
+
+    Query countQuery(AuditLogFilter filter) {
+        List<Object> params = new ArrayList<>();
+        StringJoiner where = predicates(filter, params);
+        return new Query("SELECT 1 FROM audit_logs" + where, params);
+    }
+
+    private static StringJoiner predicates(AuditLogFilter filter, List<Object> params) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "");
+        where.setEmptyValue("");
+
+        if (filter.getProviderId() != null) {
+            where.add("provider_id = ?");
+            params.add(filter.getProviderId());
+        }
+        if (filter.getPatientId() != null) {
+            where.add("patient_id = ?");
+            params.add(filter.getPatientId());
+        }
+        if (filter.getAction() != null) {
+            where.add("action = ?");
+            params.add(filter.getAction().name());
+        }
+        if (filter.getStartDate() != null) {
+            where.add("timestamp >= ?");
+            params.add(Timestamp.valueOf(filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            where.add("timestamp <= ?");
+            params.add(Timestamp.valueOf(filter.getEndDate()));
+        }
+        if (filter.getSuccess() != null) {
+            // Inlined so the planner can match the partial index on failed actions
+            where.add(filter.getSuccess() ? "success = TRUE" : "success = FALSE");
+        }
+        return where;
+    }
+}
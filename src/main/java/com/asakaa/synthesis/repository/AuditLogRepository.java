@@ -54,21 +54,6 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
             Pageable pageable
     );
 
-    // Suspicious activity detection: Provider accessing many different patients
-    @Query("""
-        SELECT a FROM AuditLog a
-        WHERE a.providerId = :providerId
-        AND a.timestamp >= :since
-        AND a.action IN ('VIEW_PATIENT_PROFILE', 'VIEW_PATIENT_HISTORY')
-        GROUP BY a.patientId
-        HAVING COUNT(DISTINCT a.patientId) > :threshold
-    """)
-    List<AuditLog> findSuspiciousAccessPatterns(
-            @Param("providerId") Long providerId,
-            @Param("since") LocalDateTime since,
-            @Param("threshold") int threshold
-    );
-
     // Count actions by provider in time range
     @Query("""
         SELECT COUNT(a) FROM AuditLog a
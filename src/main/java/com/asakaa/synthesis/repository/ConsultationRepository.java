@@ -2,14 +2,13 @@ package com.asakaa.synthesis.repository;
 
 import com.asakaa.synthesis.domain.entity.Consultation;
 import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.repository.projection.StatusCount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @Repository
 public interface ConsultationRepository extends JpaRepository<Consultation, Long> {
@@ -18,15 +17,14 @@ public interface ConsultationRepository extends JpaRepository<Consultation, Long
 
     List<Consultation> findByPatientId(Long patientId);
 
+    @Query("SELECT c.status AS status, COUNT(c) AS count FROM Consultation c GROUP BY c.status")
+    List<StatusCount> countByStatus();
+
     @Query("""
-            SELECT d.conditionName as condition, pat.region as region, COUNT(c.id) as count
+            SELECT c.status AS status, COUNT(c) AS count
             FROM Consultation c
-            JOIN c.patient pat
-            JOIN c.diagnoses d
-            WHERE c.openedAt BETWEEN :startDate AND :endDate
-            GROUP BY d.conditionName, pat.region
+            WHERE c.patient.clinic.id = :clinicId
+            GROUP BY c.status
             """)
-    List<Map<String, Object>> countByConditionAndRegion(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+    List<StatusCount> countByStatusForClinic(@Param("clinicId") Long clinicId);
 }
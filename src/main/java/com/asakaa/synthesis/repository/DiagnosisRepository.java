@@ -1,7 +1,11 @@
 package com.asakaa.synthesis.repository;
 
 import com.asakaa.synthesis.domain.entity.Diagnosis;
+import com.asakaa.synthesis.repository.projection.ConditionCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
@@ -14,4 +18,23 @@ public interface DiagnosisRepository extends JpaRepository<Diagnosis, Long> {
 
     List<Diagnosis> findByConditionNameAndConfidenceScoreGreaterThan(
             String conditionName, BigDecimal threshold);
+
+    @Query("""
+            SELECT d.conditionName AS conditionName, COUNT(d) AS count
+            FROM Diagnosis d
+            GROUP BY d.conditionName
+            ORDER BY COUNT(d) DESC, d.conditionName
+            """)
+    List<ConditionCount> findTopConditions(Pageable pageable);
+
+    @Query("""
+            SELECT d.conditionName AS conditionName, COUNT(d) AS count
+            FROM Diagnosis d
+            JOIN d.consultation c
+            JOIN c.patient p
+            WHERE p.clinic.id = :clinicId
+            GROUP BY d.conditionName
+            ORDER BY COUNT(d) DESC, d.conditionName
+            """)
+    List<ConditionCount> countConditionsForClinic(@Param("clinicId") Long clinicId);
 }
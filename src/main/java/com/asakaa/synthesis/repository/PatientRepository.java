@@ -16,6 +16,8 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 
     List<Patient> findByClinicId(Long clinicId);
 
+    long countByClinicId(Long clinicId);
+
     boolean existsByNationalId(String nationalId);
 
     Page<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
@@ -4,6 +4,8 @@ import com.asakaa.synthesis.domain.entity.Provider;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,6 @@ public interface ProviderRepository extends JpaRepository<Provider, Long> {
     Optional<Provider> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    List<Provider> findByEmailIn(Collection<String> emails);
 }
@@ -0,0 +1,13 @@
+package com.asakaa.synthesis.repository;
+
+import com.asakaa.synthesis.domain.entity.TranscriptCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TranscriptCacheRepository extends JpaRepository<TranscriptCacheEntry, Long> {
+
+    Optional<TranscriptCacheEntry> findByContentHashAndLanguageCode(String contentHash, String languageCode);
+}
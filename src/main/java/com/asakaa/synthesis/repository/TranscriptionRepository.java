@@ -0,0 +1,15 @@
+package com.asakaa.synthesis.repository;
+
+import com.asakaa.synthesis.domain.entity.Transcription;
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TranscriptionRepository extends JpaRepository<Transcription, Long> {
+
+    List<Transcription> findByStatusAndNextPollAtLessThanEqual(TranscriptionStatus status, LocalDateTime now);
+}
@@ -0,0 +1,11 @@
+package com.asakaa.synthesis.repository.projection;
+
+/**
+ * One row of a diagnosis count grouped by condition.
+ */
+public interface ConditionCount {
+
+    String getConditionName();
+
+    long getCount();
+}
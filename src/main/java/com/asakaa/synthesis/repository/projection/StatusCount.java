@@ -0,0 +1,13 @@
+package com.asakaa.synthesis.repository.projection;
+
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+
+/**
+ * One row of a consultation count grouped by status.
+ */
+public interface StatusCount {
+
+    ConsultationStatus getStatus();
+
+    long getCount();
+}
@@ -0,0 +1,31 @@
+package com.asakaa.synthesis.security;
+
+import com.asakaa.synthesis.domain.entity.Provider;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * The authenticated provider, loaded once per request by the JWT filter. Carries the
+ * identity fields that audit entries need so they never have to look the provider up again.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class ProviderPrincipal extends User {
+
+    private final Long providerId;
+    private final String displayName;
+    private final String role;
+    private final Long clinicId;
+
+    public ProviderPrincipal(Provider provider, String role, Collection<? extends GrantedAuthority> authorities) {
+        super(provider.getEmail(), provider.getPasswordHash(), authorities);
+        this.providerId = provider.getId();
+        this.displayName = provider.getName();
+        this.role = role;
+        this.clinicId = provider.getClinic() != null ? provider.getClinic().getId() : null;
+    }
+}
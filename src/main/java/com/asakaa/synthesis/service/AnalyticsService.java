@@ -1,181 +1,266 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.analytics.ColumnarFactEngine;
+import com.asakaa.synthesis.analytics.DiagnosisSketchStore;
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.ClinicSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.ConditionCountResponse;
+import com.asakaa.synthesis.domain.dto.response.DashboardSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.DistinctPatientsResponse;
+import com.asakaa.synthesis.domain.dto.response.FactQueryResponse;
 import com.asakaa.synthesis.domain.dto.response.OutcomeResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
 import com.asakaa.synthesis.domain.dto.response.TrendResponse;
-import com.asakaa.synthesis.domain.entity.BaseEntity;
 import com.asakaa.synthesis.domain.entity.ConsultationStatus;
-import com.asakaa.synthesis.domain.entity.Diagnosis;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.repository.AnalyticsQueryRepository;
 import com.asakaa.synthesis.repository.ConsultationRepository;
 import com.asakaa.synthesis.repository.DiagnosisRepository;
 import com.asakaa.synthesis.repository.EscalationRepository;
 import com.asakaa.synthesis.repository.PatientRepository;
+import com.asakaa.synthesis.repository.projection.StatusCount;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Read-only analytics; every method runs in a read-only transaction, so it is served by
+ * the read replica when one is configured. The cached dashboard is the exception: it opens
+ * a transaction only when it has to recompute.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class AnalyticsService {
 
+    private static final int TOP_CONDITIONS = 5;
+
     private final ConsultationRepository consultationRepository;
     private final DiagnosisRepository diagnosisRepository;
     private final EscalationRepository escalationRepository;
     private final PatientRepository patientRepository;
+    private final AnalyticsQueryRepository analyticsQueryRepository;
+    private final ColumnarFactEngine columnarFactEngine;
+    private final DiagnosisSketchStore diagnosisSketchStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${synthesis.analytics.dashboard-cache-ttl-ms}")
+    private long dashboardCacheTtlMillis;
+
+    private final Object dashboardLock = new Object();
+    private volatile CachedDashboard dashboardCache;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
+    /**
+     * Diagnosis counts per condition and region, from the daily rollup. Defaults to the
+     * last three months; both ends are inclusive.
+     */
     public List<TrendResponse> getDiseaseTrends(String region, LocalDate from, LocalDate to) {
         log.info("Fetching disease trends for region: {}, from: {}, to: {}", region, from, to);
 
-        LocalDateTime startDate = from != null ? from.atStartOfDay() : LocalDateTime.now().minusMonths(3);
-        LocalDateTime endDate = to != null ? to.atTime(23, 59, 59) : LocalDateTime.now();
+        LocalDate startDate = from != null ? from : LocalDate.now().minusMonths(3);
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        String period = String.format("%s to %s", startDate, endDate);
 
-        List<Map<String, Object>> results = consultationRepository.countByConditionAndRegion(startDate, endDate);
+        List<TrendResponse> trends = analyticsQueryRepository.findDiseaseTrends(startDate, endDate, region);
+        trends.forEach(trend -> trend.setPeriod(period));
+        return trends;
+    }
 
-        return results.stream()
-                .filter(result -> region == null || region.isEmpty() ||
-                        (result.get("region") != null && result.get("region").toString().equalsIgnoreCase(region)))
-                .map(result -> TrendResponse.builder()
-                        .condition(result.get("condition") != null ? result.get("condition").toString() : "Unknown")
-                        .caseCount(result.get("count") != null ? ((Number) result.get("count")).longValue() : 0L)
-                        .region(result.get("region") != null ? result.get("region").toString() : "Unknown")
-                        .period(String.format("%s to %s", startDate.toLocalDate(), endDate.toLocalDate()))
-                        .build())
-                .collect(Collectors.toList());
+    /**
+     * The {@code limit} most diagnosed conditions, defaulting to the last three months;
+     * both ends are inclusive. With {@code approx}, counts come from the merged sketches,
+     * lag writes by up to the sketch flush interval and carry the overcount bound described
+     * on {@link TopConditionsResponse}; otherwise they are exact, from the daily rollup.
+     */
+    public TopConditionsResponse getTopConditions(String region, LocalDate from, LocalDate to, int limit,
+                                                  boolean approx) {
+        log.info("Fetching top {} conditions for region: {}, from: {}, to: {}, approx: {}",
+                limit, region, from, to, approx);
+
+        if (limit < 1) {
+            throw new ValidationException("limit must be at least 1");
+        }
+        LocalDate startDate = from != null ? from : LocalDate.now().minusMonths(3);
+        LocalDate endDate = to != null ? to : LocalDate.now();
+
+        TopConditionsResponse response = approx
+                ? diagnosisSketchStore.topConditions(region, startDate, endDate, limit)
+                : analyticsQueryRepository.findTopConditions(startDate, endDate, region, limit);
+        response.setRegion(region);
+        response.setFrom(startDate);
+        response.setTo(endDate);
+        return response;
     }
 
-    public List<OutcomeResponse> getTreatmentOutcomes() {
-        log.info("Fetching treatment outcomes");
-
-        List<Diagnosis> allDiagnoses = diagnosisRepository.findAll();
-
-        Map<String, List<Diagnosis>> grouped = allDiagnoses.stream()
-                .collect(Collectors.groupingBy(Diagnosis::getConditionName));
-
-        return grouped.entrySet().stream()
-                .map(entry -> {
-                    String condition = entry.getKey();
-                    List<Diagnosis> diagnoses = entry.getValue();
-
-                    long totalCases = diagnoses.size();
-
-                    long resolvedCases = diagnoses.stream()
-                            .filter(d -> d.getConsultation().getStatus() == ConsultationStatus.CLOSED)
-                            .count();
-
-                    long escalatedCases = diagnoses.stream()
-                            .filter(d -> d.getConsultation().getStatus() == ConsultationStatus.ESCALATED)
-                            .count();
-
-                    double avgConfidence = diagnoses.stream()
-                            .filter(d -> d.getConfidenceScore() != null)
-                            .mapToDouble(d -> d.getConfidenceScore().doubleValue())
-                            .average()
-                            .orElse(0.0);
-
-                    return OutcomeResponse.builder()
-                            .condition(condition)
-                            .totalCases(totalCases)
-                            .resolvedCases(resolvedCases)
-                            .escalatedCases(escalatedCases)
-                            .averageConfidenceScore(avgConfidence)
-                            .build();
-                })
-                .sorted(Comparator.comparing(OutcomeResponse::getTotalCases).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Distinct patients with a diagnosis, defaulting to the last three months; both ends
+     * are inclusive. With {@code approx}, the count comes from the merged HyperLogLog
+     * sketches with the relative standard error reported in the response; otherwise it
+     * is an exact {@code COUNT(DISTINCT)}.
+     */
+    public DistinctPatientsResponse getDistinctPatients(String region, LocalDate from, LocalDate to, boolean approx) {
+        log.info("Fetching distinct patients for region: {}, from: {}, to: {}, approx: {}", region, from, to, approx);
+
+        LocalDate startDate = from != null ? from : LocalDate.now().minusMonths(3);
+        LocalDate endDate = to != null ? to : LocalDate.now();
+
+        DistinctPatientsResponse response = approx
+                ? diagnosisSketchStore.distinctPatients(region, startDate, endDate)
+                : DistinctPatientsResponse.builder()
+                        .distinctPatients(analyticsQueryRepository.countDistinctPatients(startDate, endDate, region))
+                        .build();
+        response.setRegion(region);
+        response.setFrom(startDate);
+        response.setTo(endDate);
+        return response;
     }
 
-    public Map<String, Object> getClinicSummary(Long clinicId) {
-        log.info("Fetching clinic summary for clinic id: {}", clinicId);
+    /**
+     * Ad-hoc fact counts, from the in-memory columnar snapshot once it has loaded and from
+     * the database until then or when the engine is disabled.
+     */
+    public FactQueryResponse queryFacts(FactQuery query) {
+        log.info("Fetching fact counts for: {}", query);
 
-        Map<String, Object> summary = new HashMap<>();
+        if (columnarFactEngine.isReady()) {
+            return columnarFactEngine.query(query);
+        }
+        return FactQueryResponse.builder()
+                .source("DATABASE")
+                .asOf(LocalDateTime.now())
+                .groups(analyticsQueryRepository.groupFacts(query))
+                .build();
+    }
 
-        List<Long> patientIds = patientRepository.findByClinicId(clinicId).stream()
-                .map(BaseEntity::getId)
-                .toList();
+    /**
+     * Per-condition outcomes, aggregated, sorted and paged by the database in one
+     * statement. Every filter is optional; {@code to} is inclusive.
+     */
+    public Page<OutcomeResponse> getTreatmentOutcomes(LocalDate from, LocalDate to, Long clinicId,
+                                                      Pageable pageable) {
+        log.info("Fetching treatment outcomes for clinic: {}, from: {}, to: {}, page: {}", clinicId, from, to, pageable);
+
+        return analyticsQueryRepository.findTreatmentOutcomes(
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.atTime(23, 59, 59) : null,
+                clinicId, pageable);
+    }
 
-        summary.put("totalPatients", patientIds.size());
+    /**
+     * Three aggregate queries regardless of clinic size: the patient count, consultation
+     * counts by status, and diagnosis counts by condition.
+     */
+    public ClinicSummaryResponse getClinicSummary(Long clinicId) {
+        log.info("Fetching clinic summary for clinic id: {}", clinicId);
 
         long totalConsultations = 0;
         long activeConsultations = 0;
         long escalatedConsultations = 0;
-        Map<String, Long> conditionCounts = new HashMap<>();
-
-        for (Long patientId : patientIds) {
-            var consultations = consultationRepository.findByPatientId(patientId);
-            totalConsultations += consultations.size();
-
-            activeConsultations += consultations.stream()
-                    .filter(c -> c.getStatus() == ConsultationStatus.OPEN ||
-                            c.getStatus() == ConsultationStatus.IN_PROGRESS)
-                    .count();
-
-            escalatedConsultations += consultations.stream()
-                    .filter(c -> c.getStatus() == ConsultationStatus.ESCALATED)
-                    .count();
-
-            consultations.forEach(consultation ->
-                    consultation.getDiagnoses().forEach(diagnosis ->
-                            conditionCounts.merge(diagnosis.getConditionName(), 1L, Long::sum)
-                    )
-            );
+        for (StatusCount row : consultationRepository.countByStatusForClinic(clinicId)) {
+            totalConsultations += row.getCount();
+            if (row.getStatus() == ConsultationStatus.OPEN || row.getStatus() == ConsultationStatus.IN_PROGRESS) {
+                activeConsultations += row.getCount();
+            } else if (row.getStatus() == ConsultationStatus.ESCALATED) {
+                escalatedConsultations += row.getCount();
+            }
         }
 
-        summary.put("totalConsultations", totalConsultations);
-        summary.put("activeConsultations", activeConsultations);
-        summary.put("escalatedConsultations", escalatedConsultations);
-
-        String topCondition = conditionCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("None");
-        summary.put("topCondition", topCondition);
-        summary.put("conditionBreakdown", conditionCounts);
-
-        return summary;
+        Map<String, Long> conditionCounts = new LinkedHashMap<>();
+        diagnosisRepository.countConditionsForClinic(clinicId)
+                .forEach(row -> conditionCounts.put(row.getConditionName(), row.getCount()));
+
+        return ClinicSummaryResponse.builder()
+                .clinicId(clinicId)
+                .totalPatients(patientRepository.countByClinicId(clinicId))
+                .totalConsultations(totalConsultations)
+                .activeConsultations(activeConsultations)
+                .escalatedConsultations(escalatedConsultations)
+                .topCondition(conditionCounts.isEmpty() ? "None" : conditionCounts.keySet().iterator().next())
+                .conditionBreakdown(conditionCounts)
+                .build();
     }
 
-    public Map<String, Object> getDashboardSummary() {
-        log.info("Fetching dashboard summary");
-
-        Map<String, Object> dashboard = new HashMap<>();
+    /**
+     * Dashboard counts, at most {@code dashboard-cache-ttl-ms} old. Concurrent requests
+     * after expiry wait for one refresh instead of each running the queries. Runs outside
+     * a transaction so cache hits and waiting requests hold no pooled connection; only the
+     * refresh borrows one.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DashboardSummaryResponse getDashboardSummary() {
+        CachedDashboard cached = dashboardCache;
+        if (cached != null && System.nanoTime() < cached.expiresAtNanos()) {
+            return cached.summary();
+        }
+        synchronized (dashboardLock) {
+            cached = dashboardCache;
+            if (cached == null || System.nanoTime() >= cached.expiresAtNanos()) {
+                cached = new CachedDashboard(readOnlyTransaction.execute(status -> computeDashboardSummary()),
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dashboardCacheTtlMillis));
+                dashboardCache = cached;
+            }
+            return cached.summary();
+        }
+    }
 
-        dashboard.put("totalPatients", patientRepository.count());
-        dashboard.put("totalConsultations", consultationRepository.count());
-        dashboard.put("totalEscalations", escalationRepository.count());
+    /**
+     * Four aggregate queries, each returning a handful of counts; no entity is loaded.
+     */
+    DashboardSummaryResponse computeDashboardSummary() {
+        log.info("Computing dashboard summary");
 
-        Map<String, Long> statusCounts = new HashMap<>();
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
         for (ConsultationStatus status : ConsultationStatus.values()) {
-            long count = consultationRepository.findAll().stream()
-                    .filter(c -> c.getStatus() == status)
-                    .count();
-            statusCounts.put(status.name(), count);
+            statusCounts.put(status.name(), 0L);
+        }
+        long totalConsultations = 0;
+        for (StatusCount row : consultationRepository.countByStatus()) {
+            statusCounts.put(row.getStatus().name(), row.getCount());
+            totalConsultations += row.getCount();
         }
-        dashboard.put("consultationsByStatus", statusCounts);
-
-        List<Diagnosis> allDiagnoses = diagnosisRepository.findAll();
-        Map<String, Long> conditionCounts = allDiagnoses.stream()
-                .collect(Collectors.groupingBy(Diagnosis::getConditionName, Collectors.counting()));
-
-        List<Map<String, Object>> topConditions = conditionCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(entry -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("condition", entry.getKey());
-                    item.put("count", entry.getValue());
-                    return item;
-                })
-                .collect(Collectors.toList());
-        dashboard.put("topConditions", topConditions);
-
-        return dashboard;
+
+        List<ConditionCountResponse> topConditions = diagnosisRepository
+                .findTopConditions(PageRequest.of(0, TOP_CONDITIONS)).stream()
+                .map(row -> ConditionCountResponse.builder()
+                        .condition(row.getConditionName())
+                        .count(row.getCount())
+                        .build())
+                .toList();
+
+        return DashboardSummaryResponse.builder()
+                .totalPatients(patientRepository.count())
+                .totalConsultations(totalConsultations)
+                .totalEscalations(escalationRepository.count())
+                .consultationsByStatus(statusCounts)
+                .topConditions(topConditions)
+                .generatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private record CachedDashboard(DashboardSummaryResponse summary, long expiresAtNanos) {
     }
 }
@@ -0,0 +1,78 @@
+package com.asakaa.synthesis.service;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Audio submitted for transcription, whether it arrived as a single multipart request
+ * or was assembled from a resumable upload.
+ */
+public interface AudioPayload extends InputStreamSource {
+
+    String getContentType();
+
+    String getOriginalFilename();
+
+    long getSize();
+
+    default boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    static AudioPayload of(MultipartFile file) {
+        return new AudioPayload() {
+            @Override
+            public String getContentType() {
+                return file.getContentType();
+            }
+
+            @Override
+            public String getOriginalFilename() {
+                return file.getOriginalFilename();
+            }
+
+            @Override
+            public long getSize() {
+                return file.getSize();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return file.getInputStream();
+            }
+        };
+    }
+
+    static AudioPayload of(Path path, String contentType, String originalFilename) {
+        return new AudioPayload() {
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+
+            @Override
+            public String getOriginalFilename() {
+                return originalFilename;
+            }
+
+            @Override
+            public long getSize() {
+                try {
+                    return Files.size(path);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Files.newInputStream(path);
+            }
+        };
+    }
+}
@@ -1,166 +1,109 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.audit.AuditEvent;
+import com.asakaa.synthesis.audit.AuditEventWriter;
+import com.asakaa.synthesis.audit.AuditRequestContext;
+import com.asakaa.synthesis.audit.PatientDisplayCache;
+import com.asakaa.synthesis.audit.SuspiciousAccessDetector;
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.domain.dto.response.AuditLogPageResponse;
 import com.asakaa.synthesis.domain.dto.response.AuditLogResponse;
 import com.asakaa.synthesis.domain.entity.AuditAction;
 import com.asakaa.synthesis.domain.entity.AuditLog;
-import com.asakaa.synthesis.domain.entity.Patient;
-import com.asakaa.synthesis.domain.entity.Provider;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.repository.AuditLogQueryRepository;
 import com.asakaa.synthesis.repository.AuditLogRepository;
-import com.asakaa.synthesis.repository.PatientRepository;
-import com.asakaa.synthesis.repository.ProviderRepository;
-import jakarta.servlet.http.HttpServletRequest;
+import com.asakaa.synthesis.security.ProviderPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final char CURSOR_SEPARATOR = '~';
+
     private final AuditLogRepository auditLogRepository;
-    private final ProviderRepository providerRepository;
-    private final PatientRepository patientRepository;
+    private final AuditLogQueryRepository auditLogQueryRepository;
+    private final AuditEventWriter auditEventWriter;
+    private final PatientDisplayCache patientDisplayCache;
+    private final SuspiciousAccessDetector suspiciousAccessDetector;
 
     /**
-     * Log an audit event asynchronously
-     * Uses REQUIRES_NEW to ensure audit logs are saved even if main transaction fails
+     * Log an audit event. The event is captured on the calling thread and written in
+     * the background by {@link AuditEventWriter}.
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logAudit(AuditAction action, Long patientId, String details) {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                log.warn("Attempted to log audit without authentication");
-                return;
-            }
-
-            String email = authentication.getName();
-            Provider provider = providerRepository.findByEmail(email).orElse(null);
-
-            AuditLog auditLog = AuditLog.builder()
-                    .action(action)
-                    .providerId(provider != null ? provider.getId() : null)
-                    .providerName(provider != null ? provider.getName() : "Unknown")
-                    .providerEmail(email)
-                    .providerRole(provider != null ? provider.getRole() : "Unknown")
-                    .patientId(patientId)
-                    .details(details)
-                    .timestamp(LocalDateTime.now())
-                    .success(true)
-                    .build();
-
-            // Add patient information if available
-            if (patientId != null) {
-                patientRepository.findById(patientId).ifPresent(patient -> {
-                    auditLog.setPatientName(patient.getFirstName() + " " + patient.getLastName());
-                    auditLog.setPatientNationalId(patient.getNationalId());
-                });
-            }
-
-            // Add HTTP request information
-            addRequestInfo(auditLog);
-
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created: {} by {} for patient {}", action, email, patientId);
-
-        } catch (Exception e) {
-            log.error("Failed to create audit log", e);
-        }
+        logAudit(action, patientId, null, null, details);
     }
 
     /**
      * Log audit with resource information
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logAudit(AuditAction action, Long patientId, String resourceType, Long resourceId, String details) {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated()) {
-                return;
-            }
-
-            String email = authentication.getName();
-            Provider provider = providerRepository.findByEmail(email).orElse(null);
-
-            AuditLog auditLog = AuditLog.builder()
-                    .action(action)
-                    .providerId(provider != null ? provider.getId() : null)
-                    .providerName(provider != null ? provider.getName() : "Unknown")
-                    .providerEmail(email)
-                    .providerRole(provider != null ? provider.getRole() : "Unknown")
-                    .patientId(patientId)
-                    .resourceType(resourceType)
-                    .resourceId(resourceId)
-                    .details(details)
-                    .timestamp(LocalDateTime.now())
-                    .success(true)
-                    .build();
-
-            if (patientId != null) {
-                patientRepository.findById(patientId).ifPresent(patient -> {
-                    auditLog.setPatientName(patient.getFirstName() + " " + patient.getLastName());
-                    auditLog.setPatientNationalId(patient.getNationalId());
-                });
-            }
-
-            addRequestInfo(auditLog);
-            auditLogRepository.save(auditLog);
-
-        } catch (Exception e) {
-            log.error("Failed to create audit log", e);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            log.warn("Attempted to log audit without authentication");
+            return;
         }
+
+        capture(action, authentication, patientId, resourceType, resourceId, details, true, null);
     }
 
     /**
      * Log failed action
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void logFailedAction(AuditAction action, Long patientId, String errorMessage) {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String email = authentication != null ? authentication.getName() : "Anonymous";
-            Provider provider = providerRepository.findByEmail(email).orElse(null);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            AuditLog auditLog = AuditLog.builder()
-                    .action(action)
-                    .providerId(provider != null ? provider.getId() : null)
-                    .providerName(provider != null ? provider.getName() : "Unknown")
-                    .providerEmail(email)
-                    .providerRole(provider != null ? provider.getRole() : "Unknown")
-                    .patientId(patientId)
-                    .timestamp(LocalDateTime.now())
-                    .success(false)
-                    .errorMessage(errorMessage)
-                    .build();
-
-            if (patientId != null) {
-                patientRepository.findById(patientId).ifPresent(patient -> {
-                    auditLog.setPatientName(patient.getFirstName() + " " + patient.getLastName());
-                    auditLog.setPatientNationalId(patient.getNationalId());
-                });
-            }
+        capture(action, authentication, patientId, null, null, null, false, errorMessage);
+    }
 
-            addRequestInfo(auditLog);
-            auditLogRepository.save(auditLog);
+    private void capture(AuditAction action, Authentication authentication, Long patientId, String resourceType,
+                         Long resourceId, String details, boolean success, String errorMessage) {
+        try {
+            String email = authentication != null ? authentication.getName() : "Anonymous";
+            ProviderPrincipal principal = authentication != null
+                    && authentication.getPrincipal() instanceof ProviderPrincipal provider ? provider : null;
+            PatientDisplayCache.PatientDisplay patient = patientId != null
+                    ? patientDisplayCache.get(patientId).orElse(null) : null;
+
+            // Copy HTTP request information now; it is gone once the request completes
+            AuditRequestContext request = AuditRequestContext.current();
+
+            AuditEvent event = new AuditEvent(UUID.randomUUID(), action,
+                    principal != null ? principal.getProviderId() : null,
+                    principal != null ? principal.getDisplayName() : null,
+                    email,
+                    principal != null ? principal.getRole() : null,
+                    principal != null ? principal.getClinicId() : null,
+                    patientId,
+                    patient != null ? patient.name() : null,
+                    patient != null ? patient.nationalId() : null,
+                    patient != null ? patient.clinicId() : null,
+                    resourceType, resourceId, details, success, errorMessage,
+                    request.ipAddress(), request.userAgent(), request.sessionId(),
+                    LocalDateTime.now(), System.nanoTime());
+            auditEventWriter.submit(event);
+            suspiciousAccessDetector.observe(event);
+            log.debug("Audit event captured: {} by {} for patient {}", action, email, patientId);
 
         } catch (Exception e) {
-            log.error("Failed to log failed action", e);
+            log.error("Failed to create audit log", e);
         }
     }
 
@@ -184,6 +127,35 @@ public class AuditService {
         return logs.map(this::toResponse);
     }
 
+    /**
+     * Keyset-paginated audit search, newest first. Each page costs one index range scan
+     * regardless of how deep it is; pass the returned cursor to continue.
+     */
+    @Transactional(readOnly = true)
+    public AuditLogPageResponse searchAuditLogs(AuditLogFilter filter, String cursor, int size,
+                                                boolean includeTotal) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to learn whether another page follows
+        List<AuditLogResponse> rows = auditLogQueryRepository.findPage(filter, decodeCursor(cursor), size + 1);
+        boolean hasMore = rows.size() > size;
+        List<AuditLogResponse> items = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            AuditLogResponse last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(new AuditLogQueryRepository.Cursor(last.getTimestamp(), last.getId()));
+        }
+
+        return AuditLogPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .approximateTotal(includeTotal ? auditLogQueryRepository.estimateCount(filter) : null)
+                .build();
+    }
+
     /**
      * Get audit logs for specific patient
      */
@@ -213,52 +185,24 @@ public class AuditService {
                 .toList();
     }
 
-    /**
-     * Add HTTP request information to audit log
-     */
-    private void addRequestInfo(AuditLog auditLog) {
-        try {
-            ServletRequestAttributes attributes = 
-                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                auditLog.setIpAddress(getClientIpAddress(request));
-                auditLog.setUserAgent(request.getHeader("User-Agent"));
-                auditLog.setSessionId(request.getSession(false) != null ? 
-                    request.getSession(false).getId() : null);
-            }
-        } catch (Exception e) {
-            log.debug("Could not extract request information", e);
-        }
+    private static String encodeCursor(AuditLogQueryRepository.Cursor cursor) {
+        String raw = cursor.timestamp() + CURSOR_SEPARATOR + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    /**
-     * Get client IP address (handles proxies)
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String[] headers = {
-            "X-Forwarded-For",
-            "Proxy-Client-IP",
-            "WL-Proxy-Client-IP",
-            "HTTP_X_FORWARDED_FOR",
-            "HTTP_X_FORWARDED",
-            "HTTP_X_CLUSTER_CLIENT_IP",
-            "HTTP_CLIENT_IP",
-            "HTTP_FORWARDED_FOR",
-            "HTTP_FORWARDED",
-            "HTTP_VIA",
-            "REMOTE_ADDR"
-        };
-
-        for (String header : headers) {
-            String ip = request.getHeader(header);
-            if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-                return ip.split(",")[0].trim();
-            }
+    private static AuditLogQueryRepository.Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(CURSOR_SEPARATOR);
+            return new AuditLogQueryRepository.Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid audit log cursor.");
         }
-
-        return request.getRemoteAddr();
     }
 
     /**
@@ -93,6 +93,7 @@ public class ClinicService {
         return toClinicResponse(clinic);
     }
 
+    @Transactional(readOnly = true)
     public List<ClinicResponse> getAllClinics() {
         return clinicRepository.findAll().stream()
                 .map(this::toClinicResponse)
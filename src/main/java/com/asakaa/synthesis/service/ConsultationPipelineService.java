@@ -0,0 +1,292 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.audit.AuditRequestContext;
+import com.asakaa.synthesis.domain.dto.request.ConsultationRequest;
+import com.asakaa.synthesis.domain.dto.request.DiagnosticRequest;
+import com.asakaa.synthesis.domain.dto.response.ConsultationPipelineResponse;
+import com.asakaa.synthesis.domain.dto.response.ConsultationResponse;
+import com.asakaa.synthesis.domain.dto.response.DiagnosticResponse;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.*;
+import com.asakaa.synthesis.integration.bedrock.BedrockClient;
+import com.asakaa.synthesis.integration.bedrock.BedrockPromptBuilder;
+import com.asakaa.synthesis.repository.ProviderRepository;
+import com.asakaa.synthesis.util.ResponseParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs dictation → transcript → consultation → diagnosis on the server in one request,
+ * streaming each stage's result back as a server-sent event as soon as it is ready.
+ * <p>
+ * Events, in order: {@code transcript}, {@code consultation}, {@code diagnosis} (only when
+ * requested), then {@code complete} with per-stage timings. A failing stage sends a single
+ * {@code error} event and ends the stream; stages that already finished stay persisted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConsultationPipelineService {
+
+    private static final int MAX_CHIEF_COMPLAINT_LENGTH = 500;
+
+    private final TranscriptionService transcriptionService;
+    private final ConsultationService consultationService;
+    private final DiagnosticService diagnosticService;
+    private final ProviderRepository providerRepository;
+    private final BedrockClient bedrockClient;
+    private final BedrockPromptBuilder bedrockPromptBuilder;
+    private final ResponseParser responseParser;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${synthesis.pipeline.worker-threads}")
+    private int workerThreads;
+
+    @Value("${synthesis.pipeline.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${synthesis.pipeline.sse-timeout-ms}")
+    private long sseTimeoutMillis;
+
+    @Value("${synthesis.pipeline.extraction-max-tokens}")
+    private int extractionMaxTokens;
+
+    @Value("${synthesis.pipeline.spool-dir}")
+    private String spoolDir;
+
+    @Value("${synthesis.pipeline.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Receives each stage's result as it completes.
+     */
+    interface StageListener {
+        void onStage(String name, Object data);
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "consultation-pipeline-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start the pipeline for an uploaded dictation and return the event stream.
+     * <p>
+     * The upload is spooled before returning because the multipart request is cleaned up as
+     * soon as the handler exits. The caller's security context and request details are carried
+     * onto the worker so access checks see the same provider and audit entries the same client.
+     */
+    public SseEmitter start(MultipartFile audio, Long patientId, boolean diagnose, Authentication authentication) {
+        AudioPayload upload = AudioPayload.of(audio);
+        transcriptionService.validateAudioFile(upload);
+
+        Long providerId = providerRepository.findByEmail(authentication.getName())
+                .orElseThrow(() -> new ResourceNotFoundException("Provider not found: " + authentication.getName()))
+                .getId();
+
+        Path spooled = spool(audio);
+        AudioPayload payload = AudioPayload.of(spooled, upload.getContentType(), upload.getOriginalFilename());
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        Runnable task = () -> {
+            try {
+                run(payload, patientId, providerId, diagnose, authentication, (name, data) -> send(emitter, name, data));
+                emitter.complete();
+            } catch (Exception e) {
+                sendError(emitter, e);
+            } finally {
+                deleteQuietly(spooled);
+            }
+        };
+
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(AuditRequestContext.current().wrap(task)));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(spooled);
+            throw new ServiceOverloadedException("Consultation pipeline is at capacity, please retry shortly.",
+                    retryAfterSeconds);
+        }
+        return emitter;
+    }
+
+    /**
+     * Runs every stage on the calling thread, reporting each result to the listener.
+     */
+    ConsultationPipelineResponse run(AudioPayload audio, Long patientId, Long providerId, boolean diagnose,
+                                     Authentication authentication, StageListener listener) {
+        long pipelineStart = System.nanoTime();
+
+        long start = System.nanoTime();
+        TranscriptionResponse transcript = transcriptionService.transcribe(audio);
+        long transcriptionMillis = record("transcription", start);
+        listener.onStage("transcript", transcript);
+
+        start = System.nanoTime();
+        ConsultationRequest request = extractConsultation(patientId, transcript.getTranscript());
+        long extractionMillis = record("extraction", start);
+
+        start = System.nanoTime();
+        ConsultationResponse consultation = consultationService.openConsultation(request, providerId, authentication);
+        long consultationMillis = record("consultation", start);
+        listener.onStage("consultation", consultation);
+
+        Long diagnosisMillis = null;
+        if (diagnose) {
+            start = System.nanoTime();
+            DiagnosticResponse diagnosis = diagnosticService.analyze(DiagnosticRequest.builder()
+                    .consultationId(consultation.getId())
+                    .build());
+            diagnosisMillis = record("diagnosis", start);
+            listener.onStage("diagnosis", diagnosis);
+        }
+
+        ConsultationPipelineResponse summary = ConsultationPipelineResponse.builder()
+                .consultationId(consultation.getId())
+                .diagnosed(diagnose)
+                .transcriptionMillis(transcriptionMillis)
+                .extractionMillis(extractionMillis)
+                .consultationMillis(consultationMillis)
+                .diagnosisMillis(diagnosisMillis)
+                .totalMillis(record("total", pipelineStart))
+                .build();
+        listener.onStage("complete", summary);
+
+        log.info("Consultation pipeline finished for consultation ID: {} in {} ms",
+                consultation.getId(), summary.getTotalMillis());
+        return summary;
+    }
+
+    /**
+     * Pull the chief complaint and stated vitals out of the transcript. The full transcript
+     * is kept as the consultation notes so nothing dictated is lost to the extraction.
+     */
+    ConsultationRequest extractConsultation(Long patientId, String transcript) {
+        if (transcript == null || transcript.isBlank()) {
+            throw new ValidationException("No speech was recognised in the dictation.");
+        }
+
+        JsonNode extracted;
+        try {
+            String rawResponse = bedrockClient.invoke(
+                    bedrockPromptBuilder.buildConsultationExtractionPrompt(transcript), extractionMaxTokens);
+            extracted = objectMapper.readTree(responseParser.extractJson(rawResponse));
+        } catch (IOException e) {
+            throw new DiagnosticException("Failed to parse consultation fields from dictation", e);
+        }
+
+        String chiefComplaint = extracted.path("chiefComplaint").asText("").trim();
+        if (chiefComplaint.isEmpty()) {
+            throw new ValidationException("Could not identify a chief complaint in the dictation.");
+        }
+        if (chiefComplaint.length() > MAX_CHIEF_COMPLAINT_LENGTH) {
+            chiefComplaint = chiefComplaint.substring(0, MAX_CHIEF_COMPLAINT_LENGTH);
+        }
+
+        JsonNode vitals = extracted.path("vitals");
+        return ConsultationRequest.builder()
+                .patientId(patientId)
+                .chiefComplaint(chiefComplaint)
+                .vitals(vitals.isObject() && !vitals.isEmpty() ? vitals.toString() : null)
+                .notes(transcript)
+                .build();
+    }
+
+    private long record(String stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer.builder("synthesis.pipeline.stage.latency")
+                .description("Latency of each stage of the dictation-to-diagnosis pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    private Path spool(MultipartFile audio) {
+        try {
+            Path target = Files.createTempFile(Path.of(spoolDir), "pipeline-", ".audio");
+            audio.transferTo(target);
+            return target;
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to read uploaded audio", e);
+        }
+    }
+
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            // The client went away; later stages still run so their results are persisted
+            log.debug("Pipeline client disconnected before '{}' event", name);
+        }
+    }
+
+    private void sendError(SseEmitter emitter, Exception e) {
+        ErrorResponse error;
+        if (e instanceof ValidationException) {
+            error = ErrorResponse.of("VALIDATION_ERROR", e.getMessage(), HttpStatus.BAD_REQUEST.value());
+        } else if (e instanceof ResourceNotFoundException) {
+            error = ErrorResponse.of("RESOURCE_NOT_FOUND", e.getMessage(), HttpStatus.NOT_FOUND.value());
+        } else if (e instanceof ClinicAccessDeniedException) {
+            error = ErrorResponse.of("CLINIC_ACCESS_DENIED", e.getMessage(), HttpStatus.FORBIDDEN.value());
+        } else if (e instanceof TranscriptionTimeoutException) {
+            error = ErrorResponse.of("TRANSCRIPTION_TIMEOUT", e.getMessage(), HttpStatus.REQUEST_TIMEOUT.value());
+        } else if (e instanceof TranscriptionException) {
+            error = ErrorResponse.of("TRANSCRIPTION_ERROR", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value());
+        } else if (e instanceof DiagnosticException) {
+            error = ErrorResponse.of("DIAGNOSTIC_ERROR", e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value());
+        } else {
+            log.error("Consultation pipeline failed", e);
+            error = ErrorResponse.of("INTERNAL_ERROR", "An unexpected error occurred. Please contact support.",
+                    HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+
+        log.warn("Consultation pipeline stopped: {}", e.getMessage());
+        send(emitter, "error", error);
+        emitter.complete();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled pipeline audio {}", path, e);
+        }
+    }
+}
@@ -141,6 +141,7 @@ public class ConsultationService {
         return toResponse(consultation);
     }
 
+    @Transactional(readOnly = true)
     public List<ConsultationResponse> getActiveConsultationsByProvider(Long providerId, Authentication authentication) {
         log.info("Fetching active consultations for provider ID: {}", providerId);
 
@@ -157,6 +158,7 @@ public class ConsultationService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ConsultationResponse> getConsultationsByPatient(Long patientId, Authentication authentication) {
         log.info("Fetching consultations for patient ID: {}", patientId);
 
@@ -1,5 +1,6 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.analytics.DiagnosisRecordedEvent;
 import com.asakaa.synthesis.domain.dto.request.DiagnosticRequest;
 import com.asakaa.synthesis.domain.dto.response.DiagnosticResponse;
 import com.asakaa.synthesis.domain.dto.response.DifferentialDto;
@@ -8,7 +9,9 @@ import com.asakaa.synthesis.domain.dto.response.KnowledgeBaseCitation;
 import com.asakaa.synthesis.domain.entity.*;
 import com.asakaa.synthesis.exception.DiagnosticException;
 import com.asakaa.synthesis.exception.ResourceNotFoundException;
-import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.imaging.ImagePreprocessor;
+import com.asakaa.synthesis.imaging.PreprocessedImage;
+import com.asakaa.synthesis.imaging.SpooledImage;
 import com.asakaa.synthesis.integration.bedrock.BedrockClient;
 import com.asakaa.synthesis.integration.bedrock.BedrockPromptBuilder;
 import com.asakaa.synthesis.integration.bedrock.ClinicalContext;
@@ -21,9 +24,11 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.Period;
@@ -45,6 +50,8 @@ public class DiagnosticService {
     private final KnowledgeBaseService knowledgeBaseService;
     private final ObjectMapper objectMapper;
     private final AuditService auditService;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public DiagnosticResponse analyze(DiagnosticRequest request) {
@@ -108,6 +115,8 @@ public class DiagnosticService {
                         .source("AI_BEDROCK_RAG")
                         .build();
                 diagnosisRepository.save(diagnosis);
+                eventPublisher.publishEvent(new DiagnosisRecordedEvent(diagnosis.getConditionName(),
+                        patient.getRegion(), consultation.getOpenedAt().toLocalDate(), patient.getId()));
                 differential.setId(diagnosis.getId());
                 log.debug("Saved diagnosis: {} with confidence: {}",
                         differential.getCondition(), differential.getConfidence());
@@ -239,25 +248,17 @@ public class DiagnosticService {
     }
 
     @Transactional
-    public com.asakaa.synthesis.domain.dto.response.ImageAnalysisResponse analyzeImage(
-            byte[] imageBytes, String mediaType, String clinicalContext, Long consultationId) {
-        log.info("Starting image analysis with media type: {}, consultation ID: {}", mediaType, consultationId);
-
-        if (!mediaType.equals("image/jpeg") && !mediaType.equals("image/png")) {
-            throw new ValidationException(
-                    "Invalid file type. Only JPEG and PNG images are supported.");
-        }
-
-        if (imageBytes.length > 5 * 1024 * 1024) {
-            throw new ValidationException(
-                    "Image file is too large. Maximum size is 5MB.");
-        }
+    public ImageAnalysisResponse analyzeImage(SpooledImage image, String clinicalContext, Long consultationId) {
+        log.info("Starting image analysis with media type: {}, size: {} bytes, consultation ID: {}",
+                image.getMediaType(), image.getSize(), consultationId);
 
         String prompt = buildImageAnalysisPrompt(clinicalContext);
 
         String rawResponse;
-        try {
-            rawResponse = bedrockClient.invokeVision(imageBytes, mediaType, prompt);
+        try (PreprocessedImage prepared = imagePreprocessor.preprocess(image);
+             InputStream imageStream = prepared.getImage().openStream()) {
+            SpooledImage payload = prepared.getImage();
+            rawResponse = bedrockClient.invokeVision(imageStream, payload.getSize(), payload.getMediaType(), prompt);
         } catch (Exception e) {
             log.error("Failed to analyze image", e);
             throw new DiagnosticException("Failed to analyze medical image: " + e.getMessage(), e);
@@ -1,5 +1,6 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.audit.PatientDisplayCache;
 import com.asakaa.synthesis.domain.dto.request.PatientRequest;
 import com.asakaa.synthesis.domain.dto.response.PatientResponse;
 import com.asakaa.synthesis.domain.entity.AuditAction;
@@ -30,6 +31,7 @@ public class PatientService {
     private final PatientMapper patientMapper;
     private final ClinicAccessGuard clinicAccessGuard;
     private final AuditService auditService;
+    private final PatientDisplayCache patientDisplayCache;
 
     @Transactional
     public PatientResponse createPatient(PatientRequest request, Authentication authentication) {
@@ -69,6 +71,7 @@ public class PatientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", id));
 
         clinicAccessGuard.verifyPatientAccess(authentication, patient);
+        patientDisplayCache.put(patient);
 
         // Audit log
         auditService.logAudit(AuditAction.VIEW_PATIENT_PROFILE, patient.getId(), 
@@ -119,6 +122,7 @@ public class PatientService {
         patient.setRegion(request.getRegion());
 
         patient = patientRepository.save(patient);
+        patientDisplayCache.put(patient);
 
         // Audit log
         auditService.logAudit(AuditAction.UPDATE_PATIENT, patient.getId(), changes.toString());
@@ -127,6 +131,7 @@ public class PatientService {
         return patientMapper.toResponse(patient);
     }
 
+    @Transactional(readOnly = true)
     public Page<PatientResponse> getAllPatients(Pageable pageable, Authentication authentication) {
         log.info("Fetching all patients, page: {}", pageable.getPageNumber());
 
@@ -146,6 +151,7 @@ public class PatientService {
                 .map(patientMapper::toResponse);
     }
 
+    @Transactional(readOnly = true)
     public Page<PatientResponse> searchPatients(String query, Pageable pageable, Authentication authentication) {
         log.info("Searching patients with query: {}", query);
 
@@ -0,0 +1,278 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.domain.dto.request.UploadSessionRequest;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
+import com.asakaa.synthesis.domain.dto.response.UploadSessionResponse;
+import com.asakaa.synthesis.domain.entity.UploadSession;
+import com.asakaa.synthesis.domain.entity.UploadSessionStatus;
+import com.asakaa.synthesis.exception.ResourceNotFoundException;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.exception.UploadConflictException;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.repository.UploadSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable audio uploads in the style of tus. A client opens a session declaring the
+ * total length, then appends chunks at the offset the server last acknowledged. If the
+ * connection drops mid-chunk, whatever reached disk is kept, so the client resumes from
+ * the new offset instead of resending the file. The completed file is submitted for
+ * asynchronous transcription.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResumableUploadService {
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final TranscriptionService transcriptionService;
+
+    @Value("${aws.transcribe.resumable.spool-dir}")
+    private String spoolDir;
+
+    @Value("${aws.transcribe.resumable.max-upload-bytes}")
+    private long maxUploadBytes;
+
+    @Value("${aws.transcribe.resumable.expiry-hours}")
+    private long expiryHours;
+
+    // Chunks for one upload must be written one at a time; spool files are local to this node.
+    // Only open uploads hold an entry, removed once the upload completes or expires.
+    private final Map<String, ReentrantLock> writeLocks = new ConcurrentHashMap<>();
+
+    public UploadSessionResponse create(UploadSessionRequest request, String requestedBy) {
+        if (request.getLength() > maxUploadBytes) {
+            throw new ValidationException("Audio exceeds the maximum upload size of " + maxUploadBytes + " bytes.");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Path spoolFile = Paths.get(spoolDir).resolve("upload-" + uploadId + ".part");
+        try {
+            Files.createDirectories(spoolFile.getParent());
+            Files.createFile(spoolFile);
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to create upload spool file.", e);
+        }
+
+        UploadSession session = UploadSession.builder()
+                .uploadId(uploadId)
+                .requestedBy(requestedBy)
+                .contentType(request.getContentType())
+                .fileName(request.getFileName())
+                .totalBytes(request.getLength())
+                .receivedBytes(0)
+                .spoolPath(spoolFile.toString())
+                .status(UploadSessionStatus.OPEN)
+                .expiresAt(LocalDateTime.now().plusHours(expiryHours))
+                .build();
+
+        log.info("Opened resumable upload {} for {} bytes", uploadId, request.getLength());
+        return toResponse(uploadSessionRepository.save(session));
+    }
+
+    public UploadSessionResponse getSession(String uploadId, String requestedBy) {
+        return toResponse(findOwned(uploadId, requestedBy));
+    }
+
+    /**
+     * Append a chunk starting at {@code offset}, which must equal the bytes already received.
+     * When the final byte arrives the audio is submitted for transcription. Re-sending an
+     * empty chunk at the end offset retries a submission that previously failed.
+     */
+    public UploadSessionResponse appendChunk(String uploadId, String requestedBy, long offset, InputStream body) {
+        // Resolve ownership and status first, so unknown or finished uploads never get a lock
+        UploadSession session = findOwned(uploadId, requestedBy);
+        if (isCompletedRetry(session, offset)) {
+            return toResponse(session);
+        }
+        requireOpen(session);
+
+        ReentrantLock lock = writeLocks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new UploadConflictException("Another chunk is already being written to upload " + uploadId + ".");
+        }
+        try {
+            // Re-read under the lock: the previous chunk or the expiry job may have changed the session
+            session = findOwned(uploadId, requestedBy);
+            if (isCompletedRetry(session, offset)) {
+                return toResponse(session);
+            }
+            requireOpen(session);
+            if (offset != session.getReceivedBytes()) {
+                throw new UploadConflictException(
+                        "Chunk offset " + offset + " does not match received offset " + session.getReceivedBytes() + ".");
+            }
+
+            long written = writeChunk(Path.of(session.getSpoolPath()), offset, session.getTotalBytes() - offset, body);
+            session.setReceivedBytes(offset + written);
+            session.setExpiresAt(LocalDateTime.now().plusHours(expiryHours));
+            try {
+                session = uploadSessionRepository.save(session);
+            } catch (OptimisticLockingFailureException e) {
+                throw new UploadConflictException("Upload " + uploadId + " changed while the chunk was written.");
+            }
+
+            if (session.getReceivedBytes() == session.getTotalBytes()) {
+                finish(session);
+            }
+            return toResponse(session);
+        } finally {
+            lock.unlock();
+            if (session.getStatus() != UploadSessionStatus.OPEN) {
+                writeLocks.remove(uploadId, lock);
+            }
+        }
+    }
+
+    /**
+     * Removes spool files of uploads that were abandoned. An upload with a chunk in flight
+     * is left for the next run; the version check on the session keeps a write that raced
+     * the expiry from reopening it.
+     */
+    @Scheduled(fixedDelayString = "${aws.transcribe.resumable.cleanup-interval-ms}")
+    public void expireStaleUploads() {
+        List<UploadSession> stale = uploadSessionRepository.findByStatusAndExpiresAtBefore(
+                UploadSessionStatus.OPEN, LocalDateTime.now());
+        for (UploadSession candidate : stale) {
+            String uploadId = candidate.getUploadId();
+            ReentrantLock lock = writeLocks.computeIfAbsent(uploadId, id -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                log.debug("Upload {} is being written to; not expiring it", uploadId);
+                continue;
+            }
+            try {
+                UploadSession session = uploadSessionRepository.findByUploadId(uploadId).orElse(null);
+                if (session == null || session.getStatus() != UploadSessionStatus.OPEN
+                        || !session.getExpiresAt().isBefore(LocalDateTime.now())) {
+                    continue;
+                }
+                session.setStatus(UploadSessionStatus.EXPIRED);
+                try {
+                    uploadSessionRepository.save(session);
+                } catch (OptimisticLockingFailureException e) {
+                    log.debug("Upload {} changed while expiring it; leaving it for the next run", uploadId);
+                    continue;
+                }
+                deleteSpoolFile(session);
+                writeLocks.remove(uploadId, lock);
+                log.info("Expired abandoned upload {} at {}/{} bytes",
+                        uploadId, session.getReceivedBytes(), session.getTotalBytes());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Copies the chunk into the spool file at {@code offset}. A client that disconnects
+     * mid-chunk is not an error: the bytes that arrived are kept and acknowledged.
+     *
+     * @return bytes written
+     */
+    private long writeChunk(Path spoolFile, long offset, long remaining, InputStream body) {
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.WRITE)) {
+            // Discard anything past the last acknowledged offset left by an interrupted write
+            channel.truncate(offset);
+            channel.position(offset);
+
+            byte[] buffer = new byte[COPY_BUFFER_BYTES];
+            while (true) {
+                int read;
+                try {
+                    read = body.read(buffer);
+                } catch (IOException e) {
+                    log.info("Client disconnected mid-chunk after {} bytes: {}", written, e.getMessage());
+                    break;
+                }
+                if (read == -1) {
+                    break;
+                }
+                if (written + read > remaining) {
+                    channel.truncate(offset);
+                    throw new ValidationException("Chunk extends past the declared upload length.");
+                }
+
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                written += read;
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new TranscriptionException("Failed to store upload chunk.", e);
+        }
+        return written;
+    }
+
+    private void finish(UploadSession session) {
+        Path spoolFile = Path.of(session.getSpoolPath());
+        TranscriptionJobResponse job = transcriptionService.submit(
+                AudioPayload.of(spoolFile, session.getContentType(), session.getFileName()),
+                session.getRequestedBy());
+
+        session.setTranscriptionId(job.getId());
+        session.setStatus(UploadSessionStatus.COMPLETED);
+        uploadSessionRepository.save(session);
+        deleteSpoolFile(session);
+        log.info("Resumable upload {} complete, transcription job {}", session.getUploadId(), job.getId());
+    }
+
+    private static boolean isCompletedRetry(UploadSession session, long offset) {
+        return session.getStatus() == UploadSessionStatus.COMPLETED && offset == session.getTotalBytes();
+    }
+
+    private static void requireOpen(UploadSession session) {
+        if (session.getStatus() != UploadSessionStatus.OPEN) {
+            throw new ValidationException("Upload " + session.getUploadId() + " is " + session.getStatus() + ".");
+        }
+    }
+
+    private UploadSession findOwned(String uploadId, String requestedBy) {
+        return uploadSessionRepository.findByUploadId(uploadId)
+                .filter(session -> session.getRequestedBy().equals(requestedBy))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session " + uploadId + " was not found"));
+    }
+
+    private void deleteSpoolFile(UploadSession session) {
+        try {
+            Files.deleteIfExists(Path.of(session.getSpoolPath()));
+        } catch (IOException e) {
+            log.warn("Failed to delete spool file {}: {}", session.getSpoolPath(), e.getMessage());
+        }
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.getUploadId())
+                .status(session.getStatus())
+                .offset(session.getReceivedBytes())
+                .length(session.getTotalBytes())
+                .transcriptionJobId(session.getTranscriptionId())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
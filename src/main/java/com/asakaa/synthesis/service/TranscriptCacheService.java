@@ -0,0 +1,81 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.domain.entity.TranscriptCacheEntry;
+import com.asakaa.synthesis.repository.TranscriptCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Transcripts of previously seen audio, keyed by content hash and language.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TranscriptCacheService {
+
+    private final TranscriptCacheRepository transcriptCacheRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Returns the cached transcript for the audio, if any, and records the hit or miss.
+     */
+    public Optional<TranscriptionResponse> lookup(String contentHash, String languageCode) {
+        Optional<TranscriptCacheEntry> cached =
+                transcriptCacheRepository.findByContentHashAndLanguageCode(contentHash, languageCode);
+        if (cached.isEmpty()) {
+            counter("synthesis.transcription.cache.misses").increment();
+            return Optional.empty();
+        }
+
+        TranscriptCacheEntry entry = cached.get();
+        entry.setHitCount(entry.getHitCount() + 1);
+        entry.setLastHitAt(LocalDateTime.now());
+        transcriptCacheRepository.save(entry);
+
+        counter("synthesis.transcription.cache.hits").increment();
+        Counter.builder("synthesis.transcription.cache.saved")
+                .description("Transcribe job time avoided by serving cached transcripts")
+                .baseUnit("seconds")
+                .register(meterRegistry)
+                .increment(entry.getTranscriptionMillis() / 1000.0);
+        log.info("Transcript cache hit for {} (hit #{})", contentHash, entry.getHitCount());
+
+        return Optional.of(TranscriptionResponse.builder()
+                .transcript(entry.getTranscript())
+                .confidence(entry.getConfidence())
+                .languageCode(entry.getLanguageCode())
+                .build());
+    }
+
+    /**
+     * Caches a finished transcript. A concurrent submission of the same audio may already
+     * have stored it, in which case this is a no-op.
+     */
+    public void store(String contentHash, String languageCode, TranscriptionResponse result, long transcriptionMillis) {
+        TranscriptCacheEntry entry = TranscriptCacheEntry.builder()
+                .contentHash(contentHash)
+                .languageCode(languageCode)
+                .transcript(result.getTranscript())
+                .confidence(result.getConfidence())
+                .transcriptionMillis(transcriptionMillis)
+                .hitCount(0)
+                .build();
+        try {
+            transcriptCacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Transcript for {} already cached", contentHash);
+        }
+    }
+
+    private Counter counter(String name) {
+        return Counter.builder(name).register(meterRegistry);
+    }
+}
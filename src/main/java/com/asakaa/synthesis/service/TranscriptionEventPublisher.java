@@ -0,0 +1,96 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Holds open server-sent event streams for asynchronous transcription jobs and
+ * pushes the final result to every subscriber once the poller resolves the job.
+ */
+@Slf4j
+@Component
+public class TranscriptionEventPublisher {
+
+    private static final String EVENT_NAME = "transcription";
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${aws.transcribe.async.sse-timeout-ms}")
+    private long sseTimeoutMillis;
+
+    /**
+     * Open a stream for a job. Jobs that have already finished are sent immediately.
+     * <p>
+     * A job can finish between reading {@code current} and registering the stream, in which
+     * case {@link #publish} has already run and would never reach it. The job is therefore
+     * read again through {@code reload} once the stream is registered.
+     */
+    public SseEmitter subscribe(TranscriptionJobResponse current, Supplier<TranscriptionJobResponse> reload) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+
+        if (current.getStatus() != TranscriptionStatus.PENDING) {
+            send(emitter, current);
+            return emitter;
+        }
+
+        // Sent before registering, so it can never follow the final event
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(current));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        Long id = current.getId();
+        subscribers.computeIfAbsent(id, key -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> remove(id, emitter));
+        emitter.onTimeout(() -> remove(id, emitter));
+        emitter.onError(error -> remove(id, emitter));
+
+        TranscriptionJobResponse latest = reload.get();
+        // Whoever takes the emitter out of the list sends the result: this thread or publish
+        if (latest.getStatus() != TranscriptionStatus.PENDING && remove(id, emitter)) {
+            send(emitter, latest);
+        }
+        return emitter;
+    }
+
+    public void publish(TranscriptionJobResponse result) {
+        List<SseEmitter> emitters = subscribers.remove(result.getId());
+        if (emitters == null) {
+            return;
+        }
+        emitters.forEach(emitter -> send(emitter, result));
+        log.debug("Pushed transcription {} result to {} subscribers", result.getId(), emitters.size());
+    }
+
+    private void send(SseEmitter emitter, TranscriptionJobResponse result) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(result));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private boolean remove(Long id, SseEmitter emitter) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(id, (key, emitters) -> {
+            removed.set(emitters.remove(emitter));
+            return emitters.isEmpty() ? null : emitters;
+        });
+        return removed.get();
+    }
+}
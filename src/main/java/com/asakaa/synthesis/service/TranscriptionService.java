@@ -1,29 +1,32 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
 import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.domain.entity.Transcription;
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import com.asakaa.synthesis.exception.ResourceNotFoundException;
 import com.asakaa.synthesis.exception.TranscriptionException;
-import com.asakaa.synthesis.exception.TranscriptionTimeoutException;
+import com.asakaa.synthesis.integration.transcribe.AwsTranscribeEngine;
+import com.asakaa.synthesis.integration.transcribe.SpeechToTextRouter;
+import com.asakaa.synthesis.repository.TranscriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.transcribe.TranscribeClient;
 import software.amazon.awssdk.services.transcribe.model.*;
 
-import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 @Slf4j
 @Service
@@ -31,13 +34,24 @@ import java.util.UUID;
 public class TranscriptionService {
 
     private final TranscribeClient transcribeClient;
-    private final S3Client s3Client;
+    private final AwsTranscribeEngine awsTranscribeEngine;
+    private final SpeechToTextRouter speechToTextRouter;
+    private final TranscriptionRepository transcriptionRepository;
+    private final TranscriptionEventPublisher transcriptionEventPublisher;
+    private final TranscriptCacheService transcriptCacheService;
 
-    @Value("${aws.transcribe.s3-bucket}")
-    private String s3Bucket;
+    @Value("${aws.transcribe.async.initial-backoff-ms}")
+    private long initialBackoffMillis;
 
-    @Value("${aws.transcribe.timeout-seconds}")
-    private int timeoutSeconds;
+    @Value("${aws.transcribe.async.max-backoff-ms}")
+    private long maxBackoffMillis;
+
+    @Value("${aws.transcribe.async.max-wait-minutes}")
+    private long maxWaitMinutes;
+
+    private static final String JOB_NAME_PREFIX = AwsTranscribeEngine.JOB_NAME_PREFIX;
+    private static final String LANGUAGE_CODE = AwsTranscribeEngine.LANGUAGE_CODE;
+    private static final int LIST_JOBS_PAGE_SIZE = 100;
 
     private static final Set<String> SUPPORTED_CONTENT_TYPES = Set.of(
             "audio/wav",
@@ -48,235 +62,261 @@ public class TranscriptionService {
             "audio/m4a"
     );
 
-    private static final Map<String, MediaFormat> CONTENT_TYPE_TO_FORMAT = Map.of(
-            "audio/wav", MediaFormat.WAV,
-            "audio/mpeg", MediaFormat.MP3,
-            "audio/mp3", MediaFormat.MP3,
-            "audio/mp4", MediaFormat.MP4,
-            "audio/x-m4a", MediaFormat.MP4,
-            "audio/m4a", MediaFormat.MP4
-    );
-
     /**
-     * Transcribes an audio file using AWS Transcribe.
+     * Transcribes an audio file and waits for the result, using the speech-to-text engines
+     * in their configured order.
      *
-     * @param audioFile the uploaded audio file
+     * @param multipartFile the uploaded audio file
      * @return TranscriptionResponse containing the transcript, confidence score, and language code
      */
-    public TranscriptionResponse transcribe(MultipartFile audioFile) {
-        validateAudioFile(audioFile);
-
-        String s3Key = "transcribe-" + UUID.randomUUID() + getFileExtension(audioFile);
-        String jobName = "synthesis-" + UUID.randomUUID();
-        MediaFormat mediaFormat = resolveMediaFormat(Objects.requireNonNull(audioFile.getContentType()));
+    public TranscriptionResponse transcribe(MultipartFile multipartFile) {
+        return transcribe(AudioPayload.of(multipartFile));
+    }
 
-        try {
-            uploadToS3(audioFile, s3Key);
-            log.info("Uploaded audio file to S3: s3://{}/{}", s3Bucket, s3Key);
+    /**
+     * Transcribes audio from any source and waits for the result.
+     */
+    public TranscriptionResponse transcribe(AudioPayload audioFile) {
+        validateAudioFile(audioFile);
+        return speechToTextRouter.transcribe(audioFile);
+    }
 
-            startTranscriptionJob(jobName, s3Key, mediaFormat);
-            log.info("Started transcription job: {}", jobName);
+    /**
+     * Uploads the audio and starts a transcription job without waiting for it.
+     * The job is resolved later by {@link #pollPendingJobs()}.
+     *
+     * @param audioFile   the uploaded audio file
+     * @param requestedBy email of the provider who submitted the audio
+     * @return the pending job
+     */
+    public TranscriptionJobResponse submit(MultipartFile audioFile, String requestedBy) {
+        return submit(AudioPayload.of(audioFile), requestedBy);
+    }
 
-            TranscriptionJob completedJob = pollForCompletion(jobName);
-            log.info("Transcription job completed: {}", jobName);
+    /**
+     * Uploads audio from any source and starts a transcription job without waiting for it.
+     */
+    public TranscriptionJobResponse submit(AudioPayload audioFile, String requestedBy) {
+        validateAudioFile(audioFile);
 
-            String transcriptUri = completedJob.transcript().transcriptFileUri();
-            return fetchTranscript(transcriptUri);
+        String s3Key = awsTranscribeEngine.newAudioKey(audioFile);
+        String jobName = awsTranscribeEngine.newJobName();
 
-        } catch (TranscriptionException | TranscriptionTimeoutException e) {
+        String contentHash;
+        Optional<TranscriptionResponse> cached;
+        try {
+            contentHash = awsTranscribeEngine.uploadToS3(audioFile, s3Key);
+            cached = transcriptCacheService.lookup(contentHash, LANGUAGE_CODE);
+            if (cached.isEmpty()) {
+                awsTranscribeEngine.startTranscriptionJob(jobName, s3Key, audioFile.getContentType());
+                log.info("Started asynchronous transcription job: {}", jobName);
+            }
+        } catch (TranscriptionException e) {
+            awsTranscribeEngine.cleanupS3(s3Key);
             throw e;
         } catch (Exception e) {
-            throw new TranscriptionException("Transcription failed: " + e.getMessage(), e);
-        } finally {
-            cleanupS3(s3Key);
+            awsTranscribeEngine.cleanupS3(s3Key);
+            throw new TranscriptionException("Failed to start transcription: " + e.getMessage(), e);
         }
-    }
 
-    private void validateAudioFile(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new TranscriptionException("Audio file is required and must not be empty.");
-        }
-
-        String contentType = file.getContentType();
-        if (contentType == null || !SUPPORTED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
-            throw new TranscriptionException(
-                    "Unsupported audio format: " + contentType +
-                            ". Supported formats: WAV, MP3, MP4/M4A.");
-        }
-    }
-
-    private MediaFormat resolveMediaFormat(String contentType) {
-        MediaFormat format = CONTENT_TYPE_TO_FORMAT.get(contentType.toLowerCase());
-        if (format == null) {
-            throw new TranscriptionException("Cannot determine media format for content type: " + contentType);
+        LocalDateTime now = LocalDateTime.now();
+        if (cached.isPresent()) {
+            awsTranscribeEngine.cleanupS3(s3Key);
+            return toJobResponse(transcriptionRepository.save(Transcription.builder()
+                    .jobName(jobName)
+                    .s3Key(s3Key)
+                    .contentHash(contentHash)
+                    .languageCode(LANGUAGE_CODE)
+                    .status(TranscriptionStatus.COMPLETED)
+                    .transcript(cached.get().getTranscript())
+                    .confidence(cached.get().getConfidence())
+                    .requestedBy(requestedBy)
+                    .pollAttempts(0)
+                    .submittedAt(now)
+                    .completedAt(now)
+                    .build()));
         }
-        return format;
-    }
-
-    private void uploadToS3(MultipartFile file, String s3Key) {
-        try {
-            PutObjectRequest putRequest = PutObjectRequest.builder()
-                    .bucket(s3Bucket)
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .build();
-
-            s3Client.putObject(putRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-        } catch (IOException e) {
-            throw new TranscriptionException("Failed to read audio file for upload.", e);
-        }
-    }
-
-    private void startTranscriptionJob(String jobName, String s3Key, MediaFormat mediaFormat) {
-        String s3Uri = "s3://" + s3Bucket + "/" + s3Key;
 
-        StartTranscriptionJobRequest request = StartTranscriptionJobRequest.builder()
-                .transcriptionJobName(jobName)
-                .languageCode(LanguageCode.EN_US)
-                .mediaFormat(mediaFormat)
-                .media(Media.builder().mediaFileUri(s3Uri).build())
+        Transcription transcription = Transcription.builder()
+                .jobName(jobName)
+                .s3Key(s3Key)
+                .contentHash(contentHash)
+                .languageCode(LANGUAGE_CODE)
+                .status(TranscriptionStatus.PENDING)
+                .requestedBy(requestedBy)
+                .pollAttempts(0)
+                .nextPollAt(now.plus(Duration.ofMillis(initialBackoffMillis)))
+                .submittedAt(now)
                 .build();
 
-        transcribeClient.startTranscriptionJob(request);
+        return toJobResponse(transcriptionRepository.save(transcription));
     }
 
-    private TranscriptionJob pollForCompletion(String jobName) {
-        long startTime = System.currentTimeMillis();
-        long timeoutMillis = timeoutSeconds * 1000L;
-
-        while (true) {
-            GetTranscriptionJobRequest request = GetTranscriptionJobRequest.builder()
-                    .transcriptionJobName(jobName)
-                    .build();
-
-            GetTranscriptionJobResponse response = transcribeClient.getTranscriptionJob(request);
-            TranscriptionJob job = response.transcriptionJob();
-            TranscriptionJobStatus status = job.transcriptionJobStatus();
+    /**
+     * Returns an asynchronous transcription job submitted by the given provider.
+     */
+    public TranscriptionJobResponse getJob(Long id, String requestedBy) {
+        Transcription transcription = transcriptionRepository.findById(id)
+                .filter(job -> job.getRequestedBy().equals(requestedBy))
+                .orElseThrow(() -> new ResourceNotFoundException("Transcription", id));
+        return toJobResponse(transcription);
+    }
 
-            if (status == TranscriptionJobStatus.COMPLETED) {
-                return job;
-            }
+    /**
+     * Resolves every pending job that is due for a status check. Terminal jobs are found
+     * with one ListTranscriptionJobs scan per status instead of a GetTranscriptionJob call
+     * per pending job; jobs still running back off exponentially.
+     */
+    @Scheduled(fixedDelayString = "${aws.transcribe.async.poll-interval-ms}")
+    public void pollPendingJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Transcription> due = transcriptionRepository.findByStatusAndNextPollAtLessThanEqual(
+                TranscriptionStatus.PENDING, now);
+        if (due.isEmpty()) {
+            return;
+        }
 
-            if (status == TranscriptionJobStatus.FAILED) {
-                throw new TranscriptionException(
-                        "Transcription job failed: " + job.failureReason());
+        Map<String, Transcription> pendingByJobName = new HashMap<>();
+        LocalDateTime oldestSubmission = now;
+        for (Transcription transcription : due) {
+            pendingByJobName.put(transcription.getJobName(), transcription);
+            if (transcription.getSubmittedAt().isBefore(oldestSubmission)) {
+                oldestSubmission = transcription.getSubmittedAt();
             }
+        }
 
-            if (System.currentTimeMillis() - startTime > timeoutMillis) {
-                throw new TranscriptionTimeoutException(
-                        "Transcription timed out after " + timeoutSeconds + " seconds. " +
-                                "Try a shorter audio clip (< 30 seconds recommended).");
-            }
+        Map<String, TranscriptionJobSummary> finished;
+        try {
+            finished = listFinishedJobs(pendingByJobName.keySet(), oldestSubmission);
+        } catch (Exception e) {
+            log.warn("Failed to list transcription jobs, will retry: {}", e.getMessage());
+            due.forEach(transcription -> scheduleNextPoll(transcription, now));
+            return;
+        }
 
+        for (Transcription transcription : due) {
+            TranscriptionJobSummary summary = finished.get(transcription.getJobName());
             try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new TranscriptionException("Transcription polling interrupted.", e);
+                if (summary == null) {
+                    handleStillRunning(transcription, now);
+                } else if (summary.transcriptionJobStatus() == TranscriptionJobStatus.COMPLETED) {
+                    completeJob(transcription);
+                } else {
+                    failJob(transcription, "Transcription job failed: " + summary.failureReason());
+                }
+            } catch (Exception e) {
+                log.error("Failed to resolve transcription job {}", transcription.getJobName(), e);
+                failJob(transcription, "Failed to retrieve transcription result: " + e.getMessage());
             }
         }
     }
 
-    private TranscriptionResponse fetchTranscript(String transcriptUri) {
-        try {
-            HttpClient httpClient = HttpClient.newHttpClient();
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(transcriptUri))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            String body = response.body();
-
-            return parseTranscriptJson(body);
-        } catch (IOException | InterruptedException e) {
-            if (e instanceof InterruptedException) {
-                Thread.currentThread().interrupt();
-            }
-            throw new TranscriptionException("Failed to fetch transcript from result URI.", e);
+    private Map<String, TranscriptionJobSummary> listFinishedJobs(Set<String> jobNames, LocalDateTime oldestSubmission) {
+        Map<String, TranscriptionJobSummary> finished = new HashMap<>();
+        // Jobs are listed newest first, so stop paging once past the oldest pending submission
+        Instant cutoff = oldestSubmission.atZone(ZoneId.systemDefault()).toInstant().minus(Duration.ofMinutes(1));
+
+        for (TranscriptionJobStatus status : List.of(TranscriptionJobStatus.COMPLETED, TranscriptionJobStatus.FAILED)) {
+            String nextToken = null;
+            do {
+                ListTranscriptionJobsResponse page = transcribeClient.listTranscriptionJobs(
+                        ListTranscriptionJobsRequest.builder()
+                                .status(status)
+                                .jobNameContains(JOB_NAME_PREFIX)
+                                .maxResults(LIST_JOBS_PAGE_SIZE)
+                                .nextToken(nextToken)
+                                .build());
+
+                boolean pastCutoff = false;
+                for (TranscriptionJobSummary summary : page.transcriptionJobSummaries()) {
+                    if (jobNames.contains(summary.transcriptionJobName())) {
+                        finished.put(summary.transcriptionJobName(), summary);
+                    }
+                    if (summary.creationTime() != null && summary.creationTime().isBefore(cutoff)) {
+                        pastCutoff = true;
+                    }
+                }
+
+                nextToken = pastCutoff || finished.size() == jobNames.size() ? null : page.nextToken();
+            } while (nextToken != null);
         }
+        return finished;
     }
 
-    /**
-     * Parses the AWS Transcribe JSON result.
-     * Expected structure:
-     * {
-     * "results": {
-     * "transcripts": [{ "transcript": "..." }],
-     * "items": [{ "alternatives": [{ "confidence": "0.98", "content": "..." }] }]
-     * }
-     * }
-     */
-    private TranscriptionResponse parseTranscriptJson(String json) {
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            com.fasterxml.jackson.databind.JsonNode root = mapper.readTree(json);
-
-            com.fasterxml.jackson.databind.JsonNode results = root.path("results");
-            com.fasterxml.jackson.databind.JsonNode transcripts = results.path("transcripts");
-
-            String transcript = "";
-            if (transcripts.isArray() && !transcripts.isEmpty()) {
-                transcript = transcripts.get(0).path("transcript").asText("");
-            }
+    private void handleStillRunning(Transcription transcription, LocalDateTime now) {
+        if (transcription.getSubmittedAt().plusMinutes(maxWaitMinutes).isBefore(now)) {
+            failJob(transcription, "Transcription timed out after " + maxWaitMinutes + " minutes.");
+            return;
+        }
+        scheduleNextPoll(transcription, now);
+    }
 
-            double totalConfidence = 0.0;
-            int confidenceCount = 0;
-            com.fasterxml.jackson.databind.JsonNode items = results.path("items");
-            if (items.isArray()) {
-                for (com.fasterxml.jackson.databind.JsonNode item : items) {
-                    com.fasterxml.jackson.databind.JsonNode alternatives = item.path("alternatives");
-                    if (alternatives.isArray() && !alternatives.isEmpty()) {
-                        String confidenceStr = alternatives.get(0).path("confidence").asText("");
-                        if (!confidenceStr.isEmpty()) {
-                            totalConfidence += Double.parseDouble(confidenceStr);
-                            confidenceCount++;
-                        }
-                    }
-                }
-            }
+    private void scheduleNextPoll(Transcription transcription, LocalDateTime now) {
+        int attempts = transcription.getPollAttempts() + 1;
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts, 16));
+        transcription.setPollAttempts(attempts);
+        transcription.setNextPollAt(now.plus(Duration.ofMillis(backoff)));
+        transcriptionRepository.save(transcription);
+    }
 
-            double avgConfidence = confidenceCount > 0 ? totalConfidence / confidenceCount : 0.0;
-            avgConfidence = Math.round(avgConfidence * 100.0) / 100.0;
+    private void completeJob(Transcription transcription) {
+        GetTranscriptionJobResponse job = transcribeClient.getTranscriptionJob(GetTranscriptionJobRequest.builder()
+                .transcriptionJobName(transcription.getJobName())
+                .build());
+        TranscriptionResponse result = awsTranscribeEngine.fetchTranscript(job.transcriptionJob().transcript().transcriptFileUri());
+
+        transcription.setStatus(TranscriptionStatus.COMPLETED);
+        transcription.setTranscript(result.getTranscript());
+        transcription.setConfidence(result.getConfidence());
+        transcription.setCompletedAt(LocalDateTime.now());
+        transcription.setNextPollAt(null);
+        finish(transcription);
+        log.info("Asynchronous transcription job completed: {}", transcription.getJobName());
+
+        if (transcription.getContentHash() != null) {
+            long elapsed = Duration.between(transcription.getSubmittedAt(), transcription.getCompletedAt()).toMillis();
+            transcriptCacheService.store(transcription.getContentHash(), transcription.getLanguageCode(), result, elapsed);
+        }
+    }
 
-            return TranscriptionResponse.builder()
-                    .transcript(transcript)
-                    .confidence(avgConfidence)
-                    .languageCode("en-US")
-                    .build();
+    private void failJob(Transcription transcription, String reason) {
+        transcription.setStatus(TranscriptionStatus.FAILED);
+        transcription.setFailureReason(reason);
+        transcription.setCompletedAt(LocalDateTime.now());
+        transcription.setNextPollAt(null);
+        finish(transcription);
+        log.warn("Asynchronous transcription job {} failed: {}", transcription.getJobName(), reason);
+    }
 
-        } catch (Exception e) {
-            throw new TranscriptionException("Failed to parse transcription result.", e);
-        }
+    private void finish(Transcription transcription) {
+        Transcription saved = transcriptionRepository.save(transcription);
+        awsTranscribeEngine.cleanupS3(saved.getS3Key());
+        transcriptionEventPublisher.publish(toJobResponse(saved));
     }
 
-    private void cleanupS3(String s3Key) {
-        try {
-            DeleteObjectRequest deleteRequest = DeleteObjectRequest.builder()
-                    .bucket(s3Bucket)
-                    .key(s3Key)
-                    .build();
-            s3Client.deleteObject(deleteRequest);
-            log.debug("Cleaned up S3 object: {}", s3Key);
-        } catch (Exception e) {
-            log.warn("Failed to clean up S3 object {}: {}", s3Key, e.getMessage());
-        }
+    private TranscriptionJobResponse toJobResponse(Transcription transcription) {
+        return TranscriptionJobResponse.builder()
+                .id(transcription.getId())
+                .status(transcription.getStatus())
+                .transcript(transcription.getTranscript())
+                .confidence(transcription.getConfidence())
+                .languageCode(transcription.getLanguageCode())
+                .failureReason(transcription.getFailureReason())
+                .submittedAt(transcription.getSubmittedAt())
+                .completedAt(transcription.getCompletedAt())
+                .build();
     }
 
-    private String getFileExtension(MultipartFile file) {
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename != null && originalFilename.contains(".")) {
-            return originalFilename.substring(originalFilename.lastIndexOf('.'));
+    public void validateAudioFile(AudioPayload file) {
+        if (file == null || file.isEmpty()) {
+            throw new TranscriptionException("Audio file is required and must not be empty.");
         }
+
         String contentType = file.getContentType();
-        if (contentType != null) {
-            return switch (contentType.toLowerCase()) {
-                case "audio/wav" -> ".wav";
-                case "audio/mpeg", "audio/mp3" -> ".mp3";
-                case "audio/mp4", "audio/x-m4a", "audio/m4a" -> ".m4a";
-                default -> ".audio";
-            };
+        if (contentType == null || !SUPPORTED_CONTENT_TYPES.contains(contentType.toLowerCase())) {
+            throw new TranscriptionException(
+                    "Unsupported audio format: " + contentType +
+                            ". Supported formats: WAV, MP3, MP4/M4A.");
         }
-        return ".audio";
     }
 }
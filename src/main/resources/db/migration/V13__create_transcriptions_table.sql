@@ -0,0 +1,23 @@
+-- Asynchronous transcription jobs and their results
+CREATE TABLE transcriptions (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(255) NOT NULL UNIQUE,
+    s3_key VARCHAR(500) NOT NULL,
+    language_code VARCHAR(10) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    transcript TEXT,
+    confidence DOUBLE PRECISION,
+    failure_reason VARCHAR(1000),
+    requested_by VARCHAR(255) NOT NULL,
+    poll_attempts INTEGER NOT NULL DEFAULT 0,
+    next_poll_at TIMESTAMP,
+    submitted_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    active BOOLEAN DEFAULT true,
+    CONSTRAINT chk_transcription_status CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED'))
+);
+
+-- The poller only ever scans pending jobs that are due
+CREATE INDEX idx_transcriptions_pending_due ON transcriptions(next_poll_at) WHERE status = 'PENDING';
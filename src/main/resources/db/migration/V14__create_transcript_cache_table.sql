@@ -0,0 +1,17 @@
+-- Transcripts keyed by the SHA-256 of the submitted audio, so resubmitted clips skip Transcribe
+CREATE TABLE transcript_cache (
+    id BIGSERIAL PRIMARY KEY,
+    content_hash CHAR(64) NOT NULL,
+    language_code VARCHAR(10) NOT NULL,
+    transcript TEXT NOT NULL,
+    confidence DOUBLE PRECISION,
+    transcription_millis BIGINT NOT NULL,
+    hit_count INTEGER NOT NULL DEFAULT 0,
+    last_hit_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    active BOOLEAN DEFAULT true,
+    CONSTRAINT uq_transcript_cache_hash_language UNIQUE (content_hash, language_code)
+);
+
+ALTER TABLE transcriptions ADD COLUMN content_hash CHAR(64);
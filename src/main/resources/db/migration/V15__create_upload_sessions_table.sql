@@ -0,0 +1,20 @@
+-- Resumable audio uploads; chunks are appended to a local spool file until the upload is complete
+CREATE TABLE upload_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    upload_id VARCHAR(36) NOT NULL UNIQUE,
+    requested_by VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    file_name VARCHAR(255),
+    total_bytes BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    spool_path VARCHAR(1000) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    transcription_id BIGINT REFERENCES transcriptions(id),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    active BOOLEAN DEFAULT true,
+    CONSTRAINT chk_upload_session_status CHECK (status IN ('OPEN', 'COMPLETED', 'EXPIRED'))
+);
+
+CREATE INDEX idx_upload_sessions_open_expiry ON upload_sessions(expires_at) WHERE status = 'OPEN';
@@ -0,0 +1,87 @@
+-- Convert audit_logs into a table range-partitioned by month on "timestamp".
+-- Monthly partitions keep each index small so inserts stay cheap as the trail grows,
+-- let date-bounded queries skip whole months, and let retention detach a month in
+-- one metadata operation instead of a mass DELETE.
+
+ALTER TABLE audit_logs RENAME TO audit_logs_unpartitioned;
+ALTER TABLE audit_logs_unpartitioned RENAME CONSTRAINT audit_logs_pkey TO audit_logs_unpartitioned_pkey;
+
+DROP INDEX idx_audit_provider;
+DROP INDEX idx_audit_patient;
+DROP INDEX idx_audit_action;
+DROP INDEX idx_audit_timestamp;
+DROP INDEX idx_audit_provider_patient;
+DROP INDEX idx_audit_success;
+
+-- The primary key of a partitioned table must include the partition key.
+-- Ids keep coming from the original sequence so they stay unique across the conversion.
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    provider_id BIGINT,
+    provider_name VARCHAR(255) NOT NULL,
+    provider_email VARCHAR(255) NOT NULL,
+    provider_role VARCHAR(50),
+    action VARCHAR(50) NOT NULL,
+    patient_id BIGINT,
+    patient_name VARCHAR(255),
+    patient_national_id VARCHAR(50),
+    resource_type VARCHAR(50),
+    resource_id BIGINT,
+    details TEXT,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    session_id VARCHAR(100),
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    success BOOLEAN NOT NULL DEFAULT TRUE,
+    error_message TEXT,
+    CONSTRAINT audit_logs_pkey PRIMARY KEY (id, timestamp),
+    CONSTRAINT fk_audit_provider FOREIGN KEY (provider_id) REFERENCES providers(id) ON DELETE SET NULL,
+    CONSTRAINT fk_audit_patient FOREIGN KEY (patient_id) REFERENCES patients(id) ON DELETE SET NULL
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- Three indexes instead of six: the per-provider and per-patient trails, plus a BRIN
+-- index on the append-ordered timestamp that costs almost nothing to maintain.
+CREATE INDEX idx_audit_provider_timestamp ON audit_logs (provider_id, timestamp);
+CREATE INDEX idx_audit_patient_timestamp ON audit_logs (patient_id, timestamp);
+CREATE INDEX idx_audit_timestamp_brin ON audit_logs USING BRIN (timestamp);
+
+-- Creates the partition holding the given month if it does not exist yet.
+-- Called here for the initial range and by AuditPartitionManager to stay ahead of time.
+CREATE OR REPLACE FUNCTION audit_logs_create_partition(p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::date;
+    v_name TEXT := format('audit_logs_y%sm%s', to_char(v_start, 'YYYY'), to_char(v_start, 'MM'));
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_start, (v_start + INTERVAL '1 month')::date);
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    v_month DATE := date_trunc('month', COALESCE((SELECT MIN(timestamp) FROM audit_logs_unpartitioned), now()))::date;
+BEGIN
+    WHILE v_month <= date_trunc('month', now() + INTERVAL '3 months') LOOP
+        PERFORM audit_logs_create_partition(v_month);
+        v_month := (v_month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Safety net so an insert never fails if the partition job falls behind
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
+
+INSERT INTO audit_logs (id, provider_id, provider_name, provider_email, provider_role, action,
+                        patient_id, patient_name, patient_national_id, resource_type, resource_id,
+                        details, ip_address, user_agent, session_id, timestamp, success, error_message)
+SELECT id, provider_id, provider_name, provider_email, provider_role, action,
+       patient_id, patient_name, patient_national_id, resource_type, resource_id,
+       details, ip_address, user_agent, session_id, timestamp, success, error_message
+FROM audit_logs_unpartitioned;
+
+DROP TABLE audit_logs_unpartitioned;
+
+COMMENT ON TABLE audit_logs IS 'HIPAA-compliant audit trail for all patient data access and modifications, partitioned by month';
+COMMENT ON COLUMN audit_logs.timestamp IS 'Exact timestamp when the action occurred (immutable); partition key';
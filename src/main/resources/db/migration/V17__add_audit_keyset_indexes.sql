@@ -0,0 +1,16 @@
+-- Indexes for keyset-paginated audit queries: every supported filter is an equality
+-- prefix followed by (timestamp, id), so a page is one backward index range scan that
+-- stops after LIMIT rows, with no sort and no offset to skip.
+
+DROP INDEX idx_audit_provider_timestamp;
+DROP INDEX idx_audit_patient_timestamp;
+-- A BRIN index cannot return rows in order, so it cannot serve the unfiltered newest-first page
+DROP INDEX idx_audit_timestamp_brin;
+
+CREATE INDEX idx_audit_keyset ON audit_logs (timestamp, id);
+CREATE INDEX idx_audit_provider_keyset ON audit_logs (provider_id, timestamp, id);
+CREATE INDEX idx_audit_patient_keyset ON audit_logs (patient_id, timestamp, id);
+CREATE INDEX idx_audit_action_keyset ON audit_logs (action, timestamp, id);
+
+-- Failed actions are rare, so a partial index stays small and cheap to maintain
+CREATE INDEX idx_audit_failed_keyset ON audit_logs (timestamp, id) WHERE success = FALSE;
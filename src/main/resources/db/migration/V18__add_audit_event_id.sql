@@ -0,0 +1,8 @@
+-- Id assigned to each audit event when it is captured. Events journaled locally during
+-- a database outage are replayed with INSERT ... ON CONFLICT DO NOTHING, so an event that
+-- reached the database before the failure is not recorded twice.
+
+ALTER TABLE audit_logs ADD COLUMN event_id UUID;
+
+-- A unique index on a partitioned table must include the partition key
+CREATE UNIQUE INDEX idx_audit_event_id ON audit_logs (event_id, timestamp);
@@ -0,0 +1,2 @@
+-- Lets condition counts for the analytics dashboard run as an index-only scan
+CREATE INDEX idx_diagnoses_condition ON diagnoses(condition_name);
@@ -0,0 +1,2 @@
+-- Lets date-bounded analytics aggregates range-scan consultations instead of reading them all
+CREATE INDEX idx_consultations_opened_at ON consultations(opened_at);
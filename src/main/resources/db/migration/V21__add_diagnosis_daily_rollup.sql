@@ -0,0 +1,14 @@
+-- Diagnosis counts per condition, patient region and consultation day, kept up to date as
+-- diagnoses are recorded so disease trends never scan the raw tables. A missing region is
+-- stored as '' to keep it part of the key. Existing history is loaded by the application's
+-- backfill job on first start rather than here, so the migration stays instant.
+CREATE TABLE diagnosis_daily_rollup (
+    day DATE NOT NULL,
+    region VARCHAR(255) NOT NULL,
+    condition_name VARCHAR(255) NOT NULL,
+    case_count BIGINT NOT NULL,
+    PRIMARY KEY (day, region, condition_name)
+);
+
+-- Trend lookups filtered by region match case-insensitively
+CREATE INDEX idx_diagnosis_rollup_region_day ON diagnosis_daily_rollup(lower(region), day);
@@ -0,0 +1,14 @@
+-- Mergeable sketches of diagnoses per consultation day and patient region: a Count-Min
+-- sketch with top-K candidates over condition names and a HyperLogLog over patient ids.
+-- Blobs are written by the application (deflated, version byte first); a missing region
+-- is stored as '' as in diagnosis_daily_rollup.
+CREATE TABLE diagnosis_sketches (
+    day DATE NOT NULL,
+    region VARCHAR(255) NOT NULL,
+    conditions BYTEA,
+    patients BYTEA,
+    updated_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (day, region)
+);
+
+CREATE INDEX idx_diagnosis_sketches_region_day ON diagnosis_sketches(lower(region), day);
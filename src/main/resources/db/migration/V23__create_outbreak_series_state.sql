@@ -0,0 +1,17 @@
+-- Checkpointed state of the in-memory outbreak detector, one row per condition and patient
+-- region ('' for none), so baselines survive restarts without rescanning diagnoses. Days
+-- after the checkpoint are replayed from diagnosis_daily_rollup on startup.
+CREATE TABLE outbreak_series_state (
+    condition_name VARCHAR(255) NOT NULL,
+    region VARCHAR(255) NOT NULL,
+    day DATE NOT NULL,
+    day_count BIGINT NOT NULL,
+    baseline_mean DOUBLE PRECISION NOT NULL,
+    baseline_variance DOUBLE PRECISION NOT NULL,
+    cusum DOUBLE PRECISION NOT NULL,
+    observed_days INTEGER NOT NULL,
+    ewma_alerted_day DATE,
+    cusum_alerted_day DATE,
+    checkpointed_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (condition_name, region)
+);
@@ -0,0 +1,29 @@
+-- Audit events the database rejected on their own, such as a value too long for its column
+-- or a patient deleted since capture. AuditEventWriter moves them here after retrying a failed
+-- batch row by row, so one bad event cannot hold back the rest of the trail. Columns mirror
+-- audit_logs without length limits or foreign keys, so a rejected event always fits.
+CREATE TABLE audit_logs_dead_letter (
+    id BIGSERIAL PRIMARY KEY,
+    event_id UUID NOT NULL,
+    provider_id BIGINT,
+    provider_name TEXT,
+    provider_email TEXT,
+    provider_role TEXT,
+    action TEXT NOT NULL,
+    patient_id BIGINT,
+    patient_name TEXT,
+    patient_national_id TEXT,
+    resource_type TEXT,
+    resource_id BIGINT,
+    details TEXT,
+    ip_address TEXT,
+    user_agent TEXT,
+    session_id TEXT,
+    timestamp TIMESTAMP NOT NULL,
+    success BOOLEAN NOT NULL,
+    error_message TEXT,
+    rejection TEXT NOT NULL,
+    rejected_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- A journal segment replayed again after an outage does not record its rejects twice
+    CONSTRAINT uq_audit_dead_letter_event UNIQUE (event_id)
+);
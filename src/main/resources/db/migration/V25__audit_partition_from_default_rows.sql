@@ -0,0 +1,32 @@
+-- Creating a month's partition fails while audit_logs_default holds rows for that month,
+-- as it does once the partition job has fallen behind. The month is now built as a plain
+-- table, the month's rows are moved into it from the default partition, and it is then
+-- attached. Inserts routed to the default partition wait for the move, so none can slip
+-- in between the move and the attach.
+CREATE OR REPLACE FUNCTION audit_logs_create_partition(p_month DATE) RETURNS TEXT AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::date;
+    v_end DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::date;
+    v_name TEXT := format('audit_logs_y%sm%s', to_char(v_start, 'YYYY'), to_char(v_start, 'MM'));
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN v_name;
+    END IF;
+
+    LOCK TABLE audit_logs_default IN EXCLUSIVE MODE;
+    IF NOT EXISTS (SELECT 1 FROM audit_logs_default WHERE timestamp >= v_start AND timestamp < v_end) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       v_name, v_start, v_end);
+        RETURN v_name;
+    END IF;
+
+    -- Indexes and foreign keys are added by ATTACH from the parent's definitions
+    EXECUTE format('CREATE TABLE %I (LIKE audit_logs INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    EXECUTE format('WITH moved AS (DELETE FROM audit_logs_default WHERE timestamp >= %L AND timestamp < %L RETURNING *) '
+                   || 'INSERT INTO %I SELECT * FROM moved', v_start, v_end, v_name);
+    EXECUTE format('ALTER TABLE audit_logs ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_start, v_end);
+    RAISE NOTICE 'Moved audit rows for % out of audit_logs_default into %', v_start, v_name;
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
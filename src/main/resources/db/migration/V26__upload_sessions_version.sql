@@ -0,0 +1,3 @@
+-- Optimistic locking for upload sessions, so a chunk write that loaded an open session
+-- cannot reopen it after the expiry job has deleted its spool file
+ALTER TABLE upload_sessions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,159 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.domain.dto.response.ClinicSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.OutcomeResponse;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.service.AnalyticsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements analytics endpoints issue, so a reintroduced per-row
+ * query shows up as a failure rather than as a slow page on a big clinic, and checks
+ * the figures the SQL-side aggregates produce.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AnalyticsQueryCountIntegrationTest extends BaseIntegrationTest {
+
+    private static final int PATIENTS = 25;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long clinicId;
+
+    @BeforeEach
+    void setUp() {
+        String ours = "(SELECT c.id FROM consultations c JOIN providers pr ON pr.id = c.provider_id "
+                + "WHERE pr.email = 'analytics-count@example.com')";
+        jdbcTemplate.update("DELETE FROM diagnoses WHERE consultation_id IN " + ours);
+        jdbcTemplate.update("DELETE FROM consultations WHERE id IN " + ours);
+
+        clinicId = clinic("ANALYTICS-A");
+        Long otherClinicId = clinic("ANALYTICS-B");
+        jdbcTemplate.update("""
+                INSERT INTO providers (name, role, email, password_hash)
+                VALUES ('Dr. Count', 'Doctor', 'analytics-count@example.com', 'x')
+                ON CONFLICT (email) DO NOTHING""");
+        Long providerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM providers WHERE email = 'analytics-count@example.com'", Long.class);
+
+        seed(clinicId, providerId, PATIENTS);
+        seed(otherClinicId, providerId, 3);
+    }
+
+    @Test
+    void getClinicSummary_RunsFixedNumberOfQueriesRegardlessOfPatients() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        ClinicSummaryResponse summary = analyticsService.getClinicSummary(clinicId);
+
+        // Assert
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(PATIENTS, summary.getTotalPatients());
+        assertEquals(PATIENTS * 4L, summary.getTotalConsultations());
+        assertEquals(PATIENTS * 2L, summary.getActiveConsultations());
+        assertEquals(PATIENTS, summary.getEscalatedConsultations());
+        assertEquals("Malaria", summary.getTopCondition());
+        assertEquals(PATIENTS * 4L, summary.getConditionBreakdown().get("Malaria"));
+        assertEquals(PATIENTS * 2L, summary.getConditionBreakdown().get("Typhoid"));
+    }
+
+    @Test
+    void getTreatmentOutcomes_AggregatesPagesAndSortsInSql() {
+        // Act
+        Page<OutcomeResponse> first = analyticsService.getTreatmentOutcomes(null, null, clinicId,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "totalCases")));
+        Page<OutcomeResponse> byEscalations = analyticsService.getTreatmentOutcomes(null, null, clinicId,
+                PageRequest.of(0, 10, Sort.by("escalatedCases")));
+        Page<OutcomeResponse> pastEnd = analyticsService.getTreatmentOutcomes(null, null, clinicId,
+                PageRequest.of(5, 10));
+
+        // Assert
+        assertEquals(2, first.getTotalElements());
+        OutcomeResponse malaria = first.getContent().get(0);
+        assertEquals("Malaria", malaria.getCondition());
+        assertEquals(PATIENTS * 4L, malaria.getTotalCases());
+        assertEquals(PATIENTS, malaria.getResolvedCases());
+        assertEquals(PATIENTS, malaria.getEscalatedCases());
+        assertEquals(0.9, malaria.getAverageConfidenceScore(), 0.0001);
+
+        assertEquals(List.of("Typhoid", "Malaria"),
+                byEscalations.getContent().stream().map(OutcomeResponse::getCondition).toList());
+        assertEquals(0, byEscalations.getContent().get(0).getEscalatedCases());
+
+        assertTrue(pastEnd.getContent().isEmpty());
+        assertEquals(2, pastEnd.getTotalElements());
+    }
+
+    @Test
+    void getTreatmentOutcomes_DateFilter_ExcludesConsultationsOutsideRange() {
+        Page<OutcomeResponse> outcomes = analyticsService.getTreatmentOutcomes(
+                LocalDate.now().plusDays(1), null, clinicId, PageRequest.of(0, 10));
+
+        assertTrue(outcomes.isEmpty());
+        assertEquals(0, outcomes.getTotalElements());
+    }
+
+    @Test
+    void getTreatmentOutcomes_UnknownSortProperty_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> analyticsService.getTreatmentOutcomes(null, null, clinicId,
+                PageRequest.of(0, 10, Sort.by("condition_name; DROP TABLE diagnoses"))));
+    }
+
+    private Long clinic(String code) {
+        jdbcTemplate.update("""
+                INSERT INTO clinics (name, registration_code) VALUES (?, ?)
+                ON CONFLICT (registration_code) DO NOTHING""", "Clinic " + code, code);
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM clinics WHERE registration_code = ?", Long.class, code);
+        jdbcTemplate.update("DELETE FROM patients WHERE clinic_id = ?", id);
+        return id;
+    }
+
+    /**
+     * Each patient gets one consultation per status, each with a Malaria diagnosis, and
+     * the OPEN and CLOSED ones a Typhoid diagnosis as well.
+     */
+    private void seed(Long clinic, Long providerId, int patients) {
+        jdbcTemplate.update("""
+                INSERT INTO patients (first_name, last_name, date_of_birth, clinic_id)
+                SELECT 'Count', 'Patient ' || g, DATE '1990-01-01', ? FROM generate_series(1, ?) AS g""",
+                clinic, patients);
+        jdbcTemplate.update("""
+                INSERT INTO consultations (patient_id, provider_id, status, opened_at)
+                SELECT p.id, ?, s.status, now()
+                FROM patients p, unnest(ARRAY['OPEN','IN_PROGRESS','CLOSED','ESCALATED']) AS s(status)
+                WHERE p.clinic_id = ?""", providerId, clinic);
+        jdbcTemplate.update("""
+                INSERT INTO diagnoses (consultation_id, condition_name, confidence_score)
+                SELECT c.id, 'Malaria', 0.9 FROM consultations c JOIN patients p ON p.id = c.patient_id
+                WHERE p.clinic_id = ?
+                UNION ALL
+                SELECT c.id, 'Typhoid', 0.6 FROM consultations c JOIN patients p ON p.id = c.patient_id
+                WHERE p.clinic_id = ? AND c.status IN ('OPEN', 'CLOSED')""", clinic, clinic);
+    }
+}
@@ -0,0 +1,177 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.audit.AuditExportFormat;
+import com.asakaa.synthesis.audit.AuditLogExporter;
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.domain.dto.response.AuditLogResponse;
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import com.asakaa.synthesis.repository.AuditLogQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that each filter combination of the keyset audit search is answered by its
+ * composite index in index order, with no Sort node, that cursors walk every row once,
+ * and that exports stream every matching row.
+ */
+class AuditLogQueryIntegrationTest extends BaseIntegrationTest {
+
+    private static final int ROWS = 20_000;
+    private static final Pattern SORT_NODE = Pattern.compile("(^|->)\\s*Sort\\s+\\(", Pattern.MULTILINE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLogQueryRepository auditLogQueryRepository;
+
+    @Autowired
+    private AuditLogExporter auditLogExporter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long providerId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "audit-keyset@example.com";
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM providers WHERE email = ?", Long.class, email) == 0) {
+            getAuthToken(email, "password123", "Dr. Keyset");
+        }
+        providerId = jdbcTemplate.queryForObject("SELECT id FROM providers WHERE email = ?", Long.class, email);
+
+        jdbcTemplate.update("DELETE FROM audit_logs");
+        jdbcTemplate.update("""
+                INSERT INTO audit_logs (provider_id, provider_name, provider_email, action, timestamp, success)
+                SELECT ?, 'Dr. Keyset', 'audit-keyset@example.com',
+                       CASE WHEN g % 3 = 0 THEN 'VIEW_PATIENT_PROFILE' ELSE 'VIEW_CONSULTATION' END,
+                       date_trunc('second', now()) - (g / 2) * INTERVAL '1 second',
+                       g % 50 <> 0
+                FROM generate_series(1, ?) AS g""", providerId, ROWS);
+        jdbcTemplate.execute("ANALYZE audit_logs");
+    }
+
+    @Test
+    void pageQueries_UseMatchingKeysetIndexWithoutSort() {
+        assertIndexScan(new AuditLogFilter(), "idx_audit_keyset");
+        assertIndexScan(AuditLogFilter.builder().providerId(providerId).build(), "idx_audit_provider_keyset");
+        assertIndexScan(AuditLogFilter.builder().patientId(1L).build(), "idx_audit_patient_keyset");
+        assertIndexScan(AuditLogFilter.builder().action(AuditAction.VIEW_PATIENT_PROFILE).build(), "idx_audit_action_keyset");
+        assertIndexScan(AuditLogFilter.builder().success(false).build(), "idx_audit_failed_keyset");
+    }
+
+    @Test
+    void findPage_WalkingCursors_ReturnsEveryRowOnceNewestFirst() {
+        // Arrange
+        AuditLogFilter filter = AuditLogFilter.builder().success(false).build();
+        Set<Long> seen = new HashSet<>();
+        AuditLogQueryRepository.Cursor cursor = null;
+        AuditLogResponse previous = null;
+
+        // Act
+        List<AuditLogResponse> page;
+        do {
+            page = auditLogQueryRepository.findPage(filter, cursor, 37);
+            for (AuditLogResponse row : page) {
+                assertTrue(seen.add(row.getId()), "row returned twice: " + row.getId());
+                if (previous != null) {
+                    assertFalse(row.getTimestamp().isAfter(previous.getTimestamp()));
+                }
+                previous = row;
+            }
+            if (!page.isEmpty()) {
+                AuditLogResponse last = page.get(page.size() - 1);
+                cursor = new AuditLogQueryRepository.Cursor(last.getTimestamp(), last.getId());
+            }
+        } while (page.size() == 37);
+
+        // Assert
+        assertEquals(ROWS / 50, seen.size());
+    }
+
+    @Test
+    void estimateCount_IsCloseToExactCount() {
+        AuditLogFilter filter = AuditLogFilter.builder().action(AuditAction.VIEW_PATIENT_PROFILE).build();
+
+        long estimate = auditLogQueryRepository.estimateCount(filter);
+
+        assertEquals(ROWS / 3, estimate, ROWS / 10);
+    }
+
+    @Test
+    void export_GzippedNdjson_StreamsEveryMatchingRow() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = auditLogExporter.export(AuditLogFilter.builder().providerId(providerId).build(),
+                AuditExportFormat.NDJSON, true, out);
+
+        // Assert
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            lines = reader.lines().toList();
+        }
+        assertEquals(ROWS, rows);
+        assertEquals(ROWS, lines.size());
+        assertTrue(lines.get(0).contains("\"providerEmail\":\"audit-keyset@example.com\""));
+    }
+
+    @Test
+    void export_Csv_WritesHeaderAndFilteredRows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = auditLogExporter.export(AuditLogFilter.builder().success(false).build(),
+                AuditExportFormat.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ROWS / 50, rows);
+        assertEquals(ROWS / 50 + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,providerId,providerName"));
+    }
+
+    private void assertIndexScan(AuditLogFilter filter, String parentIndex) {
+        AuditLogQueryRepository.Query query = auditLogQueryRepository.pageQuery(filter, null, 50);
+
+        // Each partition carries its own copy of the index, attached to the parent index
+        Set<String> partitionIndexes = new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?""", String.class, parentIndex));
+        assertFalse(partitionIndexes.isEmpty(), "no partition indexes for " + parentIndex);
+
+        // Disabling the alternatives makes the test about index shape, not table size
+        List<String> plan = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+            return jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class, query.params().toArray());
+        });
+        String text = String.join("\n", plan);
+
+        assertTrue(partitionIndexes.stream().anyMatch(text::contains),
+                parentIndex + " not used:\n" + text);
+        // Merge Append prints a "Sort Key" line; only a Sort node means rows were re-ordered
+        assertFalse(SORT_NODE.matcher(text).find(), "unexpected sort:\n" + text);
+        assertFalse(text.contains("Seq Scan"), "unexpected seq scan:\n" + text);
+    }
+}
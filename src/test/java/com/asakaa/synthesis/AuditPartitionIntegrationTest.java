@@ -0,0 +1,53 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.audit.AuditPartitionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that partition maintenance recovers a month whose rows went to the default
+ * partition, instead of failing to create it and rolling back every other month.
+ */
+class AuditPartitionIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditPartitionManager partitionManager;
+
+    @Test
+    void maintain_RowsInDefaultPartition_MovedIntoTheirNewMonth() {
+        // Arrange: a missing month two ahead and one far in the past, each with a row in the default
+        YearMonth ahead = YearMonth.now().plusMonths(2);
+        String aheadPartition = String.format("audit_logs_y%dm%02d", ahead.getYear(), ahead.getMonthValue());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + aheadPartition);
+        YearMonth past = YearMonth.now().minusMonths(30);
+        String pastPartition = String.format("audit_logs_y%dm%02d", past.getYear(), past.getMonthValue());
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + pastPartition);
+        for (YearMonth month : new YearMonth[]{ahead, past}) {
+            jdbcTemplate.update("""
+                    INSERT INTO audit_logs (provider_name, provider_email, action, timestamp, success)
+                    VALUES ('Dr. Partition', 'partition@example.com', 'VIEW_PATIENT_PROFILE', ?, TRUE)""",
+                    LocalDateTime.of(month.getYear(), month.getMonth(), 15, 12, 0));
+        }
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_logs_default WHERE provider_email = 'partition@example.com'", Long.class));
+
+        // Act
+        partitionManager.maintain();
+
+        // Assert
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs_default", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + aheadPartition, Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + pastPartition, Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM audit_logs WHERE provider_email = 'partition@example.com'", Long.class));
+    }
+}
@@ -0,0 +1,154 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.analytics.DiagnosisRecordedEvent;
+import com.asakaa.synthesis.analytics.DiagnosisRollupMaintainer;
+import com.asakaa.synthesis.domain.dto.response.TrendResponse;
+import com.asakaa.synthesis.service.AnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the diagnosis rollup matches the raw tables after a backfill, moves in
+ * step with the transactions that record diagnoses, and is repaired by reconciliation.
+ */
+class DiagnosisRollupIntegrationTest extends BaseIntegrationTest {
+
+    private static final String CONDITION = "Rollup Cholera";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DiagnosisRollupMaintainer rollupMaintainer;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long patientId;
+    private Long consultationId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM diagnoses WHERE condition_name = ?", CONDITION);
+        jdbcTemplate.update("DELETE FROM diagnosis_daily_rollup WHERE condition_name = ?", CONDITION);
+        jdbcTemplate.update("""
+                INSERT INTO providers (name, role, email, password_hash)
+                VALUES ('Dr. Rollup', 'Doctor', 'rollup@example.com', 'x')
+                ON CONFLICT (email) DO NOTHING""");
+        Long providerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM providers WHERE email = 'rollup@example.com'", Long.class);
+        patientId = jdbcTemplate.queryForObject("""
+                INSERT INTO patients (first_name, last_name, date_of_birth, region)
+                VALUES ('Rollup', 'Patient', DATE '1990-01-01', 'Northern') RETURNING id""", Long.class);
+
+        // Three cases today and two ten days ago, all in the Northern region
+        consultationId = jdbcTemplate.queryForObject("""
+                INSERT INTO consultations (patient_id, provider_id, status, opened_at)
+                VALUES (?, ?, 'OPEN', now()) RETURNING id""", Long.class, patientId, providerId);
+        Long olderId = jdbcTemplate.queryForObject("""
+                INSERT INTO consultations (patient_id, provider_id, status, opened_at)
+                VALUES (?, ?, 'CLOSED', now() - INTERVAL '10 days') RETURNING id""", Long.class, patientId, providerId);
+        jdbcTemplate.update("""
+                INSERT INTO diagnoses (consultation_id, condition_name, confidence_score)
+                SELECT ?, ?, 0.8 FROM generate_series(1, 3)
+                UNION ALL
+                SELECT ?, ?, 0.7 FROM generate_series(1, 2)""", consultationId, CONDITION, olderId, CONDITION);
+    }
+
+    @Test
+    void backfill_ThenTrends_MatchRawCountsWithRegionFilterInSql() {
+        // Act
+        rollupMaintainer.backfill(LocalDate.now().minusDays(30), LocalDate.now());
+        List<TrendResponse> northern = analyticsService.getDiseaseTrends("northern", LocalDate.now().minusDays(30), null);
+        List<TrendResponse> recent = analyticsService.getDiseaseTrends("Northern", LocalDate.now().minusDays(2), null);
+        List<TrendResponse> elsewhere = analyticsService.getDiseaseTrends("Southern", LocalDate.now().minusDays(30), null);
+
+        // Assert
+        assertEquals(5L, caseCount(northern));
+        assertEquals("Northern", trend(northern).getRegion());
+        assertEquals(3L, caseCount(recent));
+        assertTrue(elsewhere.stream().noneMatch(trend -> trend.getCondition().equals(CONDITION)));
+    }
+
+    @Test
+    void onDiagnosisRecorded_CountsOnlyCommittedDiagnoses() {
+        // Arrange: other tests seed diagnoses straight into the tables, so settle recent days first
+        rollupMaintainer.backfill(LocalDate.now().minusDays(30), LocalDate.now());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Act
+        transaction.executeWithoutResult(status -> record());
+        transaction.executeWithoutResult(status -> {
+            record();
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(4L, caseCount(analyticsService.getDiseaseTrends("Northern", LocalDate.now(), null)));
+        assertEquals(0, rollupMaintainer.reconcile());
+    }
+
+    @Test
+    void reconcile_DriftedDay_IsDetectedAndRebuilt() {
+        // Arrange
+        rollupMaintainer.backfill(LocalDate.now().minusDays(30), LocalDate.now());
+        jdbcTemplate.update("UPDATE diagnosis_daily_rollup SET case_count = 99 WHERE condition_name = ? AND day = ?",
+                CONDITION, LocalDate.now());
+
+        // Act
+        long drifted = rollupMaintainer.reconcile();
+
+        // Assert
+        assertEquals(1, drifted);
+        assertEquals(5L, caseCount(analyticsService.getDiseaseTrends("Northern", LocalDate.now().minusDays(30), null)));
+        assertEquals(0, rollupMaintainer.reconcile());
+    }
+
+    @Test
+    void reconcileAll_DriftOlderThanReconcileDays_IsRebuilt() {
+        // Arrange
+        rollupMaintainer.backfill(LocalDate.now().minusDays(30), LocalDate.now());
+        jdbcTemplate.update("UPDATE diagnosis_daily_rollup SET case_count = 99 WHERE condition_name = ? AND day = ?",
+                CONDITION, LocalDate.now().minusDays(10));
+
+        // Act
+        long recent = rollupMaintainer.reconcile();
+        long drifted = rollupMaintainer.reconcileAll();
+
+        // Assert
+        assertEquals(0, recent);
+        assertTrue(drifted >= 1);
+        assertEquals(5L, caseCount(analyticsService.getDiseaseTrends("Northern", LocalDate.now().minusDays(30), null)));
+        assertEquals(0, rollupMaintainer.reconcileAll());
+    }
+
+    private void record() {
+        jdbcTemplate.update("INSERT INTO diagnoses (consultation_id, condition_name, confidence_score) VALUES (?, ?, 0.9)",
+                consultationId, CONDITION);
+        eventPublisher.publishEvent(new DiagnosisRecordedEvent(CONDITION, "Northern", LocalDate.now(), patientId));
+    }
+
+    private static TrendResponse trend(List<TrendResponse> trends) {
+        return trends.stream().filter(trend -> trend.getCondition().equals(CONDITION)).findFirst().orElseThrow();
+    }
+
+    private static long caseCount(List<TrendResponse> trends) {
+        return trend(trends).getCaseCount();
+    }
+}
@@ -0,0 +1,120 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.analytics.DiagnosisRecordedEvent;
+import com.asakaa.synthesis.analytics.DiagnosisRollupMaintainer;
+import com.asakaa.synthesis.analytics.DiagnosisSketchStore;
+import com.asakaa.synthesis.domain.dto.response.DistinctPatientsResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
+import com.asakaa.synthesis.service.AnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that sketch-based top conditions and distinct patients agree with the exact
+ * queries after a backfill, and that recorded diagnoses reach the sketches on flush.
+ */
+class DiagnosisSketchIntegrationTest extends BaseIntegrationTest {
+
+    private static final String REGION = "Sketchland";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DiagnosisSketchStore sketchStore;
+
+    @Autowired
+    private DiagnosisRollupMaintainer rollupMaintainer;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Long patientId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                DELETE FROM diagnoses WHERE consultation_id IN (
+                    SELECT c.id FROM consultations c JOIN patients p ON p.id = c.patient_id WHERE p.region = ?)""",
+                REGION);
+        jdbcTemplate.update("""
+                INSERT INTO providers (name, role, email, password_hash)
+                VALUES ('Dr. Sketch', 'Doctor', 'sketch@example.com', 'x')
+                ON CONFLICT (email) DO NOTHING""");
+        Long providerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM providers WHERE email = 'sketch@example.com'", Long.class);
+
+        // Twenty patients with one consultation each today; condition counts 20, 10 and 7
+        String[] conditions = {"Sketch Malaria", "Sketch Typhoid", "Sketch Cholera"};
+        for (int i = 0; i < 20; i++) {
+            patientId = jdbcTemplate.queryForObject("""
+                    INSERT INTO patients (first_name, last_name, date_of_birth, region)
+                    VALUES ('Sketch', 'Patient', DATE '1990-01-01', ?) RETURNING id""", Long.class, REGION);
+            Long consultationId = jdbcTemplate.queryForObject("""
+                    INSERT INTO consultations (patient_id, provider_id, status, opened_at)
+                    VALUES (?, ?, 'OPEN', now()) RETURNING id""", Long.class, patientId, providerId);
+            for (int c = 0; c < conditions.length; c++) {
+                if (i % (c + 1) == 0) {
+                    jdbcTemplate.update("""
+                            INSERT INTO diagnoses (consultation_id, condition_name, confidence_score)
+                            VALUES (?, ?, 0.8)""", consultationId, conditions[c]);
+                }
+            }
+        }
+        rollupMaintainer.backfill(LocalDate.now(), LocalDate.now());
+        sketchStore.backfill(LocalDate.now(), LocalDate.now());
+    }
+
+    @Test
+    void topConditions_ApproxAfterBackfill_MatchesExact() {
+        // Act
+        TopConditionsResponse exact = analyticsService.getTopConditions(REGION, LocalDate.now(), null, 3, false);
+        TopConditionsResponse approx = analyticsService.getTopConditions(REGION, LocalDate.now(), null, 3, true);
+
+        // Assert
+        assertFalse(exact.isApproximate());
+        assertTrue(approx.isApproximate());
+        assertEquals(exact.getTotalCases(), approx.getTotalCases());
+        // A handful of conditions in 1024 columns: the estimates are exact in practice
+        assertEquals(exact.getConditions(), approx.getConditions());
+        assertTrue(approx.getConfidence() > 0.99);
+    }
+
+    @Test
+    void distinctPatients_ApproxAfterBackfill_MatchesExact() {
+        // Act
+        DistinctPatientsResponse exact = analyticsService.getDistinctPatients(REGION, LocalDate.now(), null, false);
+        DistinctPatientsResponse approx = analyticsService.getDistinctPatients("sketchland", LocalDate.now(), null, true);
+
+        // Assert
+        assertEquals(20, exact.getDistinctPatients());
+        // Linear counting is exact to within one at this size
+        assertEquals(20, approx.getDistinctPatients(), 1);
+        assertTrue(approx.getRelativeStandardError() > 0);
+    }
+
+    @Test
+    void onDiagnosisRecorded_AfterFlush_IsCounted() {
+        // Arrange
+        long before = analyticsService.getTopConditions(REGION, LocalDate.now(), null, 3, true).getTotalCases();
+
+        // Act
+        eventPublisher.publishEvent(new DiagnosisRecordedEvent("Sketch Malaria", REGION, LocalDate.now(), patientId));
+        sketchStore.flush();
+
+        // Assert
+        TopConditionsResponse after = analyticsService.getTopConditions(REGION, LocalDate.now(), null, 3, true);
+        assertEquals(before + 1, after.getTotalCases());
+        assertEquals("Sketch Malaria", after.getConditions().get(0).getCondition());
+    }
+}
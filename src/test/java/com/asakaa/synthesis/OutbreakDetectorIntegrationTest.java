@@ -0,0 +1,68 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.analytics.DiagnosisRecordedEvent;
+import com.asakaa.synthesis.analytics.OutbreakDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that outbreak series are checkpointed and, on restore, caught up from the daily
+ * rollup rather than the raw tables.
+ */
+class OutbreakDetectorIntegrationTest extends BaseIntegrationTest {
+
+    private static final String CONDITION = "Outbreak Dengue";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutbreakDetector outbreakDetector;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM outbreak_series_state WHERE condition_name = ?", CONDITION);
+        jdbcTemplate.update("DELETE FROM diagnosis_daily_rollup WHERE condition_name = ?", CONDITION);
+        outbreakDetector.restore();
+    }
+
+    @Test
+    void checkpoint_ThenRestore_CatchesUpFromRollup() {
+        // Arrange: three cases seen live and checkpointed
+        for (int i = 0; i < 3; i++) {
+            eventPublisher.publishEvent(new DiagnosisRecordedEvent(CONDITION, "Coastal", LocalDate.now(), null));
+        }
+        outbreakDetector.checkpoint();
+        assertEquals(3L, checkpointedCount());
+
+        // Two more were recorded after the checkpoint, before a restart; only the rollup has them
+        // (the live events above already put 3 there)
+        jdbcTemplate.update("""
+                INSERT INTO diagnosis_daily_rollup (day, region, condition_name, case_count)
+                VALUES (CURRENT_DATE, 'Coastal', ?, 5)
+                ON CONFLICT (day, region, condition_name) DO UPDATE SET case_count = 5""", CONDITION);
+
+        // Act
+        outbreakDetector.restore();
+        outbreakDetector.checkpoint();
+
+        // Assert
+        assertEquals(5L, checkpointedCount());
+    }
+
+    private Long checkpointedCount() {
+        return jdbcTemplate.queryForObject("""
+                SELECT day_count FROM outbreak_series_state
+                WHERE condition_name = ? AND region = 'Coastal' AND day = CURRENT_DATE""", Long.class, CONDITION);
+    }
+}
@@ -0,0 +1,99 @@
+package com.asakaa.synthesis;
+
+import com.asakaa.synthesis.datasource.ReplicaLagMonitor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application against a second Postgres container standing in for the replica;
+ * the two databases are told apart by name rather than kept in sync.
+ */
+class ReplicaRoutingIntegrationTest extends BaseIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16")
+            .withDatabaseName("synthesis_replica")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @DynamicPropertySource
+    static void configureReplica(DynamicPropertyRegistry registry) {
+        registry.add("synthesis.datasource.replica.enabled", () -> "true");
+        registry.add("synthesis.datasource.replica.url", replica::getJdbcUrl);
+        registry.add("synthesis.datasource.replica.username", replica::getUsername);
+        registry.add("synthesis.datasource.replica.password", replica::getPassword);
+        registry.add("synthesis.datasource.replica.read-your-writes-window-ms", () -> "500");
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        replica.start();
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void transactions_RoutedByReadOnlyFlag() {
+        // Arrange
+        replicaLagMonitor.check();
+
+        // Act & Assert
+        assertEquals("synthesis_replica", inTransaction(true));
+        assertEquals("synthesis_test", inTransaction(false));
+        assertEquals("synthesis_test", jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+
+    @Test
+    void readOnlyTransaction_AfterWrite_ReadsPrimaryUntilWindowPasses() throws InterruptedException {
+        // Arrange
+        replicaLagMonitor.check();
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("replica-writer@example.com", null, "ROLE_DOCTOR"));
+
+        // Act
+        inTransaction(false);
+        String pinned = inTransaction(true);
+        Thread.sleep(600);
+        String released = inTransaction(true);
+
+        // Assert
+        assertEquals("synthesis_test", pinned);
+        assertEquals("synthesis_replica", released);
+    }
+
+    private String inTransaction(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+}
@@ -0,0 +1,100 @@
+package com.asakaa.synthesis.analytics;
+
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Group-by latency of {@link ColumnarFactEngine} over 10M synthetic facts (200 conditions,
+ * 16 regions, 2 years of days), on one scan thread and on one per core. Pass
+ * {@code -Danalytics.benchmark.facts} to change the size; the columns take about 17 bytes
+ * per fact, so give the test JVM heap to match.
+ * Run with {@code ./mvnw test -Dtest=ColumnarFactEngineBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ColumnarFactEngineBenchmark {
+
+    private static final int FACTS = Integer.getInteger("analytics.benchmark.facts", 10_000_000);
+    private static final int WARMUP = 5;
+    private static final int RUNS = 21;
+    private static final LocalDate END = LocalDate.of(2026, 10, 1);
+
+    @Test
+    void groupByLatency() {
+        FactSnapshot facts = load();
+        List<FactQuery> queries = List.of(
+                FactQuery.builder()
+                        .groupBy(List.of(FactDimension.CONDITION, FactDimension.REGION))
+                        .build(),
+                FactQuery.builder()
+                        .from(END.minusDays(90)).status(ConsultationStatus.ESCALATED)
+                        .groupBy(List.of(FactDimension.CONDITION))
+                        .build(),
+                FactQuery.builder()
+                        .region("Region 3").condition("Condition 17")
+                        .groupBy(List.of(FactDimension.DAY))
+                        .build());
+        String[] names = {"condition x region, all facts", "condition, 90 days escalated", "day, one region+condition"};
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("facts: %,d, cores: %d%n", facts.size(), cores);
+        System.out.printf("%-32s %8s %12s %12s%n", "query", "threads", "p50 ms", "p99 ms");
+        for (int threads : new int[]{1, cores}) {
+            ColumnarFactEngine engine = engine(threads);
+            engine.install(facts);
+            for (int q = 0; q < queries.size(); q++) {
+                long[] nanos = measure(engine, facts, queries.get(q));
+                System.out.printf("%-32s %8d %12.2f %12.2f%n", names[q], threads,
+                        nanos[RUNS / 2] / 1e6, nanos[RUNS * 99 / 100] / 1e6);
+            }
+            engine.shutdown();
+        }
+    }
+
+    private static long[] measure(ColumnarFactEngine engine, FactSnapshot facts, FactQuery query) {
+        for (int i = 0; i < WARMUP; i++) {
+            engine.run(facts, query);
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            engine.run(facts, query);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static ColumnarFactEngine engine(int threads) {
+        ColumnarFactEngine engine = new ColumnarFactEngine(null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "parallelism", threads);
+        engine.init();
+        return engine;
+    }
+
+    private static FactSnapshot load() {
+        SplittableRandom random = new SplittableRandom(42);
+        ConsultationStatus[] statuses = ConsultationStatus.values();
+        String[] conditions = new String[200];
+        Arrays.setAll(conditions, i -> "Condition " + i);
+        String[] regions = new String[16];
+        Arrays.setAll(regions, i -> "Region " + i);
+
+        FactSnapshot.Builder builder = new FactSnapshot.Builder(FACTS);
+        for (int i = 0; i < FACTS; i++) {
+            builder.add(conditions[random.nextInt(conditions.length)], regions[random.nextInt(regions.length)],
+                    (long) random.nextInt(300), END.minusDays(random.nextInt(730)),
+                    statuses[random.nextInt(statuses.length)]);
+        }
+        return builder.build();
+    }
+}
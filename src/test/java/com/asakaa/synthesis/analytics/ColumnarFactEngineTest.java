@@ -0,0 +1,181 @@
+package com.asakaa.synthesis.analytics;
+
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.FactGroupResponse;
+import com.asakaa.synthesis.domain.dto.response.FactQueryResponse;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarFactEngineTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+    private static final String[] CONDITIONS = {"Malaria", "Typhoid", "Cholera", "Pneumonia", "Measles"};
+    private static final String[] REGIONS = {"Northern", "Ashanti", "Volta", null};
+    private static final Long[] CLINICS = {1L, 2L, 3L, null};
+
+    private final List<Fact> facts = new ArrayList<>();
+    private ColumnarFactEngine engine;
+
+    private record Fact(String condition, String region, Long clinicId, LocalDate day, ConsultationStatus status) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        engine = new ColumnarFactEngine(null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "parallelism", 4);
+        engine.init();
+
+        // Enough rows that the scan forks into several leaves, each crossing batch boundaries
+        Random random = new Random(7);
+        FactSnapshot.Builder builder = new FactSnapshot.Builder(16);
+        ConsultationStatus[] statuses = ConsultationStatus.values();
+        for (int i = 0; i < 100_000; i++) {
+            Fact fact = new Fact(CONDITIONS[random.nextInt(CONDITIONS.length)], REGIONS[random.nextInt(REGIONS.length)],
+                    CLINICS[random.nextInt(CLINICS.length)], START.plusDays(random.nextInt(90)),
+                    statuses[random.nextInt(statuses.length)]);
+            facts.add(fact);
+            builder.add(fact.condition(), fact.region(), fact.clinicId(), fact.day(), fact.status());
+        }
+        engine.install(builder.build());
+    }
+
+    @Test
+    void query_GroupByConditionAndRegion_MatchesNaiveCount() {
+        // Arrange
+        FactQuery query = FactQuery.builder()
+                .groupBy(List.of(FactDimension.CONDITION, FactDimension.REGION))
+                .build();
+
+        // Act
+        FactQueryResponse response = engine.query(query);
+
+        // Assert
+        assertEquals(ColumnarFactEngine.SOURCE, response.getSource());
+        assertEquals(naive(query), asMap(response.getGroups()));
+        assertEquals(facts.size(), response.getGroups().stream().mapToLong(FactGroupResponse::getCount).sum());
+        assertTrue(response.getGroups().stream().anyMatch(group -> "Unknown".equals(group.getRegion())));
+    }
+
+    @Test
+    void query_AllFiltersGroupedByDayAndStatus_MatchesNaiveCount() {
+        FactQuery query = FactQuery.builder()
+                .from(START.plusDays(10))
+                .to(START.plusDays(40))
+                .condition("malaria")
+                .region("NORTHERN")
+                .clinicId(2L)
+                .status(ConsultationStatus.ESCALATED)
+                .groupBy(List.of(FactDimension.DAY, FactDimension.STATUS, FactDimension.CLINIC))
+                .build();
+
+        List<FactGroupResponse> groups = engine.query(query).getGroups();
+
+        assertFalse(groups.isEmpty());
+        assertEquals(naive(query), asMap(groups));
+        assertTrue(groups.stream().allMatch(group -> !group.getDay().isBefore(START.plusDays(10))
+                && !group.getDay().isAfter(START.plusDays(40))));
+    }
+
+    @Test
+    void query_NoGroupBy_ReturnsSingleTotal() {
+        FactQuery query = FactQuery.builder().status(ConsultationStatus.CLOSED).build();
+
+        List<FactGroupResponse> groups = engine.query(query).getGroups();
+
+        assertEquals(1, groups.size());
+        assertEquals(naive(query).values().iterator().next(), groups.get(0).getCount());
+    }
+
+    @Test
+    void query_UnknownRegionOrEmptyDateRange_ReturnsNoGroups() {
+        assertTrue(engine.query(FactQuery.builder().region("Atlantis").build()).getGroups().isEmpty());
+        assertTrue(engine.query(FactQuery.builder().from(START.plusYears(1)).build()).getGroups().isEmpty());
+    }
+
+    @Test
+    void query_TooManyGroups_ThrowsValidationException() {
+        // Arrange: a snapshot with enough distinct conditions and clinics to overflow the group limit
+        FactSnapshot.Builder builder = new FactSnapshot.Builder(16);
+        for (int i = 0; i < 1000; i++) {
+            builder.add("Condition " + i, "Region", (long) i, START, ConsultationStatus.OPEN);
+        }
+        engine.install(builder.build());
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> engine.query(FactQuery.builder()
+                .groupBy(List.of(FactDimension.CONDITION, FactDimension.CLINIC))
+                .build()));
+    }
+
+    @Test
+    void isReady_BeforeFirstSnapshot_IsFalse() {
+        ColumnarFactEngine fresh = new ColumnarFactEngine(null, null, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(fresh, "enabled", true);
+
+        assertFalse(fresh.isReady());
+        assertTrue(engine.isReady());
+    }
+
+    private Map<List<Object>, Long> naive(FactQuery query) {
+        Map<List<Object>, Long> counts = new HashMap<>();
+        for (Fact fact : facts) {
+            if ((query.getFrom() != null && fact.day().isBefore(query.getFrom()))
+                    || (query.getTo() != null && fact.day().isAfter(query.getTo()))
+                    || (query.getCondition() != null && !fact.condition().equalsIgnoreCase(query.getCondition()))
+                    || (query.getRegion() != null && !query.getRegion().equalsIgnoreCase(fact.region()))
+                    || (query.getClinicId() != null && !query.getClinicId().equals(fact.clinicId()))
+                    || (query.getStatus() != null && query.getStatus() != fact.status())) {
+                continue;
+            }
+            // Same key order as asMap, which reads the response fields in declaration order
+            List<Object> key = new ArrayList<>();
+            for (FactDimension dimension : FactDimension.values()) {
+                if (!query.getGroupBy().contains(dimension)) {
+                    continue;
+                }
+                Object value = switch (dimension) {
+                    case CONDITION -> fact.condition();
+                    case REGION -> Objects.requireNonNullElse(fact.region(), "Unknown");
+                    case CLINIC -> fact.clinicId();
+                    case DAY -> fact.day();
+                    case STATUS -> fact.status();
+                };
+                if (value != null) {
+                    key.add(value);
+                }
+            }
+            counts.merge(key, 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private static Map<List<Object>, Long> asMap(List<FactGroupResponse> groups) {
+        Map<List<Object>, Long> counts = new HashMap<>();
+        for (FactGroupResponse group : groups) {
+            List<Object> key = new ArrayList<>();
+            for (Object value : new Object[]{group.getCondition(), group.getRegion(), group.getClinicId(),
+                    group.getDay(), group.getStatus()}) {
+                if (value != null) {
+                    key.add(value);
+                }
+            }
+            counts.put(key, group.getCount());
+        }
+        return counts;
+    }
+}
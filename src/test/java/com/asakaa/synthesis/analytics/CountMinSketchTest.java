@@ -0,0 +1,66 @@
+package com.asakaa.synthesis.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimate_SkewedStream_NeverUndercountsAndStaysWithinBound() {
+        // Arrange
+        CountMinSketch sketch = new CountMinSketch(1024, 5);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            // Squaring skews the stream towards small item ids, like condition frequencies
+            long item = (long) Math.pow(random.nextDouble(), 2) * 5_000;
+            sketch.add(SketchHashing.hash(item), 1);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        // Act
+        long bound = (long) Math.ceil(sketch.epsilon() * sketch.total());
+        long overBound = exact.entrySet().stream()
+                .filter(entry -> sketch.estimate(SketchHashing.hash(entry.getKey())) - entry.getValue() > bound)
+                .count();
+
+        // Assert
+        assertEquals(200_000, sketch.total());
+        exact.forEach((item, count) -> assertTrue(sketch.estimate(SketchHashing.hash(item)) >= count));
+        assertTrue(overBound <= Math.ceil(sketch.delta() * exact.size()) * 2,
+                overBound + " of " + exact.size() + " items over the bound");
+    }
+
+    @Test
+    void merge_TwoHalves_EqualsSketchOfWholeStream() {
+        // Arrange
+        CountMinSketch whole = new CountMinSketch(256, 4);
+        CountMinSketch left = new CountMinSketch(256, 4);
+        CountMinSketch right = new CountMinSketch(256, 4);
+        for (long item = 0; item < 1_000; item++) {
+            whole.add(SketchHashing.hash(item % 97), 1);
+            (item % 2 == 0 ? left : right).add(SketchHashing.hash(item % 97), 1);
+        }
+
+        // Act
+        left.merge(right);
+
+        // Assert
+        assertEquals(whole.total(), left.total());
+        for (long item = 0; item < 97; item++) {
+            assertEquals(whole.estimate(SketchHashing.hash(item)), left.estimate(SketchHashing.hash(item)));
+        }
+    }
+
+    @Test
+    void merge_DifferentShape_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new CountMinSketch(256, 4).merge(new CountMinSketch(512, 4)));
+    }
+}
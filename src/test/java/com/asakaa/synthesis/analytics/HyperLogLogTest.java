@@ -0,0 +1,62 @@
+package com.asakaa.synthesis.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_LargeCardinality_WithinThreeStandardErrors() {
+        // Arrange
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long patientId = 1; patientId <= 100_000; patientId++) {
+            sketch.add(SketchHashing.hash(patientId));
+            // Repeat visits do not change the estimate
+            sketch.add(SketchHashing.hash(patientId));
+        }
+
+        // Act
+        double error = Math.abs(sketch.estimate() - 100_000) / 100_000.0;
+
+        // Assert
+        assertTrue(error < 3 * sketch.relativeStandardError(), "relative error " + error);
+    }
+
+    @Test
+    void estimate_SmallCardinality_IsNearExact() {
+        // Arrange
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (long patientId = 1; patientId <= 50; patientId++) {
+            sketch.add(SketchHashing.hash(patientId));
+        }
+
+        // Act & Assert
+        assertEquals(50, sketch.estimate(), 1);
+    }
+
+    @Test
+    void merge_OverlappingSets_CountsUnionOnce() {
+        // Arrange
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (long patientId = 0; patientId < 30_000; patientId++) {
+            left.add(SketchHashing.hash(patientId));
+            right.add(SketchHashing.hash(patientId + 10_000));
+        }
+
+        // Act
+        left.merge(right);
+
+        // Assert
+        double error = Math.abs(left.estimate() - 40_000) / 40_000.0;
+        assertTrue(error < 3 * left.relativeStandardError(), "relative error " + error);
+    }
+
+    @Test
+    void constructor_PrecisionOutOfRange_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+    }
+}
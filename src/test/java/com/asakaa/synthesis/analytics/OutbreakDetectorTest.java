@@ -0,0 +1,190 @@
+package com.asakaa.synthesis.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutbreakDetectorTest {
+
+    private static final LocalDate START = LocalDate.now().minusDays(40);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private OutbreakDetectionProperties properties;
+    private OutbreakDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutbreakDetectionProperties();
+        detector = new OutbreakDetector(properties, jdbcTemplate, transactionManager, eventPublisher,
+                new SimpleMeterRegistry());
+        detector.init();
+        detector.restoreWhenReady();
+    }
+
+    @Test
+    void restoreWhenReady_RunsAfterRollupBackfillNotAtConstruction() throws Exception {
+        // Arrange
+        JdbcTemplate freshJdbc = mock(JdbcTemplate.class);
+        OutbreakDetector fresh = new OutbreakDetector(properties, freshJdbc, transactionManager,
+                eventPublisher, new SimpleMeterRegistry());
+
+        // Act
+        fresh.init();
+        fresh.onDiagnosisRecorded(new DiagnosisRecordedEvent("Malaria", "Northern", LocalDate.now(), 1L));
+        fresh.checkpoint();
+
+        // Assert: nothing is read, or checkpointed over the saved state, before the application is ready
+        verifyNoInteractions(freshJdbc);
+        int backfill = DiagnosisRollupMaintainer.class.getMethod("backfillIfEmpty").getAnnotation(Order.class).value();
+        int restore = OutbreakDetector.class.getMethod("restoreWhenReady").getAnnotation(Order.class).value();
+        assertTrue(restore > backfill);
+    }
+
+    @Test
+    void onDiagnosisRecorded_SpikeAboveBaseline_AlertsOncePerType() {
+        // Arrange: twenty days of two cholera cases a day in the Northern region
+        recordDays("Cholera", "Northern", 0, 20, 2);
+
+        // Act
+        recordDays("Cholera", "Northern", 20, 21, 12);
+
+        // Assert
+        ArgumentCaptor<OutbreakAlert> alerts = ArgumentCaptor.forClass(OutbreakAlert.class);
+        verify(eventPublisher, times(2)).publishEvent(alerts.capture());
+        OutbreakAlert spike = alerts.getAllValues().get(0);
+        assertEquals(OutbreakAlert.Type.EWMA_SPIKE, spike.type());
+        assertEquals(7, spike.observed());
+        assertEquals(2.0, spike.expected(), 1e-9);
+        assertEquals(START.plusDays(20), spike.day());
+        assertEquals(OutbreakAlert.Type.CUSUM_SHIFT, alerts.getAllValues().get(1).type());
+    }
+
+    @Test
+    void onDiagnosisRecorded_SustainedModerateRise_AlertsByCusumOnly() {
+        // Arrange
+        recordDays("Cholera", "Northern", 0, 20, 2);
+
+        // Act: five cases a day never spike far enough on their own
+        recordDays("Cholera", "Northern", 20, 26, 5);
+
+        // Assert
+        ArgumentCaptor<OutbreakAlert> alert = ArgumentCaptor.forClass(OutbreakAlert.class);
+        verify(eventPublisher, times(1)).publishEvent(alert.capture());
+        assertEquals(OutbreakAlert.Type.CUSUM_SHIFT, alert.getValue().type());
+        assertEquals(START.plusDays(23), alert.getValue().day());
+    }
+
+    @Test
+    void onDiagnosisRecorded_StableCounts_DoNotAlert() {
+        // Act
+        recordDays("Malaria", null, 0, 30, 3);
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertEquals(3, detector.series("Malaria", null).count);
+    }
+
+    @Test
+    void onDiagnosisRecorded_ShortHistory_DoesNotAlert() {
+        // Arrange
+        recordDays("Typhoid", "Volta", 0, 3, 1);
+
+        // Act
+        recordDays("Typhoid", "Volta", 3, 4, 30);
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void onDiagnosisRecorded_EmptyDays_FoldIntoBaseline() {
+        // Arrange
+        recordDays("Measles", "Ashanti", 0, 1, 4);
+
+        // Act: the next case comes ten days later
+        recordDays("Measles", "Ashanti", 10, 11, 1);
+
+        // Assert
+        OutbreakSeries series = detector.series("Measles", "Ashanti");
+        assertEquals(10, series.observedDays);
+        assertTrue(series.mean < 4 * Math.pow(1 - properties.getAlpha(), 8));
+    }
+
+    @Test
+    void onDiagnosisRecorded_TrackedSeriesLimitReached_IgnoresNewSeries() {
+        // Arrange
+        properties.setMaxTrackedSeries(1);
+        recordDays("Malaria", "Northern", 0, 1, 1);
+
+        // Act
+        recordDays("Typhoid", "Northern", 0, 1, 1);
+
+        // Assert
+        assertNull(detector.series("Typhoid", "Northern"));
+    }
+
+    @Test
+    void checkpoint_WritesEverySeriesAdvancedToToday() {
+        // Arrange
+        recordDays("Malaria", "Northern", 0, 1, 2);
+        recordDays("Typhoid", null, 0, 1, 1);
+
+        // Act
+        detector.checkpoint();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), any(int[].class));
+        assertEquals(2, rows.getValue().size());
+        assertEquals(LocalDate.now().toEpochDay(), detector.series("Malaria", "Northern").day);
+        assertEquals(0, detector.series("Malaria", "Northern").count);
+    }
+
+    @Test
+    void onDiagnosisRecorded_Disabled_IsIgnored() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        recordDays("Malaria", "Northern", 0, 1, 1);
+
+        // Assert
+        assertNull(detector.series("Malaria", "Northern"));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+    }
+
+    private void recordDays(String condition, String region, int fromDay, int toDay, int casesPerDay) {
+        for (int day = fromDay; day < toDay; day++) {
+            for (int i = 0; i < casesPerDay; i++) {
+                detector.onDiagnosisRecorded(new DiagnosisRecordedEvent(condition, region, START.plusDays(day), 1L));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.asakaa.synthesis.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopConditionsSketchTest {
+
+    @Test
+    void top_HeavyHittersAmongManyRareConditions_AreRankedFirst() {
+        // Arrange
+        TopConditionsSketch sketch = new TopConditionsSketch(1024, 5, 16);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("Rare " + i, 1);
+        }
+        sketch.add("Malaria", 300);
+        sketch.add("Typhoid", 200);
+        sketch.add("Cholera", 100);
+
+        // Act
+        List<Map.Entry<String, Long>> top = sketch.top(3);
+
+        // Assert
+        assertEquals(List.of("Malaria", "Typhoid", "Cholera"), top.stream().map(Map.Entry::getKey).toList());
+        assertTrue(top.get(0).getValue() >= 300);
+    }
+
+    @Test
+    void merge_BucketsWithDifferentLeaders_RanksByCombinedCount() {
+        // Arrange
+        TopConditionsSketch monday = new TopConditionsSketch(1024, 5, 16);
+        TopConditionsSketch tuesday = new TopConditionsSketch(1024, 5, 16);
+        monday.add("Malaria", 40);
+        monday.add("Typhoid", 30);
+        tuesday.add("Typhoid", 30);
+        tuesday.add("Cholera", 50);
+
+        // Act
+        monday.merge(tuesday);
+
+        // Assert
+        List<Map.Entry<String, Long>> top = monday.top(3);
+        assertEquals("Typhoid", top.get(0).getKey());
+        assertEquals(60L, top.get(0).getValue());
+        assertEquals(150, monday.counts().total());
+    }
+
+    @Test
+    void encodeDecode_RoundTrip_PreservesEstimatesAndStaysCompact() {
+        // Arrange
+        TopConditionsSketch sketch = new TopConditionsSketch(1024, 5, 64);
+        sketch.add("Malaria", 12);
+        sketch.add("Typhoid", 5);
+
+        // Act
+        byte[] blob = DiagnosisSketchStore.encode(sketch::write);
+        TopConditionsSketch decoded = DiagnosisSketchStore.decode(blob, TopConditionsSketch::read);
+
+        // Assert
+        assertEquals(sketch.top(2), decoded.top(2));
+        assertEquals(17, decoded.counts().total());
+        // 5120 counters, almost all zero, deflate to a small fraction of their 40 KiB in memory
+        assertTrue(blob.length < 512, "blob of " + blob.length + " bytes");
+    }
+}
@@ -0,0 +1,121 @@
+package com.asakaa.synthesis.audio;
+
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioPreprocessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AudioPreprocessor preprocessor;
+
+    @BeforeEach
+    void setUp() {
+        preprocessor = new AudioPreprocessor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(preprocessor, "enabled", true);
+        ReflectionTestUtils.setField(preprocessor, "targetSampleRate", 16000);
+        ReflectionTestUtils.setField(preprocessor, "frameMillis", 20);
+        ReflectionTestUtils.setField(preprocessor, "silenceThresholdDbfs", -45.0);
+        ReflectionTestUtils.setField(preprocessor, "keepSilenceMillis", 400);
+        ReflectionTestUtils.setField(preprocessor, "spoolDir", tempDir.toString());
+        preprocessor.init();
+    }
+
+    @Test
+    void preprocess_StereoDictationWithLongPause_DownmixesResamplesAndCompressesSilence() throws Exception {
+        // Arrange: 1 s speech-like tone, 3 s silence, 1 s tone at 44.1 kHz stereo
+        byte[] wav = stereoWav(44100, new double[]{1, 3, 1});
+        Path original = Files.write(tempDir.resolve("dictation.wav"), wav);
+
+        // Act
+        PreprocessedAudio result;
+        try (PreprocessedAudio prepared = preprocessor.preprocess(AudioPayload.of(original, "audio/wav", "dictation.wav"))) {
+            result = prepared;
+
+            // Assert
+            assertTrue(prepared.isDerived());
+            ByteBuffer header = ByteBuffer.wrap(readHeader(prepared.getAudio())).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(1, header.getShort(22));
+            assertEquals(16000, header.getInt(24));
+            assertEquals(16, header.getShort(34));
+
+            assertEquals(5.0, prepared.getOriginalSeconds(), 0.01);
+            assertEquals(2.4, prepared.getProcessedSeconds(), 0.05);
+            assertTrue(prepared.getBytesSaved() > wav.length * 0.85);
+        }
+        assertFalse(Files.exists(result.getDerivedPath()));
+    }
+
+    @Test
+    void preprocess_NonWavAudio_PassesThroughUnchanged() throws Exception {
+        // Arrange
+        Path mp3 = Files.write(tempDir.resolve("visit.mp3"), new byte[]{(byte) 0xFF, (byte) 0xFB, 0x10, 0x00});
+
+        // Act
+        PreprocessedAudio prepared = preprocessor.preprocess(AudioPayload.of(mp3, "audio/mpeg", "visit.mp3"));
+
+        // Assert
+        assertFalse(prepared.isDerived());
+        assertEquals(0, prepared.getBytesSaved());
+    }
+
+    @Test
+    void preprocess_CorruptWav_FallsBackToOriginal() throws Exception {
+        // Arrange
+        Path corrupt = Files.write(tempDir.resolve("broken.wav"), "RIFF....not a wave file".getBytes());
+
+        // Act
+        PreprocessedAudio prepared = preprocessor.preprocess(AudioPayload.of(corrupt, "audio/wav", "broken.wav"));
+
+        // Assert
+        assertFalse(prepared.isDerived());
+    }
+
+    private static byte[] readHeader(AudioPayload audio) throws IOException {
+        try (InputStream in = audio.getInputStream()) {
+            return in.readNBytes(44);
+        }
+    }
+
+    /**
+     * 16-bit stereo PCM alternating between a 440 Hz tone and digital silence.
+     */
+    private static byte[] stereoWav(int sampleRate, double[] segmentSeconds) {
+        int frames = 0;
+        for (double seconds : segmentSeconds) {
+            frames += (int) (seconds * sampleRate);
+        }
+        int dataBytes = frames * 4;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        wav.put("RIFF".getBytes()).putInt(36 + dataBytes).put("WAVE".getBytes())
+                .put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) 2)
+                .putInt(sampleRate).putInt(sampleRate * 4).putShort((short) 4).putShort((short) 16)
+                .put("data".getBytes()).putInt(dataBytes);
+
+        int frame = 0;
+        for (int segment = 0; segment < segmentSeconds.length; segment++) {
+            boolean tone = segment % 2 == 0;
+            int segmentFrames = (int) (segmentSeconds[segment] * sampleRate);
+            for (int i = 0; i < segmentFrames; i++, frame++) {
+                short sample = tone ? (short) (12000 * Math.sin(2 * Math.PI * 440 * frame / sampleRate)) : 0;
+                wav.putShort(sample).putShort(sample);
+            }
+        }
+        return wav.array();
+    }
+}
@@ -0,0 +1,308 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import com.asakaa.synthesis.domain.entity.Clinic;
+import com.asakaa.synthesis.domain.entity.Patient;
+import com.asakaa.synthesis.domain.entity.Provider;
+import com.asakaa.synthesis.repository.PatientRepository;
+import com.asakaa.synthesis.repository.ProviderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProviderRepository providerRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AuditJournal journal;
+
+    @Mock
+    private SuspiciousAccessDetector suspiciousAccessDetector;
+
+    private PatientDisplayCache patientDisplayCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditEventWriter writer;
+    private final List<Integer> writtenBatches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientDisplayCache = new PatientDisplayCache(meterRegistry);
+        ReflectionTestUtils.setField(patientDisplayCache, "maxEntries", 10);
+        patientDisplayCache.init();
+        writer = new AuditEventWriter(jdbcTemplate, providerRepository, patientRepository, patientDisplayCache,
+                suspiciousAccessDetector, journal, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "flushIntervalMillis", 50L);
+        ReflectionTestUtils.setField(writer, "enqueueTimeoutMillis", 10L);
+        ReflectionTestUtils.setField(writer, "maxAttempts", 2);
+        ReflectionTestUtils.setField(writer, "retryBackoffMillis", 1L);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMillis", 5000L);
+    }
+
+    @Test
+    void submit_ManyEvents_WritesThemInBatches() throws Exception {
+        // Arrange
+        recordBatches();
+        writer.init();
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            writer.submit(event());
+        }
+        writer.shutdown();
+
+        // Assert
+        assertEquals(25, writtenBatches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(writtenBatches.stream().allMatch(size -> size <= 10));
+        assertTrue(writtenBatches.size() < 25);
+        verifyNoInteractions(providerRepository, patientRepository);
+    }
+
+    @Test
+    void shutdown_FlushesEventsStillBuffered() throws Exception {
+        // Arrange
+        recordBatches();
+        ReflectionTestUtils.setField(writer, "flushIntervalMillis", 60_000L);
+        writer.init();
+
+        // Act
+        writer.submit(event());
+        writer.submit(event());
+        writer.shutdown();
+
+        // Assert
+        assertEquals(2, writtenBatches.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void submit_WhenBufferFull_SpillsToJournal() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(writer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(writer, "batchSize", 1);
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    if (Thread.currentThread().getName().equals("audit-writer") && writerBlocked.getCount() > 0) {
+                        writerBlocked.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                    }
+                    return new int[][]{{1}};
+                });
+        writer.init();
+
+        // Act
+        writer.submit(event());
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        writer.submit(event());
+        writer.submit(event());
+        release.countDown();
+        writer.shutdown();
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("synthesis.audit.spilled").counter().count());
+        verify(journal).append(argThat(events -> events.size() == 1));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void write_WhenDatabaseKeepsFailing_JournalsBatch() throws Exception {
+        // Arrange
+        writer.init();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+        List<AuditEvent> batch = List.of(event(), event());
+
+        // Act
+        writer.write(batch);
+
+        // Assert
+        verify(journal).append(batch);
+        assertEquals(0.0, meterRegistry.get("synthesis.audit.write.failures").counter().count());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void write_OneRejectedEvent_WritesTheRestRowByRow() throws Exception {
+        // Arrange
+        writer.init();
+        AuditEvent oversized = event();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    if (batch.contains(oversized)) {
+                        throw new DataIntegrityViolationException("value too long for type character varying(45)");
+                    }
+                    writtenBatches.add(batch.size());
+                    return new int[][]{{1}};
+                });
+
+        // Act
+        writer.write(List.of(event(), oversized, event(), event()));
+
+        // Assert
+        assertEquals(List.of(1, 1, 1), writtenBatches);
+        assertEquals(1.0, meterRegistry.get("synthesis.audit.rejected").counter().count());
+        verify(journal, never()).append(anyList());
+    }
+
+    @Test
+    void write_WhenJournalAlsoFails_CountsLostEvents() throws Exception {
+        // Arrange
+        writer.init();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+        doThrow(new IOException("disk full")).when(journal).append(anyList());
+
+        // Act
+        writer.write(List.of(event(), event()));
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get("synthesis.audit.write.failures").counter().count());
+    }
+
+    @Test
+    void replayJournal_InsertsSegmentsAndDeletesThem() throws Exception {
+        // Arrange
+        recordBatches();
+        writer.init();
+        Path segment = Path.of("audit-00000000000000000000.journal");
+        when(journal.sealSegments()).thenReturn(List.of(segment));
+        when(journal.read(eq(segment), eq(10), any())).thenAnswer(invocation -> {
+            Consumer<List<AuditEvent>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(event(), event(), event()));
+            return 3L;
+        });
+
+        // Act
+        writer.replayJournal();
+        writer.shutdown();
+
+        // Assert
+        assertEquals(List.of(3), writtenBatches);
+        verify(journal).delete(segment);
+    }
+
+    @Test
+    void replayJournal_PoisonRecordMidSegment_DeadLettersItAndReplaysTheRest() throws Exception {
+        // Arrange
+        writer.init();
+        AuditEvent poison = event();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    Collection<?> batch = invocation.getArgument(1);
+                    if (batch.contains(poison)) {
+                        throw new DataIntegrityViolationException("value too long for type character varying(500)");
+                    }
+                    writtenBatches.add(batch.size());
+                    return new int[][]{{1}};
+                });
+        Path first = Path.of("audit-00000000000000000000.journal");
+        Path second = Path.of("audit-00000000000000000001.journal");
+        when(journal.sealSegments()).thenReturn(List.of(first, second));
+        when(journal.read(eq(first), eq(10), any())).thenAnswer(invocation -> {
+            Consumer<List<AuditEvent>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(event(), poison, event()));
+            return 3L;
+        });
+        when(journal.read(eq(second), eq(10), any())).thenAnswer(invocation -> {
+            Consumer<List<AuditEvent>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(event(), event()));
+            return 2L;
+        });
+
+        // Act
+        writer.replayJournal();
+        writer.shutdown();
+
+        // Assert
+        assertEquals(List.of(1, 1, 2), writtenBatches);
+        verify(jdbcTemplate).update(contains("audit_logs_dead_letter"), any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("synthesis.audit.rejected").counter().count());
+        verify(journal).delete(first);
+        verify(journal).delete(second);
+    }
+
+    @Test
+    void write_EventsMissingIdentity_ResolvedOncePerBatchAndCached() {
+        // Arrange
+        recordBatches();
+        writer.init();
+        when(providerRepository.findByEmailIn(Set.of("amina@clinic.org"))).thenReturn(List.of(
+                Provider.builder().id(1L).name("Dr. Amina").email("amina@clinic.org").role("DOCTOR").build()));
+        Clinic otherClinic = new Clinic();
+        otherClinic.setId(2L);
+        when(patientRepository.findAllById(Set.of(9L))).thenReturn(List.of(Patient.builder().id(9L)
+                .firstName("Kofi").lastName("Mensah").nationalId("GH-123").clinic(otherClinic).build()));
+        AuditEvent anonymous = new AuditEvent(UUID.randomUUID(), AuditAction.UPDATE_PATIENT,
+                null, null, "amina@clinic.org", null, null,
+                9L, null, null, null, null, null, null, false, "Duplicate national ID", null, null, null,
+                LocalDateTime.now(), System.nanoTime());
+
+        // Act
+        writer.write(List.of(anonymous, anonymous, event()));
+
+        // Assert
+        verify(providerRepository, times(1)).findByEmailIn(any());
+        verify(patientRepository, times(1)).findAllById(any());
+        assertEquals("Kofi Mensah", patientDisplayCache.get(9L).orElseThrow().name());
+        verify(suspiciousAccessDetector, times(2)).observePatientClinic(anonymous, 2L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatches() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    writtenBatches.add(((Collection<AuditEvent>) invocation.getArgument(1)).size());
+                    return new int[][]{{1}};
+                });
+    }
+
+    private static AuditEvent event() {
+        return new AuditEvent(UUID.randomUUID(), AuditAction.VIEW_PATIENT_PROFILE,
+                1L, "Dr. Amina", "amina@clinic.org", "DOCTOR", 3L,
+                null, null, null, null, "Patient", 5L, "Viewed patient", true, null, "10.0.0.1", "test", null,
+                LocalDateTime.now(), System.nanoTime());
+    }
+}
@@ -0,0 +1,75 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append throughput of {@link AuditJournal} in events per second, for single-event spills
+ * and writer-sized batches, with and without forcing each append to disk, plus replay
+ * (read and decode) throughput. Pass {@code -Daudit.journal.benchmark.events} to change
+ * the event count and {@code -Djava.io.tmpdir} to measure a particular disk.
+ * Run with {@code ./mvnw test -Dtest=AuditJournalBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AuditJournalBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("audit.journal.benchmark.events", 1_000_000);
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendThroughput() throws Exception {
+        List<AuditEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new AuditEvent(UUID.randomUUID(), AuditAction.VIEW_PATIENT_PROFILE,
+                    1L, "Dr. Bench", "bench@clinic.org", "DOCTOR", 3L,
+                    (long) i % 5000, "Bench Patient", "GH-" + i, 3L, "Patient", (long) i % 5000,
+                    "Viewed patient profile: Bench Patient", true, null, "10.0.0.1",
+                    "Mozilla/5.0 (benchmark)", null, LocalDateTime.now(), System.nanoTime()));
+        }
+
+        System.out.printf("%-28s %14s%n", "mode", "events/s");
+        run("batch 200, no force", events, 200, false);
+        run("batch 200, force", events, 200, true);
+        run("single, no force", events, 1, false);
+        // Forcing every single event is bounded by the disk's flush latency; sample fewer
+        run("single, force", events.subList(0, Math.min(EVENTS, 20_000)), 1, true);
+    }
+
+    private void run(String mode, List<AuditEvent> events, int batchSize, boolean force) throws Exception {
+        Path dir = directory.resolve(mode.replaceAll("[^a-z0-9]", ""));
+        AuditJournal journal = new AuditJournal(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "directory", dir);
+        ReflectionTestUtils.setField(journal, "segmentBytes", SEGMENT_BYTES);
+        ReflectionTestUtils.setField(journal, "forceWrites", force);
+        journal.init();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < events.size(); i += batchSize) {
+            journal.append(events.subList(i, Math.min(events.size(), i + batchSize)));
+        }
+        double appendSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %,14.0f%n", mode, events.size() / appendSeconds);
+
+        start = System.nanoTime();
+        long read = 0;
+        for (Path segment : journal.sealSegments()) {
+            read += journal.read(segment, 200, batch -> { });
+            journal.delete(segment);
+        }
+        double readSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %,14.0f%n", "  replay read", read / readSeconds);
+    }
+}
@@ -0,0 +1,176 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journal = newJournal(4096);
+    }
+
+    @Test
+    void append_ThenRead_RoundTripsEveryField() throws Exception {
+        // Arrange
+        AuditEvent event = new AuditEvent(UUID.randomUUID(), AuditAction.UPDATE_PATIENT,
+                7L, "Dr. Amina", "amina@clinic.org", "DOCTOR", 3L,
+                9L, "Kofi Mensah", "GH-123", null, "Patient", 9L, "Changed allergies: é", false, "Conflict",
+                "10.0.0.1", null, "s-1", LocalDateTime.of(2026, 10, 19, 23, 59, 59, 123456789), 0L);
+        journal.append(List.of(event));
+
+        // Act
+        List<AuditEvent> read = readAll();
+
+        // Assert
+        assertEquals(1, read.size());
+        AuditEvent copy = read.get(0);
+        assertEquals(event.eventId(), copy.eventId());
+        assertEquals(AuditAction.UPDATE_PATIENT, copy.action());
+        assertEquals(3L, copy.providerClinicId());
+        assertNull(copy.patientClinicId());
+        assertEquals("Changed allergies: é", copy.details());
+        assertFalse(copy.success());
+        assertNull(copy.userAgent());
+        assertEquals(event.timestamp(), copy.timestamp());
+    }
+
+    @Test
+    void append_BeyondSegmentSize_RollsToNewSegments() throws Exception {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            journal.append(List.of(event(i)));
+        }
+
+        // Assert
+        assertTrue(journal.sealSegments().size() > 1);
+        List<AuditEvent> read = readAll();
+        assertEquals(100, read.size());
+        assertEquals("event 99", read.get(99).details());
+    }
+
+    @Test
+    void read_TornRecord_KeepsEverythingBeforeIt() throws Exception {
+        // Arrange
+        journal.append(List.of(event(1), event(2), event(3)));
+        Path segment = journal.sealSegments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Skip two records by their length prefixes, then flip a byte inside the third payload
+            long third = 0;
+            for (int i = 0; i < 2; i++) {
+                file.seek(third);
+                third += 8 + file.readInt();
+            }
+            file.seek(third + 8 + 20);
+            int b = file.read();
+            file.seek(third + 8 + 20);
+            file.write(b ^ 0xFF);
+        }
+
+        // Act
+        List<AuditEvent> read = readAll();
+
+        // Assert
+        assertEquals(List.of("event 1", "event 2"), read.stream().map(AuditEvent::details).toList());
+    }
+
+    @Test
+    void read_IntactButUndecodableRecord_QuarantinesItAndReadsTheRest() throws Exception {
+        // Arrange: rename the second record's action to one this version does not know, keeping the CRC valid
+        journal.append(List.of(event(1), event(2), event(3)));
+        Path segment = journal.sealSegments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(0);
+            long second = 8 + file.readInt();
+            file.seek(second);
+            byte[] payload = new byte[file.readInt()];
+            file.seek(second + 8);
+            file.readFully(payload);
+            // The action name follows the 16-byte event id and its 4-byte length
+            payload[20] = 'X';
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            file.seek(second + 4);
+            file.writeInt((int) crc.getValue());
+            file.seek(second + 8);
+            file.write(payload);
+        }
+
+        // Act
+        List<AuditEvent> read = readAll();
+
+        // Assert
+        assertEquals(List.of("event 1", "event 3"), read.stream().map(AuditEvent::details).toList());
+        try (Stream<Path> quarantined = Files.list(directory.resolve("quarantine"))) {
+            assertEquals(List.of(segment.getFileName() + ".2.record"),
+                    quarantined.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void init_AfterRestart_FindsUnreplayedSegments() throws Exception {
+        // Arrange
+        journal.append(List.of(event(1)));
+        journal.shutdown();
+
+        // Act
+        AuditJournal restarted = newJournal(4096);
+        restarted.append(List.of(event(2)));
+        List<Path> segments = restarted.sealSegments();
+
+        // Assert
+        assertEquals(2, segments.size());
+        List<AuditEvent> read = new ArrayList<>();
+        for (Path segment : segments) {
+            restarted.read(segment, 10, read::addAll);
+            restarted.delete(segment);
+        }
+        assertEquals(List.of("event 1", "event 2"), read.stream().map(AuditEvent::details).toList());
+        assertTrue(restarted.sealSegments().isEmpty());
+    }
+
+    private AuditJournal newJournal(int segmentBytes) throws Exception {
+        AuditJournal created = new AuditJournal(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(created, "directory", directory);
+        ReflectionTestUtils.setField(created, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(created, "forceWrites", false);
+        created.init();
+        return created;
+    }
+
+    private List<AuditEvent> readAll() throws Exception {
+        List<AuditEvent> read = new ArrayList<>();
+        for (Path segment : journal.sealSegments()) {
+            journal.read(segment, 10, read::addAll);
+        }
+        return read;
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(UUID.randomUUID(), AuditAction.VIEW_PATIENT_PROFILE,
+                1L, "Dr. Amina", "amina@clinic.org", "DOCTOR", 3L,
+                null, null, null, null, "Patient", 5L, "event " + i, true, null, "10.0.0.1", "test", null,
+                LocalDateTime.now(), System.nanoTime());
+    }
+}
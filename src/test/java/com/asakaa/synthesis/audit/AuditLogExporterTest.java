@@ -0,0 +1,39 @@
+package com.asakaa.synthesis.audit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogExporterTest {
+
+    @Test
+    void csvField_PlainValue_IsUnquoted() {
+        assertEquals("VIEW_PATIENT_PROFILE", AuditLogExporter.csvField("VIEW_PATIENT_PROFILE"));
+        assertEquals("", AuditLogExporter.csvField(null));
+    }
+
+    @Test
+    void csvField_DelimitersAndQuotes_AreQuotedAndEscaped() {
+        assertEquals("\"Filters: a=1, b=2\"", AuditLogExporter.csvField("Filters: a=1, b=2"));
+        assertEquals("\"Mozilla \"\"test\"\"\"", AuditLogExporter.csvField("Mozilla \"test\""));
+        assertEquals("\"line one\nline two\"", AuditLogExporter.csvField("line one\nline two"));
+    }
+
+    @Test
+    void csvField_FormulaLikeValues_PrefixedWithQuote() {
+        assertEquals("'=1+1", AuditLogExporter.csvField("=1+1"));
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\"", AuditLogExporter.csvField("=HYPERLINK(\"http://x\")"));
+        assertEquals("'+1+2", AuditLogExporter.csvField("+1+2"));
+        assertEquals("'-2+3", AuditLogExporter.csvField("-2+3"));
+        assertEquals("'@SUM(A1)", AuditLogExporter.csvField("@SUM(A1)"));
+        assertEquals("'\tcmd", AuditLogExporter.csvField("\tcmd"));
+        assertEquals("\"'\rcmd\"", AuditLogExporter.csvField("\rcmd"));
+        assertEquals("a=b", AuditLogExporter.csvField("a=b"));
+    }
+
+    @Test
+    void fieldName_SnakeCaseColumn_MatchesApiFieldName() {
+        assertEquals("patientNationalId", AuditLogExporter.fieldName("patient_national_id"));
+        assertEquals("timestamp", AuditLogExporter.fieldName("timestamp"));
+    }
+}
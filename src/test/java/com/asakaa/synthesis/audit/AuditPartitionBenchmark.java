@@ -0,0 +1,225 @@
+package com.asakaa.synthesis.audit;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Insert throughput and date-range query latency of the partitioned {@code audit_logs}
+ * (V16) against the previous unpartitioned layout (V15), each loaded with the same
+ * rows spread over two years. Defaults to 100M rows; pass {@code -Daudit.benchmark.rows}
+ * for a quicker run.
+ * Run with {@code ./mvnw test -Dtest=AuditPartitionBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AuditPartitionBenchmark {
+
+    private static final long ROWS = Long.getLong("audit.benchmark.rows", 100_000_000L);
+    private static final long LOAD_CHUNK = 10_000_000L;
+    private static final int HISTORY_MONTHS = 24;
+    private static final int STEADY_STATE_ROWS = 100_000;
+    private static final int BATCH_SIZE = 200;
+    private static final int QUERY_RUNS = 21;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_logs (provider_id, provider_name, provider_email, provider_role, action,
+                                    patient_id, resource_type, resource_id, details, ip_address, timestamp, success)
+            VALUES (?, 'Bench Provider', 'bench@clinic.org', 'DOCTOR', 'VIEW_PATIENT_PROFILE',
+                    ?, 'Patient', ?, 'benchmark row', '10.0.0.1', ?, true)
+            """;
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    static void startDatabase() {
+        postgres = new PostgreSQLContainer<>("postgres:16")
+                .withDatabaseName("synthesis_bench")
+                .withUsername("bench")
+                .withPassword("bench")
+                .withCommand("postgres", "-c", "shared_buffers=1GB", "-c", "max_wal_size=16GB",
+                        "-c", "synchronous_commit=off");
+        postgres.start();
+
+        migrate("unpartitioned", "15");
+        migrate("partitioned", "16");
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        postgres.stop();
+    }
+
+    @Test
+    void partitionedVersusUnpartitioned() throws Exception {
+        System.out.printf("audit_logs benchmark with %,d rows over %d months%n", ROWS, HISTORY_MONTHS);
+        System.out.printf("%-14s %10s %12s %14s %14s %14s %11s%n", "layout", "load s", "insert row/s",
+                "provider ms", "month count ms", "patient ms", "partitions");
+
+        for (String schema : List.of("unpartitioned", "partitioned")) {
+            try (Connection connection = connect(schema)) {
+                double loadSeconds = load(connection, schema.equals("partitioned"));
+                double insertRate = steadyStateInserts(connection);
+
+                LocalDateTime monthStart = YearMonth.now().minusMonths(6).atDay(1).atStartOfDay();
+                LocalDateTime monthEnd = monthStart.plusMonths(1);
+
+                double providerMillis = medianMillis(connection, """
+                        SELECT * FROM audit_logs
+                        WHERE provider_id = 42 AND timestamp >= ? AND timestamp < ?
+                        ORDER BY timestamp DESC LIMIT 50
+                        """, monthStart, monthEnd);
+                double countMillis = medianMillis(connection,
+                        "SELECT COUNT(*) FROM audit_logs WHERE timestamp >= ? AND timestamp < ?", monthStart, monthEnd);
+                double patientMillis = medianMillis(connection, """
+                        SELECT * FROM audit_logs
+                        WHERE patient_id = 4242 AND timestamp >= ? AND timestamp < ?
+                        ORDER BY timestamp DESC LIMIT 10
+                        """, monthStart, monthEnd);
+                long scanned = partitionsScanned(connection, monthStart, monthEnd);
+
+                System.out.printf("%-14s %10.1f %12.0f %14.2f %14.2f %14.2f %11s%n", schema, loadSeconds, insertRate,
+                        providerMillis, countMillis, patientMillis, scanned < 0 ? "-" : String.valueOf(scanned));
+            }
+        }
+    }
+
+    private static void migrate(String schema, String target) {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas(schema)
+                .target(target)
+                .load()
+                .migrate();
+
+        try (Connection connection = connect(schema); Statement statement = connection.createStatement()) {
+            // Both layouts carry the same foreign keys; the synthetic rows reference no real providers or patients
+            statement.execute("ALTER TABLE audit_logs DROP CONSTRAINT fk_audit_provider");
+            statement.execute("ALTER TABLE audit_logs DROP CONSTRAINT fk_audit_patient");
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to prepare schema " + schema, e);
+        }
+    }
+
+    private static Connection connect(String schema) throws Exception {
+        Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + schema);
+        }
+        return connection;
+    }
+
+    private static double load(Connection connection, boolean partitioned) throws Exception {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            if (partitioned) {
+                YearMonth first = YearMonth.now().minusMonths(HISTORY_MONTHS);
+                for (int i = 0; i <= HISTORY_MONTHS; i++) {
+                    statement.execute("SELECT audit_logs_create_partition('" + first.plusMonths(i).atDay(1) + "')");
+                }
+            }
+
+            // Rows arrive in time order, as they do in production
+            for (long from = 1; from <= ROWS; from += LOAD_CHUNK) {
+                long to = Math.min(ROWS, from + LOAD_CHUNK - 1);
+                statement.execute(String.format("""
+                        INSERT INTO audit_logs (provider_id, provider_name, provider_email, provider_role, action,
+                                                patient_id, resource_type, resource_id, details, ip_address,
+                                                timestamp, success)
+                        SELECT 1 + g %% 500, 'Provider ' || g %% 500, 'p' || g %% 500 || '@clinic.org', 'DOCTOR',
+                               (ARRAY['VIEW_PATIENT_PROFILE', 'UPDATE_PATIENT', 'VIEW_CONSULTATION',
+                                      'RUN_DIAGNOSTIC_ANALYSIS'])[1 + g %% 4],
+                               1 + g %% 200000, 'Patient', g %% 200000, 'benchmark row', '10.0.0.1',
+                               date_trunc('month', now()) - interval '%d months' * (1 - g::float8 / %d),
+                               g %% 50 <> 0
+                        FROM generate_series(%d, %d) g
+                        """, HISTORY_MONTHS, ROWS, from, to));
+            }
+            statement.execute("ANALYZE audit_logs");
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Batched inserts at the current time, the shape {@link AuditEventWriter} produces.
+     */
+    private static double steadyStateInserts(Connection connection) throws Exception {
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            for (int i = 1; i <= STEADY_STATE_ROWS; i++) {
+                insert.setLong(1, 1 + i % 500);
+                insert.setLong(2, 1 + i % 200_000);
+                insert.setLong(3, i % 200_000);
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return STEADY_STATE_ROWS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double medianMillis(Connection connection, String sql, LocalDateTime from, LocalDateTime to)
+            throws Exception {
+        List<Double> timings = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            query.setTimestamp(1, Timestamp.valueOf(from));
+            query.setTimestamp(2, Timestamp.valueOf(to));
+            for (int run = 0; run < QUERY_RUNS; run++) {
+                long start = System.nanoTime();
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        rows.getObject(1);
+                    }
+                }
+                timings.add((System.nanoTime() - start) / 1e6);
+            }
+        }
+        Collections.sort(timings);
+        return timings.get(timings.size() / 2);
+    }
+
+    /**
+     * Partitions left in the plan of a one-month count, or -1 for the unpartitioned table.
+     */
+    private static long partitionsScanned(Connection connection, LocalDateTime from, LocalDateTime to)
+            throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement(
+                "EXPLAIN SELECT COUNT(*) FROM audit_logs WHERE timestamp >= ? AND timestamp < ?")) {
+            explain.setTimestamp(1, Timestamp.valueOf(from));
+            explain.setTimestamp(2, Timestamp.valueOf(to));
+            long partitions = 0;
+            boolean partitioned = false;
+            try (ResultSet plan = explain.executeQuery()) {
+                while (plan.next()) {
+                    String line = plan.getString(1);
+                    if (line.contains(" on audit_logs_")) {
+                        partitioned = true;
+                        partitions++;
+                    }
+                }
+            }
+            return partitioned ? partitions : -1;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.asakaa.synthesis.audit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AuditPartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        partitionManager = new AuditPartitionManager(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(partitionManager, "monthsAhead", 3);
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 84);
+        ReflectionTestUtils.setField(partitionManager, "retentionAction", AuditPartitionManager.RetentionAction.DETACH);
+        partitionManager.init();
+    }
+
+    @Test
+    void expiredPartitions_OnlyMonthsBeforeRetentionAndNeverDefault() {
+        // Act
+        List<String> expired = AuditPartitionManager.expiredPartitions(List.of(
+                "audit_logs_y2019m02", "audit_logs_default", "audit_logs_y2019m01",
+                "audit_logs_y2019m03", "audit_logs_y2026m10"), YearMonth.of(2019, 3));
+
+        // Assert
+        assertEquals(List.of("audit_logs_y2019m01", "audit_logs_y2019m02"), expired);
+    }
+
+    @Test
+    void maintain_CreatesUpcomingMonthsAndDetachesExpired() {
+        // Arrange
+        String expired = String.format("audit_logs_y%dm%02d",
+                YearMonth.now().minusMonths(85).getYear(), YearMonth.now().minusMonths(85).getMonthValue());
+        when(jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), anyLong()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(expired, "audit_logs_default"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(0L);
+
+        // Act
+        partitionManager.maintain();
+
+        // Assert
+        verify(jdbcTemplate, times(4)).queryForObject(eq("SELECT audit_logs_create_partition(?)"),
+                eq(String.class), any(LocalDate.class));
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs DETACH PARTITION " + expired);
+        verify(jdbcTemplate, never()).execute(contains("audit_logs_default"));
+    }
+
+    @Test
+    void maintain_MonthWithRowsInDefault_CreatesThatMonth() {
+        // Arrange
+        LocalDate strayMonth = YearMonth.now().minusMonths(2).atDay(1);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), anyLong()))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForList(contains("FROM audit_logs_default"), eq(LocalDate.class)))
+                .thenReturn(List.of(strayMonth, YearMonth.now().atDay(1)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(0L);
+
+        // Act
+        partitionManager.maintain();
+
+        // Assert
+        verify(jdbcTemplate).queryForObject("SELECT audit_logs_create_partition(?)", String.class, strayMonth);
+        verify(jdbcTemplate, times(5)).queryForObject(eq("SELECT audit_logs_create_partition(?)"),
+                eq(String.class), any(LocalDate.class));
+    }
+
+    @Test
+    void maintain_WhenAnotherInstanceHoldsLock_DoesNothing() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(startsWith("SELECT pg_try_advisory_xact_lock"), eq(Boolean.class), anyLong()))
+                .thenReturn(false);
+
+        // Act
+        partitionManager.maintain();
+
+        // Assert
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
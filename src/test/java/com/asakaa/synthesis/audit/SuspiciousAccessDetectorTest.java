@@ -0,0 +1,136 @@
+package com.asakaa.synthesis.audit;
+
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuspiciousAccessDetectorTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 10, 19, 10, 0);
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SuspiciousAccessProperties properties;
+    private SuspiciousAccessDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SuspiciousAccessProperties();
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.setMaxTrackedProviders(2);
+        properties.setDefaults(new SuspiciousAccessProperties.Thresholds(3, 2, 2));
+        properties.setRoles(Map.of("super-admin", new SuspiciousAccessProperties.Thresholds(10, null, null)));
+        detector = new SuspiciousAccessDetector(properties, eventPublisher, new SimpleMeterRegistry());
+        detector.init();
+    }
+
+    @Test
+    void observe_TooManyDistinctPatients_AlertsOncePerWindow() {
+        // Act
+        for (long patientId = 1; patientId <= 6; patientId++) {
+            detector.observe(access(1L, "Doctor", patientId, 1L, MORNING.plusSeconds(patientId)));
+        }
+
+        // Assert
+        ArgumentCaptor<SuspiciousAccessAlert> alert = ArgumentCaptor.forClass(SuspiciousAccessAlert.class);
+        verify(eventPublisher, times(1)).publishEvent(alert.capture());
+        assertEquals(SuspiciousAccessAlert.Type.DISTINCT_PATIENTS, alert.getValue().type());
+        assertEquals(4, alert.getValue().observed());
+    }
+
+    @Test
+    void observe_RepeatVisitsToSamePatients_DoNotAlert() {
+        for (int i = 0; i < 20; i++) {
+            detector.observe(access(1L, "Doctor", i % 3L, 1L, MORNING.plusSeconds(i)));
+        }
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void observe_AccessesOutsideWindow_AreForgotten() {
+        // Arrange
+        for (long patientId = 1; patientId <= 3; patientId++) {
+            detector.observe(access(1L, "Doctor", patientId, 1L, MORNING));
+        }
+
+        // Act: the first three have left the window by the time the fourth arrives
+        detector.observe(access(1L, "Doctor", 4L, 1L, MORNING.plusMinutes(11)));
+
+        // Assert
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void observe_RoleOverride_RaisesOnlyThatThreshold() {
+        // Act: five patients of another clinic at night, by an admin
+        for (long patientId = 1; patientId <= 5; patientId++) {
+            detector.observe(access(1L, "SUPER_ADMIN", patientId, 2L, MORNING.withHour(23).plusSeconds(patientId)));
+        }
+
+        // Assert: distinct patients uses the role's 10, the rest fall back to the defaults
+        ArgumentCaptor<SuspiciousAccessAlert> alerts = ArgumentCaptor.forClass(SuspiciousAccessAlert.class);
+        verify(eventPublisher, times(2)).publishEvent(alerts.capture());
+        assertEquals(
+                Set.of(SuspiciousAccessAlert.Type.AFTER_HOURS, SuspiciousAccessAlert.Type.CROSS_CLINIC),
+                Set.copyOf(alerts.getAllValues().stream().map(SuspiciousAccessAlert::type).toList()));
+    }
+
+    @Test
+    void observePatientClinic_UncachedPatientsOfOtherClinic_CountedOnceResolved() {
+        // Arrange: captured on a cache miss, so the patient's clinic is unknown
+        List<AuditEvent> uncached = new ArrayList<>();
+        for (long patientId = 1; patientId <= 3; patientId++) {
+            AuditEvent event = access(1L, "Doctor", patientId, null, MORNING.plusSeconds(patientId));
+            detector.observe(event);
+            uncached.add(event);
+        }
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        // Act: the writer resolves them to clinic 2
+        uncached.forEach(event -> detector.observePatientClinic(event, 2L));
+
+        // Assert
+        ArgumentCaptor<SuspiciousAccessAlert> alert = ArgumentCaptor.forClass(SuspiciousAccessAlert.class);
+        verify(eventPublisher, times(1)).publishEvent(alert.capture());
+        assertEquals(SuspiciousAccessAlert.Type.CROSS_CLINIC, alert.getValue().type());
+        assertEquals(3, alert.getValue().observed());
+    }
+
+    @Test
+    void observe_ManyProviders_KeepsOnlyMostRecentWindows() {
+        for (long providerId = 1; providerId <= 5; providerId++) {
+            detector.observe(access(providerId, "Doctor", 1L, 1L, MORNING));
+        }
+
+        assertEquals(2, detector.trackedProviders());
+    }
+
+    private static AuditEvent access(Long providerId, String role, Long patientId, Long patientClinicId,
+                                     LocalDateTime timestamp) {
+        return new AuditEvent(UUID.randomUUID(), AuditAction.VIEW_PATIENT_PROFILE,
+                providerId, "Dr. Amina", "amina@clinic.org", role, 1L,
+                patientId, "Kofi Mensah", "GH-123", patientClinicId, null, null, null, true, null, null, null, null,
+                timestamp, System.nanoTime());
+    }
+}
@@ -0,0 +1,135 @@
+package com.asakaa.synthesis.controller;
+
+import com.asakaa.synthesis.integration.transcribe.ReplayStreamingTranscriptionAdapter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.asakaa.synthesis.integration.transcribe.ReplayStreamingTranscriptionAdapter.finalSegment;
+import static com.asakaa.synthesis.integration.transcribe.ReplayStreamingTranscriptionAdapter.partial;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TranscriptionWebSocketHandlerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReplayStreamingTranscriptionAdapter replay;
+    private TranscriptionWebSocketHandler handler;
+    private WebSocketSession session;
+
+    @BeforeEach
+    void setUp() {
+        replay = new ReplayStreamingTranscriptionAdapter(
+                List.of(partial("r1", "patient reports"), partial("r1", "patient reports chest pain")),
+                List.of(finalSegment("r1", "Patient reports chest pain."), finalSegment("r2", "Onset two days ago.")));
+        handler = new TranscriptionWebSocketHandler(replay);
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("ws-1");
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    void dictation_RelaysPartialAndFinalSegmentsThenCompleteTranscript() throws Exception {
+        // Arrange
+        handler.afterConnectionEstablished(session);
+
+        // Act
+        handler.handleMessage(session, new TextMessage("{\"type\":\"start\",\"encoding\":\"pcm\",\"sampleRate\":16000}"));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{1, 2, 3, 4}));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{5, 6}));
+        handler.handleMessage(session, new TextMessage("{\"type\":\"stop\"}"));
+
+        // Assert
+        List<JsonNode> sent = sentMessages();
+        assertEquals(List.of("partial", "partial", "final", "final", "complete"),
+                sent.stream().map(m -> m.get("type").asText()).toList());
+        assertEquals("patient reports chest pain", sent.get(1).get("text").asText());
+        assertEquals("Patient reports chest pain. Onset two days ago.", sent.get(4).get("transcript").asText());
+        assertEquals(2, replay.getReceivedAudio().size());
+        assertEquals(4, replay.getReceivedAudio().get(0).remaining());
+        verify(session).close(CloseStatus.NORMAL);
+    }
+
+    @Test
+    void audioBeforeStart_SendsError() throws Exception {
+        // Arrange
+        handler.afterConnectionEstablished(session);
+
+        // Act
+        handler.handleMessage(session, new BinaryMessage(ByteBuffer.wrap(new byte[]{1})));
+
+        // Assert
+        List<JsonNode> sent = sentMessages();
+        assertEquals(1, sent.size());
+        assertEquals("error", sent.get(0).get("type").asText());
+        assertTrue(replay.getReceivedAudio().isEmpty());
+    }
+
+    @Test
+    void malformedControlMessage_SendsErrorAndKeepsSessionOpen() throws Exception {
+        // Arrange
+        handler.afterConnectionEstablished(session);
+
+        // Act
+        handler.handleMessage(session, new TextMessage("{\"type\":"));
+        handler.handleMessage(session, new TextMessage("{\"type\":\"start\",\"encoding\":\"flac\"}"));
+
+        // Assert
+        List<JsonNode> sent = sentMessages();
+        assertEquals(List.of("error", "error"), sent.stream().map(m -> m.get("type").asText()).toList());
+        assertEquals("Unsupported encoding: FLAC", sent.get(1).get("message").asText());
+        verify(session, never()).close(any());
+    }
+
+    @Test
+    void startAfterRejectedStart_OpensDictation() throws Exception {
+        // Arrange
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"type\":\"start\",\"encoding\":\"flac\"}"));
+
+        // Act
+        handler.handleMessage(session, new TextMessage("{\"type\":\"start\",\"encoding\":\"pcm\"}"));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{1, 2}));
+
+        // Assert
+        assertEquals(1, replay.getReceivedAudio().size());
+    }
+
+    @Test
+    void clientDisconnectMidDictation_AbortsStream() throws Exception {
+        // Arrange
+        handler.afterConnectionEstablished(session);
+        handler.handleMessage(session, new TextMessage("{\"type\":\"start\"}"));
+
+        // Act
+        handler.afterConnectionClosed(session, CloseStatus.GOING_AWAY);
+
+        // Assert
+        assertTrue(replay.isAborted());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JsonNode> sentMessages() throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass((Class) WebSocketMessage.class);
+        verify(session, atLeast(0)).sendMessage(captor.capture());
+        List<JsonNode> messages = new ArrayList<>();
+        for (WebSocketMessage<?> message : captor.getAllValues()) {
+            messages.add(objectMapper.readTree(((TextMessage) message).getPayload()));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,40 @@
+package com.asakaa.synthesis.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReplicaLagMonitorTest {
+
+    @Test
+    void update_LagCrossesLimit_TogglesUsable() {
+        // Arrange
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(mock(DataSource.class), 1_000, new SimpleMeterRegistry());
+
+        // Act & Assert
+        assertFalse(monitor.isUsable());
+        monitor.update(200);
+        assertTrue(monitor.isUsable());
+        monitor.update(5_000);
+        assertFalse(monitor.isUsable());
+        assertEquals(5_000, monitor.getLagMillis());
+    }
+
+    @Test
+    void update_WalReceiverStopped_NotUsable() {
+        // Arrange
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(mock(DataSource.class), 1_000, new SimpleMeterRegistry());
+        monitor.update(0);
+
+        // Act
+        monitor.update(-1);
+
+        // Assert
+        assertFalse(monitor.isUsable());
+        assertEquals(-1, monitor.getLagMillis());
+    }
+}
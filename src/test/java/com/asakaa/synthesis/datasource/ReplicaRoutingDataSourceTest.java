@@ -0,0 +1,133 @@
+package com.asakaa.synthesis.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, 60_000, new SimpleMeterRegistry());
+        routing.afterPropertiesSet();
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("nurse@example.com", null, "ROLE_NURSE"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void readOnlyTransaction_ReplicaUsable_RoutesToReplica() {
+        // Arrange
+        when(lagMonitor.isUsable()).thenReturn(true);
+        beginTransaction(true);
+
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readWriteTransactionAndNoTransaction_RouteToPrimary() {
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        beginTransaction(false);
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        verifyNoInteractions(lagMonitor);
+    }
+
+    @Test
+    void readOnlyTransaction_ReplicaLagging_FallsBackToPrimary() {
+        // Arrange
+        when(lagMonitor.isUsable()).thenReturn(false);
+        beginTransaction(true);
+
+        // Act & Assert
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readOnlyTransaction_AfterOwnCommittedWrite_PinnedToPrimaryForThatUserOnly() {
+        // Arrange: a read-write transaction commits
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        tearDown();
+        when(lagMonitor.isUsable()).thenReturn(true);
+
+        // Act
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("nurse@example.com", null, "ROLE_NURSE"));
+        beginTransaction(true);
+        Object writer = routing.determineCurrentLookupKey();
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("doctor@example.com", null, "ROLE_DOCTOR"));
+        Object other = routing.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(ReplicaRoutingDataSource.Target.PRIMARY, writer);
+        assertEquals(ReplicaRoutingDataSource.Target.REPLICA, other);
+    }
+
+    @Test
+    void isPinned_WindowElapsed_ReleasesPin() {
+        // Arrange
+        ReplicaRoutingDataSource shortWindow =
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, 0, new SimpleMeterRegistry());
+
+        // Act
+        shortWindow.pin("nurse@example.com");
+
+        // Assert
+        assertFalse(shortWindow.isPinned("nurse@example.com"));
+    }
+
+    @Test
+    void rolledBackWrite_DoesNotPin() {
+        // Arrange
+        beginTransaction(false);
+        routing.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Act & Assert
+        assertFalse(routing.isPinned("nurse@example.com"));
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
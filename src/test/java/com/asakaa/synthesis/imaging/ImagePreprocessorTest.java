@@ -0,0 +1,209 @@
+package com.asakaa.synthesis.imaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePreprocessorTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private ImagePreprocessor preprocessor;
+
+    @BeforeEach
+    void setUp() {
+        preprocessor = new ImagePreprocessor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(preprocessor, "enabled", true);
+        ReflectionTestUtils.setField(preprocessor, "maxLongEdge", 100);
+        ReflectionTestUtils.setField(preprocessor, "jpegQuality", 0.85f);
+        ReflectionTestUtils.setField(preprocessor, "convertPngToJpeg", true);
+        ReflectionTestUtils.setField(preprocessor, "maxPixels", 10_000_000L);
+        ReflectionTestUtils.setField(preprocessor, "workerThreads", 1);
+        ReflectionTestUtils.setField(preprocessor, "queueCapacity", 4);
+        ReflectionTestUtils.setField(preprocessor, "timeoutMillis", 10_000L);
+        ReflectionTestUtils.setField(preprocessor, "spoolDir", spoolDir.toString());
+        preprocessor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        preprocessor.shutdown();
+    }
+
+    @Test
+    void preprocess_WithLargeJpeg_ResizesToMaxLongEdge() throws IOException {
+        // Arrange
+        SpooledImage original = spool(encode(gradient(400, 200), "jpg"), ImageFormat.JPEG);
+
+        // Act
+        try (PreprocessedImage result = preprocessor.preprocess(original)) {
+            // Assert
+            BufferedImage output = ImageIO.read(result.getImage().getPath().toFile());
+            assertTrue(result.isDerived());
+            assertEquals(100, output.getWidth());
+            assertEquals(50, output.getHeight());
+            assertTrue(result.getBytesSaved() > 0);
+        }
+    }
+
+    @Test
+    void preprocess_WithExifOrientation_RotatesUpright() throws IOException {
+        // Arrange
+        byte[] rotated = withOrientation(encode(gradient(400, 200), "jpg"), 6);
+        SpooledImage original = spool(rotated, ImageFormat.JPEG);
+
+        // Act
+        try (PreprocessedImage result = preprocessor.preprocess(original)) {
+            // Assert
+            BufferedImage output = ImageIO.read(result.getImage().getPath().toFile());
+            assertEquals(50, output.getWidth());
+            assertEquals(100, output.getHeight());
+        }
+    }
+
+    @Test
+    void preprocess_WithPngScreenshot_ConvertsToJpeg() throws IOException {
+        // Arrange
+        SpooledImage original = spool(encode(gradient(300, 150), "png"), ImageFormat.PNG);
+
+        // Act
+        try (PreprocessedImage result = preprocessor.preprocess(original)) {
+            // Assert
+            assertEquals(ImageFormat.JPEG, result.getImage().getFormat());
+            assertEquals("image/jpeg", result.getImage().getMediaType());
+        }
+    }
+
+    @Test
+    void preprocess_WhenReencodingDoesNotHelp_KeepsOriginal() throws IOException {
+        // Arrange
+        SpooledImage original = spool(encode(noise(80, 60), "jpg"), ImageFormat.JPEG);
+
+        // Act
+        try (PreprocessedImage result = preprocessor.preprocess(original)) {
+            // Assert
+            assertFalse(result.isDerived());
+            assertSame(original, result.getImage());
+        }
+    }
+
+    @Test
+    void preprocess_WithUndecodableImage_FallsBackToOriginal() throws IOException {
+        // Arrange
+        byte[] truncated = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10};
+        SpooledImage original = spool(truncated, ImageFormat.JPEG);
+
+        // Act
+        try (PreprocessedImage result = preprocessor.preprocess(original)) {
+            // Assert
+            assertSame(original, result.getImage());
+        }
+    }
+
+    @Test
+    void preprocess_WhenTimedOut_LeavesNoDerivedFileBehind() throws Exception {
+        // Arrange: too little time for any transform to finish
+        ReflectionTestUtils.setField(preprocessor, "timeoutMillis", 1L);
+        SpooledImage original = spool(encode(gradient(4000, 2000), "jpg"), ImageFormat.JPEG);
+
+        // Act
+        PreprocessedImage result = preprocessor.preprocess(original);
+        preprocessor.shutdown();
+        ((ThreadPoolExecutor) ReflectionTestUtils.getField(preprocessor, "executor"))
+                .awaitTermination(30, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(result.isDerived());
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(List.of(original.getPath()), files.toList());
+        }
+    }
+
+    @Test
+    void close_DeletesDerivedImageOnly() throws IOException {
+        // Arrange
+        SpooledImage original = spool(encode(gradient(400, 200), "jpg"), ImageFormat.JPEG);
+        PreprocessedImage result = preprocessor.preprocess(original);
+        Path derivedPath = result.getImage().getPath();
+
+        // Act
+        result.close();
+
+        // Assert
+        assertFalse(Files.exists(derivedPath));
+        assertTrue(Files.exists(original.getPath()));
+    }
+
+    private SpooledImage spool(byte[] data, ImageFormat format) throws IOException {
+        Path path = Files.createTempFile(spoolDir, "original-", ".upload");
+        Files.write(path, data);
+        return new SpooledImage(path, format, data.length);
+    }
+
+    private static BufferedImage gradient(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int x = 0; x < width; x++) {
+            graphics.setColor(new Color(x * 255 / width, 80, 160));
+            graphics.drawLine(x, 0, x, height);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage noise(int width, int height) {
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Insert a big-endian EXIF APP1 segment carrying only the orientation tag right after SOI.
+     */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] app1 = {
+                (byte) 0xFF, (byte) 0xE1, 0, 34,
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 0x2A, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0
+        };
+        byte[] result = new byte[jpeg.length + app1.length];
+        System.arraycopy(jpeg, 0, result, 0, 2);
+        System.arraycopy(app1, 0, result, 2, app1.length);
+        System.arraycopy(jpeg, 2, result, 2 + app1.length, jpeg.length - 2);
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.asakaa.synthesis.imaging;
+
+import com.asakaa.synthesis.integration.bedrock.BedrockClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Peak heap comparison between the previous byte[] upload path and the spooled,
+ * streamed path at 50 concurrent 5 MB uploads.
+ * Run with {@code ./mvnw test -Dtest=ImageUploadMemoryBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ImageUploadMemoryBenchmark {
+
+    private static final int CONCURRENT_UPLOADS = 50;
+    private static final int IMAGE_SIZE = 5 * 1024 * 1024 - 1024;
+
+    @TempDir
+    Path spoolDir;
+
+    private ImageUploadSpooler spooler;
+    private BedrockClient bedrockClient;
+    private byte[] image;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        spooler = new ImageUploadSpooler();
+        ReflectionTestUtils.setField(spooler, "maxUploadBytes", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(spooler, "spoolDir", spoolDir.toString());
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode reply = mapper.createObjectNode();
+        reply.putArray("content").addObject().put("type", "text").put("text", "{}");
+        BedrockRuntimeClient runtimeClient = mock(BedrockRuntimeClient.class);
+        when(runtimeClient.invokeModel(any(InvokeModelRequest.class))).thenReturn(
+                InvokeModelResponse.builder().body(SdkBytes.fromUtf8String(mapper.writeValueAsString(reply))).build());
+
+        bedrockClient = new BedrockClient(runtimeClient);
+        ReflectionTestUtils.setField(bedrockClient, "modelId", "benchmark-model");
+        ReflectionTestUtils.setField(bedrockClient, "maxTokens", 1024);
+        ReflectionTestUtils.setField(bedrockClient, "temperature", 0.2);
+
+        image = ImageUploadSpoolerTest.image(
+                new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F'}, IMAGE_SIZE);
+    }
+
+    @Test
+    void compareHeapUsage() throws Exception {
+        long legacyPeak = measurePeakHeap(() -> {
+            // Previous path: getBytes(), Base64 String, ObjectNode tree, UTF-8 request body
+            byte[] bytes = new ByteArrayInputStream(image).readAllBytes();
+            String base64 = Base64.getEncoder().encodeToString(bytes);
+            ObjectNode body = new ObjectMapper().createObjectNode();
+            body.putObject("source").put("data", base64);
+            SdkBytes.fromUtf8String(new ObjectMapper().writeValueAsString(body));
+        });
+
+        long streamingPeak = measurePeakHeap(() -> {
+            try (SpooledImage spooled = spooler.spool(new ByteArrayInputStream(image));
+                 InputStream in = spooled.openStream()) {
+                bedrockClient.invokeVision(in, spooled.getSize(), spooled.getMediaType(), "Describe");
+            }
+        });
+
+        System.out.printf("Peak heap for %d concurrent %d KB uploads: byte[] path %d MB, spooled path %d MB%n",
+                CONCURRENT_UPLOADS, IMAGE_SIZE / 1024, legacyPeak >> 20, streamingPeak >> 20);
+
+        try (Stream<Path> leftovers = Files.list(spoolDir)) {
+            assertEquals(0, leftovers.count(), "spooled images must be deleted after use");
+        }
+    }
+
+    private long measurePeakHeap(UploadTask task) throws Exception {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long baseline = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_UPLOADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return Math.max(0, peak - baseline);
+    }
+
+    @FunctionalInterface
+    private interface UploadTask {
+        void run() throws Exception;
+    }
+}
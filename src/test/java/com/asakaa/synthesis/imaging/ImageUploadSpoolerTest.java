@@ -0,0 +1,107 @@
+package com.asakaa.synthesis.imaging;
+
+import com.asakaa.synthesis.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageUploadSpoolerTest {
+
+    private static final byte[] JPEG_HEADER = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F'};
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @TempDir
+    Path spoolDir;
+
+    private ImageUploadSpooler spooler;
+
+    @BeforeEach
+    void setUp() {
+        spooler = new ImageUploadSpooler();
+        ReflectionTestUtils.setField(spooler, "maxUploadBytes", 1024L);
+        ReflectionTestUtils.setField(spooler, "spoolDir", spoolDir.toString());
+    }
+
+    @Test
+    void spool_WithJpegSignature_DetectsJpegRegardlessOfContentType() throws IOException {
+        // Arrange
+        byte[] data = image(JPEG_HEADER, 600);
+        MockMultipartFile file = new MockMultipartFile("image", "scan.png", "image/png", data);
+
+        // Act
+        try (SpooledImage image = spooler.spool(file)) {
+            // Assert
+            assertEquals(ImageFormat.JPEG, image.getFormat());
+            assertEquals("image/jpeg", image.getMediaType());
+            assertEquals(data.length, image.getSize());
+            assertArrayEquals(data, Files.readAllBytes(image.getPath()));
+        }
+    }
+
+    @Test
+    void spool_WithPngSignature_DetectsPng() {
+        // Act
+        try (SpooledImage image = spooler.spool(new ByteArrayInputStream(image(PNG_HEADER, 100)))) {
+            // Assert
+            assertEquals(ImageFormat.PNG, image.getFormat());
+        }
+    }
+
+    @Test
+    void spool_WithUnknownSignature_ThrowsValidationExceptionAndRemovesTempFile() throws IOException {
+        // Arrange
+        byte[] gif = "GIF89a-not-supported".getBytes();
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> spooler.spool(new ByteArrayInputStream(gif)));
+        assertEquals(0, countSpoolFiles());
+    }
+
+    @Test
+    void spool_WhenStreamExceedsLimit_ThrowsValidationExceptionAndRemovesTempFile() throws IOException {
+        // Arrange
+        byte[] oversized = image(JPEG_HEADER, 4096);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> spooler.spool(new ByteArrayInputStream(oversized)));
+        assertEquals(0, countSpoolFiles());
+    }
+
+    @Test
+    void close_DeletesBackingFile() {
+        // Arrange
+        SpooledImage image = spooler.spool(new ByteArrayInputStream(image(PNG_HEADER, 10)));
+        Path path = image.getPath();
+
+        // Act
+        image.close();
+
+        // Assert
+        assertFalse(Files.exists(path));
+    }
+
+    static byte[] image(byte[] header, int length) {
+        byte[] data = new byte[length];
+        System.arraycopy(header, 0, data, 0, header.length);
+        for (int i = header.length; i < length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+
+    private long countSpoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            return files.count();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.asakaa.synthesis.integration.bedrock;
 
 import com.asakaa.synthesis.exception.DiagnosticException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,6 +17,9 @@ import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
 
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -134,4 +139,34 @@ class BedrockVisionClientTest {
         assertTrue(exception.getMessage().contains("too large") || 
                    exception.getMessage().contains("throttled"));
     }
+
+    @Test
+    void invokeVision_WithStream_EncodesImageIntoRequestBody() throws Exception {
+        // Arrange
+        byte[] imageBytes = "streamed-image-data".getBytes();
+        ObjectMapper mapper = new ObjectMapper();
+        String responseBody = mapper.writeValueAsString(
+                mapper.createObjectNode()
+                        .set("content", mapper.createArrayNode()
+                                .add(mapper.createObjectNode()
+                                        .put("type", "text")
+                                        .put("text", "ok")))
+        );
+
+        when(bedrockRuntimeClient.invokeModel(any(InvokeModelRequest.class))).thenReturn(
+                InvokeModelResponse.builder().body(SdkBytes.fromUtf8String(responseBody)).build());
+
+        // Act
+        bedrockClient.invokeVision(new ByteArrayInputStream(imageBytes), imageBytes.length, "image/png", "Describe");
+
+        // Assert
+        ArgumentCaptor<InvokeModelRequest> captor = ArgumentCaptor.forClass(InvokeModelRequest.class);
+        verify(bedrockRuntimeClient).invokeModel(captor.capture());
+        JsonNode content = mapper.readTree(captor.getValue().body().asUtf8String())
+                .get("messages").get(0).get("content");
+        assertEquals("image/png", content.get(0).get("source").get("media_type").asText());
+        assertEquals(Base64.getEncoder().encodeToString(imageBytes),
+                content.get(0).get("source").get("data").asText());
+        assertEquals("Describe", content.get(1).get("text").asText());
+    }
 }
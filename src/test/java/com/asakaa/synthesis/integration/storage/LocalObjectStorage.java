@@ -0,0 +1,112 @@
+package com.asakaa.synthesis.integration.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filesystem stand-in for S3. Parts are written to separate files and concatenated on
+ * completion, so tests exercise the same multipart flow as production. Individual parts
+ * can be made to fail a number of times to exercise retries.
+ */
+public class LocalObjectStorage implements ObjectStorage {
+
+    private final Path root;
+    private final Map<Integer, AtomicInteger> failuresByPart = new ConcurrentHashMap<>();
+    private final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+
+    public LocalObjectStorage(Path root) {
+        this.root = root;
+    }
+
+    public void failPart(int partNumber, int times) {
+        failuresByPart.put(partNumber, new AtomicInteger(times));
+    }
+
+    public byte[] read(String key) throws IOException {
+        return Files.readAllBytes(root.resolve(key));
+    }
+
+    public boolean exists(String key) {
+        return Files.exists(root.resolve(key));
+    }
+
+    public Set<String> getAbortedUploads() {
+        return abortedUploads;
+    }
+
+    @Override
+    public void putObject(String key, String contentType, InputStream content, long length) {
+        try {
+            Files.copy(content, root.resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(root.resolve(uploadId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) {
+        AtomicInteger failures = failuresByPart.get(partNumber);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            throw new IllegalStateException("Simulated failure for part " + partNumber);
+        }
+        try {
+            Path part = root.resolve(uploadId).resolve(String.valueOf(partNumber));
+            Files.write(part, Arrays.copyOf(data, length));
+            return "etag-" + partNumber;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, List<UploadedPart> parts) {
+        try (OutputStream out = Files.newOutputStream(root.resolve(key))) {
+            for (UploadedPart part : parts) {
+                Files.copy(root.resolve(uploadId).resolve(String.valueOf(part.getPartNumber())), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        abortedUploads.add(uploadId);
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        try {
+            Files.deleteIfExists(root.resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String uri(String key) {
+        return root.resolve(key).toUri().toString();
+    }
+}
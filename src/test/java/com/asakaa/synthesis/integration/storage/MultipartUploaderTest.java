@@ -0,0 +1,116 @@
+package com.asakaa.synthesis.integration.storage;
+
+import com.asakaa.synthesis.exception.StorageException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartUploaderTest {
+
+    private static final int PART_SIZE = 1024;
+
+    @TempDir
+    Path storageDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LocalObjectStorage storage;
+    private MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        storage = new LocalObjectStorage(storageDir);
+        uploader = new MultipartUploader(storage, meterRegistry);
+        ReflectionTestUtils.setField(uploader, "multipartThresholdBytes", 4096L);
+        ReflectionTestUtils.setField(uploader, "partSizeBytes", PART_SIZE);
+        ReflectionTestUtils.setField(uploader, "parallelism", 3);
+        ReflectionTestUtils.setField(uploader, "maxAttempts", 3);
+        ReflectionTestUtils.setField(uploader, "retryBackoffMillis", 1L);
+        ReflectionTestUtils.setField(uploader, "workerThreads", 2);
+        ReflectionTestUtils.setField(uploader, "queueCapacity", 2);
+        uploader.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploader.shutdown();
+    }
+
+    @Test
+    void upload_BelowThreshold_UsesSinglePut() throws Exception {
+        // Arrange
+        byte[] audio = randomBytes(1000);
+
+        // Act
+        UploadResult result = uploader.upload("small.wav", "audio/wav", new ByteArrayInputStream(audio), audio.length);
+
+        // Assert
+        assertEquals(1, result.getParts());
+        assertArrayEquals(audio, storage.read("small.wav"));
+        assertEquals(sha256(audio), result.getSha256());
+    }
+
+    @Test
+    void upload_AboveThreshold_ReassemblesPartsInOrderAndHashesStream() throws Exception {
+        // Arrange
+        byte[] audio = randomBytes(10 * PART_SIZE + 17);
+
+        // Act
+        UploadResult result = uploader.upload("large.wav", "audio/wav", new ByteArrayInputStream(audio), audio.length);
+
+        // Assert
+        assertEquals(11, result.getParts());
+        assertArrayEquals(audio, storage.read("large.wav"));
+        assertEquals(sha256(audio), result.getSha256());
+        assertEquals(1, meterRegistry.get("synthesis.storage.upload.throughput").tag("mode", "multipart")
+                .summary().count());
+    }
+
+    @Test
+    void upload_WhenPartFailsTransiently_RetriesOnlyThatPart() throws Exception {
+        // Arrange
+        byte[] audio = randomBytes(6 * PART_SIZE);
+        storage.failPart(3, 2);
+
+        // Act
+        uploader.upload("retry.wav", "audio/wav", new ByteArrayInputStream(audio), audio.length);
+
+        // Assert
+        assertArrayEquals(audio, storage.read("retry.wav"));
+        assertEquals(2.0, meterRegistry.get("synthesis.storage.upload.part.retries").counter().count());
+    }
+
+    @Test
+    void upload_WhenPartExhaustsRetries_AbortsUpload() {
+        // Arrange
+        byte[] audio = randomBytes(6 * PART_SIZE);
+        storage.failPart(2, 5);
+
+        // Act & Assert
+        assertThrows(StorageException.class,
+                () -> uploader.upload("broken.wav", "audio/wav", new ByteArrayInputStream(audio), audio.length));
+        assertEquals(1, storage.getAbortedUploads().size());
+        assertFalse(storage.exists("broken.wav"));
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
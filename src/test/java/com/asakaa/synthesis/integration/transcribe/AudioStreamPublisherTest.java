@@ -0,0 +1,141 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioEvent;
+import software.amazon.awssdk.services.transcribestreaming.model.AudioStream;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioStreamPublisherTest {
+
+    private AudioStreamPublisher publisher;
+    private RecordingSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new AudioStreamPublisher(2);
+        subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+    }
+
+    @Test
+    void offer_WithoutDemand_BuffersUntilRequested() {
+        // Arrange
+        publisher.offer(chunk(1));
+        publisher.offer(chunk(2));
+
+        // Act
+        subscriber.subscription.request(1);
+
+        // Assert
+        assertEquals(List.of(1), subscriber.firstBytes());
+        subscriber.subscription.request(5);
+        assertEquals(List.of(1, 2), subscriber.firstBytes());
+    }
+
+    @Test
+    void offer_BufferFull_Rejected() {
+        // Act
+        boolean first = publisher.offer(chunk(1));
+        boolean second = publisher.offer(chunk(2));
+        boolean third = publisher.offer(chunk(3));
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    @Test
+    void complete_CompletesOnlyAfterBufferedAudioIsDelivered() {
+        // Arrange
+        publisher.offer(chunk(1));
+
+        // Act
+        publisher.complete();
+
+        // Assert
+        assertFalse(subscriber.completed);
+        assertFalse(publisher.offer(chunk(2)));
+        subscriber.subscription.request(1);
+        assertEquals(List.of(1), subscriber.firstBytes());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void cancel_DropsBufferedAudioAndRejectsMore() {
+        // Arrange
+        publisher.offer(chunk(1));
+
+        // Act
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+
+        // Assert
+        assertTrue(subscriber.received.isEmpty());
+        assertFalse(publisher.offer(chunk(2)));
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void request_NonPositiveDemand_SignalsError() {
+        // Act
+        subscriber.subscription.request(0);
+
+        // Assert
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertFalse(publisher.offer(chunk(1)));
+    }
+
+    @Test
+    void subscribe_SecondSubscriber_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> publisher.subscribe(new RecordingSubscriber()));
+    }
+
+    private static ByteBuffer chunk(int firstByte) {
+        return ByteBuffer.wrap(new byte[]{(byte) firstByte, 0, 0, 0});
+    }
+
+    private static class RecordingSubscriber implements Subscriber<AudioStream> {
+
+        private final List<AudioStream> received = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(AudioStream event) {
+            received.add(event);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        private List<Integer> firstBytes() {
+            return received.stream()
+                    .map(event -> (int) ((AudioEvent) event).audioChunk().asByteArray()[0])
+                    .toList();
+        }
+    }
+}
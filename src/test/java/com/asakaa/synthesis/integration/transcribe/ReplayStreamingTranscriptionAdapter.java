@@ -0,0 +1,65 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local stand-in for Transcribe Streaming. Each audio chunk received releases the next
+ * scripted partial segment; completing the stream flushes the scripted final segments.
+ * Everything is delivered on the caller's thread so tests stay deterministic.
+ */
+public class ReplayStreamingTranscriptionAdapter implements StreamingTranscriptionPort {
+
+    private final List<TranscriptSegment> partials;
+    private final List<TranscriptSegment> finals;
+    private final List<ByteBuffer> receivedAudio = new ArrayList<>();
+    private boolean aborted;
+
+    public ReplayStreamingTranscriptionAdapter(List<TranscriptSegment> partials, List<TranscriptSegment> finals) {
+        this.partials = partials;
+        this.finals = finals;
+    }
+
+    @Override
+    public StreamingTranscriptionSession open(StreamingAudioFormat format, TranscriptSegmentListener listener) {
+        return new StreamingTranscriptionSession() {
+            private int nextPartial;
+
+            @Override
+            public void sendAudio(ByteBuffer chunk) {
+                receivedAudio.add(chunk);
+                if (nextPartial < partials.size()) {
+                    listener.onSegment(partials.get(nextPartial++));
+                }
+            }
+
+            @Override
+            public void complete() {
+                finals.forEach(listener::onSegment);
+                listener.onComplete();
+            }
+
+            @Override
+            public void abort() {
+                aborted = true;
+            }
+        };
+    }
+
+    public List<ByteBuffer> getReceivedAudio() {
+        return receivedAudio;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public static TranscriptSegment partial(String resultId, String text) {
+        return TranscriptSegment.builder().resultId(resultId).text(text).partial(true).build();
+    }
+
+    public static TranscriptSegment finalSegment(String resultId, String text) {
+        return TranscriptSegment.builder().resultId(resultId).text(text).partial(false).build();
+    }
+}
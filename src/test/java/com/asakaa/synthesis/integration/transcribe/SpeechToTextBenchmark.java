@@ -0,0 +1,140 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.audio.AudioPreprocessor;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Real-time factor and word error rate of the local whisper.cpp engine on a fixed audio
+ * set. The set is a directory of {@code <name>.wav} recordings each with a reference
+ * {@code <name>.txt} transcript.
+ * Run with {@code ./mvnw test -Dtest=SpeechToTextBenchmark -Dbenchmarks=true
+ * -Dstt.benchmark.dir=... -Dstt.whisper.binary=... -Dstt.whisper.model=...}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class SpeechToTextBenchmark {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void localEngine_RealTimeFactorAndWordErrorRate() throws Exception {
+        String datasetDir = System.getProperty("stt.benchmark.dir");
+        assumeTrue(datasetDir != null, "Set -Dstt.benchmark.dir to the audio set");
+
+        WhisperCppEngine engine = whisperEngine();
+        assumeTrue(engine.isAvailable(), "Set -Dstt.whisper.binary and -Dstt.whisper.model");
+
+        List<Path> recordings;
+        try (Stream<Path> files = Files.list(Path.of(datasetDir))) {
+            recordings = files.filter(path -> path.toString().endsWith(".wav")).sorted().toList();
+        }
+
+        double totalAudioSeconds = 0;
+        double totalElapsedSeconds = 0;
+        int totalWords = 0;
+        int totalErrors = 0;
+
+        System.out.printf("%-30s %8s %8s %6s %6s%n", "recording", "audio s", "wall s", "RTF", "WER");
+        for (Path recording : recordings) {
+            String reference = Files.readString(Path.of(recording.toString().replace(".wav", ".txt")));
+            double audioSeconds = durationSeconds(recording);
+
+            long start = System.nanoTime();
+            TranscriptionResponse response = engine.transcribe(
+                    AudioPayload.of(recording, "audio/wav", recording.getFileName().toString()));
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            List<String> expectedWords = words(reference);
+            int errors = editDistance(expectedWords, words(response.getTranscript()));
+
+            totalAudioSeconds += audioSeconds;
+            totalElapsedSeconds += elapsedSeconds;
+            totalWords += expectedWords.size();
+            totalErrors += errors;
+
+            System.out.printf("%-30s %8.1f %8.1f %6.2f %6.3f%n", recording.getFileName(), audioSeconds,
+                    elapsedSeconds, elapsedSeconds / audioSeconds, errors / (double) expectedWords.size());
+        }
+
+        System.out.printf("%-30s %8.1f %8.1f %6.2f %6.3f%n", "TOTAL", totalAudioSeconds, totalElapsedSeconds,
+                totalElapsedSeconds / totalAudioSeconds, totalErrors / (double) totalWords);
+    }
+
+    private WhisperCppEngine whisperEngine() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AudioPreprocessor preprocessor = new AudioPreprocessor(meterRegistry);
+        ReflectionTestUtils.setField(preprocessor, "enabled", true);
+        ReflectionTestUtils.setField(preprocessor, "targetSampleRate", 16000);
+        ReflectionTestUtils.setField(preprocessor, "frameMillis", 20);
+        ReflectionTestUtils.setField(preprocessor, "silenceThresholdDbfs", -45.0);
+        ReflectionTestUtils.setField(preprocessor, "keepSilenceMillis", 400);
+        ReflectionTestUtils.setField(preprocessor, "spoolDir", workDir.toString());
+        ReflectionTestUtils.invokeMethod(preprocessor, "init");
+
+        WhisperCppEngine engine = new WhisperCppEngine(preprocessor, meterRegistry);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "binaryPath", System.getProperty("stt.whisper.binary", "whisper-cli"));
+        ReflectionTestUtils.setField(engine, "modelPath", System.getProperty("stt.whisper.model", "ggml-base.en.bin"));
+        ReflectionTestUtils.setField(engine, "language", "en");
+        ReflectionTestUtils.setField(engine, "threadsPerJob", Runtime.getRuntime().availableProcessors());
+        ReflectionTestUtils.setField(engine, "queueCapacity", 1);
+        ReflectionTestUtils.setField(engine, "timeoutSeconds", 600L);
+        ReflectionTestUtils.setField(engine, "workDir", workDir.toString());
+        ReflectionTestUtils.invokeMethod(engine, "init");
+        return engine;
+    }
+
+    private static double durationSeconds(Path wav) throws Exception {
+        AudioFileFormat format = AudioSystem.getAudioFileFormat(wav.toFile());
+        return format.getFrameLength() / format.getFormat().getFrameRate();
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9' ]", " ").split("\\s+")) {
+            if (!word.isBlank()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Word-level Levenshtein distance: substitutions + insertions + deletions.
+     */
+    private static int editDistance(List<String> expected, List<String> actual) {
+        int[] previous = new int[actual.size() + 1];
+        int[] current = new int[actual.size() + 1];
+        for (int j = 0; j <= actual.size(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= expected.size(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= actual.size(); j++) {
+                int substitution = previous[j - 1] + (expected.get(i - 1).equals(actual.get(j - 1)) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[actual.size()];
+    }
+}
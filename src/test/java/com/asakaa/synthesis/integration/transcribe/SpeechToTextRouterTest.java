@@ -0,0 +1,101 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SpeechToTextRouterTest {
+
+    private final AudioPayload wav = AudioPayload.of(
+            new MockMultipartFile("audio", "visit.wav", "audio/wav", new byte[]{1, 2, 3}));
+
+    private SpeechToTextEngine local;
+    private SpeechToTextEngine cloud;
+    private SimpleMeterRegistry meterRegistry;
+    private SpeechToTextRouter router;
+
+    @BeforeEach
+    void setUp() {
+        local = engine("local");
+        cloud = engine("aws");
+        meterRegistry = new SimpleMeterRegistry();
+        router = new SpeechToTextRouter(List.of(cloud, local), meterRegistry);
+        ReflectionTestUtils.setField(router, "routing", List.of("local", "aws"));
+        router.init();
+    }
+
+    @Test
+    void transcribe_LocalFirst_UsesLocalEngine() {
+        // Arrange
+        when(local.transcribe(wav)).thenReturn(response("from local"));
+
+        // Act
+        TranscriptionResponse response = router.transcribe(wav);
+
+        // Assert
+        assertEquals("from local", response.getTranscript());
+        verify(cloud, never()).transcribe(any());
+    }
+
+    @Test
+    void transcribe_WhenLocalFails_FallsBackToCloud() {
+        // Arrange
+        when(local.transcribe(wav)).thenThrow(new TranscriptionException("Local speech-to-text engine is at capacity."));
+        when(cloud.transcribe(wav)).thenReturn(response("from cloud"));
+
+        // Act
+        TranscriptionResponse response = router.transcribe(wav);
+
+        // Assert
+        assertEquals("from cloud", response.getTranscript());
+        assertEquals(1, meterRegistry.get("synthesis.stt.requests")
+                .tag("engine", "local").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void transcribe_WhenLocalNotInstalled_SkipsIt() {
+        // Arrange
+        when(local.isAvailable()).thenReturn(false);
+        when(cloud.transcribe(wav)).thenReturn(response("from cloud"));
+
+        // Act
+        TranscriptionResponse response = router.transcribe(wav);
+
+        // Assert
+        assertEquals("from cloud", response.getTranscript());
+        verify(local, never()).transcribe(any());
+    }
+
+    @Test
+    void init_WithUnknownEngine_FailsFast() {
+        // Arrange
+        SpeechToTextRouter misconfigured = new SpeechToTextRouter(List.of(cloud, local), meterRegistry);
+        ReflectionTestUtils.setField(misconfigured, "routing", List.of("vosk", "aws"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, misconfigured::init);
+    }
+
+    private static SpeechToTextEngine engine(String name) {
+        SpeechToTextEngine engine = mock(SpeechToTextEngine.class);
+        when(engine.getName()).thenReturn(name);
+        lenient().when(engine.isAvailable()).thenReturn(true);
+        lenient().when(engine.supports(any())).thenReturn(true);
+        return engine;
+    }
+
+    private static TranscriptionResponse response(String transcript) {
+        return TranscriptionResponse.builder().transcript(transcript).confidence(0.9).languageCode("en-US").build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.asakaa.synthesis.integration.transcribe;
+
+import com.asakaa.synthesis.audio.AudioPreprocessor;
+import com.asakaa.synthesis.audio.PreprocessedAudio;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.exception.TranscriptionException;
+import com.asakaa.synthesis.service.AudioPayload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisabledOnOs(OS.WINDOWS)
+class WhisperCppEngineTest {
+
+    private static final String OUTPUT_JSON = """
+            {
+              "result": {"language": "en"},
+              "transcription": [
+                {"text": " Patient reports", "tokens": [
+                  {"text": "[_BEG_]", "p": 0.10},
+                  {"text": " Patient", "p": 0.90},
+                  {"text": " reports", "p": 0.80}
+                ]},
+                {"text": " a cough.", "tokens": [
+                  {"text": " a", "p": 0.95},
+                  {"text": " cough.", "p": 0.75},
+                  {"text": "[_TT_50]", "p": 0.05}
+                ]}
+              ]
+            }
+            """;
+
+    private final AudioPayload wav = AudioPayload.of(
+            new MockMultipartFile("audio", "visit.wav", "audio/wav", new byte[]{1, 2, 3}));
+
+    @TempDir
+    Path tempDir;
+
+    private Path workDir;
+    private Path binary;
+    private AudioPreprocessor audioPreprocessor;
+    private WhisperCppEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        workDir = Files.createDirectory(tempDir.resolve("work"));
+        binary = tempDir.resolve("whisper-cli");
+        Path model = Files.writeString(tempDir.resolve("model.bin"), "model");
+        audioPreprocessor = mock(AudioPreprocessor.class);
+        when(audioPreprocessor.preprocess(any())).thenAnswer(
+                invocation -> PreprocessedAudio.unchanged(invocation.getArgument(0)));
+        engine = new WhisperCppEngine(audioPreprocessor, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "binaryPath", binary.toString());
+        ReflectionTestUtils.setField(engine, "modelPath", model.toString());
+        ReflectionTestUtils.setField(engine, "language", "sw");
+        ReflectionTestUtils.setField(engine, "threadsPerJob", 1);
+        ReflectionTestUtils.setField(engine, "queueCapacity", 1);
+        ReflectionTestUtils.setField(engine, "timeoutSeconds", 10L);
+        ReflectionTestUtils.setField(engine, "workDir", workDir.toString());
+        engine.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void parse_FullJsonOutput_AveragesTextTokensAndKeepsReportedLanguage() throws IOException {
+        // Act
+        TranscriptionResponse response = engine.parse(OUTPUT_JSON);
+
+        // Assert
+        assertEquals("Patient reports a cough.", response.getTranscript());
+        assertEquals(0.85, response.getConfidence());
+        assertEquals("en", response.getLanguageCode());
+    }
+
+    @Test
+    void parse_NoReportedLanguage_UsesConfiguredLanguage() throws IOException {
+        // Act
+        TranscriptionResponse response = engine.parse("{\"transcription\": []}");
+
+        // Assert
+        assertEquals("", response.getTranscript());
+        assertEquals(0.0, response.getConfidence());
+        assertEquals("sw", response.getLanguageCode());
+    }
+
+    @Test
+    void transcribe_StubBinary_ReturnsParsedOutputAndCleansUp() throws IOException {
+        // Arrange
+        Path fixture = Files.writeString(tempDir.resolve("fixture.json"), OUTPUT_JSON);
+        useBinary("""
+                while [ "$#" -gt 0 ]; do
+                  if [ "$1" = "-of" ]; then out="$2"; fi
+                  shift
+                done
+                cp "%s" "$out.json"
+                """.formatted(fixture));
+
+        // Act
+        TranscriptionResponse response = engine.transcribe(wav);
+
+        // Assert
+        assertEquals("Patient reports a cough.", response.getTranscript());
+        assertEquals("en", response.getLanguageCode());
+        assertWorkDirEmpty();
+    }
+
+    @Test
+    void transcribe_BinaryFails_ThrowsWithExitCodeAndOutput() throws IOException {
+        // Arrange
+        useBinary("""
+                echo "failed to load model"
+                exit 3
+                """);
+
+        // Act & Assert
+        TranscriptionException e = assertThrows(TranscriptionException.class, () -> engine.transcribe(wav));
+        assertTrue(e.getMessage().contains("exited with 3"));
+        assertTrue(e.getMessage().contains("failed to load model"));
+        assertWorkDirEmpty();
+    }
+
+    @Test
+    void transcribe_BinaryHangs_KillsItAndCleansUp() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(engine, "timeoutSeconds", 1L);
+        useBinary("""
+                exec sleep 30
+                """);
+
+        // Act & Assert
+        long start = System.nanoTime();
+        TranscriptionException e = assertThrows(TranscriptionException.class, () -> engine.transcribe(wav));
+        assertTrue(e.getMessage().contains("exceeded 1 seconds"));
+        assertTrue((System.nanoTime() - start) / 1e9 < 10);
+        assertWorkDirEmpty();
+    }
+
+    private void useBinary(String body) throws IOException {
+        Files.writeString(binary, "#!/bin/sh\n" + body);
+        assertTrue(binary.toFile().setExecutable(true));
+        engine.shutdown();
+        engine.init();
+        assertTrue(engine.isAvailable());
+    }
+
+    private void assertWorkDirEmpty() throws IOException {
+        try (Stream<Path> entries = Files.list(workDir)) {
+            assertEquals(0, entries.count());
+        }
+    }
+}
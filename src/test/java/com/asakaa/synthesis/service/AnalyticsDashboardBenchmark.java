@@ -0,0 +1,86 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.BaseIntegrationTest;
+import com.asakaa.synthesis.domain.dto.response.DashboardSummaryResponse;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.repository.ConsultationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Uncached dashboard latency over 1M consultations (two diagnoses each), compared with
+ * hydrating the consultations table once, which the old per-status {@code findAll()} did
+ * once per status. Pass {@code -Danalytics.benchmark.consultations} to change the size.
+ * Run with {@code ./mvnw test -Dtest=AnalyticsDashboardBenchmark -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AnalyticsDashboardBenchmark extends BaseIntegrationTest {
+
+    private static final long CONSULTATIONS = Long.getLong("analytics.benchmark.consultations", 1_000_000L);
+    private static final int RUNS = 11;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ConsultationRepository consultationRepository;
+
+    @Test
+    void dashboardLatency() {
+        load();
+
+        long[] aggregate = new long[RUNS];
+        DashboardSummaryResponse summary = null;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            summary = analyticsService.computeDashboardSummary();
+            aggregate[i] = System.nanoTime() - start;
+        }
+
+        // One pass of the old approach: hydrate every consultation and filter in Java
+        long start = System.nanoTime();
+        long closed = consultationRepository.findAll().stream()
+                .filter(c -> c.getStatus() == ConsultationStatus.CLOSED)
+                .count();
+        long hydrate = System.nanoTime() - start;
+
+        Arrays.sort(aggregate);
+        System.out.printf("consultations: %,d (closed %,d / %,d)%n", CONSULTATIONS,
+                summary.getConsultationsByStatus().get("CLOSED"), closed);
+        System.out.printf("aggregate queries, median: %,.1f ms%n", aggregate[RUNS / 2] / 1e6);
+        System.out.printf("one findAll() pass:        %,.1f ms (old dashboard ran %d)%n",
+                hydrate / 1e6, ConsultationStatus.values().length);
+    }
+
+    private void load() {
+        jdbcTemplate.update("""
+                INSERT INTO providers (name, role, email, password_hash)
+                VALUES ('Bench Provider', 'Doctor', 'bench-dashboard@example.com', 'x')
+                ON CONFLICT (email) DO NOTHING""");
+        Long providerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM providers WHERE email = 'bench-dashboard@example.com'", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO patients (first_name, last_name, date_of_birth, region)
+                SELECT 'Bench', 'Patient ' || g, DATE '1980-01-01' + g % 15000, 'Region ' || g % 10
+                FROM generate_series(1, 50000) AS g""");
+        jdbcTemplate.update("""
+                INSERT INTO consultations (patient_id, provider_id, status, opened_at)
+                SELECT p.min_id + g % 50000, ?, (ARRAY['OPEN','IN_PROGRESS','CLOSED','ESCALATED'])[1 + g % 4],
+                       now() - (g % 730) * INTERVAL '1 day'
+                FROM generate_series(1, ?) AS g, (SELECT MIN(id) AS min_id FROM patients) p""",
+                providerId, CONSULTATIONS);
+        jdbcTemplate.update("""
+                INSERT INTO diagnoses (consultation_id, condition_name, confidence_score)
+                SELECT c.id, 'Condition ' || (c.id * k) % 200, 0.5 + (c.id % 50) / 100.0
+                FROM consultations c, generate_series(1, 2) AS k""");
+        jdbcTemplate.execute("VACUUM ANALYZE consultations");
+        jdbcTemplate.execute("VACUUM ANALYZE diagnoses");
+    }
+}
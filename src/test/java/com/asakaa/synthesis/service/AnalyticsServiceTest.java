@@ -0,0 +1,224 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.analytics.ColumnarFactEngine;
+import com.asakaa.synthesis.analytics.DiagnosisSketchStore;
+import com.asakaa.synthesis.analytics.FactDimension;
+import com.asakaa.synthesis.domain.dto.request.FactQuery;
+import com.asakaa.synthesis.domain.dto.response.DashboardSummaryResponse;
+import com.asakaa.synthesis.domain.dto.response.FactGroupResponse;
+import com.asakaa.synthesis.domain.dto.response.FactQueryResponse;
+import com.asakaa.synthesis.domain.dto.response.TopConditionsResponse;
+import com.asakaa.synthesis.domain.entity.ConsultationStatus;
+import com.asakaa.synthesis.repository.AnalyticsQueryRepository;
+import com.asakaa.synthesis.repository.ConsultationRepository;
+import com.asakaa.synthesis.repository.DiagnosisRepository;
+import com.asakaa.synthesis.repository.EscalationRepository;
+import com.asakaa.synthesis.repository.PatientRepository;
+import com.asakaa.synthesis.repository.projection.ConditionCount;
+import com.asakaa.synthesis.repository.projection.StatusCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private ConsultationRepository consultationRepository;
+
+    @Mock
+    private DiagnosisRepository diagnosisRepository;
+
+    @Mock
+    private EscalationRepository escalationRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private AnalyticsQueryRepository analyticsQueryRepository;
+
+    @Mock
+    private ColumnarFactEngine columnarFactEngine;
+
+    @Mock
+    private DiagnosisSketchStore diagnosisSketchStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(analyticsService, "dashboardCacheTtlMillis", 60_000L);
+        analyticsService.init();
+    }
+
+    @Test
+    void getDashboardSummary_AggregatesCountsWithoutLoadingEntities() {
+        // Arrange
+        stubDashboardQueries();
+
+        // Act
+        DashboardSummaryResponse summary = analyticsService.getDashboardSummary();
+
+        // Assert
+        assertEquals(12L, summary.getTotalConsultations());
+        assertEquals(0L, summary.getConsultationsByStatus().get("IN_PROGRESS"));
+        assertEquals(9L, summary.getConsultationsByStatus().get("CLOSED"));
+        assertEquals("Malaria", summary.getTopConditions().get(0).getCondition());
+        assertEquals(40L, summary.getTotalPatients());
+        verify(consultationRepository, never()).findAll();
+        verify(diagnosisRepository, never()).findAll();
+    }
+
+    @Test
+    void getDashboardSummary_WithinTtl_ServesCachedResult() {
+        // Arrange
+        stubDashboardQueries();
+
+        // Act
+        DashboardSummaryResponse first = analyticsService.getDashboardSummary();
+        DashboardSummaryResponse second = analyticsService.getDashboardSummary();
+
+        // Assert
+        assertSame(first, second);
+        verify(consultationRepository, times(1)).countByStatus();
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void getDashboardSummary_AfterTtl_Recomputes() {
+        // Arrange
+        ReflectionTestUtils.setField(analyticsService, "dashboardCacheTtlMillis", 0L);
+        stubDashboardQueries();
+
+        // Act
+        analyticsService.getDashboardSummary();
+        analyticsService.getDashboardSummary();
+
+        // Assert
+        verify(consultationRepository, times(2)).countByStatus();
+    }
+
+    @Test
+    void queryFacts_SnapshotLoaded_RoutesToColumnarEngine() {
+        // Arrange
+        FactQuery query = FactQuery.builder().groupBy(List.of(FactDimension.CONDITION)).build();
+        FactQueryResponse columnar = FactQueryResponse.builder().source(ColumnarFactEngine.SOURCE).build();
+        when(columnarFactEngine.isReady()).thenReturn(true);
+        when(columnarFactEngine.query(query)).thenReturn(columnar);
+
+        // Act
+        FactQueryResponse response = analyticsService.queryFacts(query);
+
+        // Assert
+        assertSame(columnar, response);
+        verifyNoInteractions(analyticsQueryRepository);
+    }
+
+    @Test
+    void queryFacts_SnapshotNotLoaded_FallsBackToDatabase() {
+        // Arrange
+        FactQuery query = FactQuery.builder().groupBy(List.of(FactDimension.CONDITION)).build();
+        List<FactGroupResponse> groups = List.of(FactGroupResponse.builder().condition("Malaria").count(3L).build());
+        when(columnarFactEngine.isReady()).thenReturn(false);
+        when(analyticsQueryRepository.groupFacts(query)).thenReturn(groups);
+
+        // Act
+        FactQueryResponse response = analyticsService.queryFacts(query);
+
+        // Assert
+        assertEquals("DATABASE", response.getSource());
+        assertEquals(groups, response.getGroups());
+        verify(columnarFactEngine, never()).query(any());
+    }
+
+    @Test
+    void getTopConditions_Approx_RoutesToSketchesWithDefaultRange() {
+        // Arrange
+        LocalDate from = LocalDate.now().minusMonths(3);
+        when(diagnosisSketchStore.topConditions("Northern", from, LocalDate.now(), 5))
+                .thenReturn(TopConditionsResponse.builder().approximate(true).totalCases(12).build());
+
+        // Act
+        TopConditionsResponse response = analyticsService.getTopConditions("Northern", null, null, 5, true);
+
+        // Assert
+        assertTrue(response.isApproximate());
+        assertEquals(from, response.getFrom());
+        assertEquals("Northern", response.getRegion());
+        verifyNoInteractions(analyticsQueryRepository);
+    }
+
+    @Test
+    void getTopConditions_Exact_ReadsRollup() {
+        // Arrange
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        when(analyticsQueryRepository.findTopConditions(eq(from), any(LocalDate.class), eq(null), eq(10)))
+                .thenReturn(TopConditionsResponse.builder().totalCases(7).confidence(1.0).build());
+
+        // Act
+        TopConditionsResponse response = analyticsService.getTopConditions(null, from, null, 10, false);
+
+        // Assert
+        assertFalse(response.isApproximate());
+        assertEquals(7, response.getTotalCases());
+        verifyNoInteractions(diagnosisSketchStore);
+    }
+
+    private void stubDashboardQueries() {
+        when(consultationRepository.countByStatus()).thenReturn(List.of(
+                statusCount(ConsultationStatus.OPEN, 2), statusCount(ConsultationStatus.CLOSED, 9),
+                statusCount(ConsultationStatus.ESCALATED, 1)));
+        when(diagnosisRepository.findTopConditions(any(Pageable.class))).thenReturn(List.of(
+                conditionCount("Malaria", 7), conditionCount("Typhoid", 3)));
+        when(patientRepository.count()).thenReturn(40L);
+        when(escalationRepository.count()).thenReturn(1L);
+    }
+
+    private static StatusCount statusCount(ConsultationStatus status, long count) {
+        return new StatusCount() {
+            @Override
+            public ConsultationStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private static ConditionCount conditionCount(String condition, long count) {
+        return new ConditionCount() {
+            @Override
+            public String getConditionName() {
+                return condition;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.audit.AuditEvent;
+import com.asakaa.synthesis.audit.AuditEventWriter;
+import com.asakaa.synthesis.audit.PatientDisplayCache;
+import com.asakaa.synthesis.audit.SuspiciousAccessDetector;
+import com.asakaa.synthesis.domain.dto.request.AuditLogFilter;
+import com.asakaa.synthesis.domain.dto.response.AuditLogPageResponse;
+import com.asakaa.synthesis.domain.dto.response.AuditLogResponse;
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import com.asakaa.synthesis.domain.entity.Patient;
+import com.asakaa.synthesis.domain.entity.Provider;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.repository.AuditLogQueryRepository;
+import com.asakaa.synthesis.repository.AuditLogRepository;
+import com.asakaa.synthesis.security.ProviderPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditServiceTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditLogQueryRepository auditLogQueryRepository;
+
+    @Mock
+    private AuditEventWriter auditEventWriter;
+
+    @Mock
+    private SuspiciousAccessDetector suspiciousAccessDetector;
+
+    private PatientDisplayCache patientDisplayCache;
+    private AuditService auditService;
+
+    @BeforeEach
+    void setUp() {
+        patientDisplayCache = new PatientDisplayCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(patientDisplayCache, "maxEntries", 10);
+        patientDisplayCache.init();
+        auditService = new AuditService(auditLogRepository, auditLogQueryRepository, auditEventWriter, patientDisplayCache,
+                suspiciousAccessDetector);
+
+        Provider provider = Provider.builder()
+                .id(4L)
+                .name("Dr. Amina")
+                .email("amina@clinic.org")
+                .passwordHash("hash")
+                .role("DOCTOR")
+                .build();
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"));
+        ProviderPrincipal principal = new ProviderPrincipal(provider, "DOCTOR", authorities);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.2.3");
+        request.addHeader("User-Agent", "synthesis-mobile");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void logAudit_CapturesIdentityAndRequestWithoutReads() {
+        // Arrange
+        patientDisplayCache.put(Patient.builder().id(9L).firstName("Kofi").lastName("Mensah").nationalId("GH-123").build());
+
+        // Act
+        auditService.logAudit(AuditAction.VIEW_PATIENT_PROFILE, 9L, "Patient", 9L, "Viewed patient profile");
+
+        // Assert
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditEventWriter).submit(captor.capture());
+        AuditEvent event = captor.getValue();
+        assertEquals(4L, event.providerId());
+        assertEquals("Dr. Amina", event.providerName());
+        assertEquals("DOCTOR", event.providerRole());
+        assertEquals("Kofi Mensah", event.patientName());
+        assertEquals("GH-123", event.patientNationalId());
+        assertEquals("10.1.2.3", event.ipAddress());
+        assertEquals("synthesis-mobile", event.userAgent());
+        verifyNoInteractions(auditLogRepository, auditLogQueryRepository);
+    }
+
+    @Test
+    void logAudit_OversizedHeaders_TruncatedToColumnWidths() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Forwarded-For", "2001:db8::1".repeat(10) + ", 10.0.0.1");
+        request.addHeader("User-Agent", "x".repeat(2000));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Act
+        auditService.logAudit(AuditAction.VIEW_PATIENT_PROFILE, 9L, "Viewed patient profile");
+
+        // Assert
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditEventWriter).submit(captor.capture());
+        assertEquals(45, captor.getValue().ipAddress().length());
+        assertEquals(500, captor.getValue().userAgent().length());
+    }
+
+    @Test
+    void logAudit_UncachedPatient_LeftForWriterToResolve() {
+        // Act
+        auditService.logAudit(AuditAction.VIEW_PATIENT_PROFILE, 11L, "Viewed patient profile");
+
+        // Assert
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditEventWriter).submit(captor.capture());
+        assertEquals(11L, captor.getValue().patientId());
+        assertNull(captor.getValue().patientName());
+    }
+
+    @Test
+    void searchAuditLogs_FullPage_ReturnsCursorForNextPage() {
+        // Arrange
+        AuditLogFilter filter = AuditLogFilter.builder().providerId(4L).build();
+        LocalDateTime newest = LocalDateTime.of(2026, 10, 19, 9, 30, 0, 123456000);
+        when(auditLogQueryRepository.findPage(filter, null, 3)).thenReturn(List.of(
+                row(30L, newest), row(29L, newest.minusSeconds(1)), row(28L, newest.minusSeconds(2))));
+
+        // Act
+        AuditLogPageResponse first = auditService.searchAuditLogs(filter, null, 2, false);
+        auditService.searchAuditLogs(filter, first.getNextCursor(), 2, false);
+
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertNull(first.getApproximateTotal());
+        verify(auditLogQueryRepository).findPage(filter,
+                new AuditLogQueryRepository.Cursor(newest.minusSeconds(1), 29L), 3);
+    }
+
+    @Test
+    void searchAuditLogs_LastPage_HasNoCursor() {
+        // Arrange
+        AuditLogFilter filter = new AuditLogFilter();
+        when(auditLogQueryRepository.findPage(filter, null, 51)).thenReturn(List.of(row(1L, LocalDateTime.now())));
+        when(auditLogQueryRepository.estimateCount(filter)).thenReturn(1L);
+
+        // Act
+        AuditLogPageResponse page = auditService.searchAuditLogs(filter, null, 50, true);
+
+        // Assert
+        assertNull(page.getNextCursor());
+        assertEquals(1L, page.getApproximateTotal());
+    }
+
+    @Test
+    void searchAuditLogs_TamperedCursor_ThrowsValidationException() {
+        assertThrows(ValidationException.class,
+                () -> auditService.searchAuditLogs(new AuditLogFilter(), "bm90LWEtY3Vyc29y", 50, false));
+    }
+
+    private static AuditLogResponse row(Long id, LocalDateTime timestamp) {
+        return AuditLogResponse.builder().id(id).timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,274 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.audit.AuditEvent;
+import com.asakaa.synthesis.audit.AuditEventWriter;
+import com.asakaa.synthesis.audit.PatientDisplayCache;
+import com.asakaa.synthesis.audit.SuspiciousAccessDetector;
+import com.asakaa.synthesis.domain.dto.request.ConsultationRequest;
+import com.asakaa.synthesis.domain.dto.request.DiagnosticRequest;
+import com.asakaa.synthesis.domain.dto.response.ConsultationPipelineResponse;
+import com.asakaa.synthesis.domain.dto.response.ConsultationResponse;
+import com.asakaa.synthesis.domain.dto.response.DiagnosticResponse;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.domain.entity.AuditAction;
+import com.asakaa.synthesis.domain.entity.Provider;
+import com.asakaa.synthesis.exception.ServiceOverloadedException;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.integration.bedrock.BedrockClient;
+import com.asakaa.synthesis.integration.bedrock.BedrockPromptBuilder;
+import com.asakaa.synthesis.repository.AuditLogQueryRepository;
+import com.asakaa.synthesis.repository.AuditLogRepository;
+import com.asakaa.synthesis.repository.ProviderRepository;
+import com.asakaa.synthesis.util.ResponseParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultationPipelineServiceTest {
+
+    private static final String TRANSCRIPT =
+            "Patient reports three days of fever and cough. Temperature thirty eight point five.";
+
+    @Mock
+    private TranscriptionService transcriptionService;
+
+    @Mock
+    private ConsultationService consultationService;
+
+    @Mock
+    private DiagnosticService diagnosticService;
+
+    @Mock
+    private ProviderRepository providerRepository;
+
+    @Mock
+    private BedrockClient bedrockClient;
+
+    @Mock
+    private Authentication authentication;
+
+    private ConsultationPipelineService pipelineService;
+
+    private final AudioPayload audio = AudioPayload.of(
+            new MockMultipartFile("audio", "visit.wav", "audio/wav", new byte[]{1, 2, 3}));
+    private final List<String> stages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pipelineService = new ConsultationPipelineService(transcriptionService, consultationService,
+                diagnosticService, providerRepository, bedrockClient, new BedrockPromptBuilder(),
+                new ResponseParser(), new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipelineService, "extractionMaxTokens", 256);
+    }
+
+    @Test
+    void run_WithDiagnosis_StreamsEveryStageInOrder() {
+        // Arrange
+        stubTranscriptAndExtraction();
+        when(consultationService.openConsultation(any(), eq(7L), eq(authentication)))
+                .thenReturn(ConsultationResponse.builder().id(42L).build());
+        when(diagnosticService.analyze(any())).thenReturn(DiagnosticResponse.builder().consultationId(42L).build());
+
+        // Act
+        ConsultationPipelineResponse summary = pipelineService.run(audio, 3L, 7L, true, authentication,
+                (name, data) -> stages.add(name));
+
+        // Assert
+        assertEquals(List.of("transcript", "consultation", "diagnosis", "complete"), stages);
+        assertEquals(42L, summary.getConsultationId());
+        assertTrue(summary.isDiagnosed());
+
+        ArgumentCaptor<DiagnosticRequest> diagnostic = ArgumentCaptor.forClass(DiagnosticRequest.class);
+        verify(diagnosticService).analyze(diagnostic.capture());
+        assertEquals(42L, diagnostic.getValue().getConsultationId());
+        verify(bedrockClient).invoke(anyString(), eq(256));
+    }
+
+    @Test
+    void run_WithoutDiagnosis_StopsAfterConsultation() {
+        // Arrange
+        stubTranscriptAndExtraction();
+        when(consultationService.openConsultation(any(), eq(7L), eq(authentication)))
+                .thenReturn(ConsultationResponse.builder().id(42L).build());
+
+        // Act
+        ConsultationPipelineResponse summary = pipelineService.run(audio, 3L, 7L, false, authentication,
+                (name, data) -> stages.add(name));
+
+        // Assert
+        assertEquals(List.of("transcript", "consultation", "complete"), stages);
+        assertNull(summary.getDiagnosisMillis());
+        verifyNoInteractions(diagnosticService);
+    }
+
+    @Test
+    void start_AuditFromWorker_RecordsCallersRequestDetails(@TempDir Path spoolDir) throws Exception {
+        // Arrange
+        AuditEventWriter auditEventWriter = mock(AuditEventWriter.class);
+        PatientDisplayCache patientDisplayCache = new PatientDisplayCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(patientDisplayCache, "maxEntries", 10);
+        patientDisplayCache.init();
+        AuditService auditService = new AuditService(mock(AuditLogRepository.class),
+                mock(AuditLogQueryRepository.class), auditEventWriter, patientDisplayCache,
+                mock(SuspiciousAccessDetector.class));
+        CountDownLatch audited = new CountDownLatch(1);
+        ArgumentCaptor<AuditEvent> event = ArgumentCaptor.forClass(AuditEvent.class);
+        doAnswer(invocation -> {
+            audited.countDown();
+            return null;
+        }).when(auditEventWriter).submit(event.capture());
+
+        ReflectionTestUtils.setField(pipelineService, "workerThreads", 1);
+        ReflectionTestUtils.setField(pipelineService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(pipelineService, "sseTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(pipelineService, "spoolDir", spoolDir.toString());
+        pipelineService.init();
+
+        when(authentication.getName()).thenReturn("amina@clinic.org");
+        when(providerRepository.findByEmail("amina@clinic.org"))
+                .thenReturn(Optional.of(Provider.builder().id(7L).email("amina@clinic.org").build()));
+        when(transcriptionService.transcribe(any())).thenReturn(transcript());
+        when(bedrockClient.invoke(anyString(), anyInt()))
+                .thenReturn("{\"chiefComplaint\": \"Fever and cough\", \"vitals\": null}");
+        when(consultationService.openConsultation(any(), eq(7L), eq(authentication))).thenAnswer(invocation -> {
+            auditService.logAudit(AuditAction.OPEN_CONSULTATION, 3L, "Consultation opened from dictation");
+            return ConsultationResponse.builder().id(42L).build();
+        });
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.2.3");
+        request.addHeader("User-Agent", "synthesis-mobile");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_DOCTOR"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("amina@clinic.org", null, authorities));
+
+        try {
+            // Act
+            pipelineService.start(new MockMultipartFile("audio", "visit.wav", "audio/wav", new byte[]{1, 2, 3}),
+                    3L, false, authentication);
+
+            // Assert
+            assertTrue(audited.await(5, TimeUnit.SECONDS));
+            assertEquals("10.1.2.3", event.getValue().ipAddress());
+            assertEquals("synthesis-mobile", event.getValue().userAgent());
+        } finally {
+            pipelineService.shutdown();
+            RequestContextHolder.resetRequestAttributes();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void start_PoolFull_RejectsAsRetryableOverload(@TempDir Path spoolDir) throws Exception {
+        // Arrange: one worker blocked on transcription and one queued request fill the pool
+        ReflectionTestUtils.setField(pipelineService, "workerThreads", 1);
+        ReflectionTestUtils.setField(pipelineService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(pipelineService, "sseTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(pipelineService, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(pipelineService, "retryAfterSeconds", 5L);
+        pipelineService.init();
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(authentication.getName()).thenReturn("amina@clinic.org");
+        when(providerRepository.findByEmail("amina@clinic.org"))
+                .thenReturn(Optional.of(Provider.builder().id(7L).email("amina@clinic.org").build()));
+        when(transcriptionService.transcribe(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new ValidationException("stopped by test");
+        });
+
+        try {
+            pipelineService.start(dictation(), 3L, false, authentication);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            pipelineService.start(dictation(), 3L, false, authentication);
+
+            // Act & Assert
+            ServiceOverloadedException e = assertThrows(ServiceOverloadedException.class,
+                    () -> pipelineService.start(dictation(), 3L, false, authentication));
+            assertEquals(5L, e.getRetryAfterSeconds());
+            try (Stream<Path> spooled = Files.list(spoolDir)) {
+                assertEquals(2, spooled.count());
+            }
+        } finally {
+            release.countDown();
+            pipelineService.shutdown();
+        }
+    }
+
+    @Test
+    void extractConsultation_KeepsTranscriptAsNotes() {
+        // Arrange
+        when(bedrockClient.invoke(anyString(), anyInt())).thenReturn("""
+                ```json
+                {"chiefComplaint": "Fever and cough for 3 days", "vitals": {"temperature": "38.5 C"}}
+                ```""");
+
+        // Act
+        ConsultationRequest request = pipelineService.extractConsultation(3L, TRANSCRIPT);
+
+        // Assert
+        assertEquals(3L, request.getPatientId());
+        assertEquals("Fever and cough for 3 days", request.getChiefComplaint());
+        assertEquals("{\"temperature\":\"38.5 C\"}", request.getVitals());
+        assertEquals(TRANSCRIPT, request.getNotes());
+    }
+
+    @Test
+    void run_WhenNoChiefComplaintFound_DoesNotOpenConsultation() {
+        // Arrange
+        when(transcriptionService.transcribe(audio)).thenReturn(transcript());
+        when(bedrockClient.invoke(anyString(), anyInt())).thenReturn("{\"chiefComplaint\": \"\", \"vitals\": null}");
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> pipelineService.run(audio, 3L, 7L, true, authentication,
+                (name, data) -> stages.add(name)));
+        assertEquals(List.of("transcript"), stages);
+        verifyNoInteractions(consultationService, diagnosticService);
+    }
+
+    private static MockMultipartFile dictation() {
+        return new MockMultipartFile("audio", "visit.wav", "audio/wav", new byte[]{1, 2, 3});
+    }
+
+    private void stubTranscriptAndExtraction() {
+        when(transcriptionService.transcribe(audio)).thenReturn(transcript());
+        when(bedrockClient.invoke(anyString(), anyInt()))
+                .thenReturn("{\"chiefComplaint\": \"Fever and cough\", \"vitals\": null}");
+    }
+
+    private static TranscriptionResponse transcript() {
+        return TranscriptionResponse.builder().transcript(TRANSCRIPT).confidence(0.93).languageCode("en-US").build();
+    }
+}
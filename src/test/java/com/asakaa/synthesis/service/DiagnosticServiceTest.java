@@ -1,5 +1,6 @@
 package com.asakaa.synthesis.service;
 
+import com.asakaa.synthesis.analytics.DiagnosisRecordedEvent;
 import com.asakaa.synthesis.domain.dto.request.DiagnosticRequest;
 import com.asakaa.synthesis.domain.dto.response.DiagnosticResponse;
 import com.asakaa.synthesis.domain.dto.response.DifferentialDto;
@@ -21,6 +22,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -51,6 +53,9 @@ class DiagnosticServiceTest {
     @Mock
     private ResponseParser responseParser;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DiagnosticService diagnosticService;
 
@@ -122,6 +127,7 @@ class DiagnosticServiceTest {
         assertEquals(2, response.getDifferentials().size());
         assertEquals(1L, response.getConsultationId());
         verify(consultationRepository).save(any(Consultation.class));
+        verify(eventPublisher, times(2)).publishEvent(any(DiagnosisRecordedEvent.class));
     }
 
     @Test
@@ -0,0 +1,233 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.domain.dto.request.UploadSessionRequest;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
+import com.asakaa.synthesis.domain.dto.response.UploadSessionResponse;
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import com.asakaa.synthesis.domain.entity.UploadSession;
+import com.asakaa.synthesis.domain.entity.UploadSessionStatus;
+import com.asakaa.synthesis.exception.ResourceNotFoundException;
+import com.asakaa.synthesis.exception.UploadConflictException;
+import com.asakaa.synthesis.exception.ValidationException;
+import com.asakaa.synthesis.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceTest {
+
+    private static final String PROVIDER = "dr.smith@example.com";
+
+    @TempDir
+    Path spoolDir;
+
+    @Mock
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Mock
+    private TranscriptionService transcriptionService;
+
+    @InjectMocks
+    private ResumableUploadService resumableUploadService;
+
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resumableUploadService, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(resumableUploadService, "maxUploadBytes", 1024L);
+        ReflectionTestUtils.setField(resumableUploadService, "expiryHours", 24L);
+
+        when(uploadSessionRepository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            session = invocation.getArgument(0);
+            return session;
+        });
+    }
+
+    @Test
+    void appendChunk_AcrossInterruptedConnection_ResumesFromAcknowledgedOffset() throws Exception {
+        // Arrange
+        String uploadId = open(10);
+        when(transcriptionService.submit(any(AudioPayload.class), eq(PROVIDER)))
+                .thenReturn(TranscriptionJobResponse.builder().id(7L).status(TranscriptionStatus.PENDING).build());
+
+        // Act: the first request drops after four bytes
+        UploadSessionResponse afterDrop = resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 0, droppingStream("0123".getBytes()));
+        UploadSessionResponse completed = resumableUploadService.appendChunk(
+                uploadId, PROVIDER, afterDrop.getOffset(), new ByteArrayInputStream("456789".getBytes()));
+
+        // Assert
+        assertEquals(4, afterDrop.getOffset());
+        assertEquals(10, completed.getOffset());
+        assertEquals(UploadSessionStatus.COMPLETED, completed.getStatus());
+        assertEquals(7L, completed.getTranscriptionJobId());
+
+        ArgumentCaptor<AudioPayload> submitted = ArgumentCaptor.forClass(AudioPayload.class);
+        verify(transcriptionService).submit(submitted.capture(), eq(PROVIDER));
+        assertEquals("audio/wav", submitted.getValue().getContentType());
+        assertFalse(Files.exists(Path.of(session.getSpoolPath())));
+    }
+
+    @Test
+    void appendChunk_WithStaleOffset_ThrowsConflict() {
+        // Arrange
+        String uploadId = open(10);
+        resumableUploadService.appendChunk(uploadId, PROVIDER, 0, new ByteArrayInputStream("0123".getBytes()));
+
+        // Act & Assert
+        assertThrows(UploadConflictException.class, () -> resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 0, new ByteArrayInputStream("0123".getBytes())));
+        verifyNoInteractions(transcriptionService);
+    }
+
+    @Test
+    void appendChunk_PastDeclaredLength_RejectsChunk() throws Exception {
+        // Arrange
+        String uploadId = open(4);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 0, new ByteArrayInputStream("012345".getBytes())));
+        assertEquals(0, Files.size(Path.of(session.getSpoolPath())));
+    }
+
+    @Test
+    void appendChunk_UnknownUploadOrCompletedRetry_LeavesNoWriteLock() {
+        // Arrange
+        String uploadId = open(4);
+        when(transcriptionService.submit(any(AudioPayload.class), eq(PROVIDER)))
+                .thenReturn(TranscriptionJobResponse.builder().id(7L).status(TranscriptionStatus.PENDING).build());
+        resumableUploadService.appendChunk(uploadId, PROVIDER, 0, new ByteArrayInputStream("0123".getBytes()));
+
+        // Act
+        assertThrows(ResourceNotFoundException.class, () -> resumableUploadService.appendChunk(
+                "unknown", PROVIDER, 0, new ByteArrayInputStream(new byte[0])));
+        UploadSessionResponse retried = resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 4, new ByteArrayInputStream(new byte[0]));
+
+        // Assert
+        assertEquals(UploadSessionStatus.COMPLETED, retried.getStatus());
+        assertTrue(writeLocks().isEmpty());
+    }
+
+    @Test
+    void expireStaleUploads_WhileChunkIsBeingWritten_LeavesUploadOpen() throws Exception {
+        // Arrange
+        String uploadId = open(10);
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(uploadSessionRepository.findByStatusAndExpiresAtBefore(eq(UploadSessionStatus.OPEN), any()))
+                .thenReturn(List.of(session));
+        InputStream racingExpiry = new InputStream() {
+            private final InputStream delivered = new ByteArrayInputStream("0123".getBytes());
+            private boolean expired;
+
+            @Override
+            public int read() throws IOException {
+                if (!expired) {
+                    expired = true;
+                    Thread expiry = new Thread(resumableUploadService::expireStaleUploads);
+                    expiry.start();
+                    try {
+                        expiry.join();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return delivered.read();
+            }
+        };
+
+        // Act
+        UploadSessionResponse response = resumableUploadService.appendChunk(uploadId, PROVIDER, 0, racingExpiry);
+
+        // Assert
+        assertEquals(UploadSessionStatus.OPEN, response.getStatus());
+        assertEquals(4, response.getOffset());
+        assertEquals(4, Files.size(Path.of(session.getSpoolPath())));
+    }
+
+    @Test
+    void expireStaleUploads_IdleUpload_ExpiresItAndDeletesSpoolFile() {
+        // Arrange
+        String uploadId = open(10);
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(uploadSessionRepository.findByStatusAndExpiresAtBefore(eq(UploadSessionStatus.OPEN), any()))
+                .thenReturn(List.of(session));
+
+        // Act
+        resumableUploadService.expireStaleUploads();
+
+        // Assert
+        assertEquals(UploadSessionStatus.EXPIRED, session.getStatus());
+        assertFalse(Files.exists(Path.of(session.getSpoolPath())));
+        assertTrue(writeLocks().isEmpty());
+        assertThrows(ValidationException.class, () -> resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 0, new ByteArrayInputStream("0123".getBytes())));
+    }
+
+    @Test
+    void appendChunk_SessionChangedConcurrently_ThrowsConflict() {
+        // Arrange
+        String uploadId = open(10);
+        doThrow(new ObjectOptimisticLockingFailureException(UploadSession.class, 1L))
+                .when(uploadSessionRepository).save(any(UploadSession.class));
+
+        // Act & Assert
+        assertThrows(UploadConflictException.class, () -> resumableUploadService.appendChunk(
+                uploadId, PROVIDER, 0, new ByteArrayInputStream("0123".getBytes())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> writeLocks() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(resumableUploadService, "writeLocks");
+    }
+
+    private String open(long length) {
+        UploadSessionResponse created = resumableUploadService.create(UploadSessionRequest.builder()
+                .contentType("audio/wav")
+                .fileName("visit.wav")
+                .length(length)
+                .build(), PROVIDER);
+        lenient().when(uploadSessionRepository.findByUploadId(created.getUploadId()))
+                .thenAnswer(invocation -> Optional.of(session));
+        return created.getUploadId();
+    }
+
+    private static InputStream droppingStream(byte[] delivered) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position < delivered.length) {
+                    return delivered[position++];
+                }
+                throw new IOException("Connection reset");
+            }
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package com.asakaa.synthesis.service;
+
+import com.asakaa.synthesis.domain.dto.response.TranscriptionJobResponse;
+import com.asakaa.synthesis.domain.dto.response.TranscriptionResponse;
+import com.asakaa.synthesis.domain.entity.Transcription;
+import com.asakaa.synthesis.domain.entity.TranscriptionStatus;
+import com.asakaa.synthesis.exception.ResourceNotFoundException;
+import com.asakaa.synthesis.integration.transcribe.AwsTranscribeEngine;
+import com.asakaa.synthesis.integration.transcribe.SpeechToTextRouter;
+import com.asakaa.synthesis.repository.TranscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.transcribe.TranscribeClient;
+import software.amazon.awssdk.services.transcribe.model.ListTranscriptionJobsRequest;
+import software.amazon.awssdk.services.transcribe.model.ListTranscriptionJobsResponse;
+import software.amazon.awssdk.services.transcribe.model.TranscriptionJobStatus;
+import software.amazon.awssdk.services.transcribe.model.TranscriptionJobSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TranscriptionServiceTest {
+
+    @Mock
+    private TranscribeClient transcribeClient;
+
+    @Mock
+    private AwsTranscribeEngine awsTranscribeEngine;
+
+    @Mock
+    private SpeechToTextRouter speechToTextRouter;
+
+    @Mock
+    private TranscriptionRepository transcriptionRepository;
+
+    @Mock
+    private TranscriptionEventPublisher transcriptionEventPublisher;
+
+    @Mock
+    private TranscriptCacheService transcriptCacheService;
+
+    @InjectMocks
+    private TranscriptionService transcriptionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transcriptionService, "initialBackoffMillis", 2000L);
+        ReflectionTestUtils.setField(transcriptionService, "maxBackoffMillis", 30000L);
+        ReflectionTestUtils.setField(transcriptionService, "maxWaitMinutes", 30L);
+    }
+
+    @Test
+    void pollPendingJobs_WithNoDueJobs_DoesNotCallTranscribe() {
+        // Arrange
+        when(transcriptionRepository.findByStatusAndNextPollAtLessThanEqual(eq(TranscriptionStatus.PENDING), any()))
+                .thenReturn(List.of());
+
+        // Act
+        transcriptionService.pollPendingJobs();
+
+        // Assert
+        verifyNoInteractions(transcribeClient);
+    }
+
+    @Test
+    void pollPendingJobs_WhenJobStillRunning_BacksOff() {
+        // Arrange
+        Transcription pending = pendingJob("synthesis-running", LocalDateTime.now().minusSeconds(10));
+        when(transcriptionRepository.findByStatusAndNextPollAtLessThanEqual(eq(TranscriptionStatus.PENDING), any()))
+                .thenReturn(List.of(pending));
+        stubListedJobs(List.of());
+
+        // Act
+        transcriptionService.pollPendingJobs();
+
+        // Assert
+        assertEquals(TranscriptionStatus.PENDING, pending.getStatus());
+        assertEquals(1, pending.getPollAttempts());
+        assertTrue(pending.getNextPollAt().isAfter(LocalDateTime.now().plusSeconds(3)));
+        verify(transcriptionRepository).save(pending);
+        verify(transcriptionEventPublisher, never()).publish(any());
+    }
+
+    @Test
+    void pollPendingJobs_WhenJobFailed_MarksFailedAndNotifiesSubscribers() {
+        // Arrange
+        Transcription pending = pendingJob("synthesis-failed", LocalDateTime.now().minusSeconds(10));
+        when(transcriptionRepository.findByStatusAndNextPollAtLessThanEqual(eq(TranscriptionStatus.PENDING), any()))
+                .thenReturn(List.of(pending));
+        when(transcriptionRepository.save(any(Transcription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stubListedJobs(List.of(TranscriptionJobSummary.builder()
+                .transcriptionJobName("synthesis-failed")
+                .transcriptionJobStatus(TranscriptionJobStatus.FAILED)
+                .failureReason("Unsupported sample rate")
+                .creationTime(Instant.now())
+                .build()));
+
+        // Act
+        transcriptionService.pollPendingJobs();
+
+        // Assert
+        assertEquals(TranscriptionStatus.FAILED, pending.getStatus());
+        assertTrue(pending.getFailureReason().contains("Unsupported sample rate"));
+        verify(awsTranscribeEngine).cleanupS3(anyString());
+
+        ArgumentCaptor<TranscriptionJobResponse> published = ArgumentCaptor.forClass(TranscriptionJobResponse.class);
+        verify(transcriptionEventPublisher).publish(published.capture());
+        assertEquals(TranscriptionStatus.FAILED, published.getValue().getStatus());
+    }
+
+    @Test
+    void pollPendingJobs_WhenJobExceedsMaxWait_MarksFailed() {
+        // Arrange
+        Transcription pending = pendingJob("synthesis-stuck", LocalDateTime.now().minusMinutes(31));
+        when(transcriptionRepository.findByStatusAndNextPollAtLessThanEqual(eq(TranscriptionStatus.PENDING), any()))
+                .thenReturn(List.of(pending));
+        when(transcriptionRepository.save(any(Transcription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stubListedJobs(List.of());
+
+        // Act
+        transcriptionService.pollPendingJobs();
+
+        // Assert
+        assertEquals(TranscriptionStatus.FAILED, pending.getStatus());
+        assertTrue(pending.getFailureReason().contains("timed out"));
+    }
+
+    @Test
+    void submit_WhenAudioAlreadyTranscribed_ReturnsCachedTranscriptWithoutStartingJob() {
+        // Arrange
+        MockMultipartFile audio = new MockMultipartFile(
+                "audio", "visit.wav", "audio/wav", "abc".getBytes(StandardCharsets.UTF_8));
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        stubUpload(hash);
+        when(transcriptCacheService.lookup(hash, "en-US")).thenReturn(Optional.of(TranscriptionResponse.builder()
+                .transcript("Patient reports chest pain.")
+                .confidence(0.97)
+                .languageCode("en-US")
+                .build()));
+        when(transcriptionRepository.save(any(Transcription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        TranscriptionJobResponse response = transcriptionService.submit(audio, "dr.smith@example.com");
+
+        // Assert
+        assertEquals(TranscriptionStatus.COMPLETED, response.getStatus());
+        assertEquals("Patient reports chest pain.", response.getTranscript());
+        verify(awsTranscribeEngine, never()).startTranscriptionJob(anyString(), anyString(), anyString());
+        verify(awsTranscribeEngine).cleanupS3(anyString());
+    }
+
+    @Test
+    void submit_WhenAudioNotCached_StartsJobAndRecordsHash() {
+        // Arrange
+        MockMultipartFile audio = new MockMultipartFile(
+                "audio", "visit.wav", "audio/wav", "abc".getBytes(StandardCharsets.UTF_8));
+        stubUpload("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+        when(transcriptCacheService.lookup(anyString(), eq("en-US"))).thenReturn(Optional.empty());
+        when(transcriptionRepository.save(any(Transcription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        TranscriptionJobResponse response = transcriptionService.submit(audio, "dr.smith@example.com");
+
+        // Assert
+        assertEquals(TranscriptionStatus.PENDING, response.getStatus());
+        verify(awsTranscribeEngine).startTranscriptionJob(anyString(), anyString(), eq("audio/wav"));
+        ArgumentCaptor<Transcription> saved = ArgumentCaptor.forClass(Transcription.class);
+        verify(transcriptionRepository).save(saved.capture());
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                saved.getValue().getContentHash());
+    }
+
+    @Test
+    void getJob_RequestedByAnotherProvider_ThrowsResourceNotFoundException() {
+        // Arrange
+        Transcription job = pendingJob("synthesis-other", LocalDateTime.now());
+        when(transcriptionRepository.findById(1L)).thenReturn(Optional.of(job));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> transcriptionService.getJob(1L, "someone.else@example.com"));
+    }
+
+    private void stubUpload(String sha256) {
+        when(awsTranscribeEngine.newAudioKey(any(AudioPayload.class))).thenReturn("transcribe-test.wav");
+        when(awsTranscribeEngine.newJobName()).thenReturn("synthesis-test");
+        when(awsTranscribeEngine.uploadToS3(any(AudioPayload.class), eq("transcribe-test.wav"))).thenReturn(sha256);
+    }
+
+    private void stubListedJobs(List<TranscriptionJobSummary> summaries) {
+        when(transcribeClient.listTranscriptionJobs(any(ListTranscriptionJobsRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListTranscriptionJobsRequest request = invocation.getArgument(0);
+                    return ListTranscriptionJobsResponse.builder()
+                            .transcriptionJobSummaries(summaries.stream()
+                                    .filter(summary -> summary.transcriptionJobStatus() == request.status())
+                                    .toList())
+                            .build();
+                });
+    }
+
+    private Transcription pendingJob(String jobName, LocalDateTime submittedAt) {
+        return Transcription.builder()
+                .jobName(jobName)
+                .s3Key("transcribe-" + jobName + ".wav")
+                .languageCode("en-US")
+                .status(TranscriptionStatus.PENDING)
+                .requestedBy("doctor@example.com")
+                .pollAttempts(0)
+                .nextPollAt(submittedAt.plusSeconds(2))
+                .submittedAt(submittedAt)
+                .build();
+    }
+}